@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * The BenchDatabase class creates in-memory H2 databases in MySQL mode with the CloudPilot schema,
+ * so the benchmarks can run the application's repositories without a MySQL server.
+ */
+public final class BenchDatabase {
+
+    private BenchDatabase() {
+    }
+
+    /**
+     * Returns the JDBC URL of a named in-memory database. The database lives until the JVM exits.
+     */
+    public static String url(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * Opens a connection to a fresh in-memory database and creates the schema in it.
+     */
+    public static Connection create(String name) throws SQLException {
+        Connection connection = DriverManager.getConnection(url(name), "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : readSchema().split(";")) {
+                if (!sql.isBlank()) {
+                    statement.execute(sql);
+                }
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Inserts {@code count} boardings, filling one flight after another. Every other boarding also gets a services row.
+     */
+    public static void seedBoardings(Connection connection, int count) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        Timestamp departure = Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 8, 0));
+        Timestamp arrival = Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 11, 0));
+        try (PreparedStatement boarding = connection.prepareStatement(
+                "INSERT INTO boarding (Boarding_id, B_Passenger_ID, B_Flight_Number, Seat_Number, B_Departure, B_Arrival) VALUES (?, ?, ?, ?, ?, ?)");
+                PreparedStatement services = connection.prepareStatement(
+                        "INSERT INTO services (Boarding_ID, Extra_Drink, Extra_Meal, Suit_Center, Extra_Luggage, Service_Description) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= count; id++) {
+                boarding.setInt(1, id);
+                boarding.setInt(2, 100000 + id);
+                // Twelve seats (1A to 3D) per flight, as on the check-in screen
+                int seat = (id - 1) % 12;
+                boarding.setString(3, "CP" + (id - 1) / 12);
+                boarding.setString(4, (1 + seat % 3) + String.valueOf((char) ('A' + seat / 3)));
+                boarding.setTimestamp(5, departure);
+                boarding.setTimestamp(6, arrival);
+                boarding.addBatch();
+                if (id % 2 == 0) {
+                    services.setInt(1, id);
+                    services.setBoolean(2, id % 4 == 0);
+                    services.setBoolean(3, true);
+                    services.setBoolean(4, false);
+                    services.setInt(5, 1);
+                    services.setString(6, "Seeded service " + id);
+                    services.addBatch();
+                }
+                if (id % 1000 == 0) {
+                    boarding.executeBatch();
+                    services.executeBatch();
+                }
+            }
+            boarding.executeBatch();
+            services.executeBatch();
+            try (Statement statement = connection.createStatement()) {
+                // Boarding IDs handed out from now on continue after the seeded ones
+                statement.executeUpdate("UPDATE id_block SET next_value = " + (count + 1) + " WHERE name = 'boarding'");
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static String readSchema() throws SQLException {
+        try (InputStream in = BenchDatabase.class.getResourceAsStream("schema.sql")) {
+            if (in == null) {
+                throw new SQLException("schema.sql is not on the classpath");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Could not read schema.sql", e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * Times scans over a BoardingColumnStore and checks that they allocate nothing.
+ * First the store is loaded from the seeded database and compared, row by row, with the boardings the
+ * customer screen loads, together with one scan over those Boarding objects for contrast. Then a store of
+ * millions of random rows is scanned with typical questions: how many passengers of a flight booked a meal,
+ * how many boardings booked each service, which flights sell the suit center, how much luggage a
+ * passenger checked. Every answer is checked against a plain loop over the rows. Run it with the number
+ * of rows of the large store as the optional argument (default 5000000).
+ */
+public class ColumnStoreBenchmark {
+
+    private static final int SEEDED_BOARDINGS = 100000;
+    private static final int FLIGHTS = 2000;
+    private static final int RUNS = 25;
+
+    public static void main(String[] args) throws SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+
+        try (Connection connection = BenchDatabase.create("column-store")) {
+            BenchDatabase.seedBoardings(connection, SEEDED_BOARDINGS);
+            BoardingRepository repository = new BoardingRepository(connection);
+            long start = System.nanoTime();
+            BoardingColumnStore loaded = repository.loadColumnStore();
+            System.out.printf("loaded %d boardings into the column store in %.1f ms%n", loaded.size(), (System.nanoTime() - start) / 1e6);
+            List<Boarding> boardings = repository.findAllWithServices();
+            verifySame(loaded, boardings);
+
+            BoardingColumnStore.Selection selection = loaded.newSelection();
+            time("objects: meals on CP42", () -> (int) boardings.stream()
+                    .filter(boarding -> "CP42".equals(boarding.getFlightNumber()) && boarding.isExtraMeal()).count());
+            time("columns: meals on CP42", () -> loaded.count(loaded.keepService(
+                    loaded.keepFlight(loaded.selectAll(selection), "CP42"), BoardingColumnStore.Service.EXTRA_MEAL)));
+        }
+
+        BoardingColumnStore store = generate(rows, new Random(42));
+        System.out.printf("%n%d random boardings, %.1f MB of columns%n", store.size(), store.estimatedBytes() / 1e6);
+        BoardingColumnStore.Selection selection = store.newSelection();
+        int[] counts = new int[store.flightCount()];
+
+        int meals = time("meals on one flight", () -> store.count(store.keepService(
+                store.keepFlight(store.selectAll(selection), "CP7"), BoardingColumnStore.Service.EXTRA_MEAL)));
+        check("meals on one flight", meals, naiveCount(store, "CP7", -1, BoardingColumnStore.Service.EXTRA_MEAL));
+
+        int drinks = time("drinks without a meal", () -> store.count(store.dropService(store.keepService(
+                store.selectAll(selection), BoardingColumnStore.Service.EXTRA_DRINK), BoardingColumnStore.Service.EXTRA_MEAL)));
+        int expectedDrinks = 0;
+        for (int row = 0; row < store.size(); row++) {
+            if (store.hasService(row, BoardingColumnStore.Service.EXTRA_DRINK) && !store.hasService(row, BoardingColumnStore.Service.EXTRA_MEAL)) {
+                expectedDrinks++;
+            }
+        }
+        check("drinks without a meal", drinks, expectedDrinks);
+
+        for (BoardingColumnStore.Service service : BoardingColumnStore.Service.values()) {
+            int booked = time("uptake of " + service, () -> store.countService(store.selectAll(selection), service));
+            check("uptake of " + service, booked, naiveCount(store, null, -1, service));
+        }
+
+        time("suit center per flight", () -> {
+            Arrays.fill(counts, 0);
+            store.countByFlight(store.keepService(store.selectAll(selection), BoardingColumnStore.Service.SUIT_CENTER), counts);
+            return counts[0];
+        });
+        for (int code = 0; code < counts.length; code += counts.length / 10) {
+            String flight = store.flightNumber(code);
+            check("suit center on " + flight, counts[code], naiveCount(store, flight, -1, BoardingColumnStore.Service.SUIT_CENTER));
+        }
+
+        int luggageRow = store.size() / 2;
+        while (store.extraLuggage(luggageRow) == 0) {
+            luggageRow++;
+        }
+        int passengerId = store.passengerId(luggageRow);
+        long luggage = time("luggage of a passenger", () -> (int) store.sumExtraLuggage(store.keepPassenger(store.selectAll(selection), passengerId)));
+        long expectedLuggage = 0;
+        for (int row = 0; row < store.size(); row++) {
+            if (store.passengerId(row) == passengerId) {
+                expectedLuggage += store.extraLuggage(row);
+            }
+        }
+        check("luggage of a passenger", luggage, expectedLuggage);
+    }
+
+    /**
+     * Returns a store of random boardings over a fixed set of flights, with services on about half of them.
+     */
+    private static BoardingColumnStore generate(int rows, Random random) {
+        BoardingColumnStore store = new BoardingColumnStore();
+        String[] flights = new String[FLIGHTS];
+        for (int i = 0; i < FLIGHTS; i++) {
+            flights[i] = "CP" + i;
+        }
+        String[] seats = new String[180];
+        for (int i = 0; i < seats.length; i++) {
+            seats[i] = (i / 6 + 1) + String.valueOf((char) ('A' + i % 6));
+        }
+        for (int id = 1; id <= rows; id++) {
+            boolean services = random.nextBoolean();
+            store.add(id, 100000 + random.nextInt(rows / 3 + 1), flights[random.nextInt(FLIGHTS)], seats[random.nextInt(seats.length)],
+                    services && random.nextInt(3) == 0, services && random.nextBoolean(), services && random.nextInt(10) == 0,
+                    services ? 1 + random.nextInt(2) : 0);
+        }
+        store.trimToSize();
+        return store;
+    }
+
+    /**
+     * Runs the scan a number of times and prints the median time and the bytes allocated per run.
+     */
+    private static int time(String name, IntSupplier scan) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        int result = 0;
+        // Warm up so the scan is compiled before it is timed
+        for (int i = 0; i < RUNS; i++) {
+            result = scan.getAsInt();
+        }
+        long[] nanos = new long[RUNS];
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            result = scan.getAsInt();
+            nanos[i] = System.nanoTime() - start;
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        Arrays.sort(nanos);
+        System.out.printf("%-28s median %8.3f ms  allocated %6d bytes/run  result %d%n",
+                name, nanos[RUNS / 2] / 1e6, allocated / RUNS, result);
+        return result;
+    }
+
+    private static int naiveCount(BoardingColumnStore store, String flight, int passengerId, BoardingColumnStore.Service service) {
+        int count = 0;
+        for (int row = 0; row < store.size(); row++) {
+            if ((flight == null || flight.equals(store.flightNumber(store.flightCode(row))))
+                    && (passengerId < 0 || store.passengerId(row) == passengerId)
+                    && store.hasService(row, service)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void check(String name, long actual, long expected) {
+        if (actual != expected) {
+            throw new IllegalStateException(name + ": scan says " + actual + ", the rows say " + expected);
+        }
+    }
+
+    private static void verifySame(BoardingColumnStore store, List<Boarding> boardings) {
+        List<Boarding> sorted = boardings.stream().sorted((a, b) -> Integer.compare(a.getBoardingID(), b.getBoardingID())).toList();
+        if (store.size() != sorted.size()) {
+            throw new IllegalStateException("The store has " + store.size() + " rows, the table " + sorted.size());
+        }
+        for (int row = 0; row < store.size(); row++) {
+            Boarding boarding = sorted.get(row);
+            if (store.boardingId(row) != boarding.getBoardingID()
+                    || store.passengerId(row) != boarding.getPassengerID()
+                    || !boarding.getFlightNumber().equals(store.flightNumber(store.flightCode(row)))
+                    || !boarding.getSeatNumber().equals(store.seatNumber(row))
+                    || store.hasService(row, BoardingColumnStore.Service.EXTRA_DRINK) != boarding.isExtraDrink()
+                    || store.hasService(row, BoardingColumnStore.Service.EXTRA_MEAL) != boarding.isExtraMeal()
+                    || store.hasService(row, BoardingColumnStore.Service.SUIT_CENTER) != boarding.isSuitCenter()
+                    || store.extraLuggage(row) != boarding.getExtraLuggage()) {
+                throw new IllegalStateException("Row " + row + " differs from boarding " + boarding.getBoardingID());
+            }
+        }
+    }
+}
@@ -0,0 +1,457 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates a synthetic airline dataset for scale testing and streams it into the database configured
+ * with the {@code cloudpilot.db.*} system properties, with batched inserts, or into CSV files.
+ *
+ * At scale 1 there are 50 employees, 10,000 flights, 100,000 passengers and about 200,000 boardings, two
+ * in five of them with services; every count grows linearly with the scale, which may be a fraction.
+ * Routes are skewed: a few hub airports see most departures and arrivals. Flights share 200 gates, each
+ * reused every 75 minutes, and never overlap at a gate with the default 40 and 20 minute buffers of
+ * {@link GateScheduleIndex}. Every boarding references a generated passenger and flight, carries the
+ * flight's times and a seat of its 180-seat cabin, and no seat or passenger appears twice on a flight.
+ *
+ * Every row is derived from the seed and its own index only, so the same seed and scale always give
+ * the same data, however many threads generate it. The tables are generated in parallel; in the
+ * database, the boardings are also split over several connections. With MySQL, add
+ * {@code rewriteBatchedStatements=true} to the JDBC URL so batches are sent as multi-row inserts.
+ * The CSV files have the database column names as headers, so the flights and passengers can be read
+ * back with the import buttons of the flights and customer screens.
+ *
+ * Run it with the scale, {@code db} or the directory for the CSV files, and the seed as the optional
+ * arguments (default 1, db and 42).
+ */
+public class DatasetGenerator {
+
+    private static final int EMPLOYEES = 50;
+    private static final int FLIGHTS = 10_000;
+    private static final int PASSENGERS = 100_000;
+    private static final int MEAN_BOARDINGS_PER_FLIGHT = 20;
+    private static final int SEAT_LETTERS = 6;
+    private static final int SEAT_ROWS = 30;
+    private static final int GATES = 200;
+    private static final int GATE_SLOT_MINUTES = 75;
+    private static final int BATCH_ROWS = 1000;
+    private static final int COMMIT_ROWS = 20_000;
+    private static final LocalDateTime FIRST_SLOT = LocalDate.of(2025, 1, 1).atTime(5, 0);
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] AIRPORTS = {"Istanbul", "London", "Frankfurt", "Amsterdam", "Paris", "Dubai", "Ankara",
+            "Madrid", "Munich", "Rome", "Antalya", "Izmir", "Zurich", "Vienna", "Doha", "Barcelona", "Athens", "Berlin",
+            "Brussels", "Copenhagen", "Dublin", "Lisbon", "Milan", "Oslo", "Stockholm", "Helsinki", "Warsaw", "Prague",
+            "Budapest", "Bucharest", "Sofia", "Belgrade", "Cairo", "Tunis", "Casablanca", "Baku", "Tbilisi", "Tehran",
+            "Riyadh", "Jeddah", "Kuwait", "Beirut", "Amman", "Tel Aviv", "Larnaca", "Trabzon", "Adana", "Kayseri",
+            "Erzurum", "Van", "Diyarbakir", "Gaziantep", "Samsun", "Bodrum", "Dalaman", "Nice", "Geneva", "Hamburg",
+            "Stuttgart", "Manchester"};
+    private static final String[] CARRIERS = {"TK", "PC", "LH", "BA", "AF", "KL", "XQ", "CP"};
+    private static final String[] FIRST_NAMES = {"Ayse", "Mehmet", "Fatma", "Ahmet", "Emine", "Mustafa", "Zeynep", "Ali",
+            "Elif", "Hasan", "Anna", "James", "Maria", "John", "Sophie", "Lukas", "Emma", "Noah", "Lea", "Omar"};
+    private static final String[] LAST_NAMES = {"Yilmaz", "Kaya", "Demir", "Sahin", "Celik", "Yildiz", "Aydin", "Ozturk",
+            "Arslan", "Dogan", "Smith", "Jones", "Muller", "Schmidt", "Martin", "Bernard", "Rossi", "Garcia", "Jansen", "Haddad"};
+    // Chance of an airport in proportion to 1 / rank, so the first few are hubs
+    private static final double[] AIRPORT_CDF = zipf(AIRPORTS.length, 1.0);
+    private static final double MEAN_LOAD = meanLoad();
+
+    // Streams of random numbers, one per kind of row
+    private static final long EMPLOYEE = 1;
+    private static final long FLIGHT = 2;
+    private static final long PASSENGER = 3;
+    private static final long BOARDING = 4;
+    private static final long LOAD = 5;
+
+    /**
+     * Where the rows of one table, or one part of it, go.
+     */
+    private interface Sink extends AutoCloseable {
+        void row(Object... values) throws Exception;
+
+        /**
+         * Writes what is still buffered and releases the connection or file. Narrower than
+         * AutoCloseable's, so closing cannot throw InterruptedException.
+         */
+        @Override
+        void close() throws SQLException, IOException;
+    }
+
+    /**
+     * Opens the sink of a table part.
+     */
+    private interface SinkFactory {
+        Sink open(String table, String[] columns, int part) throws Exception;
+    }
+
+    private final double scale;
+    private final long seed;
+    private final int flights;
+    private final int passengers;
+
+    public DatasetGenerator(double scale, long seed) {
+        this.scale = scale;
+        this.seed = seed;
+        this.flights = scaled(FLIGHTS);
+        this.passengers = scaled(PASSENGERS);
+    }
+
+    public static void main(String[] args) throws Exception {
+        double scale = args.length > 0 ? Double.parseDouble(args[0]) : 1;
+        String target = args.length > 1 ? args[1] : "db";
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        DatasetGenerator generator = new DatasetGenerator(scale, seed);
+        long start = System.nanoTime();
+        long rows;
+        if (target.equals("db")) {
+            try {
+                // One connection per table, and the rest of the pool for the parts of the boarding table
+                int connections = Math.min(Runtime.getRuntime().availableProcessors(), Integer.getInteger("cloudpilot.db.poolSize", 10));
+                rows = generator.run(DatasetGenerator::databaseSink, Math.max(1, connections - 3));
+                try (Connection connection = Database.getConnection();
+                        PreparedStatement statement = connection.prepareStatement("UPDATE id_block SET next_value = ? WHERE name = 'boarding'")) {
+                    // Boarding IDs handed out from now on continue after the generated ones
+                    statement.setLong(1, generator.boardingCounts().total() + 1);
+                    statement.executeUpdate();
+                }
+            } finally {
+                Database.shutdown();
+            }
+        } else {
+            Path directory = Path.of(target);
+            Files.createDirectories(directory);
+            rows = generator.run((table, columns, part) -> csvSink(directory.resolve(table + ".csv"), columns), 1);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d rows in %.1f s (%.0f rows/s)%n", rows, seconds, rows / seconds);
+    }
+
+    /**
+     * Generates every table into the sinks, the tables in parallel and the boardings in {@code boardingParts}
+     * parts. Returns the number of rows written.
+     */
+    long run(SinkFactory sinks, int boardingParts) throws Exception {
+        BoardingCounts counts = boardingCounts();
+        List<Callable<Long>> tasks = new ArrayList<>();
+        tasks.add(() -> employees(sinks));
+        tasks.add(() -> flights(sinks));
+        tasks.add(() -> passengers(sinks));
+        int flightsPerPart = (flights + boardingParts - 1) / boardingParts;
+        for (int part = 0; part < boardingParts; part++) {
+            int from = part * flightsPerPart;
+            int to = Math.min(flights, from + flightsPerPart);
+            int partNumber = part;
+            tasks.add(() -> boardings(sinks, counts, from, to, partNumber));
+        }
+        long rows = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(tasks.size())) {
+            List<Future<Long>> results = executor.invokeAll(tasks);
+            for (Future<Long> result : results) {
+                rows += result.get();
+            }
+        }
+        return rows;
+    }
+
+    private long employees(SinkFactory sinks) throws Exception {
+        int count = scaled(EMPLOYEES);
+        try (Sink sink = sinks.open("employee", new String[] {"Employee_ID", "E_Name_First", "E_Name_Last", "Email", "Role", "Password"}, 0)) {
+            for (int i = 0; i < count; i++) {
+                SplittableRandom random = random(EMPLOYEE, i);
+                String first = pick(FIRST_NAMES, random);
+                String last = pick(LAST_NAMES, random);
+                sink.row(1000L + i, first, last, first.toLowerCase() + "." + last.toLowerCase() + i + "@cloudpilot.test",
+                        i % 10 == 0 ? "Supervisor" : "Agent", "secret" + i);
+            }
+        }
+        report("employee", count);
+        return count;
+    }
+
+    private long flights(SinkFactory sinks) throws Exception {
+        try (Sink sink = sinks.open("flight", new String[] {"Flight_number", "F_Departure", "F_Arrival", "Departure_Location",
+                "Arrival_Location", "gate"}, 0)) {
+            for (int i = 0; i < flights; i++) {
+                Flight.Row flight = flight(i);
+                sink.row(flight.flightNumber(), flight.departureTime(), flight.arrivalTime(), flight.departureLocation(),
+                        flight.arrivalLocation(), flight.gate());
+            }
+        }
+        report("flight", flights);
+        return flights;
+    }
+
+    private long passengers(SinkFactory sinks) throws Exception {
+        try (Sink sink = sinks.open("passenger", new String[] {"Passenger_ID", "P_Name_First", "P_Name_Last", "Gender",
+                "Birth_Date", "Phone_Number"}, 0)) {
+            for (int i = 0; i < passengers; i++) {
+                SplittableRandom random = random(PASSENGER, i);
+                // Multiplying by a number coprime to 10^9 keeps the phone numbers unique
+                long phone = 5_000_000_000L + (i * 387_420_489L + 12_345) % 1_000_000_000L;
+                sink.row(passengerId(i), pick(FIRST_NAMES, random), pick(LAST_NAMES, random), random.nextBoolean() ? "Female" : "Male",
+                        LocalDate.of(1940, 1, 1).plusDays(random.nextInt(30_000)), String.valueOf(phone));
+            }
+        }
+        report("passenger", passengers);
+        return passengers;
+    }
+
+    /**
+     * Generates the boardings of the flights {@code from} to {@code to}, and the services of two in five of them.
+     */
+    private long boardings(SinkFactory sinks, BoardingCounts counts, int from, int to, int part) throws Exception {
+        long rows = 0;
+        long services = 0;
+        try (Sink boardings = sinks.open("boarding", new String[] {"Boarding_id", "B_Passenger_ID", "B_Flight_Number", "Seat_Number",
+                "B_Departure", "B_Arrival"}, part);
+                Sink serviceRows = sinks.open("services", new String[] {"Boarding_ID", "Extra_Drink", "Extra_Meal", "Suit_Center",
+                        "Extra_Luggage", "Service_Description"}, part)) {
+            for (int i = from; i < to; i++) {
+                Flight.Row flight = flight(i);
+                SplittableRandom random = random(BOARDING, i);
+                int count = counts.perFlight()[i];
+                // Distinct seats: walking the cabin with a step coprime to its size visits every seat once
+                int capacity = SEAT_LETTERS * SEAT_ROWS;
+                int seat = random.nextInt(capacity);
+                int[] steps = {7, 11, 13, 17, 19, 23};
+                int step = steps[random.nextInt(steps.length)];
+                // Distinct passengers: consecutive IDs from a random start
+                int firstPassenger = random.nextInt(passengers);
+                long boardingId = counts.firstId()[i];
+                for (int k = 0; k < count; k++, boardingId++) {
+                    seat = (seat + step) % capacity;
+                    String seatNumber = (1 + seat / SEAT_LETTERS) + String.valueOf((char) ('A' + seat % SEAT_LETTERS));
+                    boardings.row(boardingId, passengerId((firstPassenger + k) % passengers), flight.flightNumber(), seatNumber,
+                            flight.departureTime(), flight.arrivalTime());
+                    if (random.nextInt(5) < 2) {
+                        serviceRows.row(boardingId, random.nextBoolean(), random.nextBoolean(), random.nextInt(10) == 0,
+                                random.nextInt(3), random.nextInt(4) == 0 ? "Wheelchair assistance" : "Standard");
+                        services++;
+                    }
+                }
+                rows += count;
+            }
+        }
+        report("boarding part " + part, rows);
+        return rows + services;
+    }
+
+    /**
+     * The number of boardings of every flight and the ID of each flight's first boarding.
+     */
+    record BoardingCounts(int[] perFlight, long[] firstId) {
+        long total() {
+            return perFlight.length == 0 ? 0 : firstId[perFlight.length - 1] + perFlight[perFlight.length - 1] - 1;
+        }
+    }
+
+    /**
+     * Works out how many boardings each flight gets, so the parts of the boarding table know their IDs.
+     */
+    BoardingCounts boardingCounts() {
+        int[] perFlight = new int[flights];
+        long[] firstId = new long[flights];
+        long next = 1;
+        for (int i = 0; i < flights; i++) {
+            // Popular routes fill up: a hub at either end raises the load
+            Flight.Row flight = flight(i);
+            double load = load(rankOf(flight.departureLocation()), rankOf(flight.arrivalLocation()));
+            int count = (int) Math.round(MEAN_BOARDINGS_PER_FLIGHT * load / MEAN_LOAD * (0.5 + random(LOAD, i).nextDouble()));
+            perFlight[i] = Math.min(SEAT_LETTERS * SEAT_ROWS, Math.min(count, passengers));
+            firstId[i] = next;
+            next += perFlight[i];
+        }
+        return new BoardingCounts(perFlight, firstId);
+    }
+
+    /**
+     * Returns flight {@code i}. The flights take the 200 gates in turn, one 75-minute slot each, and
+     * depart in the first 15 minutes of their slot.
+     */
+    private Flight.Row flight(int i) {
+        SplittableRandom random = random(FLIGHT, i);
+        int departure = pickAirport(random);
+        int arrival = pickAirport(random);
+        while (arrival == departure) {
+            arrival = pickAirport(random);
+        }
+        int gate = i % GATES;
+        LocalDateTime departureTime = FIRST_SLOT.plusMinutes((long) (i / GATES) * GATE_SLOT_MINUTES + random.nextInt(3) * 5);
+        LocalDateTime arrivalTime = departureTime.plusMinutes(45 + random.nextInt(56) * 5);
+        String number = CARRIERS[i % CARRIERS.length] + (i / CARRIERS.length + 1);
+        return new Flight.Row(number, AIRPORTS[departure], AIRPORTS[arrival], departureTime, arrivalTime,
+                String.valueOf((char) ('A' + gate / 20)) + (1 + gate % 20));
+    }
+
+    private static int passengerId(int i) {
+        return 100001 + i;
+    }
+
+    private int scaled(int count) {
+        return (int) Math.max(1, Math.round(count * scale));
+    }
+
+    /**
+     * Returns the random numbers of row {@code index} of a kind of row, which depend on the seed and the
+     * row alone.
+     */
+    private SplittableRandom random(long stream, long index) {
+        return new SplittableRandom(mix(mix(seed ^ stream * 0x9E3779B97F4A7C15L) + index));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static int pickAirport(SplittableRandom random) {
+        int index = Arrays.binarySearch(AIRPORT_CDF, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, AIRPORTS.length - 1);
+    }
+
+    private static int rankOf(String airport) {
+        return Arrays.asList(AIRPORTS).indexOf(airport);
+    }
+
+    /**
+     * Returns how full a route between the airports of the two ranks is, from 0.3 between the smallest to 1 between hubs.
+     */
+    private static double load(int departureRank, int arrivalRank) {
+        return 0.3 + 0.7 * (1 - departureRank / (double) AIRPORTS.length) * (1 - arrivalRank / (double) AIRPORTS.length);
+    }
+
+    /**
+     * Returns the mean load over all flights, given how often each route is drawn.
+     */
+    private static double meanLoad() {
+        double mean = 0;
+        for (int departure = 0; departure < AIRPORTS.length; departure++) {
+            double departureChance = AIRPORT_CDF[departure] - (departure == 0 ? 0 : AIRPORT_CDF[departure - 1]);
+            for (int arrival = 0; arrival < AIRPORTS.length; arrival++) {
+                if (arrival != departure) {
+                    double arrivalChance = AIRPORT_CDF[arrival] - (arrival == 0 ? 0 : AIRPORT_CDF[arrival - 1]);
+                    mean += departureChance * arrivalChance / (1 - departureChance) * load(departure, arrival);
+                }
+            }
+        }
+        return mean;
+    }
+
+    private static double[] zipf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static void report(String table, long rows) {
+        System.out.printf("%-18s %,12d rows%n", table, rows);
+    }
+
+    /**
+     * Inserts the rows of a table with its own connection, in batches, committing every 20,000 rows.
+     */
+    private static Sink databaseSink(String table, String[] columns, int part) throws SQLException {
+        Connection connection = Database.getConnection();
+        connection.setAutoCommit(false);
+        PreparedStatement statement = connection.prepareStatement("INSERT INTO " + table + " (" + String.join(", ", columns)
+                + ") VALUES (" + String.join(", ", Collections.nCopies(columns.length, "?")) + ")");
+        return new Sink() {
+            private int rows;
+
+            @Override
+            public void row(Object... values) throws SQLException {
+                for (int i = 0; i < values.length; i++) {
+                    Object value = values[i];
+                    if (value instanceof LocalDateTime dateTime) {
+                        value = Timestamp.valueOf(dateTime);
+                    } else if (value instanceof LocalDate date) {
+                        value = Date.valueOf(date);
+                    }
+                    statement.setObject(i + 1, value);
+                }
+                statement.addBatch();
+                rows++;
+                if (rows % BATCH_ROWS == 0) {
+                    statement.executeBatch();
+                }
+                if (rows % COMMIT_ROWS == 0) {
+                    connection.commit();
+                }
+            }
+
+            @Override
+            public void close() throws SQLException {
+                try {
+                    statement.executeBatch();
+                    connection.commit();
+                } finally {
+                    statement.close();
+                    connection.setAutoCommit(true);
+                    connection.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Writes the rows of a table to a CSV file with a header row.
+     */
+    private static Sink csvSink(Path file, String[] columns) throws IOException {
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        writer.write(String.join(",", columns));
+        writer.newLine();
+        return new Sink() {
+            @Override
+            public void row(Object... values) throws IOException {
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    Object value = values[i];
+                    if (value instanceof LocalDateTime dateTime) {
+                        writer.write(DATE_TIME_FORMAT.format(dateTime));
+                    } else if (value instanceof String text && (text.indexOf(',') >= 0 || text.indexOf('"') >= 0)) {
+                        writer.write('"' + text.replace("\"", "\"\"") + '"');
+                    } else {
+                        writer.write(String.valueOf(value));
+                    }
+                }
+                writer.newLine();
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,291 @@
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays check-in desk sessions against an embedded H2 database in MySQL mode, with no screens, to see
+ * how many desks the application keeps up with. A session does what an agent does on the screens: logs
+ * in, searches a flight, looks the passenger up, loads the flight's seats, checks the passenger in on a
+ * free seat and saves their services, each step through the same repositories and shared components as
+ * the screen. Each concurrency level runs for a fixed time; the simulator prints the sessions per second,
+ * the p50, p99 and p999 latency of every step and of the commit of each services save's batch, the
+ * share of sessions that failed and the share of check-ins that lost their seat or passenger to another
+ * desk.
+ *
+ * All desks run in one process, as if they shared one application instance: one connection pool (sized
+ * to the largest level unless {@code cloudpilot.db.poolSize} is set) and one seat inventory. Run it with
+ * the comma-separated levels, the seconds per level and the agent's think time between steps in
+ * milliseconds as the optional arguments (default 1,2,4,8,16,32,64, 5 and 0).
+ */
+public class DeskLoadSimulator {
+
+    private static final int FLIGHTS = 2000;
+    private static final int PASSENGERS = 20000;
+    private static final int EMPLOYEES = 100;
+    private static final String[] CITIES = {"Istanbul", "Ankara", "Izmir", "Antalya", "London", "Amsterdam", "Frankfurt",
+            "Paris", "Madrid", "Rome", "Vienna", "Zurich", "Athens", "Berlin", "Munich", "Brussels"};
+
+    /**
+     * The steps of a session, in order.
+     */
+    private enum Step {
+        LOGIN("login"),
+        FLIGHT_SEARCH("flight search"),
+        PASSENGER_SEARCH("passenger search"),
+        SEAT_LOAD("seat load"),
+        CHECK_IN("check-in"),
+        SERVICES_SAVE("services save"),
+        // From the save until its batch is committed, which the screen does not wait for
+        SERVICES_COMMIT("services commit");
+
+        private final String label;
+
+        Step(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * The counters of one concurrency level.
+     */
+    private static class Level {
+        final Map<Step, LatencyHistogram> latencies = new EnumMap<>(Step.class);
+        final LongAdder sessions = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder checkIns = new LongAdder();
+        final LongAdder conflicts = new LongAdder();
+        final LongAdder flightsFull = new LongAdder();
+
+        Level() {
+            for (Step step : Step.values()) {
+                latencies.put(step, new LatencyHistogram());
+            }
+        }
+    }
+
+    /**
+     * A step of a session, run on a pooled connection.
+     */
+    private interface Work<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] levels = Arrays.stream((args.length > 0 ? args[0] : "1,2,4,8,16,32,64").split(",")).mapToInt(Integer::parseInt).toArray();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        long thinkMillis = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        System.setProperty("cloudpilot.db.url", BenchDatabase.url("desk-load"));
+        System.setProperty("cloudpilot.db.username", "sa");
+        System.setProperty("cloudpilot.db.password", "");
+        if (System.getProperty("cloudpilot.db.poolSize") == null) {
+            System.setProperty("cloudpilot.db.poolSize", String.valueOf(Arrays.stream(levels).max().orElse(1)));
+        }
+        System.setProperty("cloudpilot.offline.dir", Files.createTempDirectory("desk-load").toString());
+
+        try (Connection connection = BenchDatabase.create("desk-load")) {
+            seed(connection);
+            System.out.printf("%5s %10s %8s %9s  %s%n", "desks", "sessions/s", "failed", "conflicts",
+                    "p50 / p99 / p999 ms per step");
+            for (int desks : levels) {
+                reset(connection);
+                Level level = run(desks, seconds, thinkMillis);
+                report(desks, seconds, level);
+            }
+        } finally {
+            Database.shutdown();
+        }
+    }
+
+    private static Level run(int desks, int seconds, long thinkMillis) throws InterruptedException {
+        Level level = new Level();
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int desk = 0; desk < desks; desk++) {
+                Random random = new Random(desk);
+                executor.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        try {
+                            session(level, random, thinkMillis);
+                        } catch (Exception e) {
+                            level.failed.increment();
+                        }
+                        level.sessions.increment();
+                    }
+                });
+            }
+        }
+        try {
+            // Saves still buffered belong to this level
+            ServicesWriteBehind.shared().flush();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return level;
+    }
+
+    /**
+     * Runs one agent session, as the screens would.
+     */
+    private static void session(Level level, Random random, long thinkMillis) throws Exception {
+        int employee = 1 + random.nextInt(EMPLOYEES);
+        timed(level, Step.LOGIN, connection -> new EmployeeRepository(connection).findIdByLogin("agent" + employee + "@cloudpilot.test", "secret" + employee))
+                .orElseThrow(() -> new IllegalStateException("Login refused"));
+        Thread.sleep(thinkMillis);
+
+        // Agents type a flight number or part of a city name
+        String text = random.nextBoolean() ? "CP" + random.nextInt(FLIGHTS) : CITIES[random.nextInt(CITIES.length)].substring(0, 4);
+        List<Flight> flights = timed(level, Step.FLIGHT_SEARCH, connection -> FlightSearchIndex.shared().search(connection, text));
+        if (flights.isEmpty()) {
+            return;
+        }
+        Flight flight = flights.get(random.nextInt(flights.size()));
+        Thread.sleep(thinkMillis);
+
+        int passengerId = 100001 + random.nextInt(PASSENGERS);
+        timed(level, Step.PASSENGER_SEARCH, connection -> new PassengerRepository(connection).findById(passengerId))
+                .orElseThrow(() -> new IllegalStateException("Passenger " + passengerId + " not found"));
+        Thread.sleep(thinkMillis);
+
+        String flightNumber = flight.getFlightNumber();
+        List<String> occupied = timed(level, Step.SEAT_LOAD, connection -> {
+            List<String> seats = new BoardingRepository(connection).findSeatNumbers(flightNumber);
+            SeatInventory.shared().sync(flightNumber, seats);
+            return seats;
+        });
+        SeatMap seats = SeatMap.of(4, 3, occupied);
+        List<String> free = new ArrayList<>();
+        for (int index = seats.nextFree(0); index >= 0; index = seats.nextFree(index + 1)) {
+            free.add(seats.labelOf(index));
+        }
+        if (free.isEmpty()) {
+            level.flightsFull.increment();
+            return;
+        }
+        String seatNumber = free.get(random.nextInt(free.size()));
+        Thread.sleep(thinkMillis);
+
+        Timestamp departure = Timestamp.valueOf(flight.getDepartureTime());
+        Timestamp arrival = Timestamp.valueOf(flight.getArrivalTime());
+        int[] boardingId = new int[1];
+        SeatInventory.Outcome outcome = timed(level, Step.CHECK_IN, connection -> {
+            boardingId[0] = BoardingIdAllocator.shared().next();
+            SeatInventory.Outcome claimed = SeatInventory.shared().checkIn(connection, boardingId[0], passengerId, flightNumber, seatNumber, departure, arrival);
+            if (claimed == SeatInventory.Outcome.CLAIMED) {
+                DomainEventBus.shared().publish(new DomainEventBus.BoardingCreated(new Boarding(boardingId[0], passengerId, seatNumber, flightNumber)));
+            }
+            return claimed;
+        });
+        level.checkIns.increment();
+        if (outcome != SeatInventory.Outcome.CLAIMED) {
+            level.conflicts.increment();
+            return;
+        }
+        Thread.sleep(thinkMillis);
+
+        Boarding services = new Boarding(boardingId[0], passengerId, seatNumber, flightNumber);
+        services.setServices(random.nextBoolean(), random.nextBoolean(), false, random.nextInt(3), "Desk session");
+        // Like the screen: check the boarding exists, then buffer the save without waiting for its batch.
+        // A refused save fails the session when its batch is written.
+        long[] submitted = new long[1];
+        timed(level, Step.SERVICES_SAVE, connection -> {
+            if (new BoardingRepository(connection).findById(boardingId[0]).isEmpty()) {
+                throw new IllegalStateException("Boarding " + boardingId[0] + " not found");
+            }
+            submitted[0] = System.nanoTime();
+            ServicesWriteBehind.shared().submit(services).whenComplete((written, failure) -> {
+                level.latencies.get(Step.SERVICES_COMMIT).record(System.nanoTime() - submitted[0]);
+                if (failure != null) {
+                    level.failed.increment();
+                }
+            });
+            return null;
+        });
+    }
+
+    private static <T> T timed(Level level, Step step, Work<T> work) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = Database.getConnection()) {
+            return work.run(connection);
+        } finally {
+            level.latencies.get(step).record(System.nanoTime() - start);
+        }
+    }
+
+    private static void report(int desks, int seconds, Level level) {
+        long sessions = level.sessions.sum();
+        StringBuilder steps = new StringBuilder();
+        for (Step step : Step.values()) {
+            LatencyHistogram latency = level.latencies.get(step);
+            steps.append(String.format("  %s %.2f / %.2f / %.2f", step.label, latency.percentile(50) / 1e6,
+                    latency.percentile(99) / 1e6, latency.percentile(99.9) / 1e6));
+        }
+        System.out.printf("%5d %10.1f %7.2f%% %8.2f%% %s%n", desks, (double) sessions / seconds,
+                percent(level.failed.sum(), sessions), percent(level.conflicts.sum(), level.checkIns.sum()), steps);
+        if (level.flightsFull.sum() > 0) {
+            System.out.printf("      %d sessions found their flight full%n", level.flightsFull.sum());
+        }
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+
+    /**
+     * Creates the agents, a schedule of flights with the check-in screen's twelve seats each, and the passengers.
+     */
+    private static void seed(Connection connection) throws SQLException {
+        Random random = new Random(42);
+        try (PreparedStatement statement = connection.prepareStatement(EmployeeRepository.INSERT)) {
+            for (int i = 1; i <= EMPLOYEES; i++) {
+                statement.setLong(1, i);
+                statement.setString(2, "Agent");
+                statement.setString(3, String.valueOf(i));
+                statement.setString(4, "agent" + i + "@cloudpilot.test");
+                statement.setString(5, "Agent");
+                statement.setString(6, "secret" + i);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        List<Flight> flights = new ArrayList<>();
+        LocalDateTime firstDeparture = LocalDate.now().atTime(6, 0);
+        for (int i = 0; i < FLIGHTS; i++) {
+            LocalDateTime departure = firstDeparture.plusMinutes(random.nextInt(2 * 24 * 60 / 5) * 5L);
+            flights.add(new Flight(new Flight.Row("CP" + i, CITIES[random.nextInt(CITIES.length)], CITIES[random.nextInt(CITIES.length)],
+                    departure, departure.plusMinutes(60 + random.nextInt(240)), "G" + (1 + random.nextInt(60)))));
+        }
+        new FlightRepository(connection).insertBatch(flights);
+        List<Passenger> passengers = new ArrayList<>();
+        for (int i = 0; i < PASSENGERS; i++) {
+            passengers.add(new Passenger(100001 + i, "First" + i, "Last" + i, i % 2 == 0 ? "Female" : "Male",
+                    Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(20000))), "555" + (1000000 + i)));
+        }
+        new PassengerRepository(connection).insertBatch(passengers);
+    }
+
+    /**
+     * Empties the boardings and services, so every level starts with empty flights.
+     */
+    private static void reset(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM services");
+            statement.executeUpdate("DELETE FROM boarding");
+        }
+        SeatInventory.shared().forgetAll();
+    }
+}
@@ -0,0 +1,60 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The RoundTripCounter class wraps a connection and counts the statements executed through it.
+ * Every execute, executeQuery, executeUpdate and executeBatch call is one round-trip to the database.
+ */
+public class RoundTripCounter {
+
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    /**
+     * Returns a connection that counts the round-trips of the statements created from it.
+     */
+    public Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection);
+    }
+
+    /**
+     * Returns the number of round-trips counted so far.
+     */
+    public long get() {
+        return roundTrips.get();
+    }
+
+    /**
+     * Resets the count to zero.
+     */
+    public void reset() {
+        roundTrips.set(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                roundTrips.incrementAndGet();
+            }
+            Object result = invoke(method, target, args);
+            if (result instanceof Statement && method.getReturnType().isInterface()) {
+                return proxy((Class<Object>) method.getReturnType(), result);
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
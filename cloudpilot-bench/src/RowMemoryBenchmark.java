@@ -0,0 +1,96 @@
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Measures how many bytes of heap a flight, passenger and boarding row takes: as loaded, in the compact
+ * record form, and once a table has asked for its JavaFX properties, which is what every row cost when
+ * each field was a property of its own. The rows carry distinct strings, as rows read from the database
+ * do, so the figures include the string data. Run it with the number of rows per type as the optional
+ * argument (default 200000), with a heap large enough to hold them.
+ */
+public class RowMemoryBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Date birthDate = Date.valueOf("1990-01-01");
+
+        measure("flight", count, i -> new Flight(new Flight.Row("CP" + i, "Origin " + i, "Destination " + i,
+                base.plusMinutes(i), base.plusMinutes(i + 90), "G" + i % 40)), flight -> {
+            flight.flightNumberProperty();
+            flight.departureLocationProperty();
+            flight.arrivalLocationProperty();
+            flight.departureTimeProperty();
+            flight.arrivalTimeProperty();
+            flight.gateProperty();
+        });
+        measure("passenger", count, i -> new Passenger(i, "First" + i, "Last" + i, i % 2 == 0 ? "Female" : "Male",
+                birthDate, "555" + i), passenger -> {
+            passenger.passengerIDProperty();
+            passenger.firstNameProperty();
+            passenger.lastNameProperty();
+            passenger.genderProperty();
+            passenger.birthDateProperty();
+            passenger.phoneNumberProperty();
+        });
+        measure("boarding", count, i -> new Boarding(i, i, (i % 30 + 1) + "A", "CP" + i % 500), boarding -> {
+            boarding.boardingIDProperty();
+            boarding.passengerIDProperty();
+            boarding.seatNumberProperty();
+            boarding.flightNumberProperty();
+            boarding.extraDrinkProperty();
+            boarding.extraMealProperty();
+            boarding.suitCenterProperty();
+            boarding.extraLuggageProperty();
+            boarding.serviceDescriptionProperty();
+            boarding.baggageAllowanceProperty();
+            boarding.departureProperty();
+            boarding.arrivalProperty();
+        });
+    }
+
+    private static <T> void measure(String type, int count, IntFunction<T> factory, Consumer<T> render) {
+        long empty = usedHeap();
+        Object[] rows = new Object[count];
+        long array = usedHeap() - empty;
+        for (int i = 0; i < count; i++) {
+            rows[i] = factory.apply(i);
+        }
+        long compact = usedHeap() - empty - array;
+
+        long start = System.nanoTime();
+        for (Object row : rows) {
+            @SuppressWarnings("unchecked")
+            T typed = (T) row;
+            render.accept(typed);
+        }
+        long renderNanos = System.nanoTime() - start;
+        long withProperties = usedHeap() - empty - array;
+
+        System.out.printf("%-9s compact %6.1f bytes/row  with properties %6.1f bytes/row  (%.1fx)  creating the properties %5.0f ns/row%n",
+                type, (double) compact / count, (double) withProperties / count, (double) withProperties / compact,
+                (double) renderNanos / count);
+        // Keep the rows reachable until they are measured
+        if (rows[count - 1] == null) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // Collect until the figure settles, so only live objects are counted
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how long SeatAssigner takes to place a party on randomly fragmented seat maps.
+ * The cabins are the check-in screen's 3 x 4 grid, a 30-row narrow body (3-3) and a 60-row wide body
+ * (3-4-3), each filled to several occupancy levels with seats taken at random. Every assignment is
+ * checked for the right number of distinct free seats. Run it with the number of maps per case as the
+ * optional argument (default 2000).
+ */
+public class SeatAssignerBenchmark {
+
+    private static final int[] OCCUPANCY_PERCENTS = {30, 60, 85};
+    private static final int[] PARTY_SIZES = {1, 2, 4, 6, 9};
+
+    public static void main(String[] args) {
+        int maps = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        run("check-in grid", 4, 3, new SeatAssigner(2), maps);
+        run("narrow body", 6, 30, new SeatAssigner(3), maps);
+        run("wide body", 10, 60, new SeatAssigner(3, 7), maps);
+    }
+
+    private static void run(String cabin, int letters, int seatRows, SeatAssigner assigner, int maps) {
+        Random random = new Random(42);
+        for (int percent : OCCUPANCY_PERCENTS) {
+            SeatMap[] seatMaps = new SeatMap[maps];
+            for (int i = 0; i < maps; i++) {
+                seatMaps[i] = fragmented(letters, seatRows, percent, random);
+            }
+            for (int party : PARTY_SIZES) {
+                if (party > letters * seatRows * (100 - percent) / 100) {
+                    continue;
+                }
+                // Warm up, then time every call
+                for (int i = 0; i < maps; i++) {
+                    assigner.assign(seatMaps[i], party, SeatAssigner.Preference.WINDOW);
+                }
+                long[] nanos = new long[maps];
+                int together = 0;
+                for (int i = 0; i < maps; i++) {
+                    long start = System.nanoTime();
+                    List<String> seats = assigner.assign(seatMaps[i], party, SeatAssigner.Preference.WINDOW);
+                    nanos[i] = System.nanoTime() - start;
+                    verify(seatMaps[i], seats, party);
+                    if (seatMaps[i].capacity() - seatMaps[i].occupiedCount() >= party && isOneRow(seats)) {
+                        together++;
+                    }
+                }
+                report(cabin, percent, party, nanos, together);
+            }
+        }
+    }
+
+    /**
+     * Returns a map with about {@code percent} of the seats taken at random.
+     */
+    private static SeatMap fragmented(int letters, int seatRows, int percent, Random random) {
+        SeatMap seats = new SeatMap(letters, seatRows);
+        for (int index = 0; index < seats.capacity(); index++) {
+            if (random.nextInt(100) < percent) {
+                seats.occupy(seats.labelOf(index));
+            }
+        }
+        return seats;
+    }
+
+    private static void verify(SeatMap seats, List<String> assigned, int party) {
+        int free = seats.capacity() - seats.occupiedCount();
+        if (free < party) {
+            if (!assigned.isEmpty()) {
+                throw new IllegalStateException("Seats assigned although only " + free + " are free");
+            }
+            return;
+        }
+        if (assigned.size() != party || assigned.stream().distinct().count() != party) {
+            throw new IllegalStateException("Expected " + party + " distinct seats but got " + assigned);
+        }
+        for (String seat : assigned) {
+            if (seats.isOccupied(seat) || seats.indexOf(seat) < 0) {
+                throw new IllegalStateException("Seat " + seat + " is not free");
+            }
+        }
+    }
+
+    private static boolean isOneRow(List<String> seats) {
+        return seats.stream().map(seat -> seat.substring(0, seat.length() - 1)).distinct().count() == 1;
+    }
+
+    private static void report(String cabin, int percent, int party, long[] nanos, int oneRow) {
+        Arrays.sort(nanos);
+        double mean = Arrays.stream(nanos).average().orElse(0) / 1000.0;
+        double p99 = nanos[(int) Math.min(nanos.length - 1, Math.ceil(nanos.length * 0.99) - 1)] / 1000.0;
+        double max = nanos[nanos.length - 1] / 1000.0;
+        System.out.printf("%-14s %3d%% full  party %d  mean %7.1f us  p99 %7.1f us  max %8.1f us  one row %5.1f%%%n",
+                cabin, percent, party, mean, p99, max, 100.0 * oneRow / nanos.length);
+    }
+}
@@ -0,0 +1,67 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Compares the two ways of loading the boarding table of the customer screen:
+ * one services lookup per boarding (N+1 round-trips) against the single LEFT JOIN query.
+ * Run it with the number of boardings as the optional argument (default 20000).
+ */
+public class ServicesLoadBenchmark {
+
+    public static void main(String[] args) throws SQLException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        try (Connection database = BenchDatabase.create("services-load")) {
+            BenchDatabase.seedBoardings(database, count);
+            RoundTripCounter counter = new RoundTripCounter();
+            Connection connection = counter.wrap(database);
+
+            // Warm up both paths once so the timings compare steady-state queries
+            loadPerBoarding(connection);
+            new BoardingRepository(connection).findAllWithServices();
+
+            counter.reset();
+            long start = System.nanoTime();
+            List<Boarding> perBoarding = loadPerBoarding(connection);
+            report("per-boarding lookup", perBoarding.size(), counter.get(), System.nanoTime() - start);
+
+            counter.reset();
+            start = System.nanoTime();
+            List<Boarding> joined = new BoardingRepository(connection).findAllWithServices();
+            report("LEFT JOIN", joined.size(), counter.get(), System.nanoTime() - start);
+
+            verifySame(perBoarding, joined);
+        }
+    }
+
+    /**
+     * The loading strategy the customer screen used before: every boarding looks up its own services row.
+     */
+    private static List<Boarding> loadPerBoarding(Connection connection) throws SQLException {
+        List<Boarding> boardings = new BoardingRepository(connection).findAll();
+        ServicesRepository services = new ServicesRepository(connection);
+        for (Boarding boarding : boardings) {
+            services.loadInto(boarding);
+        }
+        return boardings;
+    }
+
+    private static void report(String name, int rows, long roundTrips, long nanos) {
+        System.out.printf("%-20s %8d rows %8d round-trips %10.1f ms%n", name, rows, roundTrips, nanos / 1_000_000.0);
+    }
+
+    private static void verifySame(List<Boarding> expected, List<Boarding> actual) {
+        if (expected.size() != actual.size()) {
+            throw new IllegalStateException("Row counts differ: " + expected.size() + " vs " + actual.size());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            Boarding a = expected.get(i);
+            Boarding b = actual.get(i);
+            if (a.getBoardingID() != b.getBoardingID() || a.isExtraDrink() != b.isExtraDrink() || a.isExtraMeal() != b.isExtraMeal()
+                    || a.isSuitCenter() != b.isSuitCenter() || a.getExtraLuggage() != b.getExtraLuggage()
+                    || !String.valueOf(a.getServiceDescription()).equals(String.valueOf(b.getServiceDescription()))) {
+                throw new IllegalStateException("Boarding " + a.getBoardingID() + " differs between the two loaders");
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares writing every services save at once with the write-behind buffer, under a boarding rush:
+ * a number of desks each keep toggling the services of the few passengers in front of them, with a few
+ * milliseconds between clicks. Prints how many upserts and transactions each way needed and how long a
+ * save kept the desk waiting, and checks that the table ends up with the last save of every boarding.
+ * Run it with the number of desks and the saves per desk as the optional arguments (default 20 and 200).
+ */
+public class ServicesWriteBehindBenchmark {
+
+    private static final int BOARDINGS = 2000;
+    private static final int PASSENGERS_PER_DESK = 5;
+    private static final long THINK_MILLIS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int desks = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int saves = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        System.setProperty("cloudpilot.db.url", BenchDatabase.url("write-behind"));
+        System.setProperty("cloudpilot.db.username", "sa");
+        System.setProperty("cloudpilot.db.password", "");
+        System.setProperty("cloudpilot.offline.dir", Files.createTempDirectory("write-behind").toString());
+
+        try (Connection connection = BenchDatabase.create("write-behind")) {
+            BenchDatabase.seedBoardings(connection, BOARDINGS);
+
+            Map<Integer, Boarding> expected = new ConcurrentHashMap<>();
+            double directMillis = rush(desks, saves, expected, services -> {
+                try (Connection borrowed = Database.getConnection()) {
+                    new ServicesRepository(borrowed).upsert(services);
+                }
+            });
+            verify(connection, expected);
+            System.out.printf("direct        %6d upserts in %6d transactions, desk waits %.3f ms per save%n",
+                    (long) desks * saves, (long) desks * saves, directMillis);
+
+            expected.clear();
+            ServicesWriteBehind buffer = new ServicesWriteBehind(300, 50);
+            double bufferedMillis = rush(desks, saves, expected, services -> buffer.submit(services));
+            buffer.flush();
+            verify(connection, expected);
+            ServicesWriteBehind.Stats stats = buffer.stats();
+            System.out.printf("write-behind  %6d upserts in %6d transactions, desk waits %.3f ms per save, %d saves coalesced%n",
+                    stats.rowsWritten(), stats.flushes(), bufferedMillis, stats.coalesced());
+        } finally {
+            Database.shutdown();
+        }
+    }
+
+    /**
+     * A way of saving the services of one boarding.
+     */
+    private interface Save {
+        void save(Boarding services) throws SQLException;
+    }
+
+    /**
+     * Runs the desks and returns how long a save took on average, in milliseconds.
+     */
+    private static double rush(int desks, int saves, Map<Integer, Boarding> expected, Save save) throws Exception {
+        List<Future<Long>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int desk = 0; desk < desks; desk++) {
+                int firstBoarding = 1 + desk * PASSENGERS_PER_DESK;
+                Random random = new Random(desk);
+                results.add(executor.submit(() -> {
+                    long waited = 0;
+                    for (int i = 0; i < saves; i++) {
+                        Boarding services = new Boarding(firstBoarding + random.nextInt(PASSENGERS_PER_DESK), 0, null, null);
+                        services.setServices(random.nextBoolean(), random.nextBoolean(), random.nextBoolean(), 1 + random.nextInt(2),
+                                "Save " + i);
+                        long start = System.nanoTime();
+                        save.save(services);
+                        waited += System.nanoTime() - start;
+                        // Each desk owns its passengers, so its last save of a boarding is the one that must stick
+                        expected.put(services.getBoardingID(), services);
+                        Thread.sleep(THINK_MILLIS);
+                    }
+                    return waited;
+                }));
+            }
+        }
+        long waited = 0;
+        for (Future<Long> result : results) {
+            waited += result.get();
+        }
+        return waited / 1e6 / ((long) desks * saves);
+    }
+
+    private static void verify(Connection connection, Map<Integer, Boarding> expected) throws SQLException {
+        Map<Integer, String> stored = new HashMap<>();
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT Boarding_ID, Service_Description FROM services");
+            while (resultSet.next()) {
+                stored.put(resultSet.getInt(1), resultSet.getString(2));
+            }
+        }
+        for (Boarding services : expected.values()) {
+            if (!services.getServiceDescription().equals(stored.get(services.getBoardingID()))) {
+                throw new IllegalStateException("Boarding " + services.getBoardingID() + " has '" + stored.get(services.getBoardingID())
+                        + "', the last save was '" + services.getServiceDescription() + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+CREATE TABLE flight (Flight_number VARCHAR(10) PRIMARY KEY, F_Departure DATETIME, F_Arrival DATETIME, Departure_Location VARCHAR(50), Arrival_Location VARCHAR(50), gate VARCHAR(10));
+CREATE TABLE passenger (Passenger_ID INT PRIMARY KEY, P_Name_First VARCHAR(50), P_Name_Last VARCHAR(50), Gender VARCHAR(10), Birth_Date DATE, Phone_Number VARCHAR(20));
+CREATE TABLE boarding (Boarding_id INT AUTO_INCREMENT PRIMARY KEY, B_Passenger_ID INT, B_Flight_Number VARCHAR(10), Seat_Number VARCHAR(5), B_Departure DATETIME, B_Arrival DATETIME);
+CREATE TABLE services (Boarding_ID INT PRIMARY KEY, Extra_Drink BOOLEAN, Extra_Meal BOOLEAN, Suit_Center BOOLEAN, Extra_Luggage INT, Service_Description VARCHAR(255));
+CREATE TABLE employee (Employee_ID BIGINT PRIMARY KEY, E_Name_First VARCHAR(50), E_Name_Last VARCHAR(50), Email VARCHAR(80), Role VARCHAR(30), Password VARCHAR(80));
+ALTER TABLE boarding ADD CONSTRAINT uq_boarding_flight_seat UNIQUE (B_Flight_Number, Seat_Number);
+ALTER TABLE boarding ADD CONSTRAINT uq_boarding_passenger_flight UNIQUE (B_Passenger_ID, B_Flight_Number);
+CREATE TABLE id_block (name VARCHAR(40) PRIMARY KEY, next_value BIGINT NOT NULL);
+INSERT INTO id_block (name, next_value) VALUES ('boarding', 1);
+CREATE INDEX idx_passenger_phone ON passenger (Phone_Number);
@@ -0,0 +1,224 @@
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cloudpilot.jmh.HotPaths;
+
+/**
+ * The JmhHotPaths class runs the application's hot paths for the JMH benchmarks, on a seeded in-memory
+ * H2 database. Every input is prepared when the database is seeded, so a call only does the work measured.
+ */
+public class JmhHotPaths implements HotPaths {
+
+    // Enough prepared inputs that the JIT cannot specialise on one, few enough to stay in the CPU cache
+    private static final int INPUTS = 1024;
+    private static final int PASSENGERS = 2000;
+    private static final int BOARDINGS = 2000;
+    private static final int GATES = 40;
+    private static final int DAYS = 14;
+    private static final String[] CITIES = {"Istanbul", "Ankara", "Izmir", "Antalya", "London", "Amsterdam", "Frankfurt",
+            "Paris", "Madrid", "Rome", "Vienna", "Zurich", "Athens", "Berlin", "Munich", "Brussels", "Lisbon", "Dublin",
+            "Copenhagen", "Oslo", "Stockholm", "Helsinki", "Warsaw", "Prague", "Budapest", "Bucharest", "Sofia", "Belgrade",
+            "Doha", "Dubai", "Cairo", "Tunis", "Baku", "Tbilisi", "Tehran", "Riyadh", "Jeddah", "Kuwait", "Beirut", "Amman"};
+    private static final String[] SEARCHES = {"ist", "an", "CP12", "london", "ams", "cp4", "air", "rome", "zu", "Dubai",
+            "is", "be", "CP1", "frank", "o", "Beirut"};
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private final Random random = new Random(42);
+    private Connection connection;
+    private Flight.Row[] flightRows;
+    private Passenger.Row[] passengerRows;
+    private Boarding.Row[] boardingRows;
+    private ResultSet flightPage;
+    private ResultSet passengerPage;
+    private ResultSet boardingPage;
+    private final FlightSearchIndex searchIndex = FlightSearchIndex.shared();
+    private final GateScheduleIndex gateIndex = new GateScheduleIndex(40, 20);
+    private Flight[] gateCandidates;
+    private int seatRows;
+    private int seatColumns;
+    private List<String>[] occupancies;
+    private SeatMap shownSeats;
+
+    @Override
+    public void seed(int flights) throws Exception {
+        connection = BenchDatabase.create("jmh-" + DATABASES.incrementAndGet());
+        List<Flight> seededFlights = new ArrayList<>();
+        LocalDateTime firstDeparture = LocalDate.of(2025, 1, 1).atTime(6, 0);
+        for (int i = 0; i < flights; i++) {
+            LocalDateTime departure = firstDeparture.plusMinutes(random.nextInt(DAYS * 24 * 60 / 5) * 5L);
+            seededFlights.add(new Flight(new Flight.Row("CP" + i, CITIES[random.nextInt(CITIES.length)],
+                    CITIES[random.nextInt(CITIES.length)], departure, departure.plusMinutes(60 + random.nextInt(240)), gate())));
+        }
+        new FlightRepository(connection).insertBatch(seededFlights);
+        List<Passenger> seededPassengers = new ArrayList<>();
+        for (int i = 0; i < PASSENGERS; i++) {
+            seededPassengers.add(new Passenger(100001 + i, "First" + i, "Last" + i, i % 2 == 0 ? "Female" : "Male",
+                    Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(20000))), "555" + (1000000 + i)));
+        }
+        new PassengerRepository(connection).insertBatch(seededPassengers);
+        BenchDatabase.seedBoardings(connection, BOARDINGS);
+
+        flightRows = new Flight.Row[INPUTS];
+        passengerRows = new Passenger.Row[INPUTS];
+        boardingRows = new Boarding.Row[INPUTS];
+        gateCandidates = new Flight[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            flightRows[i] = seededFlights.get(random.nextInt(seededFlights.size())).toRow();
+            passengerRows[i] = seededPassengers.get(random.nextInt(seededPassengers.size())).toRow();
+            boardingRows[i] = new Boarding(1 + random.nextInt(BOARDINGS), 100001 + random.nextInt(PASSENGERS),
+                    (1 + random.nextInt(3)) + String.valueOf((char) ('A' + random.nextInt(4))), "CP" + random.nextInt(flights)).toRow();
+            LocalDateTime departure = firstDeparture.plusMinutes(random.nextInt(DAYS * 24 * 60));
+            gateCandidates[i] = new Flight(new Flight.Row("NEW" + i, "Istanbul", "Ankara", departure, departure.plusHours(1), gate()));
+        }
+
+        flightPage = page("SELECT * FROM flight ORDER BY Flight_number");
+        passengerPage = page("SELECT * FROM passenger ORDER BY Passenger_ID");
+        boardingPage = page("SELECT * FROM boarding ORDER BY Boarding_id");
+
+        searchIndex.invalidate();
+        searchIndex.search(connection, "CP0");
+        gateIndex.findConflict(connection, gateCandidates[0], null);
+        useCabin(4, 3);
+    }
+
+    @Override
+    public Object newFlight(int step) {
+        return new Flight(flightRows[step & (INPUTS - 1)]);
+    }
+
+    @Override
+    public Object newPassenger(int step) {
+        Passenger.Row row = passengerRows[step & (INPUTS - 1)];
+        return new Passenger(row.passengerID(), row.firstName(), row.lastName(), row.gender(), row.birthDate(), row.phoneNumber());
+    }
+
+    @Override
+    public Object newBoarding(int step) {
+        Boarding.Row row = boardingRows[step & (INPUTS - 1)];
+        return new Boarding(row.boardingID(), row.passengerID(), row.seatNumber(), row.flightNumber());
+    }
+
+    @Override
+    public Object newRenderedFlight(int step) {
+        Flight flight = new Flight(flightRows[step & (INPUTS - 1)]);
+        flight.flightNumberProperty();
+        flight.departureLocationProperty();
+        flight.arrivalLocationProperty();
+        flight.departureTimeProperty();
+        flight.arrivalTimeProperty();
+        flight.gateProperty();
+        return flight;
+    }
+
+    @Override
+    public List<?> mapFlights() throws SQLException {
+        flightPage.beforeFirst();
+        List<Flight> flights = new ArrayList<>(PAGE_ROWS);
+        while (flightPage.next()) {
+            flights.add(FlightRepository.map(flightPage));
+        }
+        return flights;
+    }
+
+    @Override
+    public List<?> mapPassengers() throws SQLException {
+        passengerPage.beforeFirst();
+        List<Passenger> passengers = new ArrayList<>(PAGE_ROWS);
+        while (passengerPage.next()) {
+            passengers.add(PassengerRepository.map(passengerPage));
+        }
+        return passengers;
+    }
+
+    @Override
+    public List<?> mapBoardings() throws SQLException {
+        boardingPage.beforeFirst();
+        List<Boarding> boardings = new ArrayList<>(PAGE_ROWS);
+        while (boardingPage.next()) {
+            boardings.add(BoardingRepository.map(boardingPage));
+        }
+        return boardings;
+    }
+
+    @Override
+    public List<String> searchFlights(int step) {
+        return searchIndex.findNumbers(SEARCHES[step & (SEARCHES.length - 1)]);
+    }
+
+    /**
+     * Prepares a sequence of occupancies in which every refresh finds a few seats taken or freed by other
+     * desks, as the check-in screen sees when it reloads the seat statuses.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void useCabin(int rows, int columns) {
+        seatRows = rows;
+        seatColumns = columns;
+        SeatMap labels = new SeatMap(rows, columns);
+        occupancies = (List<String>[]) new List<?>[INPUTS];
+        Set<String> occupied = new HashSet<>();
+        for (int i = 0; i < INPUTS; i++) {
+            for (int change = 0; change < 2; change++) {
+                String seat = labels.labelOf(random.nextInt(labels.capacity()));
+                if (!occupied.remove(seat)) {
+                    occupied.add(seat);
+                }
+            }
+            occupancies[i] = new ArrayList<>(occupied);
+        }
+        shownSeats = new SeatMap(rows, columns);
+    }
+
+    @Override
+    public int refreshSeats(int step) {
+        SeatMap seats = SeatMap.of(seatRows, seatColumns, occupancies[step & (INPUTS - 1)]);
+        BitSet changed = seats.changedFrom(shownSeats);
+        int taken = 0;
+        for (int index = changed.nextSetBit(0); index >= 0; index = changed.nextSetBit(index + 1)) {
+            // The screen re-styles the seat's button here, red and disabled or green and enabled
+            if (seats.isOccupied(index)) {
+                taken++;
+            }
+        }
+        shownSeats = seats;
+        return taken;
+    }
+
+    @Override
+    public String findGateConflict(int step) throws SQLException {
+        return gateIndex.findConflict(connection, gateCandidates[step & (INPUTS - 1)], null);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        connection.close();
+    }
+
+    private String gate() {
+        return String.valueOf((char) ('A' + random.nextInt(GATES / 10))) + (1 + random.nextInt(10));
+    }
+
+    /**
+     * Opens a scrollable result set over the first {@link #PAGE_ROWS} rows of the query, kept open so
+     * each call maps the same rows again without running the query.
+     */
+    private ResultSet page(String sql) throws SQLException {
+        Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        return statement.executeQuery(sql + " LIMIT " + PAGE_ROWS);
+    }
+}
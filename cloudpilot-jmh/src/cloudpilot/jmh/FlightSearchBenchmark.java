@@ -0,0 +1,51 @@
+package cloudpilot.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures finding the flights whose number or locations contain a text in the flight search index,
+ * for a mix of short and long, matching and rare texts, with the table size as the parameter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlightSearchBenchmark {
+
+    @Param({"1000", "10000"})
+    public int flights;
+
+    private HotPaths paths;
+    private int step;
+
+    @Setup
+    public void setUp() throws Exception {
+        paths = HotPaths.open(flights);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        paths.close();
+    }
+
+    @Benchmark
+    public List<String> search() {
+        return paths.searchFlights(step++);
+    }
+}
@@ -0,0 +1,50 @@
+package cloudpilot.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures checking a new flight for a gate conflict against the loaded gate schedule, with the number
+ * of scheduled flights as the parameter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GateConflictBenchmark {
+
+    @Param({"1000", "10000"})
+    public int flights;
+
+    private HotPaths paths;
+    private int step;
+
+    @Setup
+    public void setUp() throws Exception {
+        paths = HotPaths.open(flights);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        paths.close();
+    }
+
+    @Benchmark
+    public String findConflict() throws Exception {
+        return paths.findGateConflict(step++);
+    }
+}
@@ -0,0 +1,98 @@
+package cloudpilot.jmh;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * The HotPaths interface is what the benchmarks call into the application. JMH only runs benchmarks
+ * declared in a package, and classes in a package cannot refer to the application's classes, which are
+ * in the default package; the implementation, {@code JmhHotPaths}, is therefore in the default package
+ * and loaded by name. Each fork runs a single benchmark, so every call through the interface has one
+ * target and is inlined like a direct call.
+ *
+ * An implementation holds its own in-memory H2 database, seeded when it is opened. The {@code step}
+ * arguments pick one of a fixed set of prepared inputs, so consecutive calls do not repeat the same work.
+ */
+public interface HotPaths extends AutoCloseable {
+
+    /**
+     * The number of rows mapped per call of the mapping methods.
+     */
+    int PAGE_ROWS = 100;
+
+    /**
+     * Loads the implementation, seeds its database with {@code flights} flights and loads the indexes.
+     */
+    static HotPaths open(int flights) throws Exception {
+        HotPaths paths = (HotPaths) Class.forName("JmhHotPaths").getDeclaredConstructor().newInstance();
+        paths.seed(flights);
+        return paths;
+    }
+
+    /**
+     * Creates the database, fills it and prepares the inputs of every other method.
+     */
+    void seed(int flights) throws Exception;
+
+    /**
+     * Constructs a flight, as a repository does for every row it reads.
+     */
+    Object newFlight(int step);
+
+    /**
+     * Constructs a passenger.
+     */
+    Object newPassenger(int step);
+
+    /**
+     * Constructs a boarding.
+     */
+    Object newBoarding(int step);
+
+    /**
+     * Constructs a flight and asks for all its JavaFX properties, as a table does for a row it renders.
+     */
+    Object newRenderedFlight(int step);
+
+    /**
+     * Maps {@link #PAGE_ROWS} flight rows of an open result set with the repository's mapper.
+     */
+    List<?> mapFlights() throws Exception;
+
+    /**
+     * Maps {@link #PAGE_ROWS} passenger rows.
+     */
+    List<?> mapPassengers() throws Exception;
+
+    /**
+     * Maps {@link #PAGE_ROWS} boarding rows.
+     */
+    List<?> mapBoardings() throws Exception;
+
+    /**
+     * Finds the numbers of the flights containing one of the prepared search texts, in the flight search index.
+     */
+    List<String> searchFlights(int step);
+
+    /**
+     * Chooses the cabin the seat refreshes run on, {@code rows} seat letters by {@code columns} seat rows.
+     */
+    void useCabin(int rows, int columns);
+
+    /**
+     * Refreshes the seat grid of the check-in screen with the next prepared occupancy: builds the seat map,
+     * compares it with the one shown and visits the seats that changed. Returns how many of them were taken.
+     */
+    int refreshSeats(int step);
+
+    /**
+     * Checks one of the prepared flights for a gate conflict. Returns the conflicting flight number, or null.
+     */
+    String findGateConflict(int step) throws Exception;
+
+    /**
+     * Shuts the database down. Narrower than AutoCloseable's, so closing cannot throw InterruptedException.
+     */
+    @Override
+    void close() throws SQLException;
+}
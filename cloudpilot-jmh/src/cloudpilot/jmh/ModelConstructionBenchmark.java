@@ -0,0 +1,61 @@
+package cloudpilot.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures constructing flights, passengers and boardings from their values, which every repository
+ * read does once per row, and a flight whose JavaFX properties a table has asked for.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelConstructionBenchmark {
+
+    private HotPaths paths;
+    private int step;
+
+    @Setup
+    public void setUp() throws Exception {
+        paths = HotPaths.open(1000);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        paths.close();
+    }
+
+    @Benchmark
+    public Object flight() {
+        return paths.newFlight(step++);
+    }
+
+    @Benchmark
+    public Object passenger() {
+        return paths.newPassenger(step++);
+    }
+
+    @Benchmark
+    public Object boarding() {
+        return paths.newBoarding(step++);
+    }
+
+    @Benchmark
+    public Object renderedFlight() {
+        return paths.newRenderedFlight(step++);
+    }
+}
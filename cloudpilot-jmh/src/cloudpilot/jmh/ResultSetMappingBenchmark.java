@@ -0,0 +1,56 @@
+package cloudpilot.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures mapping a page of {@link HotPaths#PAGE_ROWS} rows of an open H2 result set with the
+ * repositories' mappers. One operation is one page, so divide by the page size for a row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSetMappingBenchmark {
+
+    private HotPaths paths;
+
+    @Setup
+    public void setUp() throws Exception {
+        paths = HotPaths.open(1000);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        paths.close();
+    }
+
+    @Benchmark
+    public List<?> flights() throws Exception {
+        return paths.mapFlights();
+    }
+
+    @Benchmark
+    public List<?> passengers() throws Exception {
+        return paths.mapPassengers();
+    }
+
+    @Benchmark
+    public List<?> boardings() throws Exception {
+        return paths.mapBoardings();
+    }
+}
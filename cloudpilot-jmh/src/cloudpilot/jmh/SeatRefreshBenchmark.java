@@ -0,0 +1,53 @@
+package cloudpilot.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the check-in screen's seat refresh: building the seat map from the occupied seat numbers,
+ * comparing it with the one shown and visiting the changed seats. The cabin is the screen's own
+ * 3 by 4 grid or a 30-row narrow-body cabin of six seats a row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeatRefreshBenchmark {
+
+    @Param({"4x3", "6x30"})
+    public String cabin;
+
+    private HotPaths paths;
+    private int step;
+
+    @Setup
+    public void setUp() throws Exception {
+        paths = HotPaths.open(1000);
+        String[] size = cabin.split("x");
+        paths.useCabin(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        paths.close();
+    }
+
+    @Benchmark
+    public int refresh() {
+        return paths.refreshSeats(step++);
+    }
+}
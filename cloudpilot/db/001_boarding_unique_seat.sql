@@ -0,0 +1,11 @@
+-- One boarding per seat and one boarding per passenger on each flight.
+-- SeatInventory relies on these constraints to claim a seat with a single INSERT:
+-- the database rejects the second of two desks booking the same seat, and the
+-- violated constraint name tells the desk which conflict it hit.
+--
+-- Existing duplicates must be removed before the constraints can be added. They can be found with:
+--   SELECT B_Flight_Number, Seat_Number, COUNT(*) FROM boarding GROUP BY B_Flight_Number, Seat_Number HAVING COUNT(*) > 1;
+--   SELECT B_Passenger_ID, B_Flight_Number, COUNT(*) FROM boarding GROUP BY B_Passenger_ID, B_Flight_Number HAVING COUNT(*) > 1;
+
+ALTER TABLE boarding ADD CONSTRAINT uq_boarding_flight_seat UNIQUE (B_Flight_Number, Seat_Number);
+ALTER TABLE boarding ADD CONSTRAINT uq_boarding_passenger_flight UNIQUE (B_Passenger_ID, B_Flight_Number);
@@ -0,0 +1,12 @@
+-- Ranges of IDs reserved by the application. BoardingIdAllocator takes a block of boarding IDs
+-- by advancing next_value in one short transaction, then hands the IDs out from memory.
+-- This replaces the ALTER TABLE boarding AUTO_INCREMENT the check-in screen used to run on open.
+-- All boarding inserts must take their Boarding_id from the allocator.
+
+CREATE TABLE id_block (
+    name VARCHAR(40) PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
+
+INSERT INTO id_block (name, next_value)
+SELECT 'boarding', COALESCE(MAX(Boarding_id), 0) + 1 FROM boarding;
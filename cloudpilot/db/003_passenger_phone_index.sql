@@ -0,0 +1,5 @@
+-- Index the phone numbers, which must be unique per passenger. Creating a passenger and importing
+-- a manifest both look up phone numbers; without the index every lookup scans the passenger table.
+-- The index is not UNIQUE so that it can be created on data that already holds duplicates.
+
+CREATE INDEX idx_passenger_phone ON passenger (Phone_Number);
@@ -11,41 +11,33 @@ import javafx.beans.property.StringProperty;
 /**
  * The Boarding class represents a boarding record for a passenger.
  * It includes information about the passenger, flight details, and additional services.
+ *
+ * The values are kept in an immutable {@link Row}; setters replace it. The JavaFX properties are only
+ * created when one of them is first asked for, as a table does for the rows it renders, so a long
+ * boarding list holds one small record per row rather than twelve property objects.
  */
 public class Boarding {
-    private final IntegerProperty boardingID;
-    private final IntegerProperty passengerID;
-    private final StringProperty seatNumber;
-    private final IntegerProperty baggageAllowance;
-    private final ObjectProperty<Date> departure;
-    private final ObjectProperty<Date> arrival;
-    private final StringProperty flightNumber;
-
-    // Added service features
-    private final BooleanProperty extraDrink;
-    private final BooleanProperty extraMeal;
-    private final BooleanProperty suitCenter;
-    private final IntegerProperty extraLuggage;
-    private final StringProperty serviceDescription;
+
+    /**
+     * The values of a boarding and its services.
+     */
+    public record Row(int boardingID, int passengerID, String seatNumber, int baggageAllowance, Date departure, Date arrival,
+            String flightNumber, boolean extraDrink, boolean extraMeal, boolean suitCenter, int extraLuggage,
+            String serviceDescription) {
+    }
+
+    // The row holds the values until the properties are created, and is kept afterwards, so a getter on
+    // another thread that does not see the properties yet reads an older row instead of null. The fields of
+    // Properties are final, so a thread that sees the properties sees them fully built.
+    private Row row;
+    private Properties properties;
 
     /**
      * Constructor to initialize all properties of the boarding.
      */
     public Boarding(int boardingID, int passengerID, String seatNumber, int baggageAllowance, Date departure, Date arrival, String flightNumber) {
-        this.boardingID = new SimpleIntegerProperty(boardingID);
-        this.passengerID = new SimpleIntegerProperty(passengerID);
-        this.seatNumber = new SimpleStringProperty(seatNumber);
-        this.baggageAllowance = new SimpleIntegerProperty(baggageAllowance);
-        this.departure = new SimpleObjectProperty<>(departure);
-        this.arrival = new SimpleObjectProperty<>(arrival);
-        this.flightNumber = new SimpleStringProperty(flightNumber);
-
         // Initialize service features
-        this.extraDrink = new SimpleBooleanProperty(false);
-        this.extraMeal = new SimpleBooleanProperty(false);
-        this.suitCenter = new SimpleBooleanProperty(false);
-        this.extraLuggage = new SimpleIntegerProperty(0);
-        this.serviceDescription = new SimpleStringProperty("");
+        this(new Row(boardingID, passengerID, seatNumber, baggageAllowance, departure, arrival, flightNumber, false, false, false, 0, ""));
     }
 
     /**
@@ -55,6 +47,13 @@ public class Boarding {
         this(boardingID, passengerID, seatNumber, 0, null, null, flightNumber);
     }
 
+    /**
+     * Constructs a boarding with the given values.
+     */
+    public Boarding(Row row) {
+        this.row = row;
+    }
+
     private int employeeId;
 
     /**
@@ -64,109 +63,160 @@ public class Boarding {
         this.employeeId = employeeId;
     }
 
+    /**
+     * Returns the current values of the boarding.
+     */
+    public Row toRow() {
+        Properties current = properties;
+        return current == null ? row : current.toRow();
+    }
+
+
     /**
      * Gets the boarding ID.
      */
     public int getBoardingID() {
-        return boardingID.get();
+        Properties current = properties;
+        return current == null ? row.boardingID() : current.boardingID.get();
     }
 
     public IntegerProperty boardingIDProperty() {
-        return boardingID;
+        return properties().boardingID;
     }
 
     public void setBoardingID(int boardingID) {
-        this.boardingID.set(boardingID);
+        if (properties == null) {
+            row = new Row(boardingID, row.passengerID(), row.seatNumber(), row.baggageAllowance(), row.departure(), row.arrival(),
+                    row.flightNumber(), row.extraDrink(), row.extraMeal(), row.suitCenter(), row.extraLuggage(), row.serviceDescription());
+        } else {
+            properties.boardingID.set(boardingID);
+        }
     }
 
     /**
      * Gets the passenger ID.
      */
     public int getPassengerID() {
-        return passengerID.get();
+        Properties current = properties;
+        return current == null ? row.passengerID() : current.passengerID.get();
     }
 
     public IntegerProperty passengerIDProperty() {
-        return passengerID;
+        return properties().passengerID;
     }
 
     public void setPassengerID(int passengerID) {
-        this.passengerID.set(passengerID);
+        if (properties == null) {
+            row = new Row(row.boardingID(), passengerID, row.seatNumber(), row.baggageAllowance(), row.departure(), row.arrival(),
+                    row.flightNumber(), row.extraDrink(), row.extraMeal(), row.suitCenter(), row.extraLuggage(), row.serviceDescription());
+        } else {
+            properties.passengerID.set(passengerID);
+        }
     }
 
     /**
      * Gets the seat number.
      */
     public String getSeatNumber() {
-        return seatNumber.get();
+        Properties current = properties;
+        return current == null ? row.seatNumber() : current.seatNumber.get();
     }
 
     public StringProperty seatNumberProperty() {
-        return seatNumber;
+        return properties().seatNumber;
     }
 
     public void setSeatNumber(String seatNumber) {
-        this.seatNumber.set(seatNumber);
+        if (properties == null) {
+            row = new Row(row.boardingID(), row.passengerID(), seatNumber, row.baggageAllowance(), row.departure(), row.arrival(),
+                    row.flightNumber(), row.extraDrink(), row.extraMeal(), row.suitCenter(), row.extraLuggage(), row.serviceDescription());
+        } else {
+            properties.seatNumber.set(seatNumber);
+        }
     }
 
     /**
      * Gets the baggage allowance.
      */
     public int getBaggageAllowance() {
-        return baggageAllowance.get();
+        Properties current = properties;
+        return current == null ? row.baggageAllowance() : current.baggageAllowance.get();
     }
 
     public IntegerProperty baggageAllowanceProperty() {
-        return baggageAllowance;
+        return properties().baggageAllowance;
     }
 
     public void setBaggageAllowance(int baggageAllowance) {
-        this.baggageAllowance.set(baggageAllowance);
+        if (properties == null) {
+            row = new Row(row.boardingID(), row.passengerID(), row.seatNumber(), baggageAllowance, row.departure(), row.arrival(),
+                    row.flightNumber(), row.extraDrink(), row.extraMeal(), row.suitCenter(), row.extraLuggage(), row.serviceDescription());
+        } else {
+            properties.baggageAllowance.set(baggageAllowance);
+        }
     }
 
     /**
      * Gets the departure date and time.
      */
     public Date getDeparture() {
-        return departure.get();
+        Properties current = properties;
+        return current == null ? row.departure() : current.departure.get();
     }
 
     public ObjectProperty<Date> departureProperty() {
-        return departure;
+        return properties().departure;
     }
 
     public void setDeparture(Date departure) {
-        this.departure.set(departure);
+        if (properties == null) {
+            row = new Row(row.boardingID(), row.passengerID(), row.seatNumber(), row.baggageAllowance(), departure, row.arrival(),
+                    row.flightNumber(), row.extraDrink(), row.extraMeal(), row.suitCenter(), row.extraLuggage(), row.serviceDescription());
+        } else {
+            properties.departure.set(departure);
+        }
     }
 
     /**
      * Gets the arrival date and time.
      */
     public Date getArrival() {
-        return arrival.get();
+        Properties current = properties;
+        return current == null ? row.arrival() : current.arrival.get();
     }
 
     public ObjectProperty<Date> arrivalProperty() {
-        return arrival;
+        return properties().arrival;
     }
 
     public void setArrival(Date arrival) {
-        this.arrival.set(arrival);
+        if (properties == null) {
+            row = new Row(row.boardingID(), row.passengerID(), row.seatNumber(), row.baggageAllowance(), row.departure(), arrival,
+                    row.flightNumber(), row.extraDrink(), row.extraMeal(), row.suitCenter(), row.extraLuggage(), row.serviceDescription());
+        } else {
+            properties.arrival.set(arrival);
+        }
     }
 
     /**
      * Gets the flight number.
      */
     public String getFlightNumber() {
-        return flightNumber.get();
+        Properties current = properties;
+        return current == null ? row.flightNumber() : current.flightNumber.get();
     }
 
     public StringProperty flightNumberProperty() {
-        return flightNumber;
+        return properties().flightNumber;
     }
 
     public void setFlightNumber(String flightNumber) {
-        this.flightNumber.set(flightNumber);
+        if (properties == null) {
+            row = new Row(row.boardingID(), row.passengerID(), row.seatNumber(), row.baggageAllowance(), row.departure(), row.arrival(),
+                    flightNumber, row.extraDrink(), row.extraMeal(), row.suitCenter(), row.extraLuggage(), row.serviceDescription());
+        } else {
+            properties.flightNumber.set(flightNumber);
+        }
     }
 
     // Added getter and setter methods for the service features
@@ -174,74 +224,165 @@ public class Boarding {
      * Checks if extra drink service is included.
      */
     public boolean isExtraDrink() {
-        return extraDrink.get();
+        Properties current = properties;
+        return current == null ? row.extraDrink() : current.extraDrink.get();
     }
 
     public BooleanProperty extraDrinkProperty() {
-        return extraDrink;
+        return properties().extraDrink;
     }
 
     public void setExtraDrink(boolean extraDrink) {
-        this.extraDrink.set(extraDrink);
+        if (properties == null) {
+            row = new Row(row.boardingID(), row.passengerID(), row.seatNumber(), row.baggageAllowance(), row.departure(), row.arrival(),
+                    row.flightNumber(), extraDrink, row.extraMeal(), row.suitCenter(), row.extraLuggage(), row.serviceDescription());
+        } else {
+            properties.extraDrink.set(extraDrink);
+        }
     }
 
     /**
      * Checks if extra meal service is included.
      */
     public boolean isExtraMeal() {
-        return extraMeal.get();
+        Properties current = properties;
+        return current == null ? row.extraMeal() : current.extraMeal.get();
     }
 
     public BooleanProperty extraMealProperty() {
-        return extraMeal;
+        return properties().extraMeal;
     }
 
     public void setExtraMeal(boolean extraMeal) {
-        this.extraMeal.set(extraMeal);
+        if (properties == null) {
+            row = new Row(row.boardingID(), row.passengerID(), row.seatNumber(), row.baggageAllowance(), row.departure(), row.arrival(),
+                    row.flightNumber(), row.extraDrink(), extraMeal, row.suitCenter(), row.extraLuggage(), row.serviceDescription());
+        } else {
+            properties.extraMeal.set(extraMeal);
+        }
     }
 
     /**
      * Checks if suit center service is included.
      */
     public boolean isSuitCenter() {
-        return suitCenter.get();
+        Properties current = properties;
+        return current == null ? row.suitCenter() : current.suitCenter.get();
     }
 
     public BooleanProperty suitCenterProperty() {
-        return suitCenter;
+        return properties().suitCenter;
     }
 
     public void setSuitCenter(boolean suitCenter) {
-        this.suitCenter.set(suitCenter);
+        if (properties == null) {
+            row = new Row(row.boardingID(), row.passengerID(), row.seatNumber(), row.baggageAllowance(), row.departure(), row.arrival(),
+                    row.flightNumber(), row.extraDrink(), row.extraMeal(), suitCenter, row.extraLuggage(), row.serviceDescription());
+        } else {
+            properties.suitCenter.set(suitCenter);
+        }
     }
 
     /**
      * Gets the extra luggage amount.
      */
     public int getExtraLuggage() {
-        return extraLuggage.get();
+        Properties current = properties;
+        return current == null ? row.extraLuggage() : current.extraLuggage.get();
     }
 
     public IntegerProperty extraLuggageProperty() {
-        return extraLuggage;
+        return properties().extraLuggage;
     }
 
     public void setExtraLuggage(int extraLuggage) {
-        this.extraLuggage.set(extraLuggage);
+        if (properties == null) {
+            row = new Row(row.boardingID(), row.passengerID(), row.seatNumber(), row.baggageAllowance(), row.departure(), row.arrival(),
+                    row.flightNumber(), row.extraDrink(), row.extraMeal(), row.suitCenter(), extraLuggage, row.serviceDescription());
+        } else {
+            properties.extraLuggage.set(extraLuggage);
+        }
     }
 
     /**
      * Gets the service description.
      */
     public String getServiceDescription() {
-        return serviceDescription.get();
+        Properties current = properties;
+        return current == null ? row.serviceDescription() : current.serviceDescription.get();
     }
 
     public StringProperty serviceDescriptionProperty() {
-        return serviceDescription;
+        return properties().serviceDescription;
     }
 
     public void setServiceDescription(String serviceDescription) {
-        this.serviceDescription.set(serviceDescription);
+        if (properties == null) {
+            row = new Row(row.boardingID(), row.passengerID(), row.seatNumber(), row.baggageAllowance(), row.departure(), row.arrival(),
+                    row.flightNumber(), row.extraDrink(), row.extraMeal(), row.suitCenter(), row.extraLuggage(), serviceDescription);
+        } else {
+            properties.serviceDescription.set(serviceDescription);
+        }
+    }
+
+    /**
+     * Sets all service details at once.
+     */
+    public void setServices(boolean extraDrink, boolean extraMeal, boolean suitCenter, int extraLuggage, String serviceDescription) {
+        if (properties == null) {
+            row = new Row(row.boardingID(), row.passengerID(), row.seatNumber(), row.baggageAllowance(), row.departure(), row.arrival(),
+                    row.flightNumber(), extraDrink, extraMeal, suitCenter, extraLuggage, serviceDescription);
+        } else {
+            properties.extraDrink.set(extraDrink);
+            properties.extraMeal.set(extraMeal);
+            properties.suitCenter.set(suitCenter);
+            properties.extraLuggage.set(extraLuggage);
+            properties.serviceDescription.set(serviceDescription);
+        }
+    }
+
+    private Properties properties() {
+        if (properties == null) {
+            properties = new Properties(row);
+        }
+        return properties;
+    }
+
+    /**
+     * The JavaFX properties of a boarding that a table renders.
+     */
+    private static final class Properties {
+        final IntegerProperty boardingID;
+        final IntegerProperty passengerID;
+        final StringProperty seatNumber;
+        final IntegerProperty baggageAllowance;
+        final ObjectProperty<Date> departure;
+        final ObjectProperty<Date> arrival;
+        final StringProperty flightNumber;
+        final BooleanProperty extraDrink;
+        final BooleanProperty extraMeal;
+        final BooleanProperty suitCenter;
+        final IntegerProperty extraLuggage;
+        final StringProperty serviceDescription;
+
+        Properties(Row row) {
+            boardingID = new SimpleIntegerProperty(row.boardingID());
+            passengerID = new SimpleIntegerProperty(row.passengerID());
+            seatNumber = new SimpleStringProperty(row.seatNumber());
+            baggageAllowance = new SimpleIntegerProperty(row.baggageAllowance());
+            departure = new SimpleObjectProperty<>(row.departure());
+            arrival = new SimpleObjectProperty<>(row.arrival());
+            flightNumber = new SimpleStringProperty(row.flightNumber());
+            extraDrink = new SimpleBooleanProperty(row.extraDrink());
+            extraMeal = new SimpleBooleanProperty(row.extraMeal());
+            suitCenter = new SimpleBooleanProperty(row.suitCenter());
+            extraLuggage = new SimpleIntegerProperty(row.extraLuggage());
+            serviceDescription = new SimpleStringProperty(row.serviceDescription());
+        }
+
+        Row toRow() {
+            return new Row(boardingID.get(), passengerID.get(), seatNumber.get(), baggageAllowance.get(), departure.get(), arrival.get(),
+                    flightNumber.get(), extraDrink.get(), extraMeal.get(), suitCenter.get(), extraLuggage.get(), serviceDescription.get());
+        }
     }
 }
@@ -0,0 +1,392 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The BoardingColumnStore class holds boardings and their service flags column by column, for scans over
+ * many rows. Boarding and passenger IDs are int arrays, flight and seat numbers are dictionary-encoded into
+ * int codes, and each service flag is a bitset with one bit per row.
+ *
+ * Scans work on a {@link Selection}, a bitset of rows the caller creates once and reuses. A scan starts
+ * with {@link #selectAll}, narrows the selection with the keep and drop methods and ends with an aggregate
+ * such as {@link #count} or {@link #countByFlight}. None of these allocate, so a scan over millions of rows
+ * costs a few passes over primitive arrays. Flag filters work on 64 rows per step.
+ *
+ * Rows are appended with {@link #add}; {@link BoardingRepository#loadColumnStore} fills a store from the
+ * database. A store must not be scanned while rows are added, but once filled it may be scanned by any
+ * number of threads, each with its own selections.
+ */
+public class BoardingColumnStore {
+
+    /**
+     * The services whose flags the store keeps.
+     */
+    public enum Service {
+        EXTRA_DRINK,
+        EXTRA_MEAL,
+        SUIT_CENTER
+    }
+
+    /**
+     * A set of rows of a store, one bit per row. Create it with {@link #newSelection} and reuse it.
+     */
+    public static final class Selection {
+        private final long[] words;
+        private int rows;
+
+        private Selection(int capacity) {
+            words = new long[wordsFor(capacity)];
+        }
+
+        /**
+         * Returns the number of rows the selection was last filled for.
+         */
+        public int rows() {
+            return rows;
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size;
+    private int[] boardingIds = new int[INITIAL_CAPACITY];
+    private int[] passengerIds = new int[INITIAL_CAPACITY];
+    private int[] flightCodes = new int[INITIAL_CAPACITY];
+    private int[] seatCodes = new int[INITIAL_CAPACITY];
+    private int[] extraLuggage = new int[INITIAL_CAPACITY];
+    private final long[][] services = new long[Service.values().length][wordsFor(INITIAL_CAPACITY)];
+    private final Dictionary flights = new Dictionary();
+    private final Dictionary seats = new Dictionary();
+
+    /**
+     * Appends a boarding and its services. A boarding without services has no flags set and no extra luggage.
+     */
+    public void add(int boardingId, int passengerId, String flightNumber, String seatNumber,
+            boolean extraDrink, boolean extraMeal, boolean suitCenter, int luggage) {
+        if (size == boardingIds.length) {
+            grow();
+        }
+        boardingIds[size] = boardingId;
+        passengerIds[size] = passengerId;
+        flightCodes[size] = flights.encode(flightNumber);
+        seatCodes[size] = seats.encode(seatNumber);
+        extraLuggage[size] = luggage;
+        long bit = 1L << size;
+        int word = size >>> 6;
+        if (extraDrink) {
+            services[Service.EXTRA_DRINK.ordinal()][word] |= bit;
+        }
+        if (extraMeal) {
+            services[Service.EXTRA_MEAL.ordinal()][word] |= bit;
+        }
+        if (suitCenter) {
+            services[Service.SUIT_CENTER.ordinal()][word] |= bit;
+        }
+        size++;
+    }
+
+    /**
+     * Shrinks the columns to the rows held, once no more rows are coming.
+     */
+    public void trimToSize() {
+        resize(Math.max(1, size));
+    }
+
+    /**
+     * Returns the number of rows.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns an empty selection large enough for the rows held now.
+     */
+    public Selection newSelection() {
+        return new Selection(size);
+    }
+
+    /**
+     * Selects every row.
+     *
+     * @throws IllegalArgumentException if the selection was created before the store grew
+     */
+    public Selection selectAll(Selection selection) {
+        int words = wordsFor(size);
+        if (selection.words.length < words) {
+            throw new IllegalArgumentException("The selection holds " + (selection.words.length << 6) + " rows, the store " + size);
+        }
+        Arrays.fill(selection.words, 0, words, -1L);
+        Arrays.fill(selection.words, words, selection.words.length, 0);
+        if ((size & 63) != 0) {
+            selection.words[words - 1] = (1L << size) - 1;
+        }
+        selection.rows = size;
+        return selection;
+    }
+
+    /**
+     * Keeps the selected rows of the flight.
+     */
+    public Selection keepFlight(Selection selection, String flightNumber) {
+        return keepEqual(selection, flightCodes, flights.codeOf(flightNumber));
+    }
+
+    /**
+     * Keeps the selected rows of the passenger.
+     */
+    public Selection keepPassenger(Selection selection, int passengerId) {
+        return keepEqual(selection, passengerIds, passengerId);
+    }
+
+    /**
+     * Keeps the selected rows that booked the service.
+     */
+    public Selection keepService(Selection selection, Service service) {
+        long[] flags = services[service.ordinal()];
+        for (int word = 0, words = wordsFor(selection.rows); word < words; word++) {
+            selection.words[word] &= flags[word];
+        }
+        return selection;
+    }
+
+    /**
+     * Keeps the selected rows that did not book the service.
+     */
+    public Selection dropService(Selection selection, Service service) {
+        long[] flags = services[service.ordinal()];
+        for (int word = 0, words = wordsFor(selection.rows); word < words; word++) {
+            selection.words[word] &= ~flags[word];
+        }
+        return selection;
+    }
+
+    /**
+     * Returns the number of selected rows.
+     */
+    public int count(Selection selection) {
+        int count = 0;
+        for (int word = 0, words = wordsFor(selection.rows); word < words; word++) {
+            count += Long.bitCount(selection.words[word]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of selected rows that booked the service, leaving the selection as it is.
+     */
+    public int countService(Selection selection, Service service) {
+        long[] flags = services[service.ordinal()];
+        int count = 0;
+        for (int word = 0, words = wordsFor(selection.rows); word < words; word++) {
+            count += Long.bitCount(selection.words[word] & flags[word]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total extra luggage of the selected rows.
+     */
+    public long sumExtraLuggage(Selection selection) {
+        long sum = 0;
+        for (int word = 0, words = wordsFor(selection.rows); word < words; word++) {
+            int base = word << 6;
+            for (long bits = selection.words[word]; bits != 0; bits &= bits - 1) {
+                sum += extraLuggage[base + Long.numberOfTrailingZeros(bits)];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Adds the number of selected rows of each flight to {@code counts}, indexed by flight code.
+     *
+     * @param counts an array of at least {@link #flightCount()} elements
+     */
+    public void countByFlight(Selection selection, int[] counts) {
+        if (counts.length < flights.size()) {
+            throw new IllegalArgumentException("counts needs " + flights.size() + " elements");
+        }
+        for (int word = 0, words = wordsFor(selection.rows); word < words; word++) {
+            int base = word << 6;
+            for (long bits = selection.words[word]; bits != 0; bits &= bits - 1) {
+                int code = flightCodes[base + Long.numberOfTrailingZeros(bits)];
+                if (code >= 0) {
+                    counts[code]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the first selected row at or after {@code from}, or -1 if there is none.
+     */
+    public int nextRow(Selection selection, int from) {
+        if (from >= selection.rows) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long bits = selection.words[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == wordsFor(selection.rows)) {
+                return -1;
+            }
+            bits = selection.words[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Returns the boarding ID of a row.
+     */
+    public int boardingId(int row) {
+        return boardingIds[checkRow(row)];
+    }
+
+    /**
+     * Returns the passenger ID of a row.
+     */
+    public int passengerId(int row) {
+        return passengerIds[checkRow(row)];
+    }
+
+    /**
+     * Returns the flight code of a row, or -1 if it has no flight number.
+     */
+    public int flightCode(int row) {
+        return flightCodes[checkRow(row)];
+    }
+
+    /**
+     * Returns the seat number of a row.
+     */
+    public String seatNumber(int row) {
+        return seats.valueOf(seatCodes[checkRow(row)]);
+    }
+
+    /**
+     * Returns true if the row booked the service.
+     */
+    public boolean hasService(int row, Service service) {
+        return (services[service.ordinal()][checkRow(row) >>> 6] & 1L << row) != 0;
+    }
+
+    /**
+     * Returns the extra luggage of a row.
+     */
+    public int extraLuggage(int row) {
+        return extraLuggage[checkRow(row)];
+    }
+
+    /**
+     * Returns the number of distinct flight numbers; flight codes run from 0 to this number minus one.
+     */
+    public int flightCount() {
+        return flights.size();
+    }
+
+    /**
+     * Returns the flight number of a flight code, or null for -1.
+     */
+    public String flightNumber(int code) {
+        return flights.valueOf(code);
+    }
+
+    /**
+     * Returns an estimate of the heap the store takes, in bytes, not counting the dictionaries.
+     */
+    public long estimatedBytes() {
+        long columns = 5L * 4 * boardingIds.length;
+        long flags = (long) services.length * 8 * services[0].length;
+        return columns + flags;
+    }
+
+    private Selection keepEqual(Selection selection, int[] column, int value) {
+        for (int word = 0, words = wordsFor(selection.rows); word < words; word++) {
+            long bits = selection.words[word];
+            if (bits == 0) {
+                continue;
+            }
+            int base = word << 6;
+            long matches = 0;
+            if (bits == -1L) {
+                // Compare all 64 rows without branching; the JIT turns this into conditional moves
+                for (int bit = 0; bit < 64; bit++) {
+                    matches |= (column[base + bit] == value ? 1L : 0L) << bit;
+                }
+            } else {
+                for (long rest = bits; rest != 0; rest &= rest - 1) {
+                    int bit = Long.numberOfTrailingZeros(rest);
+                    if (column[base + bit] == value) {
+                        matches |= 1L << bit;
+                    }
+                }
+            }
+            selection.words[word] = matches;
+        }
+        return selection;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+        return row;
+    }
+
+    private void grow() {
+        resize(boardingIds.length * 2);
+    }
+
+    private void resize(int capacity) {
+        boardingIds = Arrays.copyOf(boardingIds, capacity);
+        passengerIds = Arrays.copyOf(passengerIds, capacity);
+        flightCodes = Arrays.copyOf(flightCodes, capacity);
+        seatCodes = Arrays.copyOf(seatCodes, capacity);
+        extraLuggage = Arrays.copyOf(extraLuggage, capacity);
+        for (int i = 0; i < services.length; i++) {
+            services[i] = Arrays.copyOf(services[i], wordsFor(capacity));
+        }
+    }
+
+    private static int wordsFor(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    /**
+     * Maps strings to dense int codes and back. Null is code -1.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        int codeOf(String value) {
+            Integer code = value == null ? null : codes.get(value);
+            // A value that never occurs matches no row; -2 is no row's code
+            return code == null ? -2 : code;
+        }
+
+        String valueOf(int code) {
+            return code < 0 ? null : values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+/**
+ * The BoardingIdAllocator class hands out boarding IDs from blocks reserved in the id_block table (hi-lo).
+ * Reserving a block advances the table's counter in one short transaction; the IDs of the block are then
+ * given out from memory, so most check-ins need no round-trip for their ID. IDs are unique across all
+ * desks and application instances. IDs of a block left unused when the application exits are skipped.
+ * See db/002_id_block.sql.
+ */
+public class BoardingIdAllocator {
+    static final String SELECT_FOR_UPDATE = "SELECT next_value FROM id_block WHERE name = ? FOR UPDATE";
+    static final String ADVANCE = "UPDATE id_block SET next_value = next_value + ? WHERE name = ?";
+    static final String BLOCK_NAME = "boarding";
+
+    public static final int DEFAULT_BLOCK_SIZE = 50;
+
+    private static BoardingIdAllocator shared;
+
+    private final DataSource dataSource;
+    private final int blockSize;
+    // Not synchronized: a virtual thread must not be pinned while it waits for the database
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long limit;
+    private long blocksReserved;
+
+    /**
+     * Creates an allocator that reserves {@code blockSize} IDs at a time through the data source.
+     * The data source should not be the one the callers borrow their own connections from.
+     */
+    public BoardingIdAllocator(DataSource dataSource, int blockSize) {
+        this.dataSource = dataSource;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns the allocator shared by all screens. It reserves blocks through the ID pool, because its
+     * callers usually already hold a connection of the shared pool.
+     */
+    public static synchronized BoardingIdAllocator shared() {
+        if (shared == null) {
+            shared = new BoardingIdAllocator(Database.getIdDataSource(), DEFAULT_BLOCK_SIZE);
+        }
+        return shared;
+    }
+
+    /**
+     * Returns a new boarding ID, reserving the next block first if the current one is used up.
+     */
+    public int next() throws SQLException {
+        lock.lock();
+        try {
+            if (next >= limit) {
+                next = reserveBlock();
+                limit = next + blockSize;
+            }
+            return Math.toIntExact(next++);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a new boarding ID from the block already reserved, or -1 if it is used up. Never touches the
+     * database, so it also works while the database cannot be reached.
+     */
+    public int tryNext() {
+        lock.lock();
+        try {
+            return next < limit ? Math.toIntExact(next++) : -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how many blocks this allocator has reserved.
+     */
+    public long getBlocksReserved() {
+        lock.lock();
+        try {
+            return blocksReserved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Advances the counter by one block on a connection of its own, so the reservation commits
+     * independently of the caller's transaction. Returns the first ID of the block.
+     */
+    private long reserveBlock() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            long first;
+            try (PreparedStatement select = connection.prepareStatement(SELECT_FOR_UPDATE)) {
+                select.setString(1, BLOCK_NAME);
+                ResultSet resultSet = select.executeQuery();
+                if (!resultSet.next()) {
+                    throw new SQLException("id_block has no row for '" + BLOCK_NAME + "'. Run db/002_id_block.sql.");
+                }
+                first = resultSet.getLong(1);
+            }
+            try (PreparedStatement advance = connection.prepareStatement(ADVANCE)) {
+                advance.setInt(1, blockSize);
+                advance.setString(2, BLOCK_NAME);
+                advance.executeUpdate();
+            }
+            connection.commit();
+            blocksReserved++;
+            return first;
+        }
+    }
+}
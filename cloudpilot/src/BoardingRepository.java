@@ -0,0 +1,391 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The BoardingRepository class owns the SQL for the boarding table and maps its rows into Boarding objects.
+ */
+public class BoardingRepository {
+    static final String SELECT_ALL = "SELECT * FROM boarding";
+    static final String SELECT_BY_ID = "SELECT * FROM boarding WHERE Boarding_id = ?";
+    static final String SELECT_BY_PASSENGER = "SELECT * FROM boarding WHERE B_Passenger_ID = ?";
+    static final String SELECT_ALL_WITH_SERVICES = "SELECT b.*, s.Boarding_ID AS S_Boarding_ID, s.Extra_Drink, s.Extra_Meal, s.Suit_Center, s.Extra_Luggage, s.Service_Description "
+            + "FROM boarding b LEFT JOIN services s ON s.Boarding_ID = b.Boarding_id";
+    static final String SELECT_BY_PASSENGER_WITH_SERVICES = SELECT_ALL_WITH_SERVICES + " WHERE b.B_Passenger_ID = ?";
+    static final String SELECT_IDS_BY_PASSENGER = "SELECT Boarding_id FROM boarding WHERE B_Passenger_ID = ?";
+    static final String SELECT_SEATS_BY_FLIGHT = "SELECT Seat_Number FROM boarding WHERE B_Flight_Number = ?";
+    static final String EXISTS_FOR_PASSENGER = "SELECT 1 FROM boarding WHERE B_Passenger_ID = ? AND B_Flight_Number = ?";
+    static final String EXISTS_FOR_SEAT = "SELECT 1 FROM boarding WHERE B_Flight_Number = ? AND Seat_Number = ?";
+    static final String SELECT_BY_PASSENGER_AND_FLIGHT = "SELECT * FROM boarding WHERE B_Passenger_ID = ? AND B_Flight_Number = ?";
+    static final String SELECT_BY_FLIGHTS_DEPARTING_BETWEEN = "SELECT b.* FROM boarding b JOIN flight f ON f.Flight_number = b.B_Flight_Number "
+            + "WHERE f.F_Departure >= ? AND f.F_Departure < ?";
+    static final String INSERT = "INSERT INTO boarding (Boarding_id, B_Passenger_ID, B_Flight_Number, Seat_Number, B_Departure, B_Arrival) VALUES (?, ?, ?, ?, ?, ?)";
+    static final String RENAME_FLIGHT = "UPDATE boarding SET B_Flight_Number = ? WHERE B_Flight_Number = ?";
+    static final String DELETE_BY_PASSENGER = "DELETE FROM boarding WHERE B_Passenger_ID = ?";
+    static final String DELETE_BY_FLIGHT = "DELETE FROM boarding WHERE B_Flight_Number = ?";
+    static final String COUNT = "SELECT COUNT(*) FROM boarding";
+    static final String SELECT_FIRST_PAGE_WITH_SERVICES = SELECT_ALL_WITH_SERVICES + " ORDER BY b.Boarding_id LIMIT ?";
+    static final String SELECT_PAGE_AFTER_WITH_SERVICES = SELECT_ALL_WITH_SERVICES + " WHERE b.Boarding_id > ? ORDER BY b.Boarding_id LIMIT ?";
+    static final String SELECT_FIRST_ID = "SELECT Boarding_id FROM boarding ORDER BY Boarding_id LIMIT 1 OFFSET ?";
+    static final String SELECT_ID_AFTER = "SELECT Boarding_id FROM boarding WHERE Boarding_id > ? ORDER BY Boarding_id LIMIT 1 OFFSET ?";
+    static final String SELECT_COLUMNS_WITH_SERVICES = "SELECT b.Boarding_id, b.B_Passenger_ID, b.B_Flight_Number, b.Seat_Number, "
+            + "s.Extra_Drink, s.Extra_Meal, s.Suit_Center, s.Extra_Luggage "
+            + "FROM boarding b LEFT JOIN services s ON s.Boarding_ID = b.Boarding_id ORDER BY b.Boarding_id";
+
+    // Estimated bytes of a cached Boarding and its row, entry and strings, not counting the characters of its strings
+    private static final int BOARDING_OVERHEAD = 240;
+    private static final EntityCache<Integer, Boarding> CACHE = new EntityCache<>("Boardings",
+            EntityCache.configuredMaxWeight(), EntityCache.configuredExpireAfterMillis(),
+            BoardingRepository::estimateSize, BoardingRepository::copy);
+
+    private final Connection connection;
+
+    /**
+     * Creates a repository that runs its statements on the given connection.
+     */
+    public BoardingRepository(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Maps the current row of the result set into a Boarding. The service details are left at their defaults.
+     */
+    public static Boarding map(ResultSet resultSet) throws SQLException {
+        return new Boarding(
+                resultSet.getInt("Boarding_id"),
+                resultSet.getInt("B_Passenger_ID"),
+                resultSet.getString("Seat_Number"),
+                resultSet.getString("B_Flight_Number")
+        );
+    }
+
+    /**
+     * Returns the cache of boardings read by ID, shared by all screens. Only the boarding columns are
+     * cached, not the services. Screens that move or delete boardings invalidate them after committing.
+     */
+    public static EntityCache<Integer, Boarding> cache() {
+        return CACHE;
+    }
+
+    /**
+     * Returns all boardings.
+     */
+    public List<Boarding> findAll() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_ALL)) {
+            return mapAll(statement.executeQuery());
+        }
+    }
+
+    /**
+     * Finds a boarding by ID, from the cache if it was read recently. The service details are left at their defaults.
+     */
+    public Optional<Boarding> findById(int boardingId) throws SQLException {
+        return Optional.ofNullable(CACHE.get(boardingId, this::selectById));
+    }
+
+    private Boarding selectById(int boardingId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID)) {
+            statement.setInt(1, boardingId);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? map(resultSet) : null;
+        }
+    }
+
+    /**
+     * Returns the boardings of a passenger.
+     */
+    public List<Boarding> findByPassenger(int passengerId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_PASSENGER)) {
+            statement.setInt(1, passengerId);
+            return mapAll(statement.executeQuery());
+        }
+    }
+
+    /**
+     * Returns all boardings with their service details, loaded in a single query.
+     */
+    public List<Boarding> findAllWithServices() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_ALL_WITH_SERVICES)) {
+            return mapAllWithServices(statement.executeQuery());
+        }
+    }
+
+    /**
+     * Returns the boardings of a passenger with their service details, loaded in a single query.
+     */
+    public List<Boarding> findByPassengerWithServices(int passengerId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_PASSENGER_WITH_SERVICES)) {
+            statement.setInt(1, passengerId);
+            return mapAllWithServices(statement.executeQuery());
+        }
+    }
+
+    /**
+     * Reads every boarding with its service flags into a column store, in boarding ID order.
+     * Only the columns the store keeps are read.
+     */
+    public BoardingColumnStore loadColumnStore() throws SQLException {
+        BoardingColumnStore store = new BoardingColumnStore();
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_COLUMNS_WITH_SERVICES)) {
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                // A boarding without a services row reads as false and 0
+                store.add(resultSet.getInt(1), resultSet.getInt(2), resultSet.getString(3), resultSet.getString(4),
+                        resultSet.getBoolean(5), resultSet.getBoolean(6), resultSet.getBoolean(7), resultSet.getInt(8));
+            }
+        }
+        store.trimToSize();
+        return store;
+    }
+
+    /**
+     * Returns the number of boardings.
+     */
+    public int count() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(COUNT)) {
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} boardings with their service details whose ID is greater than {@code afterId},
+     * in ID order. A null ID starts at the first boarding.
+     */
+    public List<Boarding> findPageWithServices(Integer afterId, int limit) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(afterId == null ? SELECT_FIRST_PAGE_WITH_SERVICES : SELECT_PAGE_AFTER_WITH_SERVICES)) {
+            int index = 1;
+            if (afterId != null) {
+                statement.setInt(index++, afterId);
+            }
+            statement.setInt(index, limit);
+            return mapAllWithServices(statement.executeQuery());
+        }
+    }
+
+    /**
+     * Returns the boarding ID {@code skip} boardings after {@code afterId}, or null past the last boarding.
+     */
+    public Integer findIdAfter(Integer afterId, int skip) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(afterId == null ? SELECT_FIRST_ID : SELECT_ID_AFTER)) {
+            int index = 1;
+            if (afterId != null) {
+                statement.setInt(index++, afterId);
+            }
+            statement.setInt(index, skip);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : null;
+        }
+    }
+
+    /**
+     * Returns the loader that pages through the boardings and their services by boarding ID.
+     */
+    public static PagedList.Loader<Integer, Boarding> pageLoader() {
+        return new PagedList.Loader<>() {
+            @Override
+            public int count(Connection connection) throws SQLException {
+                return new BoardingRepository(connection).count();
+            }
+
+            @Override
+            public List<Boarding> loadPage(Connection connection, Integer afterKey, int limit) throws SQLException {
+                return new BoardingRepository(connection).findPageWithServices(afterKey, limit);
+            }
+
+            @Override
+            public Integer findKey(Connection connection, Integer afterKey, int skip) throws SQLException {
+                return new BoardingRepository(connection).findIdAfter(afterKey, skip);
+            }
+
+            @Override
+            public Integer keyOf(Boarding boarding) {
+                return boarding.getBoardingID();
+            }
+        };
+    }
+
+    /**
+     * Returns the boarding IDs of a passenger.
+     */
+    public List<Integer> findIdsByPassenger(int passengerId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_IDS_BY_PASSENGER)) {
+            statement.setInt(1, passengerId);
+            ResultSet resultSet = statement.executeQuery();
+            List<Integer> boardingIds = new ArrayList<>();
+            while (resultSet.next()) {
+                boardingIds.add(resultSet.getInt("Boarding_id"));
+            }
+            return boardingIds;
+        }
+    }
+
+    /**
+     * Returns the occupied seat numbers of a flight.
+     */
+    public List<String> findSeatNumbers(String flightNumber) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_SEATS_BY_FLIGHT)) {
+            statement.setString(1, flightNumber);
+            ResultSet resultSet = statement.executeQuery();
+            List<String> seats = new ArrayList<>();
+            while (resultSet.next()) {
+                seats.add(resultSet.getString("Seat_Number"));
+            }
+            return seats;
+        }
+    }
+
+    /**
+     * Returns the passenger's boarding on the flight, read from the database rather than the cache.
+     */
+    public Optional<Boarding> findByPassengerAndFlight(int passengerId, String flightNumber) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_PASSENGER_AND_FLIGHT)) {
+            statement.setInt(1, passengerId);
+            statement.setString(2, flightNumber);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? Optional.of(map(resultSet)) : Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the boardings of the flights departing at or after {@code from} and before {@code to}.
+     */
+    public List<Boarding> findByFlightsDepartingBetween(LocalDateTime from, LocalDateTime to) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_FLIGHTS_DEPARTING_BETWEEN)) {
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(to));
+            return mapAll(statement.executeQuery());
+        }
+    }
+
+    /**
+     * Checks whether the passenger has already checked in for the flight.
+     */
+    public boolean existsForPassenger(int passengerId, String flightNumber) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(EXISTS_FOR_PASSENGER)) {
+            statement.setInt(1, passengerId);
+            statement.setString(2, flightNumber);
+            return statement.executeQuery().next();
+        }
+    }
+
+    /**
+     * Checks whether the seat is already taken on the flight.
+     */
+    public boolean existsForSeat(String flightNumber, String seatNumber) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(EXISTS_FOR_SEAT)) {
+            statement.setString(1, flightNumber);
+            statement.setString(2, seatNumber);
+            return statement.executeQuery().next();
+        }
+    }
+
+    /**
+     * Inserts a new boarding. The ID comes from {@link BoardingIdAllocator}.
+     */
+    public int insert(int boardingId, int passengerId, String flightNumber, String seatNumber, Timestamp departure, Timestamp arrival) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            statement.setInt(1, boardingId);
+            statement.setInt(2, passengerId);
+            statement.setString(3, flightNumber);
+            statement.setString(4, seatNumber);
+            statement.setTimestamp(5, departure);
+            statement.setTimestamp(6, arrival);
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Inserts the boardings of a group on one flight with one JDBC batch. Runs in the caller's transaction.
+     * The lists are parallel: the i-th passenger gets the i-th boarding ID and seat.
+     */
+    public int[] insertBatch(List<Integer> boardingIds, List<Integer> passengerIds, String flightNumber, List<String> seatNumbers,
+            Timestamp departure, Timestamp arrival) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (int i = 0; i < passengerIds.size(); i++) {
+                statement.setInt(1, boardingIds.get(i));
+                statement.setInt(2, passengerIds.get(i));
+                statement.setString(3, flightNumber);
+                statement.setString(4, seatNumbers.get(i));
+                statement.setTimestamp(5, departure);
+                statement.setTimestamp(6, arrival);
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        }
+    }
+
+    /**
+     * Moves the boardings of a flight to its new flight number.
+     */
+    public int renameFlight(String oldFlightNumber, String newFlightNumber) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(RENAME_FLIGHT)) {
+            statement.setString(1, newFlightNumber);
+            statement.setString(2, oldFlightNumber);
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Deletes the boardings of a passenger.
+     */
+    public int deleteByPassenger(int passengerId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(DELETE_BY_PASSENGER)) {
+            statement.setInt(1, passengerId);
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Deletes the boardings of a flight.
+     */
+    public int deleteByFlight(String flightNumber) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(DELETE_BY_FLIGHT)) {
+            statement.setString(1, flightNumber);
+            return statement.executeUpdate();
+        }
+    }
+
+    private static Boarding copy(Boarding boarding) {
+        // Rows are immutable, so the copy may share it
+        return new Boarding(boarding.toRow());
+    }
+
+    private static int estimateSize(Boarding boarding) {
+        int seat = boarding.getSeatNumber() == null ? 0 : boarding.getSeatNumber().length();
+        int flight = boarding.getFlightNumber() == null ? 0 : boarding.getFlightNumber().length();
+        return BOARDING_OVERHEAD + 2 * (seat + flight);
+    }
+
+    private static List<Boarding> mapAll(ResultSet resultSet) throws SQLException {
+        List<Boarding> boardings = new ArrayList<>();
+        while (resultSet.next()) {
+            boardings.add(map(resultSet));
+        }
+        return boardings;
+    }
+
+    /**
+     * Maps boarding rows joined with services. Boardings without a services row get no services booked.
+     */
+    private static List<Boarding> mapAllWithServices(ResultSet resultSet) throws SQLException {
+        List<Boarding> boardings = new ArrayList<>();
+        while (resultSet.next()) {
+            Boarding boarding = map(resultSet);
+            resultSet.getInt("S_Boarding_ID");
+            if (resultSet.wasNull()) {
+                ServicesRepository.clear(boarding);
+            } else {
+                ServicesRepository.map(resultSet, boarding);
+            }
+            boardings.add(boarding);
+        }
+        return boardings;
+    }
+}
@@ -7,6 +7,8 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.GridPane;
@@ -14,8 +16,18 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
-import java.sql.*;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 /**
  * The CheckinController class handles the check-in process for passengers. It
@@ -53,58 +65,83 @@ public class CheckinController implements Initializable {
 	@FXML
 	private TextField arrivalInfoDisplay;
 
+	@FXML
+	private TextField groupPassengerIDsField;
+
+	@FXML
+	private ComboBox<String> groupSeatPreferenceComboBox;
+
 	@FXML
 	private GridPane businessClassAnchorPane;
 
 	@FXML
 	private AnchorPane economyClassAnchorPane;
 
-	private Connection connection;
+	@FXML
+	private ProgressIndicator progressIndicator;
+
+	private final ScreenTasks tasks = new ScreenTasks();
 
 	private Button lastSelectedButton = null;
 
+	// The seat buttons by SeatMap bit index, and the occupancy the grid currently shows
+	private Button[] seatButtons;
+	private SeatMap shownSeats;
+	private String shownFlight;
+
+	private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+	// The seat grid has an aisle between the B and C seats
+	private static final SeatAssigner SEAT_ASSIGNER = new SeatAssigner(2);
+
 	/**
-	 * Initializes the controller class and sets up the database connection.
+	 * Initializes the controller class.
 	 */
 	@Override
 	public void initialize(URL location, ResourceBundle resources) {
-		connectToDatabase(); // Establish database connection
-
-		// Adjust the AUTO_INCREMENT value correctly
-		try {
-			// Get the next auto-increment value
-			String getMaxIdQuery = "SELECT MAX(Boarding_id) + 1 AS next_id FROM boarding";
-			Statement statement = connection.createStatement();
-			ResultSet resultSet = statement.executeQuery(getMaxIdQuery);
-
-			if (resultSet.next()) {
-				int nextId = resultSet.getInt("next_id");
-
-				// Set the auto-increment value
-				String alterTableQuery = "ALTER TABLE boarding AUTO_INCREMENT = " + nextId;
-				statement.execute(alterTableQuery);
-			}
+		tasks.setProgressIndicator(progressIndicator);
+		tasks.cancelWhenClosed(businessClassAnchorPane);
+		indexSeatButtons();
+		groupSeatPreferenceComboBox.getItems().addAll("No preference", "Window", "Aisle");
+		groupSeatPreferenceComboBox.getSelectionModel().selectFirst();
+		// Seats taken by check-ins of this application turn red without reloading the grid. The event bus does not
+		// reach other instances; their check-ins show up when the grid is reloaded by Select, a flight search or
+		// a seat conflict.
+		tasks.subscribe(DomainEventBus.BoardingCreated.class, this::applyBoardingCreated);
+	}
 
-			resultSet.close();
-			statement.close();
-		} catch (SQLException e) {
-			e.printStackTrace();
+	/**
+	 * Marks the seat of a new boarding as taken, if its flight is shown.
+	 */
+	private void applyBoardingCreated(DomainEventBus.BoardingCreated created) {
+		Boarding boarding = created.boarding();
+		if (boarding.getFlightNumber().equals(shownFlight) && !shownSeats.isOccupied(boarding.getSeatNumber())) {
+			SeatMap seats = shownSeats.copy();
+			seats.occupy(boarding.getSeatNumber());
+			showSeats(shownFlight, seats);
 		}
 	}
 
 	/**
-	 * Connects to the database.
+	 * Indexes the seat buttons of the grid by their seat label. The cabin size follows the labels,
+	 * a number for the column and a letter for the row.
 	 */
-	private void connectToDatabase() {
-		try {
-			// Establish database connection
-			String url = "Your URL";
-			String username = "Your Username";
-			String password = "Your Password";
-			connection = DriverManager.getConnection(url, username, password);
-			System.out.println("Database connection established.");
-		} catch (SQLException e) {
-			System.err.println("Error connecting to the database: " + e.getMessage());
+	private void indexSeatButtons() {
+		int rows = 0;
+		int columns = 0;
+		for (Node node : businessClassAnchorPane.getChildren()) {
+			if (node instanceof Button) {
+				String label = ((Button) node).getText();
+				rows = Math.max(rows, Character.toUpperCase(label.charAt(label.length() - 1)) - 'A' + 1);
+				columns = Math.max(columns, Integer.parseInt(label.substring(0, label.length() - 1)));
+			}
+		}
+		shownSeats = new SeatMap(rows, columns);
+		seatButtons = new Button[shownSeats.capacity()];
+		for (Node node : businessClassAnchorPane.getChildren()) {
+			if (node instanceof Button) {
+				seatButtons[shownSeats.indexOf(((Button) node).getText())] = (Button) node;
+			}
 		}
 	}
 
@@ -112,44 +149,39 @@ public class CheckinController implements Initializable {
 	 * Loads the seat statuses for the given flight number.
 	 */
 	private void loadSeatStatuses(String flightNumber) {
-		try {
-			String query = "SELECT Seat_Number FROM boarding WHERE B_Flight_Number = ?";
-			PreparedStatement preparedStatement = connection.prepareStatement(query);
-			preparedStatement.setString(1, flightNumber);
-
-			ResultSet resultSet = preparedStatement.executeQuery();
-
-			// Color all seats green first
-			resetSeats();
-
-			// Then color occupied seats red
-			while (resultSet.next()) {
-				String seatNumber = resultSet.getString("Seat_Number");
-				Button seatButton = (Button) businessClassAnchorPane.lookup("#seat" + seatNumber);
-				if (seatButton != null) {
-					seatButton.setStyle("-fx-background-color: #F1948A; -fx-border-color: black;"); // Color red
-					seatButton.setDisable(true); // Disable selection
-				}
-			}
-
-			resultSet.close();
-			preparedStatement.close();
-		} catch (SQLException e) {
-			e.printStackTrace();
-		}
+		tasks.runLatest("seats", connection -> {
+			List<String> occupiedSeats = new BoardingRepository(connection).findSeatNumbers(flightNumber);
+			SeatInventory.shared().sync(flightNumber, occupiedSeats);
+			OfflineMode.shared().snapshot().putSeatNumbers(flightNumber, occupiedSeats);
+			return occupiedSeats;
+		}, () -> OfflineMode.shared().snapshot().findSeatNumbers(flightNumber), occupiedSeats -> showSeats(flightNumber, SeatMap.of(shownSeats.rows(), shownSeats.columns(), occupiedSeats)));
 	}
 
 	/**
-	 * Resets all seats to be green and selectable.
+	 * Shows the seat occupancy of the flight. Only the buttons whose seat changed state are re-styled.
 	 */
-	private void resetSeats() {
-		for (Node node : businessClassAnchorPane.getChildren()) {
-			if (node instanceof Button) {
-				Button seatButton = (Button) node;
+	private void showSeats(String flightNumber, SeatMap seats) {
+		BitSet changed = seats.changedFrom(shownSeats);
+		if (lastSelectedButton != null && !flightNumber.equals(shownFlight)) {
+			// The highlighted seat belongs to the previous flight
+			changed.set(shownSeats.indexOf(lastSelectedButton.getText()));
+			lastSelectedButton = null;
+		}
+		for (int index = changed.nextSetBit(0); index >= 0; index = changed.nextSetBit(index + 1)) {
+			Button seatButton = seatButtons[index];
+			if (seatButton == null) {
+				continue;
+			}
+			if (seats.isOccupied(index)) {
+				seatButton.setStyle("-fx-background-color: #F1948A; -fx-border-color: black;"); // Color red
+				seatButton.setDisable(true); // Disable selection
+			} else {
 				seatButton.setStyle("-fx-background-color: #58D68D; -fx-border-color: black;"); // Color green
 				seatButton.setDisable(false); // Enable selection
 			}
 		}
+		shownSeats = seats;
+		shownFlight = flightNumber;
 	}
 
 	/**
@@ -158,27 +190,27 @@ public class CheckinController implements Initializable {
 	@FXML
 	public void searchPassenger(ActionEvent event) {
 		String passengerID = passengerIDField.getText().trim();
+		int passengerId;
 		try {
-			String query = "SELECT * FROM passenger WHERE Passenger_ID = ?";
-			PreparedStatement preparedStatement = connection.prepareStatement(query);
-			preparedStatement.setString(1, passengerID);
-
-			ResultSet resultSet = preparedStatement.executeQuery();
+			passengerId = Integer.parseInt(passengerID);
+		} catch (NumberFormatException e) {
+			System.out.println("Passenger not found.");
+			return;
+		}
 
-			if (resultSet.next()) {
-				String name = resultSet.getString("P_Name_First");
-				String surname = resultSet.getString("P_Name_Last");
-				fullNameField.setText(name + " " + surname);
+		tasks.runLatest("passenger", connection -> {
+			Optional<Passenger> passenger = new PassengerRepository(connection).findById(passengerId);
+			// Remember who the desk looked up, so they can still be checked in offline
+			passenger.ifPresent(OfflineMode.shared().snapshot()::putPassenger);
+			return passenger;
+		}, () -> OfflineMode.shared().snapshot().findPassenger(passengerId), passenger -> {
+			if (passenger.isPresent()) {
+				fullNameField.setText(passenger.get().getFirstName() + " " + passenger.get().getLastName());
 				passengerIDDisplay.setText(passengerID);
 			} else {
 				System.out.println("Passenger not found.");
 			}
-
-			resultSet.close();
-			preparedStatement.close();
-		} catch (SQLException e) {
-			e.printStackTrace();
-		}
+		});
 	}
 
 	/**
@@ -189,35 +221,32 @@ public class CheckinController implements Initializable {
 	void searchFlight(ActionEvent event) {
 		String flightNumber = flightNumberField.getText().trim();
 		String passengerID = passengerIDField.getText().trim();
-		try {
-			String query = "SELECT * FROM flight WHERE Flight_number = ?";
-			PreparedStatement preparedStatement = connection.prepareStatement(query);
-			preparedStatement.setString(1, flightNumber);
-
-			ResultSet resultSet = preparedStatement.executeQuery();
-
-			if (resultSet.next()) {
-				gateDisplay.setText(resultSet.getString("gate"));
-				String departure = resultSet.getString("Departure_location");
-				String destination = resultSet.getString("Arrival_Location");
-				departureInfoDisplay.setText(resultSet.getString("F_Departure"));
-				arrivalInfoDisplay.setText(resultSet.getString("F_Arrival"));
-
-				flightNumberDisplay.setText(flightNumber);
-				LocationDisplay.setText(departure + " - " + destination);
-				boardingIDDisplay.setText(passengerID + "" + flightNumber.substring(2));
-
-				// Load seat statuses when flight info is found
-				loadSeatStatuses(flightNumber);
-
-			} else {
-				System.out.println("Flight not found.");
-			}
+		tasks.runLatest("flight", connection -> {
+			Optional<Flight> flight = new FlightRepository(connection).findByNumber(flightNumber);
+			flight.ifPresent(OfflineMode.shared().snapshot()::putFlight);
+			return flight;
+		}, () -> OfflineMode.shared().snapshot().findFlight(flightNumber), flight -> showFlight(flight, flightNumber, passengerID));
+	}
 
-			resultSet.close();
-			preparedStatement.close();
-		} catch (SQLException e) {
-			e.printStackTrace();
+	/**
+	 * Shows the flight details and loads its seat statuses.
+	 */
+	private void showFlight(Optional<Flight> flight, String flightNumber, String passengerID) {
+		if (flight.isPresent()) {
+			Flight selectedFlight = flight.get();
+			gateDisplay.setText(selectedFlight.getGate());
+			departureInfoDisplay.setText(selectedFlight.getDepartureTime().format(DATE_TIME_FORMAT));
+			arrivalInfoDisplay.setText(selectedFlight.getArrivalTime().format(DATE_TIME_FORMAT));
+
+			flightNumberDisplay.setText(flightNumber);
+			LocationDisplay.setText(selectedFlight.getDepartureLocation() + " - " + selectedFlight.getArrivalLocation());
+			// The boarding ID is assigned when the check-in is created
+			boardingIDDisplay.clear();
+
+			// Load seat statuses when flight info is found
+			loadSeatStatuses(flightNumber);
+		} else {
+			System.out.println("Flight not found.");
 		}
 	}
 
@@ -232,58 +261,187 @@ public class CheckinController implements Initializable {
 		String departureInfo = departureInfoDisplay.getText().trim();
 		String arrivalInfo = arrivalInfoDisplay.getText().trim();
 
+		int passengerId;
+		Timestamp departure;
+		Timestamp arrival;
 		try {
-			// Prevent multiple check-ins for the same passenger on the same flight
-			String checkQuery = "SELECT * FROM boarding WHERE B_Passenger_ID = ? AND B_Flight_Number = ?";
-			PreparedStatement checkStatement = connection.prepareStatement(checkQuery);
-			checkStatement.setString(1, passengerID);
-			checkStatement.setString(2, flightNumber);
-
-			ResultSet checkResult = checkStatement.executeQuery();
+			passengerId = Integer.parseInt(passengerID);
+			departure = Timestamp.valueOf(LocalDateTime.parse(departureInfo, DATE_TIME_FORMAT));
+			arrival = Timestamp.valueOf(LocalDateTime.parse(arrivalInfo, DATE_TIME_FORMAT));
+		} catch (NumberFormatException | DateTimeParseException e) {
+			showAlert(Alert.AlertType.ERROR, "Check-In Error", "Select a passenger, a flight and a seat first.");
+			return;
+		}
 
-			if (checkResult.next()) {
-				showAlert(Alert.AlertType.ERROR, "Check-In Error",
-						"This passenger has already checked in for this flight.");
-				return;
+		// Claim the seat in one atomic INSERT; the unique constraints report any conflict
+		tasks.run(connection -> {
+			int boardingId = BoardingIdAllocator.shared().next();
+			SeatInventory.Outcome outcome = SeatInventory.shared().checkIn(connection, boardingId, passengerId, flightNumber, seatNumber, departure, arrival);
+			if (outcome == SeatInventory.Outcome.CLAIMED) {
+				DomainEventBus.shared().publish(new DomainEventBus.BoardingCreated(new Boarding(boardingId, passengerId, seatNumber, flightNumber)));
+			}
+			return new CheckInResult(boardingId, outcome, false);
+		}, () -> {
+			// Offline the ID comes from the block already reserved, if any is left; otherwise it is assigned on replay
+			int boardingId = Math.max(0, BoardingIdAllocator.shared().tryNext());
+			SeatInventory.Outcome outcome = OfflineMode.shared().checkIn(
+					new OfflineWrite.CheckIn(boardingId, passengerId, flightNumber, seatNumber, departure, arrival));
+			return new CheckInResult(boardingId, outcome, true);
+		}, result -> {
+			SeatInventory.Outcome outcome = result.outcome();
+			String error = null;
+			if (outcome == SeatInventory.Outcome.ALREADY_CHECKED_IN) {
+				error = "This passenger has already checked in for this flight.";
+			} else if (outcome == SeatInventory.Outcome.SEAT_TAKEN) {
+				error = "This seat is already taken for this flight.";
+			}
+			if (error != null) {
+				showAlert(Alert.AlertType.ERROR, "Check-In Error", error);
+				if (outcome == SeatInventory.Outcome.SEAT_TAKEN) {
+					// Most likely taken at another desk; show what else is gone
+					loadSeatStatuses(flightNumber);
+				}
+			} else {
+				boardingIDDisplay.setText(result.boardingId() != 0 ? String.valueOf(result.boardingId()) : "Pending");
+				if (result.offline()) {
+					showAlert(Alert.AlertType.INFORMATION, "Check-In Saved Offline",
+							"The database cannot be reached. The check-in was saved on this computer and will be sent when the database is back.");
+				} else {
+					showAlert(Alert.AlertType.INFORMATION, "Check-In Success", "Check-in was successfully completed.");
+				}
+				// Update seat statuses
+				if (flightNumber.equals(shownFlight)) {
+					SeatMap seats = shownSeats.copy();
+					seats.occupy(seatNumber);
+					showSeats(flightNumber, seats);
+				} else {
+					loadSeatStatuses(flightNumber);
+				}
 			}
+		}, failure -> {
+			failure.printStackTrace();
+			showAlert(Alert.AlertType.ERROR, "Check-In Error", "Check-in failed. Please try again.");
+		});
+	}
 
-			// Prevent multiple passengers from occupying the same seat on the same flight
-			String seatCheckQuery = "SELECT * FROM boarding WHERE B_Flight_Number = ? AND Seat_Number = ?";
-			PreparedStatement seatCheckStatement = connection.prepareStatement(seatCheckQuery);
-			seatCheckStatement.setString(1, flightNumber);
-			seatCheckStatement.setString(2, seatNumber);
+	/**
+	 * The boarding ID a check-in used and how the seat claim turned out. Offline check-ins are queued, and
+	 * their boarding ID is 0 if it is only assigned when they are sent.
+	 */
+	private record CheckInResult(int boardingId, SeatInventory.Outcome outcome, boolean offline) {
+	}
 
-			ResultSet seatCheckResult = seatCheckStatement.executeQuery();
+	/**
+	 * Checks a group of passengers in on the selected flight in one transaction. The group is seated
+	 * together by the seat assigner, at window or aisle seats if the agent chose so; either every passenger
+	 * gets a seat or nobody does.
+	 */
+	@FXML
+	void createGroupCheckIn(ActionEvent event) {
+		String flightNumber = flightNumberField.getText().trim();
+		String departureInfo = departureInfoDisplay.getText().trim();
+		String arrivalInfo = arrivalInfoDisplay.getText().trim();
 
-			if (seatCheckResult.next()) {
-				showAlert(Alert.AlertType.ERROR, "Check-In Error", "This seat is already taken for this flight.");
-				return;
+		List<Integer> passengerIds;
+		Timestamp departure;
+		Timestamp arrival;
+		try {
+			Set<Integer> ids = new LinkedHashSet<>();
+			for (String id : groupPassengerIDsField.getText().split("[,;\\s]+")) {
+				if (!id.isEmpty()) {
+					ids.add(Integer.parseInt(id));
+				}
 			}
+			passengerIds = new ArrayList<>(ids);
+			departure = Timestamp.valueOf(LocalDateTime.parse(departureInfo, DATE_TIME_FORMAT));
+			arrival = Timestamp.valueOf(LocalDateTime.parse(arrivalInfo, DATE_TIME_FORMAT));
+		} catch (NumberFormatException | DateTimeParseException e) {
+			showAlert(Alert.AlertType.ERROR, "Check-In Error", "Select a flight and enter the passenger IDs separated by commas.");
+			return;
+		}
+		if (passengerIds.isEmpty()) {
+			showAlert(Alert.AlertType.ERROR, "Check-In Error", "Enter the passenger IDs of the group separated by commas.");
+			return;
+		}
 
-			// Perform check-in
-			String query = "INSERT INTO boarding (B_Passenger_ID, B_Flight_Number, Seat_Number, B_Departure, B_Arrival) VALUES (?, ?, ?, ?, ?)";
-			PreparedStatement preparedStatement = connection.prepareStatement(query);
-			preparedStatement.setString(1, passengerID);
-			preparedStatement.setString(2, flightNumber);
-			preparedStatement.setString(3, seatNumber);
-			preparedStatement.setTimestamp(4, Timestamp.valueOf(departureInfo));
-			preparedStatement.setTimestamp(5, Timestamp.valueOf(arrivalInfo));
+		SeatAssigner.Preference preference = switch (String.valueOf(groupSeatPreferenceComboBox.getValue())) {
+			case "Window" -> SeatAssigner.Preference.WINDOW;
+			case "Aisle" -> SeatAssigner.Preference.AISLE;
+			default -> SeatAssigner.Preference.NONE;
+		};
+		int rows = shownSeats.rows();
+		int columns = shownSeats.columns();
+		tasks.run(connection -> {
+			// Every passenger of the group must exist
+			Set<Integer> known = new HashSet<>();
+			for (PassengerRepository.Key key : new PassengerRepository(connection).findKeys(passengerIds, List.of())) {
+				known.add(key.passengerId());
+			}
+			List<Integer> unknown = passengerIds.stream().filter(id -> !known.contains(id)).toList();
+			if (!unknown.isEmpty()) {
+				return GroupCheckInResult.failed("Unknown passenger IDs: " + unknown);
+			}
 
-			int rowsAffected = preparedStatement.executeUpdate();
+			// Seat the group together from the current occupancy, avoiding seats other desks are claiming right now
+			List<String> occupiedSeats = new BoardingRepository(connection).findSeatNumbers(flightNumber);
+			SeatInventory.shared().sync(flightNumber, occupiedSeats);
+			SeatMap seats = SeatMap.of(rows, columns, occupiedSeats);
+			SeatMap available = seats.copy();
+			for (int index = available.nextFree(0); index >= 0; index = available.nextFree(index + 1)) {
+				if (SeatInventory.shared().isTaken(flightNumber, available.labelOf(index))) {
+					available.occupy(available.labelOf(index));
+				}
+			}
+			List<String> picked = SEAT_ASSIGNER.assign(available, passengerIds.size(), preference);
+			if (picked.isEmpty()) {
+				return GroupCheckInResult.failed("Only " + (available.capacity() - available.occupiedCount()) + " seats are free on this flight.");
+			}
 
-			if (rowsAffected > 0) {
-				showAlert(Alert.AlertType.INFORMATION, "Check-In Success", "Check-in was successfully completed.");
-				// Update seat statuses
+			List<Integer> boardingIds = new ArrayList<>(passengerIds.size());
+			for (int i = 0; i < passengerIds.size(); i++) {
+				boardingIds.add(BoardingIdAllocator.shared().next());
+			}
+			SeatInventory.Outcome outcome = SeatInventory.shared().checkInGroup(connection, boardingIds, passengerIds, flightNumber,
+					picked, departure, arrival);
+			if (outcome == SeatInventory.Outcome.ALREADY_CHECKED_IN) {
+				return GroupCheckInResult.failed("A passenger of the group has already checked in for this flight.");
+			} else if (outcome == SeatInventory.Outcome.SEAT_TAKEN) {
+				return GroupCheckInResult.failed("A seat was taken by another desk meanwhile. Please try again.");
+			}
+			for (int i = 0; i < picked.size(); i++) {
+				seats.occupy(picked.get(i));
+				DomainEventBus.shared().publish(new DomainEventBus.BoardingCreated(
+						new Boarding(boardingIds.get(i), passengerIds.get(i), picked.get(i), flightNumber)));
+			}
+			return new GroupCheckInResult(null, picked, boardingIds, seats);
+		}, () -> GroupCheckInResult.failed("The database cannot be reached. Check the passengers of the group in one by one."), result -> {
+			if (result.error() != null) {
+				showAlert(Alert.AlertType.ERROR, "Check-In Error", result.error());
 				loadSeatStatuses(flightNumber);
-			} else {
-				showAlert(Alert.AlertType.ERROR, "Check-In Error", "Check-in failed. Please try again.");
+				return;
+			}
+			StringBuilder summary = new StringBuilder("The group was checked in:");
+			for (int i = 0; i < passengerIds.size(); i++) {
+				summary.append("\nPassenger ").append(passengerIds.get(i)).append(": seat ").append(result.seats().get(i))
+						.append(", boarding ID ").append(result.boardingIds().get(i));
 			}
+			groupPassengerIDsField.clear();
+			showAlert(Alert.AlertType.INFORMATION, "Check-In Success", summary.toString());
+			// Refresh the seat grid once for the whole group
+			showSeats(flightNumber, result.occupancy());
+		}, failure -> {
+			failure.printStackTrace();
+			showAlert(Alert.AlertType.ERROR, "Check-In Error", "Group check-in failed. Please try again.");
+		});
+	}
 
-			preparedStatement.close();
-			checkStatement.close();
-			seatCheckStatement.close();
-		} catch (SQLException e) {
-			e.printStackTrace();
+	/**
+	 * The seats and boarding IDs a group check-in assigned, in passenger order, with the flight's occupancy
+	 * afterwards; or why it failed.
+	 */
+	private record GroupCheckInResult(String error, List<String> seats, List<Integer> boardingIds, SeatMap occupancy) {
+		static GroupCheckInResult failed(String error) {
+			return new GroupCheckInResult(error, List.of(), List.of(), null);
 		}
 	}
 
@@ -0,0 +1,630 @@
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * The ConnectionPool class is a bounded pool of physical JDBC connections shared by the whole application.
+ * Borrowed connections are returned to the pool when closed. Idle connections are validated before reuse,
+ * evicted after the idle timeout and retired after their maximum lifetime. Connections held longer than
+ * the leak detection threshold are reported together with the stack trace of the code that borrowed them.
+ * Each physical connection keeps a {@link StatementCache} of its prepared statements.
+ */
+public class ConnectionPool implements DataSource {
+
+    /**
+     * A snapshot of the pool counters, used to size the pool.
+     */
+    public record Stats(int active, int idle, int total, int maxSize, int waiting, long borrows,
+                        long timeouts, long leaks, double averageWaitMillis, double maxWaitMillis) {
+
+        @Override
+        public String toString() {
+            return String.format("active=%d idle=%d total=%d/%d waiting=%d borrows=%d timeouts=%d leaks=%d avgWait=%.2fms maxWait=%.2fms",
+                    active, idle, total, maxSize, waiting, borrows, timeouts, leaks, averageWaitMillis, maxWaitMillis);
+        }
+    }
+
+    /**
+     * Thrown when no connection became free within the connection timeout. The database itself may be
+     * perfectly healthy; every pooled connection was simply in use.
+     */
+    public static class TimeoutException extends SQLTransientConnectionException {
+        private static final long serialVersionUID = 1L;
+
+        TimeoutException(String reason) {
+            super(reason);
+        }
+    }
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+
+    private int minIdle = 1;
+    private long connectionTimeoutMillis = 10_000;
+    private long idleTimeoutMillis = 5 * 60_000;
+    private long maxLifetimeMillis = 30 * 60_000;
+    private long validationIntervalMillis = 5_000;
+    private int validationTimeoutSeconds = 2;
+    private long leakDetectionThresholdMillis = 60_000;
+    private long housekeepingPeriodMillis = 30_000;
+    private int statementCacheSize = 64;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Map<PooledConnection, Boolean> borrowed = new IdentityHashMap<>();
+    private int total;
+    private int waiting;
+    private boolean shutdown;
+
+    private long borrowCount;
+    private long timeoutCount;
+    private long leakCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    private ScheduledExecutorService housekeeper;
+
+    /**
+     * Creates a pool that opens at most {@code maxSize} physical connections to the given database.
+     */
+    public ConnectionPool(String url, String username, String password, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Sets the number of idle connections kept open by the idle eviction.
+     */
+    public void setMinIdle(int minIdle) {
+        this.minIdle = Math.min(minIdle, maxSize);
+    }
+
+    /**
+     * Sets how long a borrower waits for a free connection before giving up.
+     */
+    public void setConnectionTimeoutMillis(long connectionTimeoutMillis) {
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+    }
+
+    /**
+     * Sets how long a connection may stay idle before it is closed.
+     */
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Sets the maximum age of a physical connection. Older connections are closed instead of being reused.
+     */
+    public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    /**
+     * Sets how long a connection may sit idle before it is validated again on borrow.
+     */
+    public void setValidationIntervalMillis(long validationIntervalMillis) {
+        this.validationIntervalMillis = validationIntervalMillis;
+    }
+
+    /**
+     * Sets how long a connection may be held before it is reported as leaked. Zero disables leak detection.
+     */
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+    }
+
+    /**
+     * Sets how often the idle eviction and leak detection run.
+     */
+    public void setHousekeepingPeriodMillis(long housekeepingPeriodMillis) {
+        this.housekeepingPeriodMillis = housekeepingPeriodMillis;
+    }
+
+    /**
+     * Sets how many prepared statements each physical connection keeps cached. Zero disables the cache.
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Borrows a connection from the pool. Closing the returned connection hands it back to the pool.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        startHousekeeping();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(connectionTimeoutMillis);
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (shutdown) {
+                        throw new SQLException("Connection pool has been shut down.");
+                    }
+                    candidate = idle.pollFirst();
+                    if (candidate != null) {
+                        break;
+                    }
+                    if (total < maxSize) {
+                        total++;
+                        create = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount++;
+                        throw new TimeoutException("Timed out after " + connectionTimeoutMillis
+                                + " ms waiting for a database connection (" + statsLocked() + ")");
+                    }
+                    waiting++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection.", e);
+                    } finally {
+                        waiting--;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    candidate = new PooledConnection(DriverManager.getConnection(url, username, password));
+                } catch (SQLException | RuntimeException e) {
+                    release();
+                    throw e;
+                }
+            } else if (!isUsable(candidate)) {
+                discard(candidate);
+                continue;
+            }
+
+            return lend(candidate, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool counters.
+     */
+    public Stats getStats() {
+        lock.lock();
+        try {
+            return statsLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops handing out new ones. Borrowed connections are closed
+     * when they are returned.
+     */
+    public void shutdown() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            shutdown = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            total -= toClose.size();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+        }
+        toClose.forEach(PooledConnection::closePhysical);
+    }
+
+    private Stats statsLocked() {
+        double averageWait = borrowCount == 0 ? 0 : totalWaitNanos / 1e6 / borrowCount;
+        return new Stats(borrowed.size(), idle.size(), total, maxSize, waiting, borrowCount,
+                timeoutCount, leakCount, averageWait, maxWaitNanos / 1e6);
+    }
+
+    private Connection lend(PooledConnection pooled, long waitNanos) {
+        Exception trace = leakDetectionThresholdMillis > 0 ? new Exception("Connection borrowed here") : null;
+        lock.lock();
+        try {
+            borrowCount++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+            // Set before the connection becomes visible to the leak sweeper, which would otherwise see the last borrow's time
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.leakReported = false;
+            pooled.borrowTrace = trace;
+            borrowed.put(pooled, Boolean.TRUE);
+        } finally {
+            lock.unlock();
+        }
+        return pooled.newHandle();
+    }
+
+    /**
+     * Validates an idle connection before it is handed out again.
+     */
+    private boolean isUsable(PooledConnection pooled) {
+        long now = System.currentTimeMillis();
+        if (now - pooled.createdAt >= maxLifetimeMillis) {
+            return false;
+        }
+        if (now - pooled.lastReturnedAt < validationIntervalMillis) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Takes back a connection whose handle was closed.
+     */
+    private void giveBack(PooledConnection pooled) {
+        boolean reusable = pooled.reset() && System.currentTimeMillis() - pooled.createdAt < maxLifetimeMillis;
+        lock.lock();
+        try {
+            borrowed.remove(pooled);
+            if (reusable && !shutdown) {
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.addFirst(pooled);
+                available.signal();
+                return;
+            }
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        pooled.closePhysical();
+    }
+
+    private void discard(PooledConnection pooled) {
+        pooled.closePhysical();
+        release();
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private synchronized void startHousekeeping() {
+        if (housekeeper != null || shutdown) {
+            return;
+        }
+        housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::houseKeep, housekeepingPeriodMillis, housekeepingPeriodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Evicts idle and expired connections and reports connections that have been held for too long.
+     */
+    private void houseKeep() {
+        long now = System.currentTimeMillis();
+        List<PooledConnection> toClose = new ArrayList<>();
+        List<PooledConnection> leaked = new ArrayList<>();
+
+        lock.lock();
+        try {
+            Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext()) {
+                PooledConnection pooled = oldestFirst.next();
+                boolean expired = now - pooled.createdAt >= maxLifetimeMillis;
+                boolean idleTooLong = now - pooled.lastReturnedAt >= idleTimeoutMillis && idle.size() > minIdle;
+                if (expired || idleTooLong) {
+                    oldestFirst.remove();
+                    total--;
+                    toClose.add(pooled);
+                }
+            }
+            if (leakDetectionThresholdMillis > 0) {
+                for (PooledConnection pooled : borrowed.keySet()) {
+                    if (!pooled.leakReported && now - pooled.borrowedAt >= leakDetectionThresholdMillis) {
+                        pooled.leakReported = true;
+                        leakCount++;
+                        leaked.add(pooled);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        toClose.forEach(PooledConnection::closePhysical);
+        for (PooledConnection pooled : leaked) {
+            System.err.println("Possible connection leak: connection held for "
+                    + (now - pooled.borrowedAt) + " ms without being closed.");
+            if (pooled.borrowTrace != null) {
+                pooled.borrowTrace.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool, together with its bookkeeping.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statementCache = statementCacheSize > 0 ? new StatementCache(statementCacheSize) : null;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastReturnedAt = createdAt;
+        private volatile long borrowedAt;
+        private volatile boolean leakReported;
+        private volatile Exception borrowTrace;
+        // The session state a new connection starts with, restored after every borrow
+        private final boolean defaultReadOnly;
+        private final int defaultIsolation;
+        private final String defaultCatalog;
+
+        PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            try {
+                defaultReadOnly = physical.isReadOnly();
+                defaultIsolation = physical.getTransactionIsolation();
+                defaultCatalog = physical.getCatalog();
+            } catch (SQLException e) {
+                physical.close();
+                throw e;
+            }
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new Handle(this));
+        }
+
+        /**
+         * Restores the default session state before the connection goes back into the pool.
+         */
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                if (physical.isReadOnly() != defaultReadOnly) {
+                    physical.setReadOnly(defaultReadOnly);
+                }
+                if (physical.getTransactionIsolation() != defaultIsolation) {
+                    physical.setTransactionIsolation(defaultIsolation);
+                }
+                if (defaultCatalog != null && !defaultCatalog.equals(physical.getCatalog())) {
+                    physical.setCatalog(defaultCatalog);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            try {
+                if (statementCache != null) {
+                    statementCache.clear();
+                }
+                physical.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * The connection handed to a borrower. Closing it returns the physical connection to the pool,
+     * and any later use of the handle fails instead of touching a connection someone else now owns.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final List<Statement> statements = new ArrayList<>();
+        private volatile boolean closed;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        closeStatements();
+                        giveBack(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooled.physical;
+                case "prepareStatement":
+                    if (pooled.statementCache != null && args.length == 1 && !closed) {
+                        PreparedStatement statement = pooled.statementCache.prepare(pooled.physical, (Connection) proxy, (String) args[0],
+                                statements::remove);
+                        statements.add(statement);
+                        return statement;
+                    }
+                    return delegate(proxy, method, args);
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(proxy) ? proxy : pooled.physical.unwrap((Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy) || pooled.physical.isWrapperFor((Class<?>) args[0]);
+                default:
+                    return delegate(proxy, method, args);
+            }
+        }
+
+        private Object delegate(Object proxy, Method method, Object[] args) throws Throwable {
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            try {
+                Object result = method.invoke(pooled.physical, args);
+                if (result instanceof Statement) {
+                    // Tracked until the borrower closes it, so a long-held connection does not collect closed statements
+                    Statement statement = (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                            new Class<?>[] { method.getReturnType() }, new TrackedStatement((Statement) result, (Connection) proxy));
+                    statements.add(statement);
+                    return statement;
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Closes the statements the borrower left open, so they do not pile up on the physical connection.
+         */
+        private void closeStatements() {
+            // Closing a statement takes it out of the list
+            for (Statement statement : new ArrayList<>(statements)) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    // The statement is unusable either way
+                }
+            }
+            statements.clear();
+        }
+
+        /**
+         * A statement the driver created outside the statement cache. Closing it also forgets it.
+         */
+        private final class TrackedStatement implements InvocationHandler {
+            private final Statement statement;
+            private final Connection owner;
+
+            TrackedStatement(Statement statement, Connection owner) {
+                this.statement = statement;
+                this.owner = owner;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        statements.remove(proxy);
+                        break;
+                    case "getConnection":
+                        return owner;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        break;
+                }
+                try {
+                    return method.invoke(statement, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+
+    // DataSource methods that the pool does not customise
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The pool only hands out connections for its configured user.");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
@@ -1,9 +1,5 @@
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.sql.Date;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -19,7 +15,7 @@ import javafx.stage.Stage;
 
 /**
  * The CreateCustomerController class handles the creation of new customers.
- * It connects to the database, checks for existing records, and inserts new customer data.
+ * It borrows a pooled database connection, checks for existing records, and inserts new customer data.
  */
 public class CreateCustomerController {
     private long employeeId; // This value should be dynamically set based on the logged-in user.
@@ -49,13 +45,15 @@ public class CreateCustomerController {
     @FXML
     private DatePicker birthDatePicker;
 
-    private Connection connection;
+    private final ScreenTasks tasks = new ScreenTasks();
 
     /**
      * Initializes the controller class. Adds example data to the gender ComboBox.
      */
     @FXML
     void initialize() {
+        tasks.cancelWhenClosed(idField);
+
         // Adding example data to the ComboBox
         genderComboBox.getItems().addAll("Male", "Female", "Other");
     }
@@ -80,72 +78,50 @@ public class CreateCustomerController {
             return;
         }
 
-        // Connect to the MySQL database
+        int passengerId;
         try {
-            connection = DriverManager.getConnection("Your URL", "Your Username", "Your Password");
-
-            // Check if the phone number already exists
-            if (isPhoneNumberExists(phone)) {
-                showAlert(Alert.AlertType.ERROR, "Error", "Phone number already exists.");
-                return;
-            }
-
-            // Check if the ID already exists
-            if (isIdExists(id)) {
-                showAlert(Alert.AlertType.ERROR, "Error", "ID number already exists.");
-                return;
+            passengerId = Integer.parseInt(id.trim());
+        } catch (NumberFormatException e) {
+            showAlert(Alert.AlertType.ERROR, "Error", "ID number must be numeric.");
+            return;
+        }
+        Passenger passenger = new Passenger(passengerId, name, lastName, gender, Date.valueOf(birthDatePicker.getValue()), phone);
+
+        tasks.run(connection -> {
+            PassengerRepository passengers = new PassengerRepository(connection);
+
+            // Check if the phone number or the ID already exists, then insert the new customer
+            if (passengers.existsByPhoneNumber(phone)) {
+                return CreateResult.failed("Phone number already exists.");
+            } else if (passengers.existsById(passengerId)) {
+                return CreateResult.failed("ID number already exists.");
+            } else if (passengers.insert(passenger) == 0) {
+                return CreateResult.failed("Failed to create customer.");
             }
-
-            // Insert a new customer into the database
-            PreparedStatement statement = connection.prepareStatement("INSERT INTO passenger (Passenger_ID, P_Name_First, P_Name_Last, Gender, Birth_Date, Phone_Number) VALUES (?, ?, ?, ?, ?, ?)");
-            statement.setString(1, id);
-            statement.setString(2, name);
-            statement.setString(3, lastName);
-            statement.setString(4, gender);
-            statement.setString(5, birthDate);
-            statement.setString(6, phone);
-
-            // Execute the query and check the number of affected rows
-            int rowsAffected = statement.executeUpdate();
-
-            if (rowsAffected > 0) {
-                showAlert(Alert.AlertType.INFORMATION, "Success", "Customer created successfully!");
+            DomainEventBus.shared().publish(new DomainEventBus.PassengerChanged(DomainEventBus.Change.CREATED, passengerId, passenger));
+            return new CreateResult(null, false);
+        }, () -> new CreateResult(OfflineMode.shared().createPassenger(passenger), true), result -> {
+            if (result.error() != null) {
+                showAlert(Alert.AlertType.ERROR, "Error", result.error());
+            } else if (result.offline()) {
+                showAlert(Alert.AlertType.INFORMATION, "Saved Offline",
+                        "The database cannot be reached. The customer was saved on this computer and will be created when the database is back.");
             } else {
-                showAlert(Alert.AlertType.ERROR, "Error", "Failed to create customer.");
+                showAlert(Alert.AlertType.INFORMATION, "Success", "Customer created successfully!");
             }
-
-            // Close the connection
-            connection.close();
-        } catch (SQLException e) {
-            e.printStackTrace();
+        }, failure -> {
+            failure.printStackTrace();
             showAlert(Alert.AlertType.ERROR, "Error", "Failed to create customer.");
-        }
-    }
-
-    /**
-     * Checks if the given phone number already exists in the database.
-     */
-    private boolean isPhoneNumberExists(String phone) throws SQLException {
-        PreparedStatement checkPhoneStatement = connection.prepareStatement("SELECT COUNT(*) FROM passenger WHERE Phone_Number = ?");
-        checkPhoneStatement.setString(1, phone);
-        ResultSet resultSet = checkPhoneStatement.executeQuery();
-        if (resultSet.next()) {
-            return resultSet.getInt(1) > 0;
-        }
-        return false;
+        });
     }
 
     /**
-     * Checks if the given ID already exists in the database.
+     * Why creating the customer failed, or null; and whether it was saved offline.
      */
-    private boolean isIdExists(String id) throws SQLException {
-        PreparedStatement checkIdStatement = connection.prepareStatement("SELECT COUNT(*) FROM passenger WHERE Passenger_ID = ?");
-        checkIdStatement.setString(1, id);
-        ResultSet resultSet = checkIdStatement.executeQuery();
-        if (resultSet.next()) {
-            return resultSet.getInt(1) > 0;
+    private record CreateResult(String error, boolean offline) {
+        static CreateResult failed(String error) {
+            return new CreateResult(error, false);
         }
-        return false;
     }
 
     /**
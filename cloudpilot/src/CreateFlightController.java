@@ -1,9 +1,8 @@
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -18,7 +17,7 @@ import javafx.stage.Stage;
 
 /**
  * The CreateFlightController class handles the creation of new flights.
- * It connects to the database, validates input data, and inserts new flight records.
+ * It validates input data and inserts new flight records using a pooled database connection.
  */
 public class CreateFlightController {
     private long employeeId; // This value should be dynamically set based on the logged-in user.
@@ -54,9 +53,17 @@ public class CreateFlightController {
     @FXML
     private Button cancelButton;
 
-    private final String url = "Your URL";
-    private final String user = "Your Username";
-    private final String password = "Your Password";
+    private final ScreenTasks tasks = new ScreenTasks();
+
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss]");
+
+    /**
+     * Initializes the controller class.
+     */
+    @FXML
+    void initialize() {
+        tasks.cancelWhenClosed(flightNumberField);
+    }
 
     /**
      * Handles the create flight action. Collects input data, validates it, 
@@ -74,37 +81,51 @@ public class CreateFlightController {
         // Check for empty fields
         if (flightNumber.isEmpty() || origin.isEmpty() || destination.isEmpty() || departureTime.isEmpty() || arrivalTime.isEmpty() || gateNumber.isEmpty()) {
             showAlert("Error", "Please fill in all fields.");
-        } else {
-            try (Connection conn = DriverManager.getConnection(url, user, password)) {
-                // Perform assertion to check for conflicting gate
-                if (hasConflictingGate(conn, departureTime, gateNumber)) {
-                    showAlert("Error", "Conflict: Another flight with the same departure time already exists at gate " + gateNumber);
-                    return;
-                }
-
-                // Connect to the database and insert the flight data
-                String query = "INSERT INTO flight (Flight_number, F_Departure, F_Arrival, Departure_Location, Arrival_Location, gate) VALUES (?, ?, ?, ?, ?, ?)";
-
-                try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                    pstmt.setString(1, flightNumber);
-                    pstmt.setString(2, departureTime);
-                    pstmt.setString(3, arrivalTime);
-                    pstmt.setString(4, origin);
-                    pstmt.setString(5, destination);
-                    pstmt.setString(6, gateNumber);
-                    pstmt.executeUpdate();
+            return;
+        }
 
-                    showAlert("Success", "Flight created successfully.");
-                    clearFields();
+        Flight flight = new Flight();
+        try {
+            flight.setDepartureTime(parseDateTime(departureTime));
+            flight.setArrivalTime(parseDateTime(arrivalTime));
+        } catch (DateTimeParseException e) {
+            showAlert("Error", "Times must be in the format YYYY-MM-DD HH:MM:SS.");
+            return;
+        }
+        flight.setFlightNumber(flightNumber);
+        flight.setDepartureLocation(origin);
+        flight.setArrivalLocation(destination);
+        flight.setGate(gateNumber);
+
+        tasks.run(conn -> {
+            // Take the gate window in the in-memory gate schedule, then insert the flight data
+            String conflict = GateScheduleIndex.shared().claim(conn, flight, null);
+            if (conflict == null) {
+                try {
+                    new FlightRepository(conn).insert(flight);
                 } catch (SQLException e) {
-                    e.printStackTrace();
-                    showAlert("Error", "Failed to create flight. Please try again.");
+                    GateScheduleIndex.shared().invalidate();
+                    throw e;
                 }
-            } catch (SQLException e) {
-                e.printStackTrace();
-                showAlert("Error", "Failed to create flight. Please try again.");
+                FlightSearchIndex.shared().put(flight);
+                DomainEventBus.shared().publish(new DomainEventBus.FlightChanged(DomainEventBus.Change.CREATED, flight.getFlightNumber(), flight));
             }
-        }
+            return conflict;
+        }, conflict -> {
+            if (conflict != null) {
+                showAlert("Error", "Conflict: Gate " + gateNumber + " is occupied by flight " + conflict + " around that departure time.");
+                return;
+            }
+            showAlert("Success", "Flight created successfully.");
+            clearFields();
+        }, failure -> {
+            if (failure instanceof GateScheduleIndex.DuplicateFlightException) {
+                showAlert("Error", "Flight " + flightNumber + " already exists.");
+                return;
+            }
+            failure.printStackTrace();
+            showAlert("Error", "Failed to create flight. Please try again.");
+        });
     }
 
     /**
@@ -163,18 +184,9 @@ public class CreateFlightController {
     }
 
     /**
-     * Checks if there are any conflicting gates for the given departure time.
+     * Parses a date and time entered as YYYY-MM-DD HH:MM or YYYY-MM-DD HH:MM:SS.
      */
-    private boolean hasConflictingGate(Connection conn, String departureTime, String gateNumber) throws SQLException {
-        String query = "SELECT COUNT(*) FROM flight WHERE F_Departure = ? AND gate = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setString(1, departureTime);
-            pstmt.setString(2, gateNumber);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next() && rs.getInt(1) > 0) {
-                return true;
-            }
-        }
-        return false;
+    private static LocalDateTime parseDateTime(String text) {
+        return LocalDateTime.parse(text.trim(), DATE_TIME_FORMAT);
     }
 }
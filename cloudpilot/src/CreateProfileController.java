@@ -1,8 +1,4 @@
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -50,13 +46,14 @@ public class CreateProfileController {
     @FXML
     private Button exitbutton;
 
-    private Connection connection;
+    private final ScreenTasks tasks = new ScreenTasks();
 
     /**
-     * Initializes the controller with the database connection.
+     * Initializes the controller class.
      */
-    public void initData(Connection connection) {
-        this.connection = connection;
+    @FXML
+    void initialize() {
+        tasks.cancelWhenClosed(employeeIdField);
     }
 
     /**
@@ -85,81 +82,47 @@ public class CreateProfileController {
         // Validate input data
         if (firstName.isEmpty() || lastName.isEmpty() || email.isEmpty() || role.isEmpty() || password.isEmpty() || employeeIdStr.isEmpty()) {
             showAlert(Alert.AlertType.ERROR, "Error", "All fields are required. Please fill in all fields.");
+            return;
         } else if (!isValidEmail(email)) {
             showAlert(Alert.AlertType.ERROR, "Error", "Invalid email format. Please include an '@' symbol.");
-        } else if (isEmailRegistered(email)) {
-            showAlert(Alert.AlertType.ERROR, "Error", "Email is already registered. Please use a different email.");
-        } else {
-            try {
-                long employeeId = Long.parseLong(employeeIdStr); // Convert employeeId to long
-
-                if (employeeIdStr.length() != 11) {
-                    throw new SQLException("Invalid Employee_ID: " + employeeIdStr + ". Employee_ID must be 11 digits.");
-                }
-
-                if (isEmployeeIdRegistered(employeeId)) {
-                    showAlert(Alert.AlertType.ERROR, "Error", "Employee ID is already used. Please use a different ID.");
-                } else {
-                    // Insert new employee into the database
-                    PreparedStatement statement = connection.prepareStatement("INSERT INTO employee (Employee_ID, E_Name_First, E_Name_Last, Email, Role, Password) VALUES (?, ?, ?, ?, ?, ?)");
-                    statement.setLong(1, employeeId);
-                    statement.setString(2, firstName);
-                    statement.setString(3, lastName);
-                    statement.setString(4, email);
-                    statement.setString(5, role);
-                    statement.setString(6, password);
-                    statement.executeUpdate();
-
-                    // Inform user about successful profile creation
-                    showAlert(Alert.AlertType.INFORMATION, "Success", "Profile created successfully!");
-                }
-            } catch (NumberFormatException e) {
-                showAlert(Alert.AlertType.ERROR, "Error", "Invalid Employee ID. Please enter a valid number.");
-            } catch (SQLException e) {
-                if (e.getMessage().contains("Invalid Employee_ID")) {
-                    showAlert(Alert.AlertType.ERROR, "Error", e.getMessage());
-                } else {
-                    e.printStackTrace();
-                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to create profile.");
-                }
-            }
+            return;
         }
-    }
 
-    /**
-     * Checks if the given email is already registered in the database.
-     */
-    private boolean isEmailRegistered(String email) {
+        long employeeId;
         try {
-            PreparedStatement checkStatement = connection.prepareStatement("SELECT COUNT(*) FROM employee WHERE Email = ?");
-            checkStatement.setString(1, email);
-            ResultSet resultSet = checkStatement.executeQuery();
-            if (resultSet.next()) {
-                return resultSet.getInt(1) > 0;
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to check email.");
+            employeeId = Long.parseLong(employeeIdStr); // Convert employeeId to long
+        } catch (NumberFormatException e) {
+            showAlert(Alert.AlertType.ERROR, "Error", "Invalid Employee ID. Please enter a valid number.");
+            return;
+        }
+        if (employeeIdStr.length() != 11) {
+            showAlert(Alert.AlertType.ERROR, "Error", "Invalid Employee_ID: " + employeeIdStr + ". Employee_ID must be 11 digits.");
+            return;
         }
-        return false;
-    }
 
-    /**
-     * Checks if the given employee ID is already registered in the database.
-     */
-    private boolean isEmployeeIdRegistered(long employeeId) {
-        try {
-            PreparedStatement checkStatement = connection.prepareStatement("SELECT COUNT(*) FROM employee WHERE Employee_ID = ?");
-            checkStatement.setLong(1, employeeId);
-            ResultSet resultSet = checkStatement.executeQuery();
-            if (resultSet.next()) {
-                return resultSet.getInt(1) > 0;
+        Profile profile = new Profile(employeeIdStr, firstName, lastName, email, role, password);
+        tasks.run(connection -> {
+            EmployeeRepository employees = new EmployeeRepository(connection);
+            if (employees.existsByEmail(email)) {
+                return "Email is already registered. Please use a different email.";
+            } else if (employees.existsById(employeeId)) {
+                return "Employee ID is already used. Please use a different ID.";
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to check employee ID.");
-        }
-        return false;
+
+            // Insert new employee into the database
+            employees.insert(profile);
+            return null;
+        }, error -> {
+            if (error != null) {
+                showAlert(Alert.AlertType.ERROR, "Error", error);
+            } else {
+                // Inform user about successful profile creation
+                showAlert(Alert.AlertType.INFORMATION, "Success", "Profile created successfully!");
+            }
+        }, failure -> {
+            failure.printStackTrace();
+            showAlert(Alert.AlertType.ERROR, "Error", "Failed to create profile.");
+        });
     }
 
     /**
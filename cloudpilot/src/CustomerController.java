@@ -1,17 +1,12 @@
+import java.io.File;
 import java.io.IOException;
-import java.sql.Connection;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.sql.Date;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -19,10 +14,12 @@ import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextInputDialog;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 /**
@@ -93,41 +90,60 @@ public class CustomerController {
     @FXML
     private TableColumn<Boarding, String> serviceDescriptionColumn;
 
-    private Connection connection;
+    @FXML
+    private ProgressIndicator progressIndicator;
+
+    private final ScreenTasks tasks = new ScreenTasks();
+
+    private PagedList<Integer, Passenger> passengerPages;
+
+    private PagedList<Integer, Boarding> boardingPages;
+
+    // The passenger whose boardings the boarding table shows, or null while it shows all boardings
+    private Integer searchedPassengerId;
 
     /**
-     * Initializes the controller class. Establishes a connection to the database and sets up the table columns.
+     * Initializes the controller class. Sets up the table columns and loads the passengers and boardings.
      */
     @FXML   
     void initialize() {
-        try {
-            connection = DriverManager.getConnection("Your URL", "Your Username", "Your Password");
-
-            // Set cell value factories to populate table columns
-            passengerIDColumn.setCellValueFactory(cellData -> cellData.getValue().passengerIDProperty().asObject());
-            firstNameColumn.setCellValueFactory(cellData -> cellData.getValue().firstNameProperty());
-            lastNameColumn.setCellValueFactory(cellData -> cellData.getValue().lastNameProperty());
-            genderColumn.setCellValueFactory(cellData -> cellData.getValue().genderProperty());
-            birthDateColumn.setCellValueFactory(cellData -> cellData.getValue().birthDateProperty());
-            phoneNumberColumn.setCellValueFactory(cellData -> cellData.getValue().phoneNumberProperty());
-
-            B_PassengerIDColumn.setCellValueFactory(cellData -> cellData.getValue().passengerIDProperty().asObject());
-            BoardingIDColumn.setCellValueFactory(cellData -> cellData.getValue().boardingIDProperty().asObject());
-            Flight_numberColumn.setCellValueFactory(cellData -> cellData.getValue().flightNumberProperty());
-            seatNumberColumn.setCellValueFactory(cellData -> cellData.getValue().seatNumberProperty());
-
-            extraDrinkColumn.setCellValueFactory(cellData -> cellData.getValue().extraDrinkProperty());
-            extraMealColumn.setCellValueFactory(cellData -> cellData.getValue().extraMealProperty());
-            suitCenterColumn.setCellValueFactory(cellData -> cellData.getValue().suitCenterProperty());
-            extraLuggageColumn.setCellValueFactory(cellData -> cellData.getValue().extraLuggageProperty().asObject());
-            serviceDescriptionColumn.setCellValueFactory(cellData -> cellData.getValue().serviceDescriptionProperty());
-
-            // Load passenger data into table
-            loadPassengerData();
-            loadBoardingData();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        tasks.setProgressIndicator(progressIndicator);
+        tasks.cancelWhenClosed(passengerTable);
+
+        // Set cell value factories to populate table columns
+        passengerIDColumn.setCellValueFactory(cellData -> cellData.getValue().passengerIDProperty().asObject());
+        firstNameColumn.setCellValueFactory(cellData -> cellData.getValue().firstNameProperty());
+        lastNameColumn.setCellValueFactory(cellData -> cellData.getValue().lastNameProperty());
+        genderColumn.setCellValueFactory(cellData -> cellData.getValue().genderProperty());
+        birthDateColumn.setCellValueFactory(cellData -> cellData.getValue().birthDateProperty());
+        phoneNumberColumn.setCellValueFactory(cellData -> cellData.getValue().phoneNumberProperty());
+
+        B_PassengerIDColumn.setCellValueFactory(cellData -> cellData.getValue().passengerIDProperty().asObject());
+        BoardingIDColumn.setCellValueFactory(cellData -> cellData.getValue().boardingIDProperty().asObject());
+        Flight_numberColumn.setCellValueFactory(cellData -> cellData.getValue().flightNumberProperty());
+        seatNumberColumn.setCellValueFactory(cellData -> cellData.getValue().seatNumberProperty());
+
+        extraDrinkColumn.setCellValueFactory(cellData -> cellData.getValue().extraDrinkProperty());
+        extraMealColumn.setCellValueFactory(cellData -> cellData.getValue().extraMealProperty());
+        suitCenterColumn.setCellValueFactory(cellData -> cellData.getValue().suitCenterProperty());
+        extraLuggageColumn.setCellValueFactory(cellData -> cellData.getValue().extraLuggageProperty().asObject());
+        serviceDescriptionColumn.setCellValueFactory(cellData -> cellData.getValue().serviceDescriptionProperty());
+
+        // Page through the passengers and boardings as the tables scroll instead of reading the whole tables
+        PagedList.installSortPolicy(passengerTable);
+        PagedList.installSortPolicy(BoardingTable);
+        passengerPages = new PagedList<>(tasks, PassengerRepository.pageLoader(), new Passenger(0, null, null, null, null, null));
+        boardingPages = new PagedList<>(tasks, BoardingRepository.pageLoader(), new Boarding(0, 0, null, null));
+
+        // Patch the tables when this or any other screen writes passengers, boardings, services or flights
+        tasks.subscribe(DomainEventBus.PassengerChanged.class, this::applyPassengerChange);
+        tasks.subscribe(DomainEventBus.BoardingCreated.class, this::applyBoardingCreated);
+        tasks.subscribe(DomainEventBus.ServicesUpdated.class, this::applyServicesUpdate);
+        tasks.subscribe(DomainEventBus.FlightChanged.class, this::applyFlightChange);
+
+        // Load passenger data into table
+        loadPassengerData();
+        loadBoardingData();
     }
 
     /**
@@ -138,47 +154,19 @@ public class CustomerController {
     void search() {
         String searchText = searchField.getText().trim();
         if (!searchText.isEmpty()) {
+            int passengerId;
             try {
-                String passengerQuery = "SELECT * FROM passenger WHERE Passenger_ID = ?";
-                String boardingQuery = "SELECT * FROM boarding WHERE B_Passenger_ID = ?";
-                PreparedStatement passengerStatement = connection.prepareStatement(passengerQuery);
-                PreparedStatement boardingStatement = connection.prepareStatement(boardingQuery);
-                passengerStatement.setInt(1, Integer.parseInt(searchText));
-                boardingStatement.setInt(1, Integer.parseInt(searchText));
-                ResultSet passengerResultSet = passengerStatement.executeQuery();
-                ResultSet boardingResultSet = boardingStatement.executeQuery();
-
-                ObservableList<Passenger> passengerList = FXCollections.observableArrayList();
-                while (passengerResultSet.next()) {
-                    Passenger passenger = new Passenger(
-                            passengerResultSet.getInt("Passenger_ID"),
-                            passengerResultSet.getString("P_Name_First"),
-                            passengerResultSet.getString("P_Name_Last"),
-                            passengerResultSet.getString("Gender"),
-                            passengerResultSet.getDate("Birth_Date"),
-                            passengerResultSet.getString("Phone_Number")
-                    );
-                    passengerList.add(passenger);
-                }
-                passengerTable.setItems(passengerList);
-
-                ObservableList<Boarding> boardingList = FXCollections.observableArrayList();
-                while (boardingResultSet.next()) {
-                    Boarding boarding = new Boarding(
-                            boardingResultSet.getInt("Boarding_id"),
-                            boardingResultSet.getInt("B_Passenger_ID"),
-                            boardingResultSet.getString("Seat_Number"),
-                            boardingResultSet.getString("B_Flight_Number")
-                    );
-                    fetchServiceDetails(boarding);
-                    boardingList.add(boarding);
-                }
-                BoardingTable.setItems(boardingList);
-            } catch (SQLException e) {
-                e.printStackTrace();
+                passengerId = Integer.parseInt(searchText);
             } catch (NumberFormatException e) {
                 showAlert(Alert.AlertType.ERROR, "Error", "Invalid Passenger ID format. Please enter a valid number.");
+                return;
             }
+            tasks.runLatest("passengers", connection -> {
+                return new PassengerRepository(connection).findById(passengerId).map(List::of).orElse(List.of());
+            }, this::showPassengers);
+            searchedPassengerId = passengerId;
+            tasks.runLatest("boardings", connection -> new BoardingRepository(connection).findByPassengerWithServices(passengerId),
+                    this::showBoardings);
         } else {
             // If search field is empty, reload all data
             loadPassengerData();
@@ -192,45 +180,73 @@ public class CustomerController {
     @FXML
     void deletePassenger(ActionEvent event) {
         Passenger selectedPassenger = passengerTable.getSelectionModel().getSelectedItem();
-        if (selectedPassenger != null) {
-            try {
-                // Retrieve the associated boarding IDs
-                String selectBoardingQuery = "SELECT Boarding_id FROM boarding WHERE B_Passenger_ID = ?";
-                PreparedStatement selectBoardingStatement = connection.prepareStatement(selectBoardingQuery);
-                selectBoardingStatement.setInt(1, selectedPassenger.getPassengerID());
-                ResultSet boardingResultSet = selectBoardingStatement.executeQuery();
-                List<Integer> boardingIds = new ArrayList<>();
-                while (boardingResultSet.next()) {
-                    boardingIds.add(boardingResultSet.getInt("Boarding_id"));
-                }
+        if (selectedPassenger != null && !passengerPages.isPlaceholder(selectedPassenger)) {
+            int passengerId = selectedPassenger.getPassengerID();
+            tasks.run(connection -> {
+                // Write buffered services first, so none of them lands after the delete
+                ServicesWriteBehind.shared().flush();
+                connection.setAutoCommit(false);
+                BoardingRepository boardings = new BoardingRepository(connection);
 
                 // Delete service records associated with each boarding ID
-                String deleteServicesQuery = "DELETE FROM services WHERE Boarding_ID = ?";
-                PreparedStatement deleteServicesStatement = connection.prepareStatement(deleteServicesQuery);
+                ServicesRepository services = new ServicesRepository(connection);
+                List<Integer> boardingIds = boardings.findIdsByPassenger(passengerId);
                 for (int boardingId : boardingIds) {
-                    deleteServicesStatement.setInt(1, boardingId);
-                    deleteServicesStatement.executeUpdate();
+                    services.deleteByBoardingId(boardingId);
                 }
 
-                // Delete boarding records associated with the passenger
-                String deleteBoardingQuery = "DELETE FROM boarding WHERE B_Passenger_ID = ?";
-                PreparedStatement deleteBoardingStatement = connection.prepareStatement(deleteBoardingQuery);
-                deleteBoardingStatement.setInt(1, selectedPassenger.getPassengerID());
-                deleteBoardingStatement.executeUpdate();
-
-                // Delete the passenger record
-                String deletePassengerQuery = "DELETE FROM passenger WHERE Passenger_ID = ?";
-                PreparedStatement deletePassengerStatement = connection.prepareStatement(deletePassengerQuery);
-                deletePassengerStatement.setInt(1, selectedPassenger.getPassengerID());
-                deletePassengerStatement.executeUpdate();
-
-                // Reload data
-                loadPassengerData();
-                loadBoardingData();
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+                // Delete boarding records associated with the passenger, then the passenger record
+                boardings.deleteByPassenger(passengerId);
+                new PassengerRepository(connection).delete(passengerId);
+                connection.commit();
+                PassengerRepository.cache().invalidate(passengerId);
+                boardingIds.forEach(BoardingRepository.cache()::invalidate);
+                SeatInventory.shared().forgetAll();
+                DomainEventBus.shared().publish(new DomainEventBus.PassengerChanged(DomainEventBus.Change.DELETED, passengerId, null));
+                return null;
+            }, deleted -> {
+                // The PassengerChanged event takes the passenger and their boardings out of the tables
+            });
+        }
+    }
+
+    /**
+     * Imports passengers from a CSV or JSON Lines file chosen by the user. Rejected rows are listed in a
+     * report written next to the file.
+     */
+    @FXML
+    void importPassengers(ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Passengers");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Passenger lists (*.csv, *.jsonl)", "*.csv", "*.jsonl", "*.ndjson", "*.json"),
+                new FileChooser.ExtensionFilter("All Files", "*.*"));
+        File file = chooser.showOpenDialog(((Node) event.getSource()).getScene().getWindow());
+        if (file == null) {
+            return;
         }
+        Path rejectedFile = file.toPath().resolveSibling(file.getName() + ".rejected.csv");
+        tasks.run(connection -> {
+            try (RecordReader reader = RecordReader.open(file.toPath())) {
+                ImportReport report = new PassengerImporter().importFrom(connection, reader);
+                if (report.getRejected() > 0) {
+                    report.writeRejections(rejectedFile);
+                }
+                return report;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, report -> {
+            String summary = report.summary();
+            if (report.getRejected() > 0) {
+                summary += "\n\nAll rejected rows were written to " + rejectedFile;
+            }
+            showAlert(Alert.AlertType.INFORMATION, "Import Passengers", summary);
+        }, failure -> {
+            failure.printStackTrace();
+            showAlert(Alert.AlertType.ERROR, "Error", "Failed to import passengers: " + failure.getMessage());
+            loadPassengerData();
+        });
     }
 
     /**
@@ -239,127 +255,181 @@ public class CustomerController {
     @FXML
     void editPassenger(ActionEvent event) {
         Passenger selectedPassenger = passengerTable.getSelectionModel().getSelectedItem();
-        if (selectedPassenger != null) {
-            try {
-                // Open dialog windows for new information
-                TextInputDialog dialog = new TextInputDialog(selectedPassenger.getFirstName());
-                dialog.setTitle("Edit Passenger");
-                dialog.setHeaderText("Edit the details of the selected passenger");
-                dialog.setContentText("First Name:");
-                Optional<String> result = dialog.showAndWait();
-                result.ifPresent(firstName -> selectedPassenger.setFirstName(firstName));
-
-                dialog = new TextInputDialog(selectedPassenger.getLastName());
-                dialog.setContentText("Last Name:");
-                result = dialog.showAndWait();
-                result.ifPresent(lastName -> selectedPassenger.setLastName(lastName));
-
-                dialog = new TextInputDialog(selectedPassenger.getGender());
-                dialog.setContentText("Gender:");
-                result = dialog.showAndWait();
-                result.ifPresent(gender -> selectedPassenger.setGender(gender));
-
-                dialog = new TextInputDialog(selectedPassenger.getBirthDate().toString());
-                dialog.setContentText("Birth Date (YYYY-MM-DD):");
-                result = dialog.showAndWait();
-                result.ifPresent(birthDate -> selectedPassenger.setBirthDate(Date.valueOf(birthDate)));
-
-                dialog = new TextInputDialog(selectedPassenger.getPhoneNumber());
-                dialog.setContentText("Phone Number:");
-                result = dialog.showAndWait();
-                result.ifPresent(phoneNumber -> selectedPassenger.setPhoneNumber(phoneNumber));
-
-                // Update the database with new information
-                String updateQuery = "UPDATE passenger SET P_Name_First = ?, P_Name_Last = ?, Gender = ?, Birth_Date = ?, Phone_Number = ? WHERE Passenger_ID = ?";
-                PreparedStatement updateStatement = connection.prepareStatement(updateQuery);
-                updateStatement.setString(1, selectedPassenger.getFirstName());
-                updateStatement.setString(2, selectedPassenger.getLastName());
-                updateStatement.setString(3, selectedPassenger.getGender());
-                updateStatement.setDate(4, selectedPassenger.getBirthDate());
-                updateStatement.setString(5, selectedPassenger.getPhoneNumber());
-                updateStatement.setInt(6, selectedPassenger.getPassengerID());
-                updateStatement.executeUpdate();
-
-                // Reload data
-                loadPassengerData();
-            } catch (SQLException e) {
-                e.printStackTrace();
+        if (selectedPassenger != null && !passengerPages.isPlaceholder(selectedPassenger)) {
+            // Edit a copy, so the table keeps showing the stored values until the database has the new ones
+            Passenger editedPassenger = new Passenger(selectedPassenger.toRow());
+
+            // Open dialog windows for new information
+            TextInputDialog dialog = new TextInputDialog(editedPassenger.getFirstName());
+            dialog.setTitle("Edit Passenger");
+            dialog.setHeaderText("Edit the details of the selected passenger");
+            dialog.setContentText("First Name:");
+            Optional<String> result = dialog.showAndWait();
+            result.ifPresent(firstName -> editedPassenger.setFirstName(firstName));
+
+            dialog = new TextInputDialog(editedPassenger.getLastName());
+            dialog.setContentText("Last Name:");
+            result = dialog.showAndWait();
+            result.ifPresent(lastName -> editedPassenger.setLastName(lastName));
+
+            dialog = new TextInputDialog(editedPassenger.getGender());
+            dialog.setContentText("Gender:");
+            result = dialog.showAndWait();
+            result.ifPresent(gender -> editedPassenger.setGender(gender));
+
+            dialog = new TextInputDialog(editedPassenger.getBirthDate().toString());
+            dialog.setContentText("Birth Date (YYYY-MM-DD):");
+            result = dialog.showAndWait();
+            result.ifPresent(birthDate -> editedPassenger.setBirthDate(Date.valueOf(birthDate)));
+
+            dialog = new TextInputDialog(editedPassenger.getPhoneNumber());
+            dialog.setContentText("Phone Number:");
+            result = dialog.showAndWait();
+            result.ifPresent(phoneNumber -> editedPassenger.setPhoneNumber(phoneNumber));
+
+            // Update the database with new information
+            tasks.run(connection -> {
+                int updated = new PassengerRepository(connection).update(editedPassenger);
+                PassengerRepository.cache().invalidate(editedPassenger.getPassengerID());
+                if (updated > 0) {
+                    DomainEventBus.shared().publish(new DomainEventBus.PassengerChanged(DomainEventBus.Change.UPDATED,
+                            editedPassenger.getPassengerID(), editedPassenger));
+                }
+                return updated;
+            }, updated -> {
+                // The PassengerChanged event updates the row in every open passenger table
+                if (updated == 0) {
+                    showAlert(Alert.AlertType.ERROR, "Error", "The passenger no longer exists.");
+                    loadPassengerData();
+                }
+            }, failure -> {
+                failure.printStackTrace();
+                showAlert(Alert.AlertType.ERROR, "Error", "Failed to update the passenger: " + failure.getMessage());
+            });
+        }
+    }
+
+    /**
+     * Shows all passengers in the passenger table, loading them page by page.
+     */
+    private void loadPassengerData() {
+        tasks.cancel("passengers");
+        passengerTable.setItems(passengerPages);
+        passengerPages.refresh();
+    }
+
+    /**
+     * Shows all boardings with their services in the boarding table, loading them page by page.
+     */
+    private void loadBoardingData() {
+        tasks.cancel("boardings");
+        searchedPassengerId = null;
+        BoardingTable.setItems(boardingPages);
+        boardingPages.refresh();
+    }
+
+    /**
+     * Applies a created, edited or deleted passenger to the rows shown, without reading the tables again.
+     * Search results only follow edits and deletions.
+     */
+    private void applyPassengerChange(DomainEventBus.PassengerChanged change) {
+        if (passengerTable.getItems() == passengerPages) {
+            switch (change.change()) {
+                case CREATED -> passengerPages.insert(change.passenger());
+                case UPDATED -> passengerPages.replace(change.passenger());
+                case DELETED -> passengerPages.removeByKey(change.passengerId());
+            }
+        } else if (change.change() != DomainEventBus.Change.CREATED) {
+            List<Passenger> shown = passengerTable.getItems();
+            for (int i = 0; i < shown.size(); i++) {
+                if (shown.get(i).getPassengerID() == change.passengerId()) {
+                    if (change.change() == DomainEventBus.Change.DELETED) {
+                        shown.remove(i);
+                    } else {
+                        shown.set(i, change.passenger());
+                    }
+                    break;
+                }
+            }
+        }
+        if (change.change() == DomainEventBus.Change.DELETED) {
+            // The passenger's boardings were deleted with them; their IDs are not known here
+            if (BoardingTable.getItems() == boardingPages) {
+                boardingPages.refresh();
+            } else {
+                BoardingTable.getItems().removeIf(boarding -> boarding.getPassengerID() == change.passengerId());
             }
         }
     }
 
     /**
-     * Fetches the service details for the given boarding record.
+     * Adds a new boarding to the boarding table, if the table shows it.
      */
-    private void fetchServiceDetails(Boarding boarding) throws SQLException {
-        String serviceQuery = "SELECT * FROM services WHERE Boarding_ID = ?";
-        PreparedStatement serviceStatement = connection.prepareStatement(serviceQuery);
-        serviceStatement.setInt(1, boarding.getBoardingID());
-        ResultSet serviceResultSet = serviceStatement.executeQuery();
-        if (serviceResultSet.next()) {
-            boarding.setExtraDrink(serviceResultSet.getBoolean("Extra_Drink"));
-            boarding.setExtraMeal(serviceResultSet.getBoolean("Extra_Meal"));
-            boarding.setSuitCenter(serviceResultSet.getBoolean("Suit_Center"));
-            boarding.setExtraLuggage(serviceResultSet.getInt("Extra_Luggage"));
-            boarding.setServiceDescription(serviceResultSet.getString("Service_Description"));
-        } else {
-            boarding.setExtraDrink(false);
-            boarding.setExtraMeal(false);
-            boarding.setSuitCenter(false);
-            boarding.setExtraLuggage(0);
-            boarding.setServiceDescription("");
+    private void applyBoardingCreated(DomainEventBus.BoardingCreated created) {
+        Boarding boarding = created.boarding();
+        if (BoardingTable.getItems() == boardingPages) {
+            boardingPages.insert(boarding);
+        } else if (searchedPassengerId != null && searchedPassengerId == boarding.getPassengerID()) {
+            BoardingTable.getItems().add(boarding);
         }
     }
 
     /**
-     * Loads passenger data from the database into the passenger table.
+     * Shows the saved services on the boarding's row, if the row is shown.
      */
-    private void loadPassengerData() {
-        try {
-            Statement statement = connection.createStatement();
-            ResultSet resultSet = statement.executeQuery("SELECT * FROM passenger");
-            ObservableList<Passenger> passengerList = FXCollections.observableArrayList();
-            while (resultSet.next()) {
-                Passenger passenger = new Passenger(
-                        resultSet.getInt("Passenger_ID"),
-                        resultSet.getString("P_Name_First"),
-                        resultSet.getString("P_Name_Last"),
-                        resultSet.getString("Gender"),
-                        resultSet.getDate("Birth_Date"),
-                        resultSet.getString("Phone_Number")
-                );
-                passengerList.add(passenger);
+    private void applyServicesUpdate(DomainEventBus.ServicesUpdated update) {
+        int boardingId = update.boarding().getBoardingID();
+        Boarding shown = null;
+        if (BoardingTable.getItems() == boardingPages) {
+            shown = boardingPages.find(boardingId);
+        } else {
+            for (Boarding boarding : BoardingTable.getItems()) {
+                if (boarding.getBoardingID() == boardingId) {
+                    shown = boarding;
+                    break;
+                }
             }
-            passengerTable.setItems(passengerList);
-        } catch (SQLException e) {
-            e.printStackTrace();
+        }
+        if (shown != null) {
+            ServicesRepository.copy(update.boarding(), shown);
         }
     }
 
     /**
-     * Loads boarding data from the database into the boarding table.
+     * Follows a renamed or deleted flight in the boarding table.
      */
-    private void loadBoardingData() {
-        try {
-            Statement statement = connection.createStatement();
-            ResultSet resultSet = statement.executeQuery("SELECT * FROM boarding");
-            ObservableList<Boarding> boardingList = FXCollections.observableArrayList();
-            while (resultSet.next()) {
-                Boarding boarding = new Boarding(
-                        resultSet.getInt("Boarding_id"),
-                        resultSet.getInt("B_Passenger_ID"),
-                        resultSet.getString("Seat_Number"),
-                        resultSet.getString("B_Flight_Number")
-                );
-                fetchServiceDetails(boarding);
-                boardingList.add(boarding);
+    private void applyFlightChange(DomainEventBus.FlightChanged change) {
+        if (change.change() != DomainEventBus.Change.DELETED && !change.isRenamed()) {
+            return;
+        }
+        if (BoardingTable.getItems() == boardingPages) {
+            // Any number of boardings moved or went away
+            boardingPages.refresh();
+        } else if (change.change() == DomainEventBus.Change.DELETED) {
+            BoardingTable.getItems().removeIf(boarding -> change.flightNumber().equals(boarding.getFlightNumber()));
+        } else {
+            for (Boarding boarding : BoardingTable.getItems()) {
+                if (change.flightNumber().equals(boarding.getFlightNumber())) {
+                    boarding.setFlightNumber(change.flight().getFlightNumber());
+                }
             }
-            BoardingTable.setItems(boardingList);
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
     }
 
+    /**
+     * Shows the passengers in the passenger table.
+     */
+    private void showPassengers(List<Passenger> passengers) {
+        passengerTable.setItems(FXCollections.observableArrayList(passengers));
+    }
+
+    /**
+     * Shows the boardings in the boarding table.
+     */
+    private void showBoardings(List<Boarding> boardings) {
+        BoardingTable.setItems(FXCollections.observableArrayList(boardings));
+    }
+
     /**
      * Exits the current page and loads the main page.
      */
@@ -0,0 +1,87 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javafx.concurrent.Task;
+
+/**
+ * The DataAccess class runs database work off the JavaFX Application Thread.
+ * Every submitted task runs on its own virtual thread, so a slow query never freezes the UI
+ * and blocked JDBC calls do not tie up platform threads. Results are delivered back on the
+ * FX thread through the usual {@link Task} callbacks. Screens normally submit through
+ * {@link ScreenTasks}, which also cancels their work when the screen closes.
+ */
+public final class DataAccess {
+
+    /**
+     * A unit of database work that runs on a borrowed connection.
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("data-access-", 0).factory());
+
+    private DataAccess() {
+    }
+
+    /**
+     * Wraps the work in a task that borrows a pooled connection for its duration.
+     * The task is not started; pass it to {@link #execute(Task)} or use {@link ScreenTasks}.
+     */
+    public static <T> Task<T> task(SqlWork<T> work) {
+        return new Task<>() {
+            @Override
+            protected T call() throws SQLException {
+                try (Connection connection = Database.getConnection()) {
+                    return work.run(connection);
+                }
+            }
+        };
+    }
+
+    /**
+     * Like {@link #task(SqlWork)}, but answers from {@code offlineWork} while {@link OfflineMode} is offline.
+     * When the database work fails because the database cannot be reached, offline mode is switched on and
+     * the offline work runs instead, in the same task. Failures of a task that was cancelled meanwhile do not
+     * switch offline mode on.
+     */
+    public static <T> Task<T> task(SqlWork<T> work, Callable<T> offlineWork) {
+        return new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                OfflineMode offlineMode = OfflineMode.shared();
+                if (!offlineMode.isOffline()) {
+                    try (Connection connection = Database.getConnection()) {
+                        return work.run(connection);
+                    } catch (SQLException e) {
+                        // A cancelled or interrupted task says nothing about whether the database is reachable
+                        if (!OfflineMode.isConnectionFailure(e) || isCancelled() || Thread.currentThread().isInterrupted()) {
+                            throw e;
+                        }
+                        offlineMode.goOffline(e);
+                    }
+                }
+                return offlineWork.call();
+            }
+        };
+    }
+
+    /**
+     * Starts the task on a virtual thread.
+     */
+    public static <T> Task<T> execute(Task<T> task) {
+        EXECUTOR.execute(task);
+        return task;
+    }
+
+    /**
+     * Stops accepting new work. Called when the application exits.
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+}
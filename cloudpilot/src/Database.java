@@ -0,0 +1,118 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.Locale;
+import javax.sql.DataSource;
+
+/**
+ * The Database class holds the MySQL connection settings and the application-wide connection pool.
+ * Controllers borrow a connection for each action and close it when done, which returns it to the pool.
+ * The settings can be overridden with the cloudpilot.db.* system properties.
+ */
+public final class Database {
+
+    // MySQL connection parameters
+    private static final String URL = System.getProperty("cloudpilot.db.url", "Your URL");
+    private static final String USERNAME = System.getProperty("cloudpilot.db.username", "Your Username");
+    private static final String PASSWORD = System.getProperty("cloudpilot.db.password", "Your Password");
+    private static final int POOL_SIZE = Integer.getInteger("cloudpilot.db.poolSize", 10);
+    // How text keys are ordered in memory; H2, which the benchmarks use, orders text by code point by default
+    private static final String TEXT_ORDER = System.getProperty("cloudpilot.db.textOrder", URL.startsWith("jdbc:h2:") ? "binary" : "collation");
+    private static final boolean INSTRUMENTED = Boolean.parseBoolean(System.getProperty("cloudpilot.db.instrumented", "true"));
+
+    private static ConnectionPool pool;
+    private static ConnectionPool idPool;
+    private static DataSource dataSource;
+    private static DataSource idDataSource;
+
+    private Database() {
+    }
+
+    /**
+     * Returns the comparator code uses in memory where it must agree with an ORDER BY on a text key, chosen
+     * by the cloudpilot.db.textOrder system property. "binary", the default for H2 URLs, is String.compareTo.
+     * "collation", the default otherwise, is a root-locale Collator that ignores case and accents. It
+     * approximates MySQL's utf8mb4_0900_ai_ci and agrees with it on keys of letters and digits, such as
+     * flight numbers; it is not an implementation of that collation, and may order punctuation differently.
+     */
+    public static Comparator<String> textOrder() {
+        if ("binary".equals(TEXT_ORDER)) {
+            return Comparator.naturalOrder();
+        }
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.PRIMARY);
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        return collator::compare;
+    }
+
+    /**
+     * Returns the shared connection pool, creating it on first use.
+     */
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool(URL, USERNAME, PASSWORD, POOL_SIZE);
+        }
+        return pool;
+    }
+
+    /**
+     * Returns the one-connection pool used to reserve ID blocks. It is kept apart from the shared pool,
+     * so a reservation never waits for a connection held by the very caller it is serving.
+     */
+    public static synchronized ConnectionPool getIdPool() {
+        if (idPool == null) {
+            idPool = new ConnectionPool(URL, USERNAME, PASSWORD, 1);
+        }
+        return idPool;
+    }
+
+    /**
+     * Returns the shared pool as the application uses it: unless cloudpilot.db.instrumented is false,
+     * every statement run on its connections is timed and reported to {@link QueryMetrics}, and the slow
+     * ones to the {@link SlowQueryLog}.
+     */
+    public static synchronized DataSource getDataSource() {
+        if (dataSource == null) {
+            dataSource = instrumented(getPool());
+        }
+        return dataSource;
+    }
+
+    /**
+     * Returns the ID pool as the application uses it, instrumented like {@link #getDataSource()}.
+     */
+    public static synchronized DataSource getIdDataSource() {
+        if (idDataSource == null) {
+            idDataSource = instrumented(getIdPool());
+        }
+        return idDataSource;
+    }
+
+    /**
+     * Borrows a connection from the shared pool. Close it to give it back.
+     */
+    public static Connection getConnection() throws SQLException {
+        return getDataSource().getConnection();
+    }
+
+    private static DataSource instrumented(ConnectionPool pool) {
+        return INSTRUMENTED ? new InstrumentedDataSource(pool, QueryMetrics.shared(), SlowQueryLog.shared()) : pool;
+    }
+
+    /**
+     * Closes the pooled connections. Called when the application exits.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+            dataSource = null;
+        }
+        if (idPool != null) {
+            idPool.shutdown();
+            idPool = null;
+            idDataSource = null;
+        }
+    }
+}
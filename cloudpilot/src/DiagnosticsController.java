@@ -0,0 +1,235 @@
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+
+/**
+ * The DiagnosticsController class shows how the application has been using the database since it started
+ * or was last reset: the latency percentiles, rows and mapping time of every logical query, and the
+ * counters of the connection pool, the entity caches, the services write-behind and the offline log.
+ * The report can be written to a text file to attach to a support ticket.
+ */
+public class DiagnosticsController {
+    private long employeeId; // This value should be dynamically set based on the logged-in user.
+
+    /**
+     * Sets the employee ID.
+     */
+    public void setEmployeeId(long employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    @FXML
+    private TableView<QueryMetrics.Summary> queryTable;
+
+    @FXML
+    private TableColumn<QueryMetrics.Summary, String> nameColumn;
+
+    @FXML
+    private TableColumn<QueryMetrics.Summary, Number> executionsColumn;
+
+    @FXML
+    private TableColumn<QueryMetrics.Summary, Number> errorsColumn;
+
+    @FXML
+    private TableColumn<QueryMetrics.Summary, Number> rowsColumn;
+
+    @FXML
+    private TableColumn<QueryMetrics.Summary, Number> meanColumn;
+
+    @FXML
+    private TableColumn<QueryMetrics.Summary, Number> p50Column;
+
+    @FXML
+    private TableColumn<QueryMetrics.Summary, Number> p99Column;
+
+    @FXML
+    private TableColumn<QueryMetrics.Summary, Number> p999Column;
+
+    @FXML
+    private TableColumn<QueryMetrics.Summary, Number> maxColumn;
+
+    @FXML
+    private TableColumn<QueryMetrics.Summary, Number> mappingMeanColumn;
+
+    @FXML
+    private TableColumn<QueryMetrics.Summary, Number> mappingP99Column;
+
+    @FXML
+    private TableColumn<QueryMetrics.Summary, Number> totalColumn;
+
+    @FXML
+    private TextArea componentText;
+
+    /**
+     * Initializes the controller class. Sets up the table columns and shows the current numbers.
+     */
+    @FXML
+    void initialize() {
+        nameColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().name()));
+        count(executionsColumn, QueryMetrics.Summary::executions);
+        count(errorsColumn, QueryMetrics.Summary::errors);
+        count(rowsColumn, QueryMetrics.Summary::rows);
+        millis(meanColumn, QueryMetrics.Summary::meanMillis);
+        millis(p50Column, QueryMetrics.Summary::p50Millis);
+        millis(p99Column, QueryMetrics.Summary::p99Millis);
+        millis(p999Column, QueryMetrics.Summary::p999Millis);
+        millis(maxColumn, QueryMetrics.Summary::maxMillis);
+        millis(mappingMeanColumn, QueryMetrics.Summary::mappingMeanMillis);
+        millis(mappingP99Column, QueryMetrics.Summary::mappingP99Millis);
+        millis(totalColumn, QueryMetrics.Summary::totalMillis);
+
+        // Show the full SQL of the selected query below the table
+        queryTable.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> showComponents());
+
+        refresh();
+    }
+
+    /**
+     * Reads the current numbers again.
+     */
+    @FXML
+    void refresh() {
+        queryTable.setItems(FXCollections.observableArrayList(QueryMetrics.shared().summaries()));
+        showComponents();
+    }
+
+    /**
+     * Forgets the query numbers collected so far, to measure from now on.
+     */
+    @FXML
+    void reset() {
+        QueryMetrics.shared().reset();
+        refresh();
+    }
+
+    /**
+     * Writes the query report and the component counters to a text file.
+     */
+    @FXML
+    void dump(ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Dump Diagnostics");
+        chooser.setInitialFileName("cloudpilot-diagnostics-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files (*.txt)", "*.txt"));
+        File file = chooser.showSaveDialog(((Node) event.getSource()).getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            QueryMetrics.shared().dump(file.toPath(), componentLines());
+        } catch (IOException e) {
+            e.printStackTrace();
+            showAlert("Error", "Failed to write the diagnostics: " + e.getMessage());
+        }
+    }
+
+    private void showComponents() {
+        List<String> lines = componentLines();
+        QueryMetrics.Summary selected = queryTable.getSelectionModel().getSelectedItem();
+        if (selected != null) {
+            lines.add("");
+            lines.add(selected.name() + ": " + selected.sql());
+        }
+        componentText.setText(String.join("\n", lines));
+    }
+
+    /**
+     * Returns one line per component the queries depend on.
+     */
+    private static List<String> componentLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add(line("Connection pool", Database.getPool().getStats()));
+        lines.add(line("ID connection pool", Database.getIdPool().getStats()));
+        lines.add(line("Flight cache", FlightRepository.cache().stats()));
+        lines.add(line("Passenger cache", PassengerRepository.cache().stats()));
+        lines.add(line("Boarding cache", BoardingRepository.cache().stats()));
+        lines.add(line("Services write-behind", ServicesWriteBehind.shared().stats()));
+        lines.add(line("Slow query log", SlowQueryLog.shared().stats()));
+        OfflineMode offline = OfflineMode.shared();
+        lines.add(line("Offline mode", (offline.isOffline() ? "offline" : "online")
+                + offline.logStats().map(stats -> ", log " + stats).orElse(", no local log")));
+        return lines;
+    }
+
+    private static String line(String component, Object stats) {
+        return String.format("%-22s %s", component + ":", stats);
+    }
+
+    private static void count(TableColumn<QueryMetrics.Summary, Number> column, Function<QueryMetrics.Summary, Long> value) {
+        column.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(value.apply(cellData.getValue())));
+    }
+
+    private static void millis(TableColumn<QueryMetrics.Summary, Number> column, Function<QueryMetrics.Summary, Double> value) {
+        column.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(value.apply(cellData.getValue())));
+        column.setCellFactory(c -> new TableCell<>() {
+            @Override
+            protected void updateItem(Number item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : String.format("%.3f", item.doubleValue()));
+            }
+        });
+    }
+
+    /**
+     * Exits the current page and navigates to the main page.
+     */
+    @FXML
+    void exitpage(ActionEvent event) {
+        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+        stage.close();
+        FXMLLoader loader = loadFXML("MainPage.fxml");
+        if (loader != null) {
+            MainPageController controller = loader.getController();
+            controller.setEmployeeId(employeeId);
+        }
+    }
+
+    /**
+     * Shows an alert with the given title and message.
+     */
+    private void showAlert(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+
+    /**
+     * Loads the specified FXML file and shows it in a new stage.
+     */
+    private FXMLLoader loadFXML(String fxmlFileName) {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlFileName));
+            Parent root = loader.load();
+            Stage stage = new Stage();
+            stage.setScene(new Scene(root));
+            stage.show();
+            return loader;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
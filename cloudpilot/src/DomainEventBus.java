@@ -0,0 +1,137 @@
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+/**
+ * The DomainEventBus class tells the open screens what was written to the database, so they can patch the
+ * rows they show instead of reading whole tables again. Every write path publishes an event after its
+ * transaction commits, from whatever thread it runs on. Subscribers receive the events on the JavaFX
+ * Application Thread in the order they were published; events published in a burst, like those of an
+ * import, are handed over in one pass. Screens subscribe through {@link ScreenTasks#subscribe}, which
+ * unsubscribes them when their window closes. The bus is shared by all screens and is thread-safe.
+ */
+public class DomainEventBus {
+
+    /**
+     * A change to the database.
+     */
+    public sealed interface Event permits FlightChanged, PassengerChanged, BoardingCreated, ServicesUpdated {
+    }
+
+    /**
+     * What happened to a row.
+     */
+    public enum Change {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    /**
+     * A flight was created, edited or deleted. Its boardings move with it.
+     *
+     * @param flightNumber the number the flight had before the change; for a new flight, its number
+     * @param flight the flight as stored now, or null if it was deleted
+     */
+    public record FlightChanged(Change change, String flightNumber, Flight flight) implements Event {
+
+        /**
+         * Returns true if the flight was given a new number.
+         */
+        public boolean isRenamed() {
+            return change == Change.UPDATED && !flight.getFlightNumber().equals(flightNumber);
+        }
+    }
+
+    /**
+     * A passenger was created, edited or deleted. A deleted passenger's boardings and services are gone too.
+     *
+     * @param passenger the passenger as stored now, or null if they were deleted
+     */
+    public record PassengerChanged(Change change, int passengerId, Passenger passenger) implements Event {
+    }
+
+    /**
+     * A passenger was checked in. The boarding has no services booked yet.
+     */
+    public record BoardingCreated(Boarding boarding) implements Event {
+    }
+
+    /**
+     * The services of a boarding were saved. Only the boarding ID and the service details of the
+     * boarding are set.
+     */
+    public record ServicesUpdated(Boarding boarding) implements Event {
+    }
+
+    /**
+     * Cancels a subscription.
+     */
+    @FunctionalInterface
+    public interface Subscription {
+        void cancel();
+    }
+
+    private static final DomainEventBus SHARED = new DomainEventBus();
+
+    private final Map<Class<?>, List<Consumer<? super Event>>> subscribers = new ConcurrentHashMap<>();
+    private final Queue<Event> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean deliveryScheduled = new AtomicBoolean();
+
+    /**
+     * Returns the bus shared by all screens.
+     */
+    public static DomainEventBus shared() {
+        return SHARED;
+    }
+
+    /**
+     * Calls the handler on the JavaFX Application Thread for every event of the type published from now on.
+     */
+    public <E extends Event> Subscription subscribe(Class<E> type, Consumer<? super E> handler) {
+        Consumer<? super Event> delivery = event -> handler.accept(type.cast(event));
+        List<Consumer<? super Event>> handlers = subscribers.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>());
+        handlers.add(delivery);
+        return () -> handlers.remove(delivery);
+    }
+
+    /**
+     * Publishes an event. Call it after the change is committed. Events nobody subscribed to are dropped
+     * right away, so write paths running without any screen, like benchmarks, never touch the FX thread.
+     */
+    public void publish(Event event) {
+        List<Consumer<? super Event>> handlers = subscribers.get(event.getClass());
+        if (handlers == null || handlers.isEmpty()) {
+            return;
+        }
+        pending.add(event);
+        if (deliveryScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::deliver);
+        }
+    }
+
+    /**
+     * Hands the pending events to their subscribers. A failing subscriber does not keep the others from
+     * their events.
+     */
+    private void deliver() {
+        deliveryScheduled.set(false);
+        Event event;
+        while ((event = pending.poll()) != null) {
+            for (Consumer<? super Event> handler : subscribers.getOrDefault(event.getClass(), List.of())) {
+                try {
+                    handler.accept(event);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
@@ -1,9 +1,4 @@
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -45,10 +40,10 @@ public class EditProfileController {
 
     private Profile profile;
 
-    private Connection connection;
-
     private long employeeId;
 
+    private final ScreenTasks tasks = new ScreenTasks();
+
     /**
      * Sets the employee ID and loads the profile data from the database.
      */
@@ -64,7 +59,8 @@ public class EditProfileController {
      */
     @FXML
     void initialize() {
-        // Initialize method is left empty as data will be loaded in setEmployeeId method
+        // Data will be loaded in setEmployeeId method
+        tasks.cancelWhenClosed(profileId);
     }
 
     /**
@@ -79,53 +75,23 @@ public class EditProfileController {
      * Loads the profile data from the database based on the employee ID.
      */
     private void loadDataFromDatabase() {
-        try {
-            // Connect to the MySQL database
-            connection = DriverManager.getConnection("Your URL", "Your Username", "Your Password");
-            System.out.println("Connection established");
-
-            if (connection != null) {
-                // Get the employee ID from the profileId field
-                long inputEmployeeId = Long.parseLong(profileId.getText());
-                PreparedStatement statement = connection.prepareStatement("SELECT * FROM employee WHERE Employee_ID = ?");
-                statement.setLong(1, inputEmployeeId);
-                System.out.println("Query prepared: SELECT * FROM employee WHERE Employee_ID = " + inputEmployeeId);
-                ResultSet resultSet = statement.executeQuery();
-                System.out.println("Query executed");
-
-                if (resultSet.next()) {
-                    System.out.println("Profile found");
-
-                    // Create a Profile object with the data from the database
-                    profile = new Profile(
-                            resultSet.getString("Employee_ID"),
-                            resultSet.getString("E_Name_First"),
-                            resultSet.getString("E_Name_Last"),
-                            resultSet.getString("Email"),
-                            resultSet.getString("Role"),
-                            resultSet.getString("Password")
-                    );
-
-                    // Set the data to the fields
-                    profileId.setText(profile.getEmployeeID());
-                    firstNameField.setText(profile.getFirstName());
-                    lastNameField.setText(profile.getLastName());
-                    emailField.setText(profile.getEmail());
-                    roleField.setText(profile.getRole());
-                    passwordField.setText(profile.getPassword());
-                    System.out.println("Profile data set to fields");
-                } else {
-                    System.out.println("Profile not found");
-                }
-
-                // Close the connection
-                connection.close();
-                System.out.println("Connection closed");
+        // Get the employee ID from the profileId field
+        long inputEmployeeId = Long.parseLong(profileId.getText());
+        tasks.runLatest("profile", connection -> new EmployeeRepository(connection).findById(inputEmployeeId), found -> {
+            if (found.isPresent()) {
+                profile = found.get();
+
+                // Set the data to the fields
+                profileId.setText(profile.getEmployeeID());
+                firstNameField.setText(profile.getFirstName());
+                lastNameField.setText(profile.getLastName());
+                emailField.setText(profile.getEmail());
+                roleField.setText(profile.getRole());
+                passwordField.setText(profile.getPassword());
+            } else {
+                System.out.println("Profile not found");
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            // Handle the error appropriately
-        }
+        });
     }
 
     /**
@@ -134,54 +100,38 @@ public class EditProfileController {
     @FXML
     void handleEditButton(ActionEvent event) {
         // Get the edited data from the fields
-        try {
-            // New Employee ID entered
-            String newEmployeeId = profileId.getText();
+        // New Employee ID entered
+        String newEmployeeId = profileId.getText();
 
-            if (!newEmployeeId.equals(String.valueOf(employeeId))) {
-                showAlert(Alert.AlertType.ERROR, "Error", "You cannot change the Employee ID.");
-                profileId.setText(String.valueOf(employeeId)); // Reset Employee ID to the original value
-                return;
-            }
-
-            // Update the profile in the database
-            connection = DriverManager.getConnection("Your URL", "Your Username", "Your Password");
-            PreparedStatement statement = connection.prepareStatement("UPDATE employee SET E_Name_First = ?, E_Name_Last = ?, Email = ?, Role = ?, Password = ? WHERE Employee_ID = ?");
-            statement.setString(1, firstNameField.getText());
-            statement.setString(2, lastNameField.getText());
-            statement.setString(3, emailField.getText());
-            statement.setString(4, roleField.getText());
-            statement.setString(5, passwordField.getText());
-            statement.setLong(6, employeeId);
-            int rowsAffected = statement.executeUpdate();
+        if (!newEmployeeId.equals(String.valueOf(employeeId))) {
+            showAlert(Alert.AlertType.ERROR, "Error", "You cannot change the Employee ID.");
+            profileId.setText(String.valueOf(employeeId)); // Reset Employee ID to the original value
+            return;
+        }
 
+        Profile edited = new Profile(
+                newEmployeeId,
+                firstNameField.getText(),
+                lastNameField.getText(),
+                emailField.getText(),
+                roleField.getText(),
+                passwordField.getText()
+        );
+
+        // Update the profile in the database
+        tasks.run(connection -> new EmployeeRepository(connection).update(edited), rowsAffected -> {
             // Check the number of affected rows
             if (rowsAffected > 0) {
                 showAlert(Alert.AlertType.INFORMATION, "Success", "Profile edited successfully!");
                 // Update the Profile object
-                profile = new Profile(
-                        newEmployeeId,
-                        firstNameField.getText(),
-                        lastNameField.getText(),
-                        emailField.getText(),
-                        roleField.getText(),
-                        passwordField.getText()
-                );
+                profile = edited;
             } else {
                 showAlert(Alert.AlertType.ERROR, "Error", "Failed to edit profile.");
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        }, failure -> {
+            failure.printStackTrace();
             showAlert(Alert.AlertType.ERROR, "Error", "Failed to edit profile.");
-        } finally {
-            try {
-                if (connection != null) {
-                    connection.close();
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-        }
+        });
     }
 
     /**
@@ -0,0 +1,115 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * The EmployeeRepository class owns the SQL for the employee table and maps its rows into Profile objects.
+ */
+public class EmployeeRepository {
+    static final String SELECT_ID_BY_LOGIN = "SELECT Employee_ID FROM employee WHERE email = ? AND password = ?";
+    static final String SELECT_BY_ID = "SELECT * FROM employee WHERE Employee_ID = ?";
+    static final String COUNT_BY_EMAIL = "SELECT COUNT(*) FROM employee WHERE Email = ?";
+    static final String COUNT_BY_ID = "SELECT COUNT(*) FROM employee WHERE Employee_ID = ?";
+    static final String INSERT = "INSERT INTO employee (Employee_ID, E_Name_First, E_Name_Last, Email, Role, Password) VALUES (?, ?, ?, ?, ?, ?)";
+    static final String UPDATE = "UPDATE employee SET E_Name_First = ?, E_Name_Last = ?, Email = ?, Role = ?, Password = ? WHERE Employee_ID = ?";
+
+    private final Connection connection;
+
+    /**
+     * Creates a repository that runs its statements on the given connection.
+     */
+    public EmployeeRepository(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Maps the current row of the result set into a Profile.
+     */
+    public static Profile map(ResultSet resultSet) throws SQLException {
+        return new Profile(
+                resultSet.getString("Employee_ID"),
+                resultSet.getString("E_Name_First"),
+                resultSet.getString("E_Name_Last"),
+                resultSet.getString("Email"),
+                resultSet.getString("Role"),
+                resultSet.getString("Password")
+        );
+    }
+
+    /**
+     * Returns the ID of the employee with the given login, if the email and password match.
+     */
+    public Optional<Long> findIdByLogin(String email, String password) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_ID_BY_LOGIN)) {
+            statement.setString(1, email);
+            statement.setString(2, password);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? Optional.of(resultSet.getLong("Employee_ID")) : Optional.empty();
+        }
+    }
+
+    /**
+     * Finds an employee profile by ID.
+     */
+    public Optional<Profile> findById(long employeeId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID)) {
+            statement.setLong(1, employeeId);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? Optional.of(map(resultSet)) : Optional.empty();
+        }
+    }
+
+    /**
+     * Checks whether the email is already registered.
+     */
+    public boolean existsByEmail(String email) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(COUNT_BY_EMAIL)) {
+            statement.setString(1, email);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() && resultSet.getInt(1) > 0;
+        }
+    }
+
+    /**
+     * Checks whether the employee ID is already registered.
+     */
+    public boolean existsById(long employeeId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(COUNT_BY_ID)) {
+            statement.setLong(1, employeeId);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() && resultSet.getInt(1) > 0;
+        }
+    }
+
+    /**
+     * Inserts a new employee profile.
+     */
+    public int insert(Profile profile) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            statement.setLong(1, Long.parseLong(profile.getEmployeeID()));
+            statement.setString(2, profile.getFirstName());
+            statement.setString(3, profile.getLastName());
+            statement.setString(4, profile.getEmail());
+            statement.setString(5, profile.getRole());
+            statement.setString(6, profile.getPassword());
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Updates an existing employee profile.
+     */
+    public int update(Profile profile) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+            statement.setString(1, profile.getFirstName());
+            statement.setString(2, profile.getLastName());
+            statement.setString(3, profile.getEmail());
+            statement.setString(4, profile.getRole());
+            statement.setString(5, profile.getPassword());
+            statement.setLong(6, Long.parseLong(profile.getEmployeeID()));
+            return statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,398 @@
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * The EntityCache class keeps recently and frequently read rows in memory, bounded by their estimated size.
+ * It follows the W-TinyLFU design: new entries enter a small LRU window, and an entry leaving the window
+ * only joins the main area if it has been asked for more often than the entry it would push out. The main
+ * area is a segmented LRU whose protected segment holds entries that were hit again after admission. How
+ * often a key was asked for is estimated by a count-min sketch of 4-bit counters that is halved
+ * periodically, so old popularity fades. A burst of one-off lookups therefore cannot flush the rows the
+ * desks keep coming back to.
+ *
+ * Values are copied on the way in and on the way out, so callers may change what they get without
+ * touching the cache. Writers invalidate the keys they change after committing; a load that overlaps an
+ * invalidation is not cached. Invalidation only reaches the caches of this application, so an entry also
+ * expires a fixed time after it was loaded, after which changes made at other desks are read again.
+ * A cache is thread-safe; loads run outside its lock.
+ */
+public class EntityCache<K, V> {
+
+    /**
+     * Reads the value of a key from the database, or returns null if there is none.
+     */
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    /**
+     * A snapshot of the cache's counters.
+     *
+     * @param hits lookups answered from memory
+     * @param misses lookups that went to the database
+     * @param evictions entries dropped, or refused admission, to stay within the size bound
+     * @param size the number of entries held
+     * @param weight the estimated size of the entries held, in bytes
+     * @param maxWeight the size bound, in bytes
+     */
+    public record Stats(long hits, long misses, long evictions, int size, long weight, long maxWeight) {
+
+        /**
+         * Returns the share of lookups answered from memory, between 0 and 1.
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d entries, %.1f of %.1f KB, %d hits, %d misses (%.1f%% hits), %d evictions",
+                    size, weight / 1024.0, maxWeight / 1024.0, hits, misses, hitRate() * 100, evictions);
+        }
+    }
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final String name;
+    private final long maxWeight;
+    private final long maxWindowWeight;
+    private final long maxProtectedWeight;
+    private final long expireAfterNanos;
+    private final ToIntFunction<V> weigher;
+    private final UnaryOperator<V> copier;
+
+    private final Map<K, Node<K, V>> nodes = new HashMap<>();
+    // Each segment is a circular list behind a sentinel, least recently used first
+    private final List<Node<K, V>> segments = List.of(new Node<>(), new Node<>(), new Node<>());
+    private final long[] segmentWeights = new long[3];
+    private final FrequencySketch sketch = new FrequencySketch();
+    private long invalidations;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache.
+     *
+     * @param name the name shown with the statistics
+     * @param maxWeight how many bytes the entries may take, as estimated by the weigher
+     * @param expireAfterMillis how long an entry is served after it was loaded
+     * @param weigher estimates the size of a value in bytes
+     * @param copier makes an independent copy of a value
+     */
+    public EntityCache(String name, long maxWeight, long expireAfterMillis, ToIntFunction<V> weigher, UnaryOperator<V> copier) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight must be positive");
+        }
+        if (expireAfterMillis < 1) {
+            throw new IllegalArgumentException("expireAfterMillis must be positive");
+        }
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.maxWindowWeight = Math.max(1, maxWeight / 100);
+        this.maxProtectedWeight = (maxWeight - maxWindowWeight) * 4 / 5;
+        this.expireAfterNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterMillis);
+        this.weigher = weigher;
+        this.copier = copier;
+    }
+
+    /**
+     * Returns a copy of the cached value of the key, loading and caching it on a miss.
+     * Returns null if the loader finds nothing; missing keys are not remembered.
+     */
+    public V get(K key, Loader<K, V> loader) throws SQLException {
+        long stamp;
+        synchronized (this) {
+            sketch.increment(key);
+            Node<K, V> node = nodes.get(key);
+            if (node != null && System.nanoTime() - node.loadedAt >= expireAfterNanos) {
+                // Too old to trust: another desk may have changed the row
+                nodes.remove(key);
+                unlink(node);
+                node = null;
+            }
+            if (node != null) {
+                hits++;
+                onHit(node);
+                return copier.apply(node.value);
+            }
+            misses++;
+            stamp = invalidations;
+        }
+        V value = loader.load(key);
+        if (value != null) {
+            V copy = copier.apply(value);
+            synchronized (this) {
+                // A writer may have changed the row while it was being read
+                if (stamp == invalidations && !nodes.containsKey(key)) {
+                    add(key, copy);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops the key, if it is cached. Call it after the change to its row is committed.
+     */
+    public synchronized void invalidate(K key) {
+        invalidations++;
+        Node<K, V> node = nodes.remove(key);
+        if (node != null) {
+            unlink(node);
+        }
+    }
+
+    /**
+     * Drops every cached value that matches the predicate, for changes that touch rows by something other
+     * than their key.
+     */
+    public synchronized void invalidateIf(Predicate<V> predicate) {
+        invalidations++;
+        List<K> matching = new ArrayList<>();
+        for (Node<K, V> node : nodes.values()) {
+            if (predicate.test(node.value)) {
+                matching.add(node.key);
+            }
+        }
+        for (K key : matching) {
+            unlink(nodes.remove(key));
+        }
+    }
+
+    /**
+     * Drops every cached value. The statistics are kept.
+     */
+    public synchronized void invalidateAll() {
+        invalidations++;
+        nodes.clear();
+        for (int segment = WINDOW; segment <= PROTECTED; segment++) {
+            Node<K, V> sentinel = segments.get(segment);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            segmentWeights[segment] = 0;
+        }
+    }
+
+    /**
+     * Returns the size bound of each shared entity cache, in bytes: the {@code cloudpilot.cache.maxKilobytes}
+     * system property, 2048 by default.
+     */
+    public static long configuredMaxWeight() {
+        return Math.max(1, Long.getLong("cloudpilot.cache.maxKilobytes", 2048)) * 1024;
+    }
+
+    /**
+     * Returns how long each shared entity cache serves an entry, in milliseconds: the
+     * {@code cloudpilot.cache.expireMinutes} system property, 5 by default.
+     */
+    public static long configuredExpireAfterMillis() {
+        return TimeUnit.MINUTES.toMillis(Math.max(1, Long.getLong("cloudpilot.cache.expireMinutes", 5)));
+    }
+
+    /**
+     * Returns the name of the cache.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the current counters.
+     */
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, nodes.size(),
+                segmentWeights[WINDOW] + segmentWeights[PROBATION] + segmentWeights[PROTECTED], maxWeight);
+    }
+
+    private void onHit(Node<K, V> node) {
+        if (node.segment == PROBATION) {
+            // Asked for again after admission: protect it, demoting the oldest protected entries if needed
+            unlink(node);
+            link(node, PROTECTED);
+            while (segmentWeights[PROTECTED] > maxProtectedWeight) {
+                Node<K, V> demoted = segments.get(PROTECTED).next;
+                unlink(demoted);
+                link(demoted, PROBATION);
+            }
+        } else {
+            unlink(node);
+            link(node, node.segment);
+        }
+    }
+
+    private void add(K key, V value) {
+        Node<K, V> node = new Node<>();
+        node.key = key;
+        node.value = value;
+        node.weight = Math.max(1, weigher.applyAsInt(value));
+        node.loadedAt = System.nanoTime();
+        if (node.weight > maxWeight) {
+            evictions++;
+            return;
+        }
+        nodes.put(key, node);
+        sketch.ensureCapacity(nodes.size());
+        link(node, WINDOW);
+
+        // Entries leaving the window compete with the main area's oldest entries for a place
+        while (segmentWeights[WINDOW] > maxWindowWeight) {
+            Node<K, V> candidate = segments.get(WINDOW).next;
+            unlink(candidate);
+            admit(candidate);
+        }
+    }
+
+    private void admit(Node<K, V> candidate) {
+        long excess = segmentWeights[PROBATION] + segmentWeights[PROTECTED] + candidate.weight
+                - (maxWeight - segmentWeights[WINDOW]);
+        // Find the oldest entries that would have to make room, probation first, before dropping any of them
+        List<Node<K, V>> victims = new ArrayList<>();
+        int candidateFrequency = sketch.frequency(candidate.key);
+        Node<K, V> victim = segments.get(PROBATION);
+        while (excess > 0) {
+            victim = victim.next;
+            if (victim == segments.get(PROBATION)) {
+                victim = segments.get(PROTECTED).next;
+            }
+            if (victim.key == null || candidateFrequency <= sketch.frequency(victim.key)) {
+                // The main area is too small for it, or a victim is asked for at least as often: keep them all
+                nodes.remove(candidate.key);
+                evictions++;
+                return;
+            }
+            victims.add(victim);
+            excess -= victim.weight;
+        }
+        for (Node<K, V> evicted : victims) {
+            unlink(evicted);
+            nodes.remove(evicted.key);
+            evictions++;
+        }
+        link(candidate, PROBATION);
+    }
+
+    private void link(Node<K, V> node, int segment) {
+        Node<K, V> sentinel = segments.get(segment);
+        node.segment = segment;
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+        segmentWeights[segment] += node.weight;
+    }
+
+    private void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        segmentWeights[node.segment] -= node.weight;
+    }
+
+    /**
+     * A cached entry, or the sentinel of a segment, whose key is null.
+     */
+    private static final class Node<K, V> {
+        K key;
+        V value;
+        int weight;
+        int segment;
+        long loadedAt;
+        Node<K, V> prev = this;
+        Node<K, V> next = this;
+    }
+
+    /**
+     * Estimates how often each key was asked for, using four 4-bit counters per key spread over a table of
+     * longs. Once enough increments have been counted, every counter is halved.
+     */
+    private static final class FrequencySketch {
+        private static final long SEED_0 = 0x9E3779B97F4A7C15L;
+        private static final long SEED_1 = 0xC2B2AE3D27D4EB4FL;
+        private static final long SEED_2 = 0x165667B19E3779F9L;
+        private static final long SEED_3 = 0xD6E8FEB86659FD93L;
+        private static final long[] SEEDS = {SEED_0, SEED_1, SEED_2, SEED_3};
+
+        private long[] table = new long[64];
+        private int sampleSize = 10 * 64 * 16 / 4;
+        private int additions;
+
+        /**
+         * Grows the table to about one long per cached key, which starts the counts afresh.
+         */
+        void ensureCapacity(int entries) {
+            if (entries <= table.length) {
+                return;
+            }
+            int length = Integer.highestOneBit(Math.min(entries, 1 << 24) - 1) << 1;
+            table = new long[length];
+            sampleSize = 10 * length * 16 / 4;
+            additions = 0;
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = 15;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int offset = counterOffset(hash, i);
+                frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 0xF));
+            }
+            return frequency;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int offset = counterOffset(hash, i);
+                if (((table[index] >>> offset) & 0xF) != 0xF) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                // Halve all sixteen counters of the long at once
+                table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+            }
+            additions /= 2;
+        }
+
+        private int indexOf(int hash, int i) {
+            long mixed = (hash + SEEDS[i]) * SEEDS[i];
+            return (int) (mixed >>> 40) & (table.length - 1);
+        }
+
+        private int counterOffset(int hash, int i) {
+            // Each of the four hash functions uses its own quarter of the sixteen counters in a long
+            return ((i << 2) + ((hash >>> (i << 3)) & 3)) << 2;
+        }
+
+        private static int spread(int hash) {
+            hash ^= hash >>> 17;
+            hash *= 0xED5AD4BB;
+            hash ^= hash >>> 11;
+            hash *= 0xAC4C1B51;
+            hash ^= hash >>> 15;
+            return hash;
+        }
+    }
+}
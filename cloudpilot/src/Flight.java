@@ -8,25 +8,48 @@ import javafx.beans.property.StringProperty;
 /**
  * The Flight class represents a flight with details such as flight number,
  * departure and arrival locations, times, and gate information.
+ *
+ * The values are kept in an immutable {@link Row}; setters replace it. The JavaFX properties are only
+ * created when one of them is first asked for, which a table does for the rows it renders. From then on
+ * the properties hold the values.
  */
 public class Flight {
-    private StringProperty flightNumber;
-    private StringProperty departureLocation;
-    private StringProperty arrivalLocation;
-    private ObjectProperty<LocalDateTime> departureTime;
-    private ObjectProperty<LocalDateTime> arrivalTime;
-    private StringProperty gate;
+
+    /**
+     * The values of a flight.
+     */
+    public record Row(String flightNumber, String departureLocation, String arrivalLocation,
+            LocalDateTime departureTime, LocalDateTime arrivalTime, String gate) {
+    }
+
+    private static final Row EMPTY = new Row(null, null, null, null, null, null);
+
+    // The row holds the values until the properties are created, and is kept afterwards, so a getter on
+    // another thread that does not see the properties yet reads an older row instead of null. The fields of
+    // Properties are final, so a thread that sees the properties sees them fully built.
+    private Row row;
+    private Properties properties;
 
     /**
      * Default constructor initializing properties with empty values.
      */
     public Flight() {
-        this.flightNumber = new SimpleStringProperty();
-        this.departureLocation = new SimpleStringProperty();
-        this.arrivalLocation = new SimpleStringProperty();
-        this.departureTime = new SimpleObjectProperty<>();
-        this.arrivalTime = new SimpleObjectProperty<>();
-        this.gate = new SimpleStringProperty();
+        this(EMPTY);
+    }
+
+    /**
+     * Constructs a flight with the given values.
+     */
+    public Flight(Row row) {
+        this.row = row;
+    }
+
+    /**
+     * Returns the current values of the flight.
+     */
+    public Row toRow() {
+        Properties current = properties;
+        return current == null ? row : current.toRow();
     }
 
     // Getter and setter methods
@@ -35,125 +58,187 @@ public class Flight {
      * Gets the flight number property.
      */
     public StringProperty flightNumberProperty() {
-        return flightNumber;
+        return properties().flightNumber;
     }
 
     /**
      * Gets the flight number.
      */
     public String getFlightNumber() {
-        return flightNumber.get();
+        Properties current = properties;
+        return current == null ? row.flightNumber() : current.flightNumber.get();
     }
 
     /**
      * Sets the flight number.
      */
     public void setFlightNumber(String flightNumber) {
-        this.flightNumber.set(flightNumber);
+        if (properties == null) {
+            row = new Row(flightNumber, row.departureLocation(), row.arrivalLocation(), row.departureTime(), row.arrivalTime(), row.gate());
+        } else {
+            properties.flightNumber.set(flightNumber);
+        }
     }
 
     /**
      * Gets the departure location property.
      */
     public StringProperty departureLocationProperty() {
-        return departureLocation;
+        return properties().departureLocation;
     }
 
     /**
      * Gets the departure location.
      */
     public String getDepartureLocation() {
-        return departureLocation.get();
+        Properties current = properties;
+        return current == null ? row.departureLocation() : current.departureLocation.get();
     }
 
     /**
      * Sets the departure location.
      */
     public void setDepartureLocation(String departureLocation) {
-        this.departureLocation.set(departureLocation);
+        if (properties == null) {
+            row = new Row(row.flightNumber(), departureLocation, row.arrivalLocation(), row.departureTime(), row.arrivalTime(), row.gate());
+        } else {
+            properties.departureLocation.set(departureLocation);
+        }
     }
 
     /**
      * Gets the arrival location property.
      */
     public StringProperty arrivalLocationProperty() {
-        return arrivalLocation;
+        return properties().arrivalLocation;
     }
 
     /**
      * Gets the arrival location.
      */
     public String getArrivalLocation() {
-        return arrivalLocation.get();
+        Properties current = properties;
+        return current == null ? row.arrivalLocation() : current.arrivalLocation.get();
     }
 
     /**
      * Sets the arrival location.
      */
     public void setArrivalLocation(String arrivalLocation) {
-        this.arrivalLocation.set(arrivalLocation);
+        if (properties == null) {
+            row = new Row(row.flightNumber(), row.departureLocation(), arrivalLocation, row.departureTime(), row.arrivalTime(), row.gate());
+        } else {
+            properties.arrivalLocation.set(arrivalLocation);
+        }
     }
 
     /**
      * Gets the departure time property.
      */
     public ObjectProperty<LocalDateTime> departureTimeProperty() {
-        return departureTime;
+        return properties().departureTime;
     }
 
     /**
      * Gets the departure time.
      */
     public LocalDateTime getDepartureTime() {
-        return departureTime.get();
+        Properties current = properties;
+        return current == null ? row.departureTime() : current.departureTime.get();
     }
 
     /**
      * Sets the departure time.
      */
     public void setDepartureTime(LocalDateTime departureTime) {
-        this.departureTime.set(departureTime);
+        if (properties == null) {
+            row = new Row(row.flightNumber(), row.departureLocation(), row.arrivalLocation(), departureTime, row.arrivalTime(), row.gate());
+        } else {
+            properties.departureTime.set(departureTime);
+        }
     }
 
     /**
      * Gets the arrival time property.
      */
     public ObjectProperty<LocalDateTime> arrivalTimeProperty() {
-        return arrivalTime;
+        return properties().arrivalTime;
     }
 
     /**
      * Gets the arrival time.
      */
     public LocalDateTime getArrivalTime() {
-        return arrivalTime.get();
+        Properties current = properties;
+        return current == null ? row.arrivalTime() : current.arrivalTime.get();
     }
 
     /**
      * Sets the arrival time.
      */
     public void setArrivalTime(LocalDateTime arrivalTime) {
-        this.arrivalTime.set(arrivalTime);
+        if (properties == null) {
+            row = new Row(row.flightNumber(), row.departureLocation(), row.arrivalLocation(), row.departureTime(), arrivalTime, row.gate());
+        } else {
+            properties.arrivalTime.set(arrivalTime);
+        }
     }
 
     /**
      * Gets the gate property.
      */
     public StringProperty gateProperty() {
-        return gate;
+        return properties().gate;
     }
 
     /**
      * Gets the gate.
      */
     public String getGate() {
-        return gate.get();
+        Properties current = properties;
+        return current == null ? row.gate() : current.gate.get();
     }
 
     /**
      * Sets the gate.
      */
     public void setGate(String gate) {
-        this.gate.set(gate);
+        if (properties == null) {
+            row = new Row(row.flightNumber(), row.departureLocation(), row.arrivalLocation(), row.departureTime(), row.arrivalTime(), gate);
+        } else {
+            properties.gate.set(gate);
+        }
+    }
+
+    private Properties properties() {
+        if (properties == null) {
+            properties = new Properties(row);
+        }
+        return properties;
+    }
+
+    /**
+     * The JavaFX properties of a flight that a table renders.
+     */
+    private static final class Properties {
+        final StringProperty flightNumber;
+        final StringProperty departureLocation;
+        final StringProperty arrivalLocation;
+        final ObjectProperty<LocalDateTime> departureTime;
+        final ObjectProperty<LocalDateTime> arrivalTime;
+        final StringProperty gate;
+
+        Properties(Row row) {
+            flightNumber = new SimpleStringProperty(row.flightNumber());
+            departureLocation = new SimpleStringProperty(row.departureLocation());
+            arrivalLocation = new SimpleStringProperty(row.arrivalLocation());
+            departureTime = new SimpleObjectProperty<>(row.departureTime());
+            arrivalTime = new SimpleObjectProperty<>(row.arrivalTime());
+            gate = new SimpleStringProperty(row.gate());
+        }
+
+        Row toRow() {
+            return new Row(flightNumber.get(), departureLocation.get(), arrivalLocation.get(), departureTime.get(), arrivalTime.get(), gate.get());
+        }
     }
 }
@@ -0,0 +1,335 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The FlightRepository class owns the SQL for the flight table and maps its rows into Flight objects.
+ * It works on a connection borrowed by the caller, so several repositories can share one transaction.
+ */
+public class FlightRepository {
+    static final String SELECT_ALL = "SELECT * FROM flight";
+    static final String SELECT_BY_NUMBER = "SELECT * FROM flight WHERE Flight_number = ?";
+    static final String SEARCH = "SELECT * FROM flight WHERE Flight_number LIKE ? OR Departure_Location LIKE ? OR Arrival_Location LIKE ?";
+    static final String INSERT = "INSERT INTO flight (Flight_number, F_Departure, F_Arrival, Departure_Location, Arrival_Location, gate) VALUES (?, ?, ?, ?, ?, ?)";
+    static final String UPDATE = "UPDATE flight SET Flight_number = ?, Departure_Location = ?, F_Departure = ?, Arrival_Location = ?, F_Arrival = ?, gate = ? WHERE Flight_number = ?";
+    static final String DELETE = "DELETE FROM flight WHERE Flight_number = ?";
+    static final String COUNT = "SELECT COUNT(*) FROM flight";
+    static final String SELECT_SCHEDULE = "SELECT Flight_number, gate, F_Departure, F_Arrival FROM flight";
+    static final String SELECT_SEARCH_FIELDS = "SELECT Flight_number, Departure_Location, Arrival_Location FROM flight";
+    static final String SELECT_BY_NUMBERS = "SELECT * FROM flight WHERE Flight_number IN ";
+    static final int IN_LIST_CHUNK = 500;
+    static final String SELECT_FIRST_PAGE = "SELECT * FROM flight ORDER BY Flight_number LIMIT ?";
+    static final String SELECT_PAGE_AFTER = "SELECT * FROM flight WHERE Flight_number > ? ORDER BY Flight_number LIMIT ?";
+    static final String SELECT_FIRST_NUMBER = "SELECT Flight_number FROM flight ORDER BY Flight_number LIMIT 1 OFFSET ?";
+    static final String SELECT_NUMBER_AFTER = "SELECT Flight_number FROM flight WHERE Flight_number > ? ORDER BY Flight_number LIMIT 1 OFFSET ?";
+    static final String SELECT_DEPARTING_BETWEEN = "SELECT * FROM flight WHERE F_Departure >= ? AND F_Departure < ?";
+
+    /**
+     * Receives the searchable columns of one flight row.
+     */
+    @FunctionalInterface
+    public interface SearchFieldsConsumer {
+        void accept(String flightNumber, String departureLocation, String arrivalLocation);
+    }
+
+    /**
+     * Receives the scheduling columns of one flight row.
+     */
+    @FunctionalInterface
+    public interface ScheduleConsumer {
+        void accept(String flightNumber, String gate, Timestamp departure, Timestamp arrival);
+    }
+
+    // Estimated bytes of a cached Flight and its row, entry and strings, not counting the characters of its strings
+    private static final int FLIGHT_OVERHEAD = 440;
+    private static final EntityCache<String, Flight> CACHE = new EntityCache<>("Flights",
+            EntityCache.configuredMaxWeight(), EntityCache.configuredExpireAfterMillis(),
+            FlightRepository::estimateSize, FlightRepository::copy);
+
+    private final Connection connection;
+
+    /**
+     * Creates a repository that runs its statements on the given connection.
+     */
+    public FlightRepository(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Maps the current row of the result set into a Flight.
+     */
+    public static Flight map(ResultSet resultSet) throws SQLException {
+        return new Flight(new Flight.Row(
+                resultSet.getString("Flight_number"),
+                resultSet.getString("Departure_Location"),
+                resultSet.getString("Arrival_Location"),
+                resultSet.getTimestamp("F_Departure").toLocalDateTime(),
+                resultSet.getTimestamp("F_Arrival").toLocalDateTime(),
+                resultSet.getString("gate")
+        ));
+    }
+
+    /**
+     * Returns the cache of flights read by number, shared by all screens. Screens that change or delete a
+     * flight invalidate its number after committing.
+     */
+    public static EntityCache<String, Flight> cache() {
+        return CACHE;
+    }
+
+    /**
+     * Returns all flights.
+     */
+    public List<Flight> findAll() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_ALL)) {
+            return mapAll(statement.executeQuery());
+        }
+    }
+
+    /**
+     * Returns the number of flights.
+     */
+    public int count() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(COUNT)) {
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} flights whose number sorts after {@code afterNumber}, in flight number order.
+     * A null number starts at the first flight.
+     */
+    public List<Flight> findPage(String afterNumber, int limit) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(afterNumber == null ? SELECT_FIRST_PAGE : SELECT_PAGE_AFTER)) {
+            int index = 1;
+            if (afterNumber != null) {
+                statement.setString(index++, afterNumber);
+            }
+            statement.setInt(index, limit);
+            return mapAll(statement.executeQuery());
+        }
+    }
+
+    /**
+     * Returns the flight number {@code skip} flights after {@code afterNumber}, or null past the last flight.
+     */
+    public String findNumberAfter(String afterNumber, int skip) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(afterNumber == null ? SELECT_FIRST_NUMBER : SELECT_NUMBER_AFTER)) {
+            int index = 1;
+            if (afterNumber != null) {
+                statement.setString(index++, afterNumber);
+            }
+            statement.setInt(index, skip);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getString(1) : null;
+        }
+    }
+
+    /**
+     * Returns the loader that pages through the flights by flight number.
+     */
+    public static PagedList.Loader<String, Flight> pageLoader() {
+        Comparator<String> keyOrder = Database.textOrder();
+        return new PagedList.Loader<>() {
+            @Override
+            public int count(Connection connection) throws SQLException {
+                return new FlightRepository(connection).count();
+            }
+
+            @Override
+            public List<Flight> loadPage(Connection connection, String afterKey, int limit) throws SQLException {
+                return new FlightRepository(connection).findPage(afterKey, limit);
+            }
+
+            @Override
+            public String findKey(Connection connection, String afterKey, int skip) throws SQLException {
+                return new FlightRepository(connection).findNumberAfter(afterKey, skip);
+            }
+
+            @Override
+            public String keyOf(Flight flight) {
+                return flight.getFlightNumber();
+            }
+
+            @Override
+            public Comparator<? super String> keyOrder() {
+                return keyOrder;
+            }
+        };
+    }
+
+    /**
+     * Finds a flight by its flight number, from the cache if it was read recently.
+     */
+    public Optional<Flight> findByNumber(String flightNumber) throws SQLException {
+        return Optional.ofNullable(CACHE.get(flightNumber, this::selectByNumber));
+    }
+
+    private Flight selectByNumber(String flightNumber) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_NUMBER)) {
+            statement.setString(1, flightNumber);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? map(resultSet) : null;
+        }
+    }
+
+    /**
+     * Returns the flights with the given numbers, in no particular order. Numbers without a flight are skipped.
+     * The numbers are sent in IN-lists of at most 500 entries.
+     */
+    public List<Flight> findByNumbers(List<String> flightNumbers) throws SQLException {
+        List<Flight> flights = new ArrayList<>(flightNumbers.size());
+        for (int from = 0; from < flightNumbers.size(); from += IN_LIST_CHUNK) {
+            List<String> chunk = flightNumbers.subList(from, Math.min(flightNumbers.size(), from + IN_LIST_CHUNK));
+            String sql = SELECT_BY_NUMBERS + "(" + "?, ".repeat(chunk.size() - 1) + "?)";
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    statement.setString(i + 1, chunk.get(i));
+                }
+                flights.addAll(mapAll(statement.executeQuery()));
+            }
+        }
+        return flights;
+    }
+
+    /**
+     * Returns the flights departing at or after {@code from} and before {@code to}.
+     */
+    public List<Flight> findDepartingBetween(LocalDateTime from, LocalDateTime to) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_DEPARTING_BETWEEN)) {
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(to));
+            return mapAll(statement.executeQuery());
+        }
+    }
+
+    /**
+     * Reads the flight number, departure location and arrival location of every flight.
+     * Used to build the in-memory search index without materializing whole rows.
+     */
+    public void forEachSearchFields(SearchFieldsConsumer consumer) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_SEARCH_FIELDS)) {
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                consumer.accept(resultSet.getString(1), resultSet.getString(2), resultSet.getString(3));
+            }
+        }
+    }
+
+    /**
+     * Reads the flight number, gate, departure and arrival time of every flight.
+     * Used to load the in-memory gate schedule.
+     */
+    public void forEachSchedule(ScheduleConsumer consumer) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_SCHEDULE)) {
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                consumer.accept(resultSet.getString(1), resultSet.getString(2), resultSet.getTimestamp(3), resultSet.getTimestamp(4));
+            }
+        }
+    }
+
+    /**
+     * Returns the flights whose number, departure location or arrival location contains the text.
+     */
+    public List<Flight> search(String text) throws SQLException {
+        String pattern = "%" + text + "%";
+        try (PreparedStatement statement = connection.prepareStatement(SEARCH)) {
+            statement.setString(1, pattern);
+            statement.setString(2, pattern);
+            statement.setString(3, pattern);
+            return mapAll(statement.executeQuery());
+        }
+    }
+
+    /**
+     * Inserts a new flight.
+     */
+    public int insert(Flight flight) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            statement.setString(1, flight.getFlightNumber());
+            statement.setTimestamp(2, Timestamp.valueOf(flight.getDepartureTime()));
+            statement.setTimestamp(3, Timestamp.valueOf(flight.getArrivalTime()));
+            statement.setString(4, flight.getDepartureLocation());
+            statement.setString(5, flight.getArrivalLocation());
+            statement.setString(6, flight.getGate());
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Inserts the flights with one JDBC batch. Runs in the caller's transaction.
+     *
+     * @return the update count of each flight
+     */
+    public int[] insertBatch(List<Flight> flights) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (Flight flight : flights) {
+                statement.setString(1, flight.getFlightNumber());
+                statement.setTimestamp(2, Timestamp.valueOf(flight.getDepartureTime()));
+                statement.setTimestamp(3, Timestamp.valueOf(flight.getArrivalTime()));
+                statement.setString(4, flight.getDepartureLocation());
+                statement.setString(5, flight.getArrivalLocation());
+                statement.setString(6, flight.getGate());
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        }
+    }
+
+    /**
+     * Updates the flight stored under {@code oldFlightNumber} with the values of the given flight.
+     */
+    public int update(String oldFlightNumber, Flight flight) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+            statement.setString(1, flight.getFlightNumber());
+            statement.setString(2, flight.getDepartureLocation());
+            statement.setTimestamp(3, Timestamp.valueOf(flight.getDepartureTime()));
+            statement.setString(4, flight.getArrivalLocation());
+            statement.setTimestamp(5, Timestamp.valueOf(flight.getArrivalTime()));
+            statement.setString(6, flight.getGate());
+            statement.setString(7, oldFlightNumber);
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Deletes a flight. Its boardings must be deleted first.
+     */
+    public int delete(String flightNumber) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(DELETE)) {
+            statement.setString(1, flightNumber);
+            return statement.executeUpdate();
+        }
+    }
+
+    private static Flight copy(Flight flight) {
+        // Rows are immutable, so the copy may share it
+        return new Flight(flight.toRow());
+    }
+
+    private static int estimateSize(Flight flight) {
+        return FLIGHT_OVERHEAD + 2 * (length(flight.getFlightNumber()) + length(flight.getDepartureLocation())
+                + length(flight.getArrivalLocation()) + length(flight.getGate()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static List<Flight> mapAll(ResultSet resultSet) throws SQLException {
+        List<Flight> flights = new ArrayList<>();
+        while (resultSet.next()) {
+            flights.add(map(resultSet));
+        }
+        return flights;
+    }
+}
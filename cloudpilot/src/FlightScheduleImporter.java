@@ -0,0 +1,223 @@
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The FlightScheduleImporter class loads a whole flight schedule from a CSV or JSON file.
+ * The file is streamed in chunks: the rows of each chunk are parsed and validated in parallel, then
+ * checked in order against the {@link GateScheduleIndex} for duplicate flight numbers and overlapping
+ * gate windows. No query runs per row. The accepted rows of a chunk are written with one JDBC batch in
+ * their own transaction, so a failing chunk never leaves half of itself behind.
+ *
+ * Columns are matched by name, ignoring case, spaces and underscores. Either the database column names
+ * (Flight_number, Departure_Location, F_Departure, Arrival_Location, F_Arrival, gate) or the names
+ * flightNumber, origin, departureTime, destination, arrivalTime and gate may be used.
+ * Times are written as YYYY-MM-DD HH:MM[:SS], with a space or a 'T' between date and time.
+ */
+public class FlightScheduleImporter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    // Column sizes of the flight table
+    private static final int MAX_NUMBER_LENGTH = 10;
+    private static final int MAX_LOCATION_LENGTH = 50;
+    private static final int MAX_GATE_LENGTH = 10;
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss]");
+
+    private final GateScheduleIndex gateSchedule;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Creates an importer that checks against the gate schedule shared by all screens.
+     */
+    public FlightScheduleImporter() {
+        this(GateScheduleIndex.shared());
+    }
+
+    /**
+     * Creates an importer that checks against the given gate schedule.
+     */
+    public FlightScheduleImporter(GateScheduleIndex gateSchedule) {
+        this.gateSchedule = gateSchedule;
+    }
+
+    /**
+     * Sets how many rows are validated and written together, in one batch and one transaction.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns how many rows are written per batch.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Imports every row of the file. Rows that fail validation, clash with the schedule or are refused
+     * by the database are reported and skipped; the others are written.
+     *
+     * @throws IOException if the file cannot be read or is malformed; chunks written before stay written
+     */
+    public ImportReport importFrom(Connection connection, RecordReader reader) throws SQLException, IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            List<RecordReader.Record> window = new ArrayList<>(chunkSize);
+            RecordReader.Record record;
+            do {
+                record = reader.next();
+                if (record != null) {
+                    window.add(record);
+                }
+                if (window.size() == chunkSize || (record == null && !window.isEmpty())) {
+                    importChunk(connection, window, report);
+                    window.clear();
+                }
+            } while (record != null);
+        } catch (SQLException e) {
+            // The windows claimed for the failed chunk were never written
+            gateSchedule.invalidate();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            if (report.getImported() > 0) {
+                FlightSearchIndex.shared().invalidate();
+            }
+            report.setElapsedNanos(System.nanoTime() - start);
+        }
+        return report;
+    }
+
+    private void importChunk(Connection connection, List<RecordReader.Record> window, ImportReport report) throws SQLException {
+        // Parsing is independent per row, so it runs in parallel; the stream keeps the file order
+        List<Row> rows = window.parallelStream().map(FlightScheduleImporter::parse).toList();
+
+        List<Row> accepted = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            String reason = row.error() != null ? row.error() : claim(connection, row.flight());
+            if (reason != null) {
+                report.reject(row.line(), row.key(), reason);
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        FlightRepository flights = new FlightRepository(connection);
+        try {
+            flights.insertBatch(accepted.stream().map(Row::flight).toList());
+            connection.commit();
+            report.addImported(accepted.size());
+            accepted.forEach(row -> publishCreated(row.flight()));
+        } catch (SQLException e) {
+            // Something the validation did not foresee; write the chunk row by row to find the culprits
+            connection.rollback();
+            int imported = 0;
+            List<Flight> written = new ArrayList<>();
+            for (Row row : accepted) {
+                try {
+                    flights.insert(row.flight());
+                    imported++;
+                    written.add(row.flight());
+                } catch (SQLException rowFailure) {
+                    gateSchedule.remove(row.flight().getFlightNumber());
+                    report.reject(row.line(), row.key(), "Database error: " + rowFailure.getMessage());
+                }
+            }
+            connection.commit();
+            report.addImported(imported);
+            written.forEach(FlightScheduleImporter::publishCreated);
+        }
+    }
+
+    private static void publishCreated(Flight flight) {
+        DomainEventBus.shared().publish(new DomainEventBus.FlightChanged(DomainEventBus.Change.CREATED, flight.getFlightNumber(), flight));
+    }
+
+    /**
+     * Takes the flight's gate window, or returns why the flight cannot join the schedule.
+     */
+    private String claim(Connection connection, Flight flight) throws SQLException {
+        String conflict;
+        try {
+            conflict = gateSchedule.claim(connection, flight, null);
+        } catch (GateScheduleIndex.DuplicateFlightException e) {
+            return "Flight number already exists";
+        }
+        if (conflict != null) {
+            return "Conflict: gate " + flight.getGate() + " is occupied by flight " + conflict + " at that time";
+        }
+        return null;
+    }
+
+    /**
+     * Turns a record into a flight, or into the reason it is not one.
+     */
+    private static Row parse(RecordReader.Record record) {
+        String number = trim(record.get("Flight_number", "flight", "flightNumber"));
+        String origin = trim(record.get("Departure_Location", "origin", "from"));
+        String destination = trim(record.get("Arrival_Location", "destination", "to"));
+        String departure = trim(record.get("F_Departure", "departureTime", "departure"));
+        String arrival = trim(record.get("F_Arrival", "arrivalTime", "arrival"));
+        String gate = trim(record.get("gate", "gateNumber"));
+
+        String error = null;
+        if (number == null || origin == null || destination == null || departure == null || arrival == null || gate == null) {
+            error = "Missing field: every row needs a flight number, origin, destination, departure time, arrival time and gate";
+        } else if (number.length() > MAX_NUMBER_LENGTH || gate.length() > MAX_GATE_LENGTH) {
+            error = "Flight number and gate may have at most 10 characters";
+        } else if (origin.length() > MAX_LOCATION_LENGTH || destination.length() > MAX_LOCATION_LENGTH) {
+            error = "Locations may have at most 50 characters";
+        }
+        if (error != null) {
+            return new Row(record.line(), number, null, error);
+        }
+
+        LocalDateTime departureTime;
+        LocalDateTime arrivalTime;
+        try {
+            departureTime = parseDateTime(departure);
+            arrivalTime = parseDateTime(arrival);
+        } catch (DateTimeParseException e) {
+            return new Row(record.line(), number, null, "Times must be in the format YYYY-MM-DD HH:MM:SS");
+        }
+        if (!arrivalTime.isAfter(departureTime)) {
+            return new Row(record.line(), number, null, "Arrival must be after departure");
+        }
+        Flight flight = new Flight(new Flight.Row(number, origin, destination, departureTime, arrivalTime, gate));
+        return new Row(record.line(), number, flight, null);
+    }
+
+    private static LocalDateTime parseDateTime(String text) {
+        return LocalDateTime.parse(text.replace('T', ' '), DATE_TIME_FORMAT);
+    }
+
+    private static String trim(String value) {
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * A parsed row: either a flight or the reason the row was rejected.
+     */
+    private record Row(long line, String key, Flight flight, String error) {
+    }
+}
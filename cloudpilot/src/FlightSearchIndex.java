@@ -0,0 +1,402 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * The FlightSearchIndex class answers the flight screen's substring search from memory.
+ * It keeps a trigram inverted index over the flight number, departure location and arrival location
+ * of every flight: each three-character sequence maps to the sorted IDs of the flights containing it.
+ * A search intersects the posting lists of the query's trigrams and checks the few candidates left,
+ * instead of the leading-wildcard LIKE scan no database index can serve.
+ *
+ * The index is loaded from the database on the first search and kept up to date by the screens of this
+ * application that create, edit and delete flights. Changes made at other desks are only seen when the
+ * index is loaded again, which a search does once the index is older than the cloudpilot.search.refreshMinutes
+ * system property (5 minutes by default). Matching ignores case and accents. Full rows of recent results are cached; only the missing ones are
+ * read from the database, by primary key. Every search returns flights of its own, so a screen editing
+ * a result does not change another screen's rows. The index is shared by all screens and is thread-safe.
+ */
+public class FlightSearchIndex {
+
+    private static final int MAX_CACHED_ROWS = 2000;
+    private static final long REFRESH_NANOS = TimeUnit.MINUTES.toNanos(Math.max(1, Long.getLong("cloudpilot.search.refreshMinutes", 5)));
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final FlightSearchIndex SHARED = new FlightSearchIndex();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Searchable text of each indexed flight, by document ID; removed flights leave a null slot for reuse
+    private final List<Document> documents = new ArrayList<>();
+    private final List<Integer> freeIds = new ArrayList<>();
+    private final Map<String, Integer> idsByNumber = new HashMap<>();
+    private final Map<Long, Posting> postings = new HashMap<>();
+    // In insertion order, so lookups under the read lock leave the map unchanged; the oldest rows go first
+    private final Map<String, Flight.Row> rows = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Flight.Row> eldest) {
+            return size() > MAX_CACHED_ROWS;
+        }
+    };
+    private boolean loaded;
+    private long loadedAt;
+
+    /**
+     * Returns the index shared by all screens.
+     */
+    public static FlightSearchIndex shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the flights whose number, departure location or arrival location contains the text,
+     * ignoring case and accents, in flight number order. Loads the index first if needed.
+     */
+    public List<Flight> search(Connection connection, String text) throws SQLException {
+        ensureLoaded(connection);
+        List<String> numbers = findNumbers(text);
+
+        // Take the cached rows and read the rest by primary key
+        Map<String, Flight.Row> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String number : numbers) {
+                Flight.Row row = rows.get(number);
+                if (row != null) {
+                    found.put(number, row);
+                } else {
+                    missing.add(number);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!missing.isEmpty()) {
+            List<Flight> fetched = new FlightRepository(connection).findByNumbers(missing);
+            lock.writeLock().lock();
+            try {
+                for (Flight flight : fetched) {
+                    Flight.Row row = flight.toRow();
+                    found.put(row.flightNumber(), row);
+                    if (idsByNumber.containsKey(row.flightNumber())) {
+                        rows.put(row.flightNumber(), row);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<Flight> result = new ArrayList<>(numbers.size());
+        for (String number : numbers) {
+            Flight.Row row = found.get(number);
+            if (row != null) {
+                result.add(new Flight(row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the numbers of the flights matching the text, in flight number order, from the index alone.
+     * Returns an empty list if the index has not been loaded.
+     */
+    public List<String> findNumbers(String text) {
+        String query = fold(text);
+        List<String> numbers = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (query.length() < 3) {
+                // Too short for a trigram; the documents are in memory, so check them all
+                for (Document document : documents) {
+                    if (document != null && document.contains(query)) {
+                        numbers.add(document.flightNumber);
+                    }
+                }
+            } else {
+                for (int id : candidates(query)) {
+                    Document document = documents.get(id);
+                    if (document.contains(query)) {
+                        numbers.add(document.flightNumber);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        numbers.sort(Comparator.naturalOrder());
+        return numbers;
+    }
+
+    /**
+     * Adds a new flight or replaces the indexed text of an existing one. Does nothing until the index is loaded.
+     */
+    public void put(Flight flight) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                remove(flight.getFlightNumber(), false);
+                add(flight.getFlightNumber(), flight.getDepartureLocation(), flight.getArrivalLocation());
+                // Replaced rather than updated in place, to keep the insertion order meaningful
+                rows.remove(flight.getFlightNumber());
+                rows.put(flight.getFlightNumber(), flight.toRow());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces a flight whose flight number may have changed.
+     */
+    public void replace(String oldFlightNumber, Flight flight) {
+        lock.writeLock().lock();
+        try {
+            remove(oldFlightNumber);
+            put(flight);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted flight.
+     */
+    public void remove(String flightNumber) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                remove(flightNumber, true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the index. The next search loads it again from the database.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed flights.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return idsByNumber.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded(Connection connection) throws SQLException {
+        lock.readLock().lock();
+        try {
+            if (isFresh()) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Hold the write lock while reading, so changes made meanwhile are applied after the load
+        lock.writeLock().lock();
+        try {
+            if (!isFresh()) {
+                // Start afresh, so flights other desks changed or deleted are not kept
+                clear();
+                new FlightRepository(connection).forEachSearchFields(this::add);
+                loaded = true;
+                loadedAt = System.nanoTime();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isFresh() {
+        return loaded && System.nanoTime() - loadedAt < REFRESH_NANOS;
+    }
+
+    private void clear() {
+        documents.clear();
+        freeIds.clear();
+        idsByNumber.clear();
+        postings.clear();
+        rows.clear();
+        loaded = false;
+    }
+
+    private void add(String flightNumber, String departureLocation, String arrivalLocation) {
+        Document document = new Document(flightNumber, departureLocation, arrivalLocation);
+        int id;
+        if (freeIds.isEmpty()) {
+            id = documents.size();
+            documents.add(document);
+        } else {
+            id = freeIds.remove(freeIds.size() - 1);
+            documents.set(id, document);
+        }
+        idsByNumber.put(flightNumber, id);
+        for (long trigram : document.trigrams()) {
+            postings.computeIfAbsent(trigram, key -> new Posting()).add(id);
+        }
+    }
+
+    private void remove(String flightNumber, boolean dropRow) {
+        Integer id = idsByNumber.remove(flightNumber);
+        if (dropRow) {
+            rows.remove(flightNumber);
+        }
+        if (id == null) {
+            return;
+        }
+        for (long trigram : documents.get(id).trigrams()) {
+            Posting posting = postings.get(trigram);
+            if (posting != null && posting.remove(id) && posting.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+        documents.set(id, null);
+        freeIds.add(id);
+    }
+
+    /**
+     * Intersects the posting lists of the query's trigrams, starting with the shortest.
+     */
+    private int[] candidates(String query) {
+        long[] trigrams = trigrams(query);
+        Posting[] lists = new Posting[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postings.get(trigrams[i]);
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(posting -> posting.size));
+        int[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int length = result.length;
+        for (int i = 1; i < lists.length && length > 0; i++) {
+            int kept = 0;
+            for (int j = 0; j < length; j++) {
+                if (lists[i].contains(result[j])) {
+                    result[kept++] = result[j];
+                }
+            }
+            length = kept;
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    /**
+     * Returns the trigrams of the text, each packed into a long. Repeated trigrams are kept;
+     * the posting lists ignore duplicate IDs.
+     */
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] trigrams = new long[text.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return trigrams;
+    }
+
+    /**
+     * Returns the text in lower case without accents, so that "Zürich" and "zurich" match like they do in
+     * the database's accent-insensitive collation.
+     */
+    private static String fold(String text) {
+        return MARKS.matcher(Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    /**
+     * The folded searchable text of one flight.
+     */
+    private static final class Document {
+        final String flightNumber;
+        final String number;
+        final String departure;
+        final String arrival;
+
+        Document(String flightNumber, String departureLocation, String arrivalLocation) {
+            this.flightNumber = flightNumber;
+            this.number = lower(flightNumber);
+            this.departure = lower(departureLocation);
+            this.arrival = lower(arrivalLocation);
+        }
+
+        boolean contains(String query) {
+            return number.contains(query) || departure.contains(query) || arrival.contains(query);
+        }
+
+        long[] trigrams() {
+            // The fields are indexed separately so no trigram spans two fields
+            long[] a = FlightSearchIndex.trigrams(number);
+            long[] b = FlightSearchIndex.trigrams(departure);
+            long[] c = FlightSearchIndex.trigrams(arrival);
+            long[] all = Arrays.copyOf(a, a.length + b.length + c.length);
+            System.arraycopy(b, 0, all, a.length, b.length);
+            System.arraycopy(c, 0, all, a.length + b.length, c.length);
+            return all;
+        }
+
+        private static String lower(String value) {
+            return value == null ? "" : fold(value);
+        }
+    }
+
+    /**
+     * A sorted, growable list of document IDs.
+     */
+    private static final class Posting {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
@@ -1,16 +1,13 @@
+import java.io.File;
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import java.io.UncheckedIOException;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Optional;
 
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -19,10 +16,12 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextInputDialog;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 /**
@@ -66,29 +65,38 @@ public class FlightsController {
     @FXML
     private TableColumn<Flight, String> gateColumn;
 
-    private Connection connection;
+    @FXML
+    private ProgressIndicator progressIndicator;
+
+    private final ScreenTasks tasks = new ScreenTasks();
+
+    private PagedList<String, Flight> flightPages;
 
     /**
-     * Initializes the controller class. Establishes a connection to the database and sets up the table columns.
+     * Initializes the controller class. Sets up the table columns and loads the flights.
      */
     @FXML
     void initialize() {
-        try {
-            connection = DriverManager.getConnection("Your URL", "Your Username", "Your Password");
-
-            // Set cell value factories to populate table columns
-            flightNumberColumn.setCellValueFactory(cellData -> cellData.getValue().flightNumberProperty());
-            departureLocationColumn.setCellValueFactory(cellData -> cellData.getValue().departureLocationProperty());
-            departureTimeColumn.setCellValueFactory(cellData -> cellData.getValue().departureTimeProperty());
-            arrivalLocationColumn.setCellValueFactory(cellData -> cellData.getValue().arrivalLocationProperty());
-            arrivalTimeColumn.setCellValueFactory(cellData -> cellData.getValue().arrivalTimeProperty());
-            gateColumn.setCellValueFactory(cellData -> cellData.getValue().gateProperty());
-
-            // Load flight data into table
-            loadFlightData();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        tasks.setProgressIndicator(progressIndicator);
+        tasks.cancelWhenClosed(flightTable);
+
+        // Set cell value factories to populate table columns
+        flightNumberColumn.setCellValueFactory(cellData -> cellData.getValue().flightNumberProperty());
+        departureLocationColumn.setCellValueFactory(cellData -> cellData.getValue().departureLocationProperty());
+        departureTimeColumn.setCellValueFactory(cellData -> cellData.getValue().departureTimeProperty());
+        arrivalLocationColumn.setCellValueFactory(cellData -> cellData.getValue().arrivalLocationProperty());
+        arrivalTimeColumn.setCellValueFactory(cellData -> cellData.getValue().arrivalTimeProperty());
+        gateColumn.setCellValueFactory(cellData -> cellData.getValue().gateProperty());
+
+        // Page through the flights as the table scrolls instead of reading the whole table
+        PagedList.installSortPolicy(flightTable);
+        flightPages = new PagedList<>(tasks, FlightRepository.pageLoader(), new Flight());
+
+        // Patch the table when this or any other screen changes a flight
+        tasks.subscribe(DomainEventBus.FlightChanged.class, this::applyFlightChange);
+
+        // Load flight data into table
+        loadFlightData();
     }
 
     /**
@@ -98,28 +106,8 @@ public class FlightsController {
     void searchFlight() {
         String searchText = searchField.getText().trim();
         if (!searchText.isEmpty()) {
-            try {
-                String query = "SELECT * FROM flight WHERE Flight_number LIKE ? OR Departure_Location LIKE ? OR Arrival_Location LIKE ?";
-                PreparedStatement statement = connection.prepareStatement(query);
-                statement.setString(1, "%" + searchText + "%");
-                statement.setString(2, "%" + searchText + "%");
-                statement.setString(3, "%" + searchText + "%");
-                ResultSet resultSet = statement.executeQuery();
-                ObservableList<Flight> flightList = FXCollections.observableArrayList();
-                while (resultSet.next()) {
-                    Flight flight = new Flight();
-                    flight.setFlightNumber(resultSet.getString("Flight_number"));
-                    flight.setDepartureLocation(resultSet.getString("Departure_Location"));
-                    flight.setDepartureTime(resultSet.getTimestamp("F_Departure").toLocalDateTime());
-                    flight.setArrivalLocation(resultSet.getString("Arrival_Location"));
-                    flight.setArrivalTime(resultSet.getTimestamp("F_Arrival").toLocalDateTime());
-                    flight.setGate(resultSet.getString("gate"));
-                    flightList.add(flight);
-                }
-                flightTable.setItems(flightList);
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+            // Answered from the in-memory trigram index; only uncached rows are read from the database
+            tasks.runLatest("flights", connection -> FlightSearchIndex.shared().search(connection, searchText), this::showFlights);
         } else {
             // If search field is empty, reload all flights
             loadFlightData();
@@ -127,29 +115,56 @@ public class FlightsController {
     }
 
     /**
-     * Loads flight data from the database into the flight table.
+     * Shows all flights in the flight table, loading them page by page.
      */
     private void loadFlightData() {
-        try {
-            Statement statement = connection.createStatement();
-            ResultSet resultSet = statement.executeQuery("SELECT * FROM flight");
-            ObservableList<Flight> flightList = FXCollections.observableArrayList();
-            while (resultSet.next()) {
-                Flight flight = new Flight();
-                flight.setFlightNumber(resultSet.getString("Flight_number"));
-                flight.setDepartureLocation(resultSet.getString("Departure_Location"));
-                flight.setDepartureTime(resultSet.getTimestamp("F_Departure").toLocalDateTime());
-                flight.setArrivalLocation(resultSet.getString("Arrival_Location"));
-                flight.setArrivalTime(resultSet.getTimestamp("F_Arrival").toLocalDateTime());
-                flight.setGate(resultSet.getString("gate"));
-                flightList.add(flight);
+        tasks.cancel("flights");
+        flightTable.setItems(flightPages);
+        flightPages.refresh();
+    }
+
+    /**
+     * Applies a created, edited or deleted flight to the rows shown, without reading the table again.
+     * Search results only follow edits and deletions; new flights show up with the next search.
+     */
+    private void applyFlightChange(DomainEventBus.FlightChanged change) {
+        if (flightTable.getItems() == flightPages) {
+            if (change.change() == DomainEventBus.Change.CREATED) {
+                flightPages.insert(change.flight());
+            } else if (change.change() == DomainEventBus.Change.DELETED) {
+                flightPages.removeByKey(change.flightNumber());
+            } else if (change.isRenamed()) {
+                // A new number moves the row to another place in flight number order
+                flightPages.removeByKey(change.flightNumber());
+                flightPages.insert(change.flight());
+            } else {
+                flightPages.replace(change.flight());
+            }
+            return;
+        }
+        if (change.change() == DomainEventBus.Change.CREATED) {
+            return;
+        }
+        List<Flight> shown = flightTable.getItems();
+        for (int i = 0; i < shown.size(); i++) {
+            if (shown.get(i).getFlightNumber().equals(change.flightNumber())) {
+                if (change.change() == DomainEventBus.Change.DELETED) {
+                    shown.remove(i);
+                } else {
+                    shown.set(i, change.flight());
+                }
+                return;
             }
-            flightTable.setItems(flightList);
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
     }
 
+    /**
+     * Shows the flights in the flight table.
+     */
+    private void showFlights(List<Flight> flights) {
+        flightTable.setItems(FXCollections.observableArrayList(flights));
+    }
+
     /**
      * Exits the current page and loads the main page.
      */
@@ -174,31 +189,64 @@ public class FlightsController {
         loadFXML("createflights.fxml");
     }
 
+    /**
+     * Imports a flight schedule from a CSV or JSON file chosen by the user and reports the rows
+     * that were imported and rejected.
+     */
+    @FXML
+    void importSchedule(ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Flight Schedule");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Schedules (*.csv, *.json, *.jsonl)", "*.csv", "*.json", "*.jsonl", "*.ndjson"),
+                new FileChooser.ExtensionFilter("All Files", "*.*"));
+        File file = chooser.showOpenDialog(((Node) event.getSource()).getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        tasks.run(connection -> {
+            try (RecordReader reader = RecordReader.open(file.toPath())) {
+                return new FlightScheduleImporter().importFrom(connection, reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, report -> {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Import Flight Schedule");
+            alert.setHeaderText(null);
+            alert.setContentText(report.summary());
+            alert.showAndWait();
+        }, failure -> {
+            failure.printStackTrace();
+            showAlert("Error", "Failed to import the schedule: " + failure.getMessage());
+            loadFlightData();
+        });
+    }
+
     /**
      * Deletes the selected flight from the database.
      */
     @FXML
     void deleteFlight(ActionEvent event) {
         Flight selectedFlight = flightTable.getSelectionModel().getSelectedItem();
-        if (selectedFlight != null) {
-            try {
-                // Delete related rows from the boarding table
-                String deleteBoardingQuery = "DELETE FROM boarding WHERE B_Flight_Number = ?";
-                PreparedStatement deleteBoardingStatement = connection.prepareStatement(deleteBoardingQuery);
-                deleteBoardingStatement.setString(1, selectedFlight.getFlightNumber());
-                deleteBoardingStatement.executeUpdate();
-
-                // Delete the flight from the flight table
-                String deleteFlightQuery = "DELETE FROM flight WHERE Flight_number = ?";
-                PreparedStatement deleteFlightStatement = connection.prepareStatement(deleteFlightQuery);
-                deleteFlightStatement.setString(1, selectedFlight.getFlightNumber());
-                deleteFlightStatement.executeUpdate();
-
-                // Reload data
-                loadFlightData();
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+        if (selectedFlight != null && !flightPages.isPlaceholder(selectedFlight)) {
+            String flightNumber = selectedFlight.getFlightNumber();
+            tasks.run(connection -> {
+                connection.setAutoCommit(false);
+                // Delete related rows from the boarding table, then the flight itself
+                new BoardingRepository(connection).deleteByFlight(flightNumber);
+                new FlightRepository(connection).delete(flightNumber);
+                connection.commit();
+                FlightRepository.cache().invalidate(flightNumber);
+                BoardingRepository.cache().invalidateIf(boarding -> flightNumber.equals(boarding.getFlightNumber()));
+                FlightSearchIndex.shared().remove(flightNumber);
+                GateScheduleIndex.shared().remove(flightNumber);
+                SeatInventory.shared().forget(flightNumber);
+                DomainEventBus.shared().publish(new DomainEventBus.FlightChanged(DomainEventBus.Change.DELETED, flightNumber, null));
+                return null;
+            }, deleted -> {
+                // The FlightChanged event takes the row out of the table
+            });
         }
     }
 
@@ -208,89 +256,108 @@ public class FlightsController {
     @FXML
     void editFlight(ActionEvent event) {
         Flight selectedFlight = flightTable.getSelectionModel().getSelectedItem();
-        if (selectedFlight != null) {
-            try {
-                // Open dialog windows for new information
-                TextInputDialog dialog = new TextInputDialog(selectedFlight.getFlightNumber());
-                dialog.setTitle("Edit Flight");
-                dialog.setHeaderText("Edit the details of the selected flight");
-                dialog.setContentText("Flight Number:");
-                Optional<String> result = dialog.showAndWait();
-                if (!result.isPresent() || result.get().trim().isEmpty()) {
-                    showAlert("Error", "Flight Number cannot be empty.");
-                    return;
-                }
-                String newFlightNumber = result.get();
-
-                dialog = new TextInputDialog(selectedFlight.getDepartureLocation());
-                dialog.setContentText("Departure Location:");
-                result = dialog.showAndWait();
-                if (!result.isPresent() || result.get().trim().isEmpty()) {
-                    showAlert("Error", "Departure Location cannot be empty.");
-                    return;
-                }
-                String newDepartureLocation = result.get();
-
-                dialog = new TextInputDialog(selectedFlight.getDepartureTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-                dialog.setContentText("Departure Time (YYYY-MM-DD HH:MM:SS):");
-                result = dialog.showAndWait();
-                if (!result.isPresent() || result.get().trim().isEmpty()) {
-                    showAlert("Error", "Departure Time cannot be empty.");
-                    return;
+        if (selectedFlight != null && !flightPages.isPlaceholder(selectedFlight)) {
+            // Open dialog windows for new information
+            TextInputDialog dialog = new TextInputDialog(selectedFlight.getFlightNumber());
+            dialog.setTitle("Edit Flight");
+            dialog.setHeaderText("Edit the details of the selected flight");
+            dialog.setContentText("Flight Number:");
+            Optional<String> result = dialog.showAndWait();
+            if (!result.isPresent() || result.get().trim().isEmpty()) {
+                showAlert("Error", "Flight Number cannot be empty.");
+                return;
+            }
+            String newFlightNumber = result.get();
+
+            dialog = new TextInputDialog(selectedFlight.getDepartureLocation());
+            dialog.setContentText("Departure Location:");
+            result = dialog.showAndWait();
+            if (!result.isPresent() || result.get().trim().isEmpty()) {
+                showAlert("Error", "Departure Location cannot be empty.");
+                return;
+            }
+            String newDepartureLocation = result.get();
+
+            dialog = new TextInputDialog(selectedFlight.getDepartureTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+            dialog.setContentText("Departure Time (YYYY-MM-DD HH:MM:SS):");
+            result = dialog.showAndWait();
+            if (!result.isPresent() || result.get().trim().isEmpty()) {
+                showAlert("Error", "Departure Time cannot be empty.");
+                return;
+            }
+            LocalDateTime newDepartureTime = LocalDateTime.parse(result.get(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+
+            dialog = new TextInputDialog(selectedFlight.getArrivalLocation());
+            dialog.setContentText("Arrival Location:");
+            result = dialog.showAndWait();
+            if (!result.isPresent() || result.get().trim().isEmpty()) {
+                showAlert("Error", "Arrival Location cannot be empty.");
+                return;
+            }
+            String newArrivalLocation = result.get();
+
+            dialog = new TextInputDialog(selectedFlight.getArrivalTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+            dialog.setContentText("Arrival Time (YYYY-MM-DD HH:MM:SS):");
+            result = dialog.showAndWait();
+            if (!result.isPresent() || result.get().trim().isEmpty()) {
+                showAlert("Error", "Arrival Time cannot be empty.");
+                return;
+            }
+            LocalDateTime newArrivalTime = LocalDateTime.parse(result.get(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+
+            dialog = new TextInputDialog(selectedFlight.getGate());
+            dialog.setContentText("Gate:");
+            result = dialog.showAndWait();
+            if (!result.isPresent() || result.get().trim().isEmpty()) {
+                showAlert("Error", "Gate cannot be empty.");
+                return;
+            }
+            String newGate = result.get();
+
+            Flight editedFlight = new Flight();
+            editedFlight.setFlightNumber(newFlightNumber);
+            editedFlight.setDepartureLocation(newDepartureLocation);
+            editedFlight.setDepartureTime(newDepartureTime);
+            editedFlight.setArrivalLocation(newArrivalLocation);
+            editedFlight.setArrivalTime(newArrivalTime);
+            editedFlight.setGate(newGate);
+
+            String oldFlightNumber = selectedFlight.getFlightNumber();
+            tasks.run(connection -> {
+                // Move the flight's gate window first; nothing is written if the new one is taken
+                String conflict = GateScheduleIndex.shared().claim(connection, editedFlight, oldFlightNumber);
+                if (conflict != null) {
+                    return conflict;
                 }
-                LocalDateTime newDepartureTime = LocalDateTime.parse(result.get(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-
-                dialog = new TextInputDialog(selectedFlight.getArrivalLocation());
-                dialog.setContentText("Arrival Location:");
-                result = dialog.showAndWait();
-                if (!result.isPresent() || result.get().trim().isEmpty()) {
-                    showAlert("Error", "Arrival Location cannot be empty.");
-                    return;
+                try {
+                    connection.setAutoCommit(false);
+                    // Update the flight number in the boarding table, then the flight record
+                    new BoardingRepository(connection).renameFlight(oldFlightNumber, newFlightNumber);
+                    new FlightRepository(connection).update(oldFlightNumber, editedFlight);
+                    connection.commit();
+                } catch (SQLException e) {
+                    GateScheduleIndex.shared().invalidate();
+                    throw e;
                 }
-                String newArrivalLocation = result.get();
-
-                dialog = new TextInputDialog(selectedFlight.getArrivalTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-                dialog.setContentText("Arrival Time (YYYY-MM-DD HH:MM:SS):");
-                result = dialog.showAndWait();
-                if (!result.isPresent() || result.get().trim().isEmpty()) {
-                    showAlert("Error", "Arrival Time cannot be empty.");
-                    return;
+                FlightRepository.cache().invalidate(oldFlightNumber);
+                FlightRepository.cache().invalidate(newFlightNumber);
+                BoardingRepository.cache().invalidateIf(boarding -> oldFlightNumber.equals(boarding.getFlightNumber()));
+                FlightSearchIndex.shared().replace(oldFlightNumber, editedFlight);
+                SeatInventory.shared().forget(oldFlightNumber);
+                SeatInventory.shared().forget(newFlightNumber);
+                DomainEventBus.shared().publish(new DomainEventBus.FlightChanged(DomainEventBus.Change.UPDATED, oldFlightNumber, editedFlight));
+                return null;
+            }, conflict -> {
+                if (conflict != null) {
+                    showAlert("Error", "Conflict: Gate " + newGate + " is occupied by flight " + conflict + " around that departure time.");
                 }
-                LocalDateTime newArrivalTime = LocalDateTime.parse(result.get(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-
-                dialog = new TextInputDialog(selectedFlight.getGate());
-                dialog.setContentText("Gate:");
-                result = dialog.showAndWait();
-                if (!result.isPresent() || result.get().trim().isEmpty()) {
-                    showAlert("Error", "Gate cannot be empty.");
+            }, failure -> {
+                if (failure instanceof GateScheduleIndex.DuplicateFlightException) {
+                    showAlert("Error", "Flight " + newFlightNumber + " already exists.");
                     return;
                 }
-                String newGate = result.get();
-
-                // Update the flight number in the boarding table
-                String updateBoardingQuery = "UPDATE boarding SET B_Flight_Number = ? WHERE B_Flight_Number = ?";
-                PreparedStatement updateBoardingStatement = connection.prepareStatement(updateBoardingQuery);
-                updateBoardingStatement.setString(1, newFlightNumber);
-                updateBoardingStatement.setString(2, selectedFlight.getFlightNumber());
-                updateBoardingStatement.executeUpdate();
-
-                // Update the existing record in the flight table
-                String updateFlightQuery = "UPDATE flight SET Flight_number = ?, Departure_Location = ?, F_Departure = ?, Arrival_Location = ?, F_Arrival = ?, gate = ? WHERE Flight_number = ?";
-                PreparedStatement updateFlightStatement = connection.prepareStatement(updateFlightQuery);
-                updateFlightStatement.setString(1, newFlightNumber);
-                updateFlightStatement.setString(2, newDepartureLocation);
-                updateFlightStatement.setTimestamp(3, java.sql.Timestamp.valueOf(newDepartureTime));
-                updateFlightStatement.setString(4, newArrivalLocation);
-                updateFlightStatement.setTimestamp(5, java.sql.Timestamp.valueOf(newArrivalTime));
-                updateFlightStatement.setString(6, newGate);
-                updateFlightStatement.setString(7, selectedFlight.getFlightNumber());
-                updateFlightStatement.executeUpdate();
-
-                // Reload data
-                loadFlightData();
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+                failure.printStackTrace();
+            });
         }
     }
 
@@ -0,0 +1,234 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The GateScheduleIndex class knows when every gate is occupied and finds gate conflicts in memory.
+ * A departing flight occupies its gate from a buffer before its departure time (boarding) until a buffer
+ * after it (push-back), and two flights conflict when these windows overlap at the same gate. Each gate
+ * keeps its windows in an {@link IntervalTree}, so a check takes O(log n) without a database round-trip.
+ *
+ * The buffers are read from the cloudpilot.gate.bufferBefore and cloudpilot.gate.bufferAfter system
+ * properties, in minutes (40 and 20 by default). The index is loaded from the database on first use
+ * and kept up to date by the screens of this application that create, edit, import and delete flights.
+ * Flights changed by other instances are only seen once the index is loaded again, which the next check
+ * does when the index is older than the cloudpilot.gate.refreshMinutes system property (5 by default).
+ * Flight numbers and gates are compared ignoring case, like the database's collation. The index is
+ * shared by all screens and is thread-safe.
+ */
+public class GateScheduleIndex {
+
+    private static final long BUFFER_BEFORE_MINUTES = Long.getLong("cloudpilot.gate.bufferBefore", 40);
+    private static final long BUFFER_AFTER_MINUTES = Long.getLong("cloudpilot.gate.bufferAfter", 20);
+    private static final long REFRESH_NANOS = TimeUnit.MINUTES.toNanos(Math.max(1, Long.getLong("cloudpilot.gate.refreshMinutes", 5)));
+    private static final GateScheduleIndex SHARED = new GateScheduleIndex(BUFFER_BEFORE_MINUTES, BUFFER_AFTER_MINUTES);
+
+    private final long bufferBeforeSeconds;
+    private final long bufferAfterSeconds;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Both maps are keyed by the upper-cased gate or flight number
+    private final Map<String, IntervalTree<String>> gates = new HashMap<>();
+    // Every known flight, with its window if it has a gate and a departure time
+    private final Map<String, Slot> slots = new HashMap<>();
+    private boolean loaded;
+    private long loadedAt;
+
+    /**
+     * Thrown by {@link GateScheduleIndex#claim} when another flight already has the flight number.
+     */
+    public static class DuplicateFlightException extends SQLIntegrityConstraintViolationException {
+        private static final long serialVersionUID = 1L;
+
+        DuplicateFlightException(String flightNumber) {
+            super("Flight number " + flightNumber + " already exists");
+        }
+    }
+
+    /**
+     * Creates an index whose windows open {@code bufferBeforeMinutes} before departure and close
+     * {@code bufferAfterMinutes} after it. A window is at least one minute long.
+     */
+    public GateScheduleIndex(long bufferBeforeMinutes, long bufferAfterMinutes) {
+        this.bufferBeforeSeconds = bufferBeforeMinutes * 60;
+        this.bufferAfterSeconds = Math.max(bufferAfterMinutes * 60, 60 - bufferBeforeMinutes * 60);
+    }
+
+    /**
+     * Returns the index shared by all screens.
+     */
+    public static GateScheduleIndex shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the number of a flight whose gate window overlaps the given flight's, or null if the gate
+     * is free. The flight stored under {@code replacedNumber}, if any, is ignored; pass the old number
+     * when checking an edited flight. Loads the index first if needed.
+     */
+    public String findConflict(Connection connection, Flight flight, String replacedNumber) throws SQLException {
+        ensureLoaded(connection);
+        lock.readLock().lock();
+        try {
+            return conflictOf(flight, replacedNumber);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the gate window for the flight if it is free, replacing the window of the flight stored under
+     * {@code replacedNumber}, if any. Checking and taking happen together, so two desks cannot both take
+     * the same window or the same flight number. Call {@link #invalidate()} if the flight is not written
+     * after all.
+     *
+     * @return the number of the conflicting flight, or null if the window was taken
+     * @throws DuplicateFlightException if a flight other than the replaced one has the flight number
+     */
+    public String claim(Connection connection, Flight flight, String replacedNumber) throws SQLException {
+        ensureLoaded(connection);
+        lock.writeLock().lock();
+        try {
+            String flightNumber = flight.getFlightNumber();
+            if (slots.containsKey(key(flightNumber)) && !sameNumber(flightNumber, replacedNumber)) {
+                throw new DuplicateFlightException(flightNumber);
+            }
+            String conflict = conflictOf(flight, replacedNumber);
+            if (conflict == null) {
+                if (replacedNumber != null) {
+                    remove(replacedNumber);
+                }
+                add(flightNumber, flight.getGate(), flight.getDepartureTime());
+            }
+            return conflict;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Frees the gate window of a deleted flight.
+     */
+    public void remove(String flightNumber) {
+        lock.writeLock().lock();
+        try {
+            Slot slot = slots.remove(key(flightNumber));
+            if (slot != null && slot.gate() != null) {
+                IntervalTree<String> tree = gates.get(key(slot.gate()));
+                tree.remove(slot.start(), slot.flightNumber());
+                if (tree.size() == 0) {
+                    gates.remove(key(slot.gate()));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the index. The next check loads it again from the database.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private String conflictOf(Flight flight, String replacedNumber) {
+        IntervalTree<String> tree = flight.getGate() == null ? null : gates.get(key(flight.getGate()));
+        if (tree == null) {
+            return null;
+        }
+        long departure = seconds(flight.getDepartureTime());
+        long start = departure - bufferBeforeSeconds;
+        long end = departure + bufferAfterSeconds;
+        String conflict = tree.findOverlap(start, end);
+        if (conflict != null && sameNumber(conflict, replacedNumber)) {
+            // The flight being edited only conflicts with itself; look for anyone else
+            String[] other = new String[1];
+            tree.forEachOverlap(start, end, number -> {
+                if (other[0] == null && !sameNumber(number, replacedNumber)) {
+                    other[0] = number;
+                }
+            });
+            conflict = other[0];
+        }
+        return conflict;
+    }
+
+    private void ensureLoaded(Connection connection) throws SQLException {
+        lock.readLock().lock();
+        try {
+            if (isFresh()) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (!isFresh()) {
+                // Start afresh, so flights other desks changed or deleted are not kept
+                clear();
+                new FlightRepository(connection).forEachSchedule(this::add);
+                loaded = true;
+                loadedAt = System.nanoTime();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isFresh() {
+        return loaded && System.nanoTime() - loadedAt < REFRESH_NANOS;
+    }
+
+    private void clear() {
+        gates.clear();
+        slots.clear();
+        loaded = false;
+    }
+
+    private void add(String flightNumber, String gate, Timestamp departure, Timestamp arrival) {
+        add(flightNumber, gate, departure == null ? null : departure.toLocalDateTime());
+    }
+
+    private void add(String flightNumber, String gate, LocalDateTime departure) {
+        if (gate == null || departure == null) {
+            slots.put(key(flightNumber), new Slot(flightNumber, null, 0));
+            return;
+        }
+        long start = seconds(departure) - bufferBeforeSeconds;
+        slots.put(key(flightNumber), new Slot(flightNumber, gate, start));
+        gates.computeIfAbsent(key(gate), key -> new IntervalTree<>()).insert(start, start + bufferBeforeSeconds + bufferAfterSeconds, flightNumber);
+    }
+
+    private static String key(String value) {
+        return value.toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean sameNumber(String flightNumber, String otherNumber) {
+        return otherNumber != null && key(flightNumber).equals(key(otherNumber));
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Where a flight's window is kept: its gate and the start of the window, with the flight number as
+     * it was written.
+     */
+    private record Slot(String flightNumber, String gate, long start) {
+    }
+}
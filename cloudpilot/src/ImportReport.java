@@ -0,0 +1,131 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The ImportReport class sums up a bulk import: how many rows were written, which rows were rejected
+ * and why, and how fast the file went through.
+ */
+public class ImportReport {
+
+    /**
+     * A row that was not imported.
+     *
+     * @param line the line of the file the row starts on
+     * @param key the row's flight number or passenger ID, if it had one
+     * @param reason why the row was rejected
+     */
+    public record Rejection(long line, String key, String reason) {
+    }
+
+    private static final int SUMMARY_REJECTIONS = 20;
+
+    private final List<Rejection> rejections = new ArrayList<>();
+    private int imported;
+    private long elapsedNanos;
+
+    /**
+     * Counts rows that were written.
+     */
+    public void addImported(int rows) {
+        imported += rows;
+    }
+
+    /**
+     * Records a rejected row.
+     */
+    public void reject(long line, String key, String reason) {
+        rejections.add(new Rejection(line, key, reason));
+    }
+
+    /**
+     * Sets how long the import took.
+     */
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of rows written.
+     */
+    public int getImported() {
+        return imported;
+    }
+
+    /**
+     * Returns the number of rows rejected.
+     */
+    public int getRejected() {
+        return rejections.size();
+    }
+
+    /**
+     * Returns the rejected rows in file order.
+     */
+    public List<Rejection> getRejections() {
+        rejections.sort((a, b) -> Long.compare(a.line(), b.line()));
+        return Collections.unmodifiableList(rejections);
+    }
+
+    /**
+     * Returns how long the import took, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    /**
+     * Returns the number of rows read per second, imported and rejected alike.
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : (imported + rejections.size()) * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns a short text for the user: the counts, the throughput and the first rejected rows.
+     */
+    public String summary() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Imported %d rows, rejected %d, in %.1f s (%.0f rows/s).",
+                imported, rejections.size(), elapsedNanos / 1e9, getRowsPerSecond()));
+        List<Rejection> rejected = getRejections();
+        for (int i = 0; i < Math.min(SUMMARY_REJECTIONS, rejected.size()); i++) {
+            Rejection rejection = rejected.get(i);
+            text.append("\nLine ").append(rejection.line());
+            if (rejection.key() != null) {
+                text.append(" (").append(rejection.key()).append(")");
+            }
+            text.append(": ").append(rejection.reason());
+        }
+        if (rejected.size() > SUMMARY_REJECTIONS) {
+            text.append("\n... and ").append(rejected.size() - SUMMARY_REJECTIONS).append(" more");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes every rejected row to a CSV file with the columns line, key and reason.
+     */
+    public void writeRejections(Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("line,key,reason");
+            out.newLine();
+            for (Rejection rejection : getRejections()) {
+                out.write(rejection.line() + "," + quote(rejection.key()) + "," + quote(rejection.reason()));
+                out.newLine();
+            }
+        }
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
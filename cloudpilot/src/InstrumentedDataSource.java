@@ -0,0 +1,354 @@
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * The InstrumentedDataSource class wraps another data source, normally the {@link ConnectionPool}, and
+ * times every statement run on its connections. Each execute call is reported to {@link QueryMetrics}
+ * under its logical query, together with the rows it returned or changed; a result set also reports
+ * how long the caller took to read it, from the query returning until the last row was read or the
+ * result set or its statement was closed.
+ *
+ * Statements slower than the {@link SlowQueryLog}'s threshold are also written to it, with the values
+ * bound to their parameters.
+ *
+ * The connections, statements and result sets handed out are proxies in front of the real ones, like
+ * the pool's own handles. Everything that is not timed goes straight through.
+ */
+public class InstrumentedDataSource implements DataSource {
+
+    private final DataSource target;
+    private final QueryMetrics metrics;
+    private final SlowQueryLog slowQueries;
+
+    /**
+     * Creates a data source that reports the statements run on the target's connections to the metrics,
+     * and the slow ones to the slow query log.
+     */
+    public InstrumentedDataSource(DataSource target, QueryMetrics metrics, SlowQueryLog slowQueries) {
+        this.target = target;
+        this.metrics = metrics;
+        this.slowQueries = slowQueries;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(target.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(target.getConnection(username, password));
+    }
+
+    /**
+     * Returns a connection that reports the statements run on it.
+     */
+    public Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Hands out timed statements.
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private final List<StatementHandler> statements = new ArrayList<>();
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Instrumented" + connection;
+                case "close":
+                    // Result sets left open end with their connection
+                    statements.forEach(StatementHandler::finishResult);
+                    statements.clear();
+                    return InstrumentedDataSource.invoke(connection, method, args);
+                default:
+                    Object result = InstrumentedDataSource.invoke(connection, method, args);
+                    if (result instanceof CallableStatement) {
+                        // Stored procedures are not used by the application; leave them alone
+                        return result;
+                    } else if (result instanceof PreparedStatement statement) {
+                        String sql = (String) args[0];
+                        return statement(PreparedStatement.class, statement, (Connection) proxy, sql, metrics.query(sql));
+                    } else if (result instanceof Statement statement) {
+                        return statement(Statement.class, statement, (Connection) proxy, null, null);
+                    }
+                    return result;
+            }
+        }
+
+        private <T extends Statement> T statement(Class<T> type, T statement, Connection owner, String sql, QueryMetrics.Query query) {
+            StatementHandler handler = new StatementHandler(statements, statement, owner, sql, query);
+            statements.add(handler);
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+        }
+    }
+
+    /**
+     * Times the execute calls of one statement. A plain statement learns its query from the SQL passed
+     * to each call; a prepared statement knows it from the start, and keeps the values bound to its
+     * parameters for the slow query log.
+     */
+    private final class StatementHandler implements InvocationHandler {
+        // The open statements of the connection, which this one leaves when it is closed
+        private final List<StatementHandler> open;
+        private final Statement statement;
+        private final Connection owner;
+        private final String preparedSql;
+        private final QueryMetrics.Query preparedQuery;
+        private ResultSetHandler openResult;
+        private Object[] binds;
+        private int bindCount;
+        private int batchSize;
+
+        StatementHandler(List<StatementHandler> open, Statement statement, Connection owner, String preparedSql, QueryMetrics.Query preparedQuery) {
+            this.open = open;
+            this.statement = statement;
+            this.owner = owner;
+            this.preparedSql = preparedSql;
+            this.preparedQuery = preparedQuery;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return owner;
+                case "close":
+                    finishResult();
+                    open.remove(this);
+                    return InstrumentedDataSource.invoke(statement, method, args);
+                case "clearParameters":
+                    bindCount = 0;
+                    return InstrumentedDataSource.invoke(statement, method, args);
+                case "addBatch":
+                    batchSize++;
+                    return InstrumentedDataSource.invoke(statement, method, args);
+                case "clearBatch":
+                    batchSize = 0;
+                    return InstrumentedDataSource.invoke(statement, method, args);
+                default:
+                    if (name.startsWith("execute")) {
+                        return execute(method, args);
+                    }
+                    if (preparedQuery != null && name.startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer index && slowQueries.isEnabled()) {
+                        // The proxy boxed the value already; keeping the reference costs nothing
+                        bind(index, name.equals("setNull") ? null : args[1]);
+                    }
+                    return InstrumentedDataSource.invoke(statement, method, args);
+            }
+        }
+
+        private void bind(int index, Object value) {
+            if (index < 1) {
+                return;
+            }
+            if (binds == null || binds.length < index) {
+                binds = Arrays.copyOf(binds == null ? new Object[0] : binds, Math.max(index, 8));
+            }
+            binds[index - 1] = value;
+            bindCount = Math.max(bindCount, index);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String given = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            String sql = given != null ? given : preparedSql;
+            QueryMetrics.Query query = given != null ? metrics.query(given) : preparedQuery;
+            if (query == null) {
+                // executeBatch of a plain statement: its SQL went in with addBatch
+                return InstrumentedDataSource.invoke(statement, method, args);
+            }
+            finishResult();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedDataSource.invoke(statement, method, args);
+            } catch (Throwable e) {
+                long nanos = System.nanoTime() - start;
+                query.executed(nanos, true);
+                if (slowQueries.isSlow(nanos)) {
+                    slow(sql, given == null, query, nanos, true).ifPresent(slowQueries::write);
+                }
+                batchSize = 0;
+                throw e;
+            }
+            long end = System.nanoTime();
+            long nanos = end - start;
+            query.executed(nanos, false);
+            // Looked up only for slow statements; the call site is on this thread's stack now
+            Optional<SlowQueryLog.Entry> slow = slowQueries.isSlow(nanos) ? slow(sql, given == null, query, nanos, false) : Optional.empty();
+            batchSize = 0;
+            long changed = -1;
+            if (result instanceof ResultSet resultSet) {
+                openResult = new ResultSetHandler(resultSet, query, end, slow.orElse(null));
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class }, openResult);
+            } else if (result instanceof Integer count) {
+                changed = Math.max(0, count);
+            } else if (result instanceof Long count) {
+                changed = Math.max(0, count);
+            } else if (result instanceof int[] counts) {
+                changed = 0;
+                for (int count : counts) {
+                    // A driver that does not count the rows of a batch reports SUCCESS_NO_INFO; count one each
+                    changed += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+                }
+            } else if (result instanceof long[] counts) {
+                changed = 0;
+                for (long count : counts) {
+                    changed += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+                }
+            }
+            if (changed >= 0) {
+                query.changed(changed);
+            }
+            long rows = changed;
+            slow.ifPresent(entry -> slowQueries.write(entry.withResult(rows, -1)));
+            return result;
+        }
+
+        private Optional<SlowQueryLog.Entry> slow(String sql, boolean prepared, QueryMetrics.Query query, long nanos, boolean failed) {
+            return slowQueries.capture(query.isNamed() ? query.name() : null, sql, prepared ? binds : null,
+                    prepared ? bindCount : 0, batchSize, nanos, failed);
+        }
+
+        private void finishResult() {
+            if (openResult != null) {
+                openResult.finish();
+                openResult = null;
+            }
+        }
+    }
+
+    /**
+     * Counts the rows read from a result set and the time until it was read to the end or closed.
+     */
+    private final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final QueryMetrics.Query query;
+        private final long returnedAt;
+        private final SlowQueryLog.Entry slow;
+        private long rows;
+        private boolean finished;
+
+        ResultSetHandler(ResultSet resultSet, QueryMetrics.Query query, long returnedAt, SlowQueryLog.Entry slow) {
+            this.resultSet = resultSet;
+            this.query = query;
+            this.returnedAt = returnedAt;
+            this.slow = slow;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "next": {
+                    boolean more = (Boolean) InstrumentedDataSource.invoke(resultSet, method, args);
+                    if (more) {
+                        rows++;
+                    } else {
+                        finish();
+                    }
+                    return more;
+                }
+                case "close":
+                    finish();
+                    return InstrumentedDataSource.invoke(resultSet, method, args);
+                default:
+                    return InstrumentedDataSource.invoke(resultSet, method, args);
+            }
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                long nanos = System.nanoTime() - returnedAt;
+                query.read(rows, nanos);
+                if (slow != null) {
+                    // Written once the rows are known
+                    slowQueries.write(slow.withResult(rows, nanos));
+                }
+            }
+        }
+    }
+
+    // DataSource methods that are passed on unchanged
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return target.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        target.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        target.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return target.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return target.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || target.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,211 @@
+import java.util.function.Consumer;
+
+/**
+ * The IntervalTree class holds half-open intervals [start, end) and finds those overlapping a query
+ * interval. It is an AVL tree ordered by start, then by key, where every node also knows the largest end
+ * in its subtree; a search skips every subtree that ends before the query starts. Inserting, removing
+ * and finding an overlap take O(log n). Not thread-safe.
+ *
+ * @param <K> the key naming each interval; a key may be held only once per start
+ */
+public class IntervalTree<K extends Comparable<K>> {
+
+    private Node<K> root;
+    private int size;
+
+    /**
+     * Adds the interval [start, end) under the key.
+     */
+    public void insert(long start, long end, K key) {
+        if (end <= start) {
+            throw new IllegalArgumentException("end must be after start");
+        }
+        root = insert(root, new Node<>(start, end, key));
+        size++;
+    }
+
+    /**
+     * Removes the interval that starts at {@code start} under the key.
+     *
+     * @return true if it was found
+     */
+    public boolean remove(long start, K key) {
+        int before = size;
+        root = remove(root, start, key);
+        return size < before;
+    }
+
+    /**
+     * Returns the key of an interval overlapping [start, end), or null if none does.
+     * When several overlap, the one that starts first is returned.
+     */
+    public K findOverlap(long start, long end) {
+        Node<K> node = root;
+        while (node != null) {
+            if (node.left != null && node.left.maxEnd > start) {
+                // Something on the left ends after the query starts. If it does not overlap either, it starts
+                // after the query ends, and so does everything from here on: the answer is on the left or nowhere
+                node = node.left;
+            } else if (node.start < end && node.end > start) {
+                return node.key;
+            } else {
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Passes the key of every interval overlapping [start, end) to the consumer, in start order.
+     */
+    public void forEachOverlap(long start, long end, Consumer<K> consumer) {
+        forEachOverlap(root, start, end, consumer);
+    }
+
+    /**
+     * Returns the number of intervals.
+     */
+    public int size() {
+        return size;
+    }
+
+    private static <K extends Comparable<K>> void forEachOverlap(Node<K> node, long start, long end, Consumer<K> consumer) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        forEachOverlap(node.left, start, end, consumer);
+        if (node.start < end && node.end > start) {
+            consumer.accept(node.key);
+        }
+        if (node.start < end) {
+            forEachOverlap(node.right, start, end, consumer);
+        }
+    }
+
+    private static <K extends Comparable<K>> int compare(long start, K key, Node<K> node) {
+        int order = Long.compare(start, node.start);
+        return order != 0 ? order : key.compareTo(node.key);
+    }
+
+    private Node<K> insert(Node<K> node, Node<K> added) {
+        if (node == null) {
+            return added;
+        }
+        int order = compare(added.start, added.key, node);
+        if (order == 0) {
+            throw new IllegalArgumentException("Interval already present: " + added.key);
+        }
+        if (order < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private Node<K> remove(Node<K> node, long start, K key) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(start, key, node);
+        if (order < 0) {
+            node.left = remove(node.left, start, key);
+        } else if (order > 0) {
+            node.right = remove(node.right, start, key);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Replace the node with the first node of its right subtree
+            Node<K> next = node.right;
+            while (next.left != null) {
+                next = next.left;
+            }
+            next.right = removeFirst(node.right);
+            next.left = node.left;
+            return balance(next);
+        }
+        return balance(node);
+    }
+
+    private Node<K> removeFirst(Node<K> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeFirst(node.left);
+        return balance(node);
+    }
+
+    private Node<K> balance(Node<K> node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<K> rotateRight(Node<K> node) {
+        Node<K> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<K> rotateLeft(Node<K> node) {
+        Node<K> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static <K> void update(Node<K> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node<K> {
+        final long start;
+        final long end;
+        final K key;
+        long maxEnd;
+        int height = 1;
+        Node<K> left;
+        Node<K> right;
+
+        Node(long start, long end, K key) {
+            this.start = start;
+            this.end = end;
+            this.key = key;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 import java.io.IOException;
+import java.sql.SQLException;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 
@@ -32,11 +34,38 @@ public class Main extends Application {
 
             // Show the window
             primaryStage.show();
+
+            // Tell the user when the desks go offline and when their offline changes have been sent
+            OfflineMode.shared().setNotifier(message -> {
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Database Connection");
+                alert.setHeaderText(null);
+                alert.setContentText(message);
+                alert.show();
+            });
+            OfflineMode.shared().start();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Called when the application exits. Stops the background database work and closes the pooled connections.
+     * Offline changes not yet sent stay in the log and are sent at the next start.
+     */
+    @Override
+    public void stop() {
+        DataAccess.shutdown();
+        try {
+            ServicesWriteBehind.shared().flush();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        OfflineMode.shared().shutdown();
+        Database.shutdown();
+        SlowQueryLog.shared().shutdown();
+    }
+
     /**
      * The main method is the entry point for the Java application.
      * It launches the JavaFX application.
@@ -1,9 +1,5 @@
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.Optional;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -18,7 +14,7 @@ import javafx.stage.Stage;
 
 /**
  * The MainController class handles user login and navigation to the profile creation page.
- * It connects to a MySQL database to authenticate users.
+ * It authenticates users against the MySQL database through the shared connection pool.
  */
 public class MainController {
     private long employeeId; // This value should be dynamically set based on the logged-in user.
@@ -42,25 +38,7 @@ public class MainController {
     @FXML
     private Button createProfileButton;
 
-    // MySQL connection parameters
-    private final String url = "Your URL";
-    private final String username = "Your Username";
-    private final String password = "Your Password";
-
-    private Connection connection;
-
-    /**
-     * Initializes the controller class and establishes a connection to the MySQL database.
-     */
-    @FXML
-    void initialize() {
-        try {
-            // Connect to MySQL database
-            connection = DriverManager.getConnection(url, username, password);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
+    private final ScreenTasks tasks = new ScreenTasks();
 
     /**
      * Handles the login action. Authenticates the user and navigates to the main page if successful.
@@ -76,15 +54,25 @@ public class MainController {
             return;
         }
 
+        // Query the database for the user
+        loginButton.setDisable(true);
+        tasks.run(connection -> new EmployeeRepository(connection).findIdByLogin(email, password), employee -> {
+            loginButton.setDisable(false);
+            showLoginResult(employee);
+        }, failure -> {
+            loginButton.setDisable(false);
+            failure.printStackTrace();
+        });
+    }
+
+    /**
+     * Navigates to the main page if the login found an employee, otherwise shows an alert.
+     */
+    private void showLoginResult(Optional<Long> employee) {
         try {
-            // Query the database for the user
-            PreparedStatement statement = connection.prepareStatement("SELECT Employee_ID FROM employee WHERE email = ? AND password = ?");
-            statement.setString(1, email);
-            statement.setString(2, password);
-            ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
+            if (employee.isPresent()) {
                 // Login successful
-                long employeeId = resultSet.getLong("Employee_ID"); // Change getInt to getLong
+                long employeeId = employee.get();
 
                 FXMLLoader loader = new FXMLLoader(getClass().getResource("MainPage.fxml"));
                 Parent root = loader.load();
@@ -101,7 +89,7 @@ public class MainController {
                 // Login failed
                 showAlert(Alert.AlertType.ERROR, "Login Failed", "Invalid email or password.");
             }
-        } catch (SQLException | IOException e) {
+        } catch (IOException e) {
             e.printStackTrace();
         }
     }
@@ -118,17 +106,11 @@ public class MainController {
             Stage stage1 = (Stage) ((Node) event.getSource()).getScene().getWindow();
             stage1.close();
 
-            // Get the controller associated with the CreateProfile.fxml file
-            CreateProfileController controller = loader.getController();
-
             // Set the stage
             Stage stage2 = new Stage();
             stage2.setScene(new Scene(root));
             stage2.setTitle("Create Profile");
 
-            // Pass the database connection to the CreateProfileController
-            controller.initData(connection);
-
             // Show the stage
             stage2.show();
         } catch (IOException e) {
@@ -118,6 +118,20 @@ public class MainPageController {
         }
     }
 
+    /**
+     * Navigates to the Diagnostics page.
+     */
+    @FXML
+    void goToDiagnostics(ActionEvent event) {
+        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+        stage.close();
+        FXMLLoader loader = loadFXML("Diagnostics.fxml");
+        if (loader != null) {
+            DiagnosticsController controller = loader.getController();
+            controller.setEmployeeId(employeeId);
+        }
+    }
+
     /**
      * Exits the current page and navigates to the main page.
      */
@@ -0,0 +1,395 @@
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+
+/**
+ * The OfflineMode class keeps the check-in desks working while the database cannot be reached.
+ * Reads are answered from an {@link OfflineSnapshot} of today's and tomorrow's flights, their boardings
+ * and passengers. Check-ins, saved services and new passengers are appended to a {@link WriteAheadLog}
+ * and are on disk before the desk is told they were saved, so they survive a crash of the application.
+ *
+ * The mode is entered when database work fails because the connection broke; see
+ * {@link DataAccess#task(DataAccess.SqlWork, java.util.concurrent.Callable)}. A background thread then
+ * probes the database every few seconds. Once it answers, the queued changes are replayed one by one in
+ * the order they were made, each in its own transaction, and only then do the desks go back online, so
+ * a change made online can never overtake one made offline. Changes that clash with what happened in the
+ * database meanwhile are not applied; they are written to conflicts.log and reported to the user.
+ *
+ * The log lives in the directory given by the {@code cloudpilot.offline.dir} system property,
+ * ~/.cloudpilot by default. Changes left in it when the application exits are replayed at the next start.
+ */
+public class OfflineMode {
+
+    /**
+     * What a replay did.
+     */
+    public record ReplayReport(int applied, int alreadyApplied, List<String> conflicts) {
+    }
+
+    private static final Path DIRECTORY = Path.of(System.getProperty("cloudpilot.offline.dir",
+            Path.of(System.getProperty("user.home"), ".cloudpilot").toString()));
+    private static final long PROBE_SECONDS = Long.getLong("cloudpilot.offline.probeSeconds", 5);
+    private static final long REFRESH_MINUTES = Long.getLong("cloudpilot.offline.refreshMinutes", 10);
+    private static final int VALIDATION_SECONDS = 2;
+
+    private static OfflineMode shared;
+
+    private final WriteAheadLog log;
+    private final IOException logFailure;
+    private final Path conflictLog;
+    private final OfflineSnapshot snapshot = new OfflineSnapshot();
+    // Queued changes hold the read lock, so going back online waits for appends in progress
+    private final ReentrantReadWriteLock mode = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService probe = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "offline-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean offline;
+    private volatile Consumer<String> notifier = System.err::println;
+    private long nextRefresh;
+
+    /**
+     * Creates the offline mode with its log in the directory. Changes left in the log keep the mode
+     * offline until they are replayed.
+     */
+    public OfflineMode(Path directory) {
+        WriteAheadLog opened = null;
+        IOException failure = null;
+        try {
+            opened = new WriteAheadLog(directory.resolve("offline.wal"));
+        } catch (IOException e) {
+            e.printStackTrace();
+            failure = e;
+        }
+        log = opened;
+        logFailure = failure;
+        conflictLog = directory.resolve("conflicts.log");
+        offline = log != null && log.hasUnapplied();
+    }
+
+    /**
+     * Returns the offline mode shared by all screens.
+     */
+    public static synchronized OfflineMode shared() {
+        if (shared == null) {
+            shared = new OfflineMode(DIRECTORY);
+        }
+        return shared;
+    }
+
+    /**
+     * Returns true if the cause chain shows the database could not be reached, as opposed to a statement
+     * the database refused. A full connection pool is not a connection failure: the database answers, the
+     * desks are just busy.
+     */
+    public static boolean isConnectionFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof ConnectionPool.TimeoutException) {
+                return false;
+            }
+            if (cause instanceof SQLTransientConnectionException || cause instanceof SQLNonTransientConnectionException
+                    || cause instanceof SQLRecoverableException || cause instanceof ConnectException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts probing the database and refreshing the snapshot in the background. Called once at startup.
+     */
+    public void start() {
+        probe.scheduleWithFixedDelay(this::probe, 0, PROBE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Calls the notifier on the FX thread when the mode changes and after every replay.
+     */
+    public void setNotifier(Consumer<String> notifier) {
+        this.notifier = notifier;
+    }
+
+    /**
+     * Returns true while changes go to the local log instead of the database.
+     */
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Returns the counters of the local log, or nothing if it could not be opened.
+     */
+    public Optional<WriteAheadLog.Stats> logStats() {
+        return Optional.ofNullable(log).map(WriteAheadLog::stats);
+    }
+
+    /**
+     * Returns the local copy of the data the desks read while offline.
+     */
+    public OfflineSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Switches to offline mode after the database could not be reached.
+     */
+    public void goOffline(Throwable cause) {
+        if (!offline) {
+            offline = true;
+            System.err.println("The database cannot be reached, working offline: " + cause);
+            notifyUser("The database cannot be reached. Check-ins, services and new customers are saved on this computer "
+                    + "and sent to the database when it is back.");
+        }
+    }
+
+    /**
+     * Checks the passenger in on the snapshot's seat map and queues the check-in. The seat and the passenger
+     * are checked against what the snapshot knows; the database checks again when the check-in is replayed.
+     */
+    public SeatInventory.Outcome checkIn(OfflineWrite.CheckIn checkIn) throws IOException {
+        Boarding boarding = new Boarding(checkIn.boardingId(), checkIn.passengerId(), checkIn.seatNumber(), checkIn.flightNumber());
+        SeatInventory.Outcome outcome = snapshot.claim(boarding);
+        if (outcome == SeatInventory.Outcome.CLAIMED) {
+            try {
+                enqueue(checkIn);
+            } catch (IOException e) {
+                snapshot.release(boarding);
+                throw e;
+            }
+        }
+        return outcome;
+    }
+
+    /**
+     * Queues services for a boarding in the snapshot. Returns false if the boarding is not known offline.
+     */
+    public boolean saveServices(Boarding boarding) throws IOException {
+        if (snapshot.findBoarding(boarding.getBoardingID()).isEmpty()) {
+            return false;
+        }
+        enqueue(OfflineWrite.SaveServices.of(boarding));
+        snapshot.putServices(boarding);
+        return true;
+    }
+
+    /**
+     * Queues a new passenger. Returns an error message if the snapshot already has their ID or phone number.
+     */
+    public String createPassenger(Passenger passenger) throws IOException {
+        if (snapshot.hasPhoneNumber(passenger.getPhoneNumber())) {
+            return "Phone number already exists.";
+        } else if (snapshot.findPassenger(passenger.getPassengerID()).isPresent()) {
+            return "ID number already exists.";
+        }
+        enqueue(new OfflineWrite.CreatePassenger(passenger.toRow()));
+        snapshot.putPassenger(passenger);
+        return null;
+    }
+
+    /**
+     * Appends the change to the log and returns once it is on disk.
+     */
+    public void enqueue(OfflineWrite write) throws IOException {
+        if (log == null) {
+            throw new IOException("Changes cannot be saved offline", logFailure);
+        }
+        mode.readLock().lock();
+        try {
+            log.append(OfflineWrite.encode(write));
+            if (!offline) {
+                // The database came back while the change was made; send it right away
+                probe.execute(this::probe);
+            }
+        } finally {
+            mode.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stops the background thread and closes the log. Changes not yet replayed stay in it.
+     */
+    public void shutdown() {
+        probe.shutdownNow();
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Runs on the probe thread: replays the log while offline or when changes are waiting, and refreshes
+     * the snapshot when it is due.
+     */
+    private void probe() {
+        boolean pending = log != null && log.hasUnapplied();
+        if (!offline && !pending && System.currentTimeMillis() < nextRefresh) {
+            return;
+        }
+        try (Connection connection = Database.getConnection()) {
+            if (!connection.isValid(VALIDATION_SECONDS)) {
+                return;
+            }
+            if (offline || pending) {
+                reconnect(connection);
+            }
+            refresh(connection);
+        } catch (SQLException e) {
+            if (isConnectionFailure(e)) {
+                goOffline(e);
+            } else {
+                e.printStackTrace();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (RuntimeException e) {
+            // Keep the probe scheduled
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Replays the log until it is empty, then goes back online.
+     */
+    private void reconnect(Connection connection) throws SQLException, IOException {
+        int applied = 0;
+        int alreadyApplied = 0;
+        List<String> conflicts = new ArrayList<>();
+        boolean wasOffline = offline;
+        while (true) {
+            for (WriteAheadLog.Entry entry : log.unapplied()) {
+                OfflineWrite.Outcome outcome = replay(connection, entry);
+                log.markApplied(entry.sequence());
+                switch (outcome.result()) {
+                    case APPLIED -> {
+                        applied++;
+                        if (outcome.event() != null) {
+                            DomainEventBus.shared().publish(outcome.event());
+                        }
+                    }
+                    case ALREADY_APPLIED -> alreadyApplied++;
+                    case CONFLICT -> conflicts.add(outcome.conflict());
+                }
+            }
+            mode.writeLock().lock();
+            try {
+                if (!log.hasUnapplied()) {
+                    offline = false;
+                    log.compact();
+                    break;
+                }
+            } finally {
+                mode.writeLock().unlock();
+            }
+        }
+        ReplayReport report = new ReplayReport(applied, alreadyApplied, conflicts);
+        System.err.println("Replayed the offline log: " + report);
+        if (wasOffline || applied + alreadyApplied + conflicts.size() > 0) {
+            StringBuilder message = new StringBuilder("The database is back. ");
+            message.append(applied).append(applied == 1 ? " change" : " changes").append(" made offline were sent.");
+            if (!conflicts.isEmpty()) {
+                message.append("\n").append(conflicts.size()).append(" could not be applied and are listed in ").append(conflictLog).append(":");
+                conflicts.forEach(conflict -> message.append("\n").append(conflict));
+            }
+            notifyUser(message.toString());
+        }
+    }
+
+    /**
+     * Applies one change in a transaction of its own. A connection failure is thrown, leaving the change
+     * in the log; any other error is recorded as a conflict.
+     */
+    private OfflineWrite.Outcome replay(Connection connection, WriteAheadLog.Entry entry) throws SQLException {
+        OfflineWrite write;
+        try {
+            write = OfflineWrite.decode(entry.payload());
+        } catch (IOException e) {
+            return recordConflict("Change " + entry.sequence(), "it cannot be read: " + e.getMessage());
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            OfflineWrite.Outcome outcome = write.apply(connection);
+            if (outcome.result() == OfflineWrite.Result.CONFLICT) {
+                connection.rollback();
+                return recordConflict(write.describe(), outcome.conflict());
+            }
+            connection.commit();
+            return outcome;
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            if (isConnectionFailure(e)) {
+                throw e;
+            }
+            return recordConflict(write.describe(), "the database refused it: " + e.getMessage());
+        } finally {
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                // The connection is broken; the pool discards it
+            }
+        }
+    }
+
+    private OfflineWrite.Outcome recordConflict(String change, String reason) {
+        String line = LocalDateTime.now() + " " + change + " was not applied: " + reason;
+        System.err.println(line);
+        try {
+            Files.writeString(conflictLog, line + System.lineSeparator(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return OfflineWrite.Outcome.conflict(change + ": " + reason);
+    }
+
+    /**
+     * Reloads the snapshot with today's and tomorrow's flights, their boardings and their passengers.
+     */
+    private void refresh(Connection connection) throws SQLException {
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        LocalDateTime to = from.plusDays(2);
+        List<Flight> flights = new FlightRepository(connection).findDepartingBetween(from, to);
+        List<Passenger> passengers = new PassengerRepository(connection).findByFlightsDepartingBetween(from, to);
+        List<Boarding> boardings = new BoardingRepository(connection).findByFlightsDepartingBetween(from, to);
+        snapshot.replace(flights, passengers, boardings);
+        nextRefresh = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(REFRESH_MINUTES);
+    }
+
+    private void notifyUser(String message) {
+        Consumer<String> target = notifier;
+        try {
+            Platform.runLater(() -> target.accept(message));
+        } catch (IllegalStateException e) {
+            // The FX toolkit is not running
+            System.err.println(message);
+        }
+    }
+}
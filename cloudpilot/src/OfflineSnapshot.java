@@ -0,0 +1,164 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The OfflineSnapshot class is the local copy of the data the check-in desks need while the database
+ * cannot be reached: today's flights, their boardings and the passengers checked in on them, plus every
+ * passenger and flight a desk looked up while online. Check-ins, services and passengers created offline
+ * are added as they are queued, so the desks see their own changes.
+ *
+ * The snapshot lives in memory and is replaced whenever it is refreshed from the database. It hands out
+ * copies, never the rows it holds. All methods are thread-safe.
+ */
+public class OfflineSnapshot {
+    private final Map<String, Flight.Row> flights = new HashMap<>();
+    private final Map<Integer, Passenger.Row> passengers = new HashMap<>();
+    private final Map<Integer, Boarding.Row> boardings = new HashMap<>();
+    private final Map<String, Set<String>> occupiedSeats = new HashMap<>();
+    private final Map<String, Set<Integer>> checkedIn = new HashMap<>();
+    private final Set<String> phoneNumbers = new HashSet<>();
+
+    /**
+     * Replaces the contents with rows just read from the database. Flights and passengers looked up
+     * before are kept unless the new rows replace them.
+     */
+    public synchronized void replace(List<Flight> newFlights, List<Passenger> newPassengers, List<Boarding> newBoardings) {
+        boardings.clear();
+        occupiedSeats.clear();
+        checkedIn.clear();
+        newFlights.forEach(this::putFlight);
+        newPassengers.forEach(this::putPassenger);
+        newBoardings.forEach(this::putBoarding);
+    }
+
+    /**
+     * Remembers a flight read from the database or created offline.
+     */
+    public synchronized void putFlight(Flight flight) {
+        flights.put(flight.getFlightNumber(), flight.toRow());
+    }
+
+    /**
+     * Remembers a passenger read from the database or created offline.
+     */
+    public synchronized void putPassenger(Passenger passenger) {
+        Passenger.Row previous = passengers.put(passenger.getPassengerID(), passenger.toRow());
+        if (previous != null) {
+            phoneNumbers.remove(previous.phoneNumber());
+        }
+        phoneNumbers.add(passenger.getPhoneNumber());
+    }
+
+    /**
+     * Remembers a boarding, occupying its seat.
+     */
+    public synchronized void putBoarding(Boarding boarding) {
+        if (boarding.getBoardingID() != 0) {
+            boardings.put(boarding.getBoardingID(), boarding.toRow());
+        }
+        occupiedSeats.computeIfAbsent(boarding.getFlightNumber(), key -> new HashSet<>()).add(boarding.getSeatNumber());
+        checkedIn.computeIfAbsent(boarding.getFlightNumber(), key -> new HashSet<>()).add(boarding.getPassengerID());
+    }
+
+    /**
+     * Occupies the boarding's seat unless the seat is taken or the passenger is already checked in on
+     * the flight. A boarding ID of 0 occupies the seat without remembering the boarding.
+     */
+    public synchronized SeatInventory.Outcome claim(Boarding boarding) {
+        if (isCheckedIn(boarding.getPassengerID(), boarding.getFlightNumber())) {
+            return SeatInventory.Outcome.ALREADY_CHECKED_IN;
+        } else if (occupiedSeats.getOrDefault(boarding.getFlightNumber(), Set.of()).contains(boarding.getSeatNumber())) {
+            return SeatInventory.Outcome.SEAT_TAKEN;
+        }
+        putBoarding(boarding);
+        return SeatInventory.Outcome.CLAIMED;
+    }
+
+    /**
+     * Frees the seat of a boarding claimed with {@link #claim} whose change could not be queued.
+     */
+    public synchronized void release(Boarding boarding) {
+        boardings.remove(boarding.getBoardingID());
+        occupiedSeats.getOrDefault(boarding.getFlightNumber(), new HashSet<>()).remove(boarding.getSeatNumber());
+        checkedIn.getOrDefault(boarding.getFlightNumber(), new HashSet<>()).remove(boarding.getPassengerID());
+    }
+
+    /**
+     * Remembers the occupied seats of a flight whose seat map was just read from the database.
+     */
+    public synchronized void putSeatNumbers(String flightNumber, List<String> seatNumbers) {
+        occupiedSeats.computeIfAbsent(flightNumber, key -> new HashSet<>()).addAll(seatNumbers);
+    }
+
+    /**
+     * Replaces the services of a known boarding. Returns false if the boarding is not in the snapshot.
+     */
+    public synchronized boolean putServices(Boarding services) {
+        Boarding.Row row = boardings.get(services.getBoardingID());
+        if (row == null) {
+            return false;
+        }
+        Boarding boarding = new Boarding(row);
+        boarding.setServices(services.isExtraDrink(), services.isExtraMeal(), services.isSuitCenter(),
+                services.getExtraLuggage(), services.getServiceDescription());
+        boardings.put(boarding.getBoardingID(), boarding.toRow());
+        return true;
+    }
+
+    /**
+     * Returns a copy of the flight, if it is in the snapshot.
+     */
+    public synchronized Optional<Flight> findFlight(String flightNumber) {
+        Flight.Row row = flights.get(flightNumber);
+        return row == null ? Optional.empty() : Optional.of(new Flight(row));
+    }
+
+    /**
+     * Returns a copy of the passenger, if they are in the snapshot.
+     */
+    public synchronized Optional<Passenger> findPassenger(int passengerId) {
+        Passenger.Row row = passengers.get(passengerId);
+        return row == null ? Optional.empty() : Optional.of(new Passenger(row));
+    }
+
+    /**
+     * Returns a copy of the boarding, if it is in the snapshot.
+     */
+    public synchronized Optional<Boarding> findBoarding(int boardingId) {
+        Boarding.Row row = boardings.get(boardingId);
+        return row == null ? Optional.empty() : Optional.of(new Boarding(row));
+    }
+
+    /**
+     * Returns the occupied seat numbers of the flight as far as the snapshot knows.
+     */
+    public synchronized List<String> findSeatNumbers(String flightNumber) {
+        return new ArrayList<>(occupiedSeats.getOrDefault(flightNumber, Set.of()));
+    }
+
+    /**
+     * Returns true if the passenger is known to be checked in on the flight.
+     */
+    public synchronized boolean isCheckedIn(int passengerId, String flightNumber) {
+        return checkedIn.getOrDefault(flightNumber, Set.of()).contains(passengerId);
+    }
+
+    /**
+     * Returns true if a passenger in the snapshot has the phone number.
+     */
+    public synchronized boolean hasPhoneNumber(String phoneNumber) {
+        return phoneNumbers.contains(phoneNumber);
+    }
+
+    /**
+     * Returns the number of flights, passengers and boardings held, for logging.
+     */
+    public synchronized String describe() {
+        return flights.size() + " flights, " + passengers.size() + " passengers and " + boardings.size() + " boardings";
+    }
+}
@@ -0,0 +1,247 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * The OfflineWrite interface is a change made while the database could not be reached, as it is kept in
+ * the write-ahead log of {@link OfflineMode}. Each kind of change knows how to write itself to bytes and
+ * how to apply itself once the database is back.
+ *
+ * Applying checks what happened in the database meanwhile. A change that is already there, because it
+ * was committed just before the connection broke, is reported as already applied. A change that clashes
+ * with what another desk did, such as a seat taken in the meantime, is reported as a conflict and not
+ * applied. Services are the exception: like a save made online, the last save wins.
+ */
+public sealed interface OfflineWrite permits OfflineWrite.CheckIn, OfflineWrite.SaveServices, OfflineWrite.CreatePassenger {
+
+    /**
+     * How applying a change turned out.
+     */
+    enum Result {
+        APPLIED,
+        ALREADY_APPLIED,
+        CONFLICT
+    }
+
+    /**
+     * The result of applying a change, why it conflicted, and the event to publish once it is committed.
+     */
+    record Outcome(Result result, String conflict, DomainEventBus.Event event) {
+        static Outcome applied(DomainEventBus.Event event) {
+            return new Outcome(Result.APPLIED, null, event);
+        }
+
+        static Outcome alreadyApplied() {
+            return new Outcome(Result.ALREADY_APPLIED, null, null);
+        }
+
+        static Outcome conflict(String conflict) {
+            return new Outcome(Result.CONFLICT, conflict, null);
+        }
+    }
+
+    /**
+     * Applies the change in the caller's transaction.
+     */
+    Outcome apply(Connection connection) throws SQLException;
+
+    /**
+     * Returns a short description for the conflict log.
+     */
+    String describe();
+
+    /**
+     * A check-in made offline. A boarding ID of 0 means none could be handed out offline; one is
+     * allocated when the check-in is applied.
+     */
+    record CheckIn(int boardingId, int passengerId, String flightNumber, String seatNumber, Timestamp departure,
+            Timestamp arrival) implements OfflineWrite {
+
+        @Override
+        public Outcome apply(Connection connection) throws SQLException {
+            Optional<Boarding> existing = new BoardingRepository(connection).findByPassengerAndFlight(passengerId, flightNumber);
+            if (existing.isPresent()) {
+                if (seatNumber.equals(existing.get().getSeatNumber())) {
+                    return Outcome.alreadyApplied();
+                }
+                return Outcome.conflict("the passenger was checked in on seat " + existing.get().getSeatNumber() + " meanwhile");
+            }
+            if (new FlightRepository(connection).findByNumber(flightNumber).isEmpty()) {
+                return Outcome.conflict("the flight no longer exists");
+            }
+            int id = boardingId != 0 ? boardingId : BoardingIdAllocator.shared().next();
+            SeatInventory.Outcome outcome = SeatInventory.shared().checkIn(connection, id, passengerId, flightNumber, seatNumber, departure, arrival);
+            if (outcome == SeatInventory.Outcome.SEAT_TAKEN) {
+                return Outcome.conflict("the seat was taken by another passenger meanwhile");
+            } else if (outcome == SeatInventory.Outcome.ALREADY_CHECKED_IN) {
+                return Outcome.conflict("the passenger was checked in by another desk meanwhile");
+            }
+            return Outcome.applied(new DomainEventBus.BoardingCreated(new Boarding(id, passengerId, seatNumber, flightNumber)));
+        }
+
+        @Override
+        public String describe() {
+            return "Check-in of passenger " + passengerId + " on flight " + flightNumber + ", seat " + seatNumber
+                    + (boardingId != 0 ? ", boarding ID " + boardingId : "");
+        }
+    }
+
+    /**
+     * Services saved offline for a boarding.
+     */
+    record SaveServices(int boardingId, boolean extraDrink, boolean extraMeal, boolean suitCenter, int extraLuggage,
+            String serviceDescription) implements OfflineWrite {
+
+        /**
+         * Returns the change that saves the services of the boarding.
+         */
+        static SaveServices of(Boarding boarding) {
+            return new SaveServices(boarding.getBoardingID(), boarding.isExtraDrink(), boarding.isExtraMeal(), boarding.isSuitCenter(),
+                    boarding.getExtraLuggage(), boarding.getServiceDescription());
+        }
+
+        @Override
+        public Outcome apply(Connection connection) throws SQLException {
+            if (new BoardingRepository(connection).findById(boardingId).isEmpty()) {
+                return Outcome.conflict("the boarding no longer exists");
+            }
+            Boarding boarding = new Boarding(boardingId, 0, null, null);
+            boarding.setServices(extraDrink, extraMeal, suitCenter, extraLuggage, serviceDescription);
+            new ServicesRepository(connection).upsert(boarding);
+            return Outcome.applied(new DomainEventBus.ServicesUpdated(boarding));
+        }
+
+        @Override
+        public String describe() {
+            return "Services of boarding " + boardingId;
+        }
+    }
+
+    /**
+     * A passenger created offline.
+     */
+    record CreatePassenger(Passenger.Row passenger) implements OfflineWrite {
+
+        @Override
+        public Outcome apply(Connection connection) throws SQLException {
+            PassengerRepository passengers = new PassengerRepository(connection);
+            if (passengers.existsById(passenger.passengerID())) {
+                Optional<Passenger> existing = passengers.findById(passenger.passengerID());
+                if (existing.isPresent() && existing.get().toRow().equals(passenger)) {
+                    return Outcome.alreadyApplied();
+                }
+                return Outcome.conflict("another passenger was created with the ID meanwhile");
+            }
+            if (passengers.existsByPhoneNumber(passenger.phoneNumber())) {
+                return Outcome.conflict("another passenger was created with the phone number " + passenger.phoneNumber() + " meanwhile");
+            }
+            Passenger created = new Passenger(passenger);
+            passengers.insert(created);
+            return Outcome.applied(new DomainEventBus.PassengerChanged(DomainEventBus.Change.CREATED, passenger.passengerID(), created));
+        }
+
+        @Override
+        public String describe() {
+            return "New passenger " + passenger.passengerID() + " (" + passenger.firstName() + " " + passenger.lastName() + ")";
+        }
+    }
+
+    /**
+     * Returns the change as bytes for the log.
+     */
+    static byte[] encode(OfflineWrite write) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            switch (write) {
+                case CheckIn checkIn -> {
+                    out.writeByte(1);
+                    out.writeInt(checkIn.boardingId());
+                    out.writeInt(checkIn.passengerId());
+                    writeString(out, checkIn.flightNumber());
+                    writeString(out, checkIn.seatNumber());
+                    out.writeLong(checkIn.departure() == null ? Long.MIN_VALUE : checkIn.departure().getTime());
+                    out.writeLong(checkIn.arrival() == null ? Long.MIN_VALUE : checkIn.arrival().getTime());
+                }
+                case SaveServices services -> {
+                    out.writeByte(2);
+                    out.writeInt(services.boardingId());
+                    out.writeBoolean(services.extraDrink());
+                    out.writeBoolean(services.extraMeal());
+                    out.writeBoolean(services.suitCenter());
+                    out.writeInt(services.extraLuggage());
+                    writeString(out, services.serviceDescription());
+                }
+                case CreatePassenger create -> {
+                    Passenger.Row passenger = create.passenger();
+                    out.writeByte(3);
+                    out.writeInt(passenger.passengerID());
+                    writeString(out, passenger.firstName());
+                    writeString(out, passenger.lastName());
+                    writeString(out, passenger.gender());
+                    out.writeLong(passenger.birthDate() == null ? Long.MIN_VALUE : passenger.birthDate().toLocalDate().toEpochDay());
+                    writeString(out, passenger.phoneNumber());
+                }
+            }
+        } catch (IOException e) {
+            // A byte array stream does not fail
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a change written by {@link #encode}.
+     */
+    static OfflineWrite decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int type = in.readByte();
+            switch (type) {
+                case 1: {
+                    int boardingId = in.readInt();
+                    int passengerId = in.readInt();
+                    String flightNumber = readString(in);
+                    String seatNumber = readString(in);
+                    long departure = in.readLong();
+                    long arrival = in.readLong();
+                    return new CheckIn(boardingId, passengerId, flightNumber, seatNumber,
+                            departure == Long.MIN_VALUE ? null : new Timestamp(departure),
+                            arrival == Long.MIN_VALUE ? null : new Timestamp(arrival));
+                }
+                case 2:
+                    return new SaveServices(in.readInt(), in.readBoolean(), in.readBoolean(), in.readBoolean(), in.readInt(), readString(in));
+                case 3: {
+                    int passengerId = in.readInt();
+                    String firstName = readString(in);
+                    String lastName = readString(in);
+                    String gender = readString(in);
+                    long birthDay = in.readLong();
+                    String phoneNumber = readString(in);
+                    return new CreatePassenger(new Passenger.Row(passengerId, firstName, lastName, gender,
+                            birthDay == Long.MIN_VALUE ? null : Date.valueOf(LocalDate.ofEpochDay(birthDay)), phoneNumber));
+                }
+                default:
+                    throw new IOException("Unknown offline change type " + type);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
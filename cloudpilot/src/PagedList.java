@@ -0,0 +1,489 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableView;
+
+/**
+ * The PagedList class is a read-only list that loads a large table page by page as a TableView scrolls.
+ * Pages are fetched with keyset pagination on the primary key ("WHERE key > ? ORDER BY key LIMIT n"),
+ * so a page costs the same at the end of the table as at the start. Rows that are not loaded yet show a
+ * placeholder until their page arrives. Only the most recently used pages are kept in memory.
+ *
+ * A row inserted into or deleted from the table can be applied to the list with {@link #insert} and
+ * {@link #removeByKey} instead of a {@link #refresh}, and an updated row with {@link #replace}. The page the
+ * key belongs to is found from the page boundaries; rows of the following loaded pages move over by one
+ * place, and pages whose boundaries can no longer be known are dropped and read again when they are
+ * shown. All methods must be called on the JavaFX Application Thread.
+ *
+ * @param <K> the type of the primary key
+ * @param <T> the type of the rows
+ */
+public class PagedList<K extends Comparable<? super K>, T> extends ObservableListBase<T> {
+
+    /**
+     * Reads pages of one table in primary key order.
+     */
+    public interface Loader<K, T> {
+
+        /**
+         * Returns the number of rows in the table.
+         */
+        int count(Connection connection) throws SQLException;
+
+        /**
+         * Returns up to {@code limit} rows whose key is greater than {@code afterKey}, in key order.
+         * A null key means from the start of the table. The list must be modifiable: the page is patched
+         * in place when rows are inserted or deleted.
+         */
+        List<T> loadPage(Connection connection, K afterKey, int limit) throws SQLException;
+
+        /**
+         * Returns the key {@code skip} rows past {@code afterKey}, or null if the table ends first.
+         * Only reads the primary key index. Used when the user jumps to a page whose start key is unknown.
+         */
+        K findKey(Connection connection, K afterKey, int skip) throws SQLException;
+
+        /**
+         * Returns the primary key of a row.
+         */
+        K keyOf(T row);
+
+        /**
+         * Returns the order the database sorts the keys in, or null for their natural order. Text keys
+         * must be compared like the column's collation, which is not how String.compareTo orders them.
+         */
+        default Comparator<? super K> keyOrder() {
+            return null;
+        }
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int DEFAULT_MAX_PAGES = 20;
+    private static final int MAX_START_KEYS = 1000;
+
+    private final ScreenTasks tasks;
+    private final Loader<K, T> loader;
+    private final T placeholder;
+    private final int pageSize;
+    private final int maxPages;
+    private final Map<Integer, List<T>> pages;
+    // The key of the last row before each known page; page 0 starts at the beginning of the table
+    private final TreeMap<Integer, K> startKeys = new TreeMap<>();
+    private final Comparator<? super K> keyOrder;
+    private final TreeMap<K, Integer> pagesByStartKey;
+    // The pages being read, each with a token that tells its result from that of an outdated read
+    private final Map<Integer, Object> loading = new HashMap<>();
+    private int size;
+    private int generation;
+    private boolean refreshing;
+
+    /**
+     * Creates a list with the default page size and window.
+     */
+    public PagedList(ScreenTasks tasks, Loader<K, T> loader, T placeholder) {
+        this(tasks, loader, placeholder, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    /**
+     * Creates a list that keeps at most {@code maxPages} pages of {@code pageSize} rows in memory.
+     *
+     * @param placeholder the row shown while its page is being loaded
+     */
+    public PagedList(ScreenTasks tasks, Loader<K, T> loader, T placeholder, int pageSize, int maxPages) {
+        this.tasks = tasks;
+        this.loader = loader;
+        this.placeholder = placeholder;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.keyOrder = loader.keyOrder() != null ? loader.keyOrder() : Comparator.naturalOrder();
+        this.pagesByStartKey = new TreeMap<>(keyOrder);
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > PagedList.this.maxPages;
+            }
+        };
+        startKeys.put(0, null);
+    }
+
+    /**
+     * Stops the table from sorting a paged list. Sorting would have to read every row; the pages are
+     * already in primary key order.
+     */
+    public static <S> void installSortPolicy(TableView<S> table) {
+        table.setSortPolicy(view -> !(view.getItems() instanceof PagedList) && TableView.DEFAULT_SORT_POLICY.call(view));
+    }
+
+    /**
+     * Counts the rows again and drops every loaded page. Called after the table was changed.
+     */
+    public void refresh() {
+        int refreshed = ++generation;
+        refreshing = true;
+        tasks.run(connection -> {
+            int count = loader.count(connection);
+            return new Page<>(count, null, loader.loadPage(connection, null, pageSize));
+        }, first -> {
+            if (refreshed != generation) {
+                return;
+            }
+            refreshing = false;
+            int oldSize = size;
+            pages.clear();
+            startKeys.clear();
+            pagesByStartKey.clear();
+            loading.clear();
+            startKeys.put(0, null);
+            size = first.count();
+            store(0, first.rows());
+            beginChange();
+            if (oldSize > 0) {
+                nextRemove(0, new PlaceholderList(oldSize));
+            }
+            if (size > 0) {
+                nextAdd(0, size);
+            }
+            endChange();
+        });
+    }
+
+    /**
+     * Returns true if the row is the placeholder of a page that has not been loaded yet.
+     */
+    public boolean isPlaceholder(T row) {
+        return row == placeholder;
+    }
+
+    /**
+     * Returns the loaded row with the key, or null if the row is not in memory.
+     */
+    public T find(K key) {
+        Position position = locate(key);
+        return position.found() ? pages.get(position.page()).get(position.offset()) : null;
+    }
+
+    /**
+     * Replaces the loaded row with the same key by the given row. A row that is not in memory is read
+     * from the table when it is shown.
+     */
+    public void replace(T row) {
+        Position position = locate(loader.keyOf(row));
+        if (position.found()) {
+            T old = pages.get(position.page()).set(position.offset(), row);
+            beginChange();
+            nextSet(position.page() * pageSize + position.offset(), old);
+            endChange();
+        }
+    }
+
+    /**
+     * Adds a row that was inserted into the table at the place of its key.
+     */
+    public void insert(T row) {
+        if (refreshing) {
+            // The count being read may or may not include the row
+            refresh();
+            return;
+        }
+        Position position = locate(loader.keyOf(row));
+        if (position.found()) {
+            return;
+        }
+        int index;
+        if (position.exact()) {
+            index = position.page() * pageSize + position.offset();
+            loading.keySet().removeIf(page -> page >= position.page());
+            pages.get(position.page()).add(position.offset(), row);
+            size++;
+            int last = pushBack(position.page());
+            forget(last + 1, last + 2);
+        } else {
+            // The row lands somewhere in a page that is not loaded; that page and the ones after it are read again
+            index = Math.min(position.page() * pageSize, size);
+            size++;
+            forget(position.page(), position.page() + 1);
+        }
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+    }
+
+    /**
+     * Removes the row with the key, which was deleted from the table.
+     */
+    public void removeByKey(K key) {
+        if (refreshing) {
+            refresh();
+            return;
+        }
+        Position position = locate(key);
+        if (position.exact() && !position.found()) {
+            return;
+        }
+        int index;
+        T removed;
+        if (position.exact()) {
+            index = position.page() * pageSize + position.offset();
+            loading.keySet().removeIf(page -> page >= position.page());
+            removed = pages.get(position.page()).remove(position.offset());
+            size--;
+            int last = pullForward(position.page());
+            forget(last + 1, last + 1);
+        } else {
+            index = position.page() * pageSize;
+            if (index >= size) {
+                // The row is not listed; the count is out of date
+                refresh();
+                return;
+            }
+            removed = placeholder;
+            size--;
+            forget(position.page(), position.page() + 1);
+        }
+        beginChange();
+        nextRemove(index, removed);
+        endChange();
+    }
+
+    /**
+     * Returns the number of pages currently held in memory.
+     */
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int page = index / pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            load(page);
+            return placeholder;
+        }
+        int offset = index % pageSize;
+        if (offset < rows.size()) {
+            return rows.get(offset);
+        }
+        // The page lost a row to a removal and the row after it was not loaded
+        load(page);
+        return placeholder;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void load(int page) {
+        if (loading.containsKey(page)) {
+            return;
+        }
+        Object token = new Object();
+        loading.put(page, token);
+        int requested = generation;
+        Map.Entry<Integer, K> known = startKeys.floorEntry(page);
+        int knownPage = known.getKey();
+        K knownKey = known.getValue();
+        tasks.run(connection -> {
+            K afterKey = knownKey;
+            if (knownPage < page) {
+                // Jumped past the pages seen so far; find the start key of the page from the key index
+                afterKey = loader.findKey(connection, knownKey, (page - knownPage) * pageSize - 1);
+                if (afterKey == null) {
+                    return new Page<K, T>(0, null, new ArrayList<>());
+                }
+            }
+            return new Page<>(0, afterKey, loader.loadPage(connection, afterKey, pageSize));
+        }, fetched -> {
+            if (requested != generation || !loading.remove(page, token)) {
+                return;
+            }
+            if (fetched.afterKey() != null) {
+                putStartKey(page, fetched.afterKey());
+            }
+            store(page, fetched.rows());
+            int from = page * pageSize;
+            int to = Math.min(size, from + pageSize);
+            if (from < to) {
+                beginChange();
+                for (int i = from; i < to; i++) {
+                    nextSet(i, placeholder);
+                }
+                endChange();
+            }
+        }, failure -> {
+            loading.remove(page, token);
+            failure.printStackTrace();
+        });
+    }
+
+    private void store(int page, List<T> rows) {
+        pages.put(page, rows);
+        if (!rows.isEmpty() && rows.size() == pageSize) {
+            putStartKey(page + 1, loader.keyOf(rows.get(rows.size() - 1)));
+        }
+        // Keep a bounded number of page boundaries; drop the one farthest from the page just loaded
+        while (startKeys.size() > MAX_START_KEYS) {
+            int first = startKeys.higherKey(0);
+            int last = startKeys.lastKey();
+            removeStartKey(page - first > last - page ? first : last);
+        }
+    }
+
+    /**
+     * Finds the loaded row with the key, or the place it would be inserted at. If that depends on rows
+     * that are not loaded, returns the first page the key may belong to.
+     */
+    private Position locate(K key) {
+        Map.Entry<K, Integer> start = pagesByStartKey.lowerEntry(key);
+        int page = start == null ? 0 : start.getValue();
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            return new Position(page, 0, false, false);
+        }
+        int low = 0;
+        int high = rows.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = keyOrder.compare(loader.keyOf(rows.get(middle)), key);
+            if (comparison == 0) {
+                return new Position(page, middle, true, true);
+            } else if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (low < rows.size() || page * pageSize + rows.size() >= size) {
+            return new Position(page, low, true, false);
+        }
+        // Past the last loaded row of the page; a page that lost a row may still own the key
+        return new Position(rows.size() < pageSize ? page : page + 1, 0, false, false);
+    }
+
+    /**
+     * Moves the first row of each following loaded page back to the end of the page before, after a row
+     * was removed from the given page.
+     *
+     * @return the last page whose rows and start are still known
+     */
+    private int pullForward(int page) {
+        while (page * pageSize + pages.get(page).size() < size) {
+            List<T> next = pages.get(page + 1);
+            if (next == null || next.isEmpty()) {
+                // The page stays one row short until it is read again
+                return page;
+            }
+            List<T> rows = pages.get(page);
+            rows.add(next.remove(0));
+            putStartKey(page + 1, loader.keyOf(rows.get(rows.size() - 1)));
+            page++;
+        }
+        return page;
+    }
+
+    /**
+     * Moves the last row of each overfull page to the front of the following loaded page, after a row was
+     * inserted into the given page. A row pushed out towards a page that is not loaded is dropped.
+     *
+     * @return the last page whose rows are still known; the start of the page after it is known too
+     */
+    private int pushBack(int page) {
+        while (true) {
+            List<T> rows = pages.get(page);
+            if (rows.size() > pageSize) {
+                T overflow = rows.remove(rows.size() - 1);
+                List<T> next = pages.get(page + 1);
+                putStartKey(page + 1, loader.keyOf(rows.get(rows.size() - 1)));
+                if (next == null) {
+                    return page;
+                }
+                next.add(0, overflow);
+                page++;
+            } else {
+                if (rows.size() == pageSize) {
+                    putStartKey(page + 1, loader.keyOf(rows.get(rows.size() - 1)));
+                } else {
+                    removeStartKey(page + 1);
+                }
+                return page;
+            }
+        }
+    }
+
+    /**
+     * Drops the loaded pages from {@code fromPage} on and the start keys from {@code fromStartKey} on,
+     * whose rows moved by one place. Reads of those pages still running are ignored when they finish.
+     */
+    private void forget(int fromPage, int fromStartKey) {
+        pages.keySet().removeIf(page -> page >= fromPage);
+        loading.keySet().removeIf(page -> page >= fromPage);
+        for (int page : new ArrayList<>(startKeys.tailMap(Math.max(1, fromStartKey), true).keySet())) {
+            removeStartKey(page);
+        }
+    }
+
+    private void putStartKey(int page, K key) {
+        K old = startKeys.put(page, key);
+        if (old != null) {
+            pagesByStartKey.remove(old, page);
+        }
+        if (key != null) {
+            pagesByStartKey.put(key, page);
+        }
+    }
+
+    private void removeStartKey(int page) {
+        K old = startKeys.remove(page);
+        if (old != null) {
+            pagesByStartKey.remove(old, page);
+        }
+    }
+
+    /**
+     * Where a key is in the loaded rows, or would be inserted. Only an exact position has an offset;
+     * otherwise the page is the first one the key may belong to.
+     */
+    private record Position(int page, int offset, boolean exact, boolean found) {
+    }
+
+    /**
+     * The rows of a page read on the worker thread, with the key they start after.
+     * A refresh also reports the row count.
+     */
+    private record Page<K, T>(int count, K afterKey, List<T> rows) {
+    }
+
+    /**
+     * The removed rows of a refresh, reported as placeholders so the old pages need not be kept.
+     */
+    private final class PlaceholderList extends AbstractList<T> {
+        private final int size;
+
+        PlaceholderList(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public T get(int index) {
+            return placeholder;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -10,14 +10,23 @@ import javafx.beans.property.StringProperty;
  * The Passenger class represents a passenger with details such as
  * passenger ID, first name, last name, gender, birth date, and phone number.
  * It also includes a reference to a Boarding instance.
+ *
+ * The values are kept in an immutable {@link Row}; setters replace it. The JavaFX properties are only
+ * created when one of them is first asked for, as a table does for the rows it renders.
  */
 public class Passenger {
-    private final IntegerProperty passengerID;
-    private final StringProperty firstName;
-    private final StringProperty lastName;
-    private final StringProperty gender;
-    private final ObjectProperty<Date> birthDate;
-    private final StringProperty phoneNumber;
+
+    /**
+     * The values of a passenger.
+     */
+    public record Row(int passengerID, String firstName, String lastName, String gender, Date birthDate, String phoneNumber) {
+    }
+
+    // The row holds the values until the properties are created, and is kept afterwards, so a getter on
+    // another thread that does not see the properties yet reads an older row instead of null. The fields of
+    // Properties are final, so a thread that sees the properties sees them fully built.
+    private Row row;
+    private Properties properties;
 
     private Boarding boarding;
 
@@ -25,68 +34,89 @@ public class Passenger {
      * Constructs a new Passenger with the specified details.
      */
     public Passenger(int passengerID, String firstName, String lastName, String gender, Date birthDate, String phoneNumber) {
-        this.passengerID = new SimpleIntegerProperty(passengerID);
-        this.firstName = new SimpleStringProperty(firstName);
-        this.lastName = new SimpleStringProperty(lastName);
-        this.gender = new SimpleStringProperty(gender);
-        this.birthDate = new SimpleObjectProperty<>(birthDate);
-        this.phoneNumber = new SimpleStringProperty(phoneNumber);
+        this(new Row(passengerID, firstName, lastName, gender, birthDate, phoneNumber));
+    }
+
+    /**
+     * Constructs a passenger with the given values.
+     */
+    public Passenger(Row row) {
+        this.row = row;
+    }
+
+    /**
+     * Returns the current values of the passenger.
+     */
+    public Row toRow() {
+        Properties current = properties;
+        return current == null ? row : current.toRow();
     }
 
     /**
      * Gets the passenger ID.
      */
     public int getPassengerID() {
-        return passengerID.get();
+        Properties current = properties;
+        return current == null ? row.passengerID() : current.passengerID.get();
     }
 
     /**
      * Returns the passenger ID property.
      */
     public IntegerProperty passengerIDProperty() {
-        return passengerID;
+        return properties().passengerID;
     }
 
     /**
      * Sets the passenger ID.
      */
     public void setPassengerID(int passengerID) {
-        this.passengerID.set(passengerID);
+        if (properties == null) {
+            row = new Row(passengerID, row.firstName(), row.lastName(), row.gender(), row.birthDate(), row.phoneNumber());
+        } else {
+            properties.passengerID.set(passengerID);
+        }
     }
 
     /**
      * Gets the first name.
      */
     public String getFirstName() {
-        return firstName.get();
+        Properties current = properties;
+        return current == null ? row.firstName() : current.firstName.get();
     }
 
     /**
      * Returns the first name property.
      */
     public StringProperty firstNameProperty() {
-        return firstName;
+        return properties().firstName;
     }
 
     /**
      * Sets the first name.
      */
     public void setFirstName(String firstName) {
-        this.firstName.set(firstName);
+        if (properties == null) {
+            row = new Row(row.passengerID(), firstName, row.lastName(), row.gender(), row.birthDate(), row.phoneNumber());
+        } else {
+            properties.firstName.set(firstName);
+        }
     }
 
     /**
      * Gets the last name.
      */
     public String getLastName() {
-        return lastName.get();
+        Properties current = properties;
+        return current == null ? row.lastName() : current.lastName.get();
     }
 
     /**
      * Returns the last name property.
      */
     public StringProperty lastNameProperty() {
-        return lastName;
+        return properties().lastName;
     }
 
     /**
@@ -95,7 +125,11 @@ public class Passenger {
      * @param lastName the last name to set
      */
     public void setLastName(String lastName) {
-        this.lastName.set(lastName);
+        if (properties == null) {
+            row = new Row(row.passengerID(), row.firstName(), lastName, row.gender(), row.birthDate(), row.phoneNumber());
+        } else {
+            properties.lastName.set(lastName);
+        }
     }
 
     /**
@@ -104,7 +138,8 @@ public class Passenger {
      * @return the gender
      */
     public String getGender() {
-        return gender.get();
+        Properties current = properties;
+        return current == null ? row.gender() : current.gender.get();
     }
 
     /**
@@ -113,7 +148,7 @@ public class Passenger {
      * @return the gender property
      */
     public StringProperty genderProperty() {
-        return gender;
+        return properties().gender;
     }
 
     /**
@@ -122,7 +157,11 @@ public class Passenger {
      * @param gender the gender to set
      */
     public void setGender(String gender) {
-        this.gender.set(gender);
+        if (properties == null) {
+            row = new Row(row.passengerID(), row.firstName(), row.lastName(), gender, row.birthDate(), row.phoneNumber());
+        } else {
+            properties.gender.set(gender);
+        }
     }
 
     /**
@@ -131,21 +170,26 @@ public class Passenger {
      * @return the birth date
      */
     public Date getBirthDate() {
-        return birthDate.get();
+        Properties current = properties;
+        return current == null ? row.birthDate() : current.birthDate.get();
     }
 
     /**
      * Returns the birth date property.
      */
     public ObjectProperty<Date> birthDateProperty() {
-        return birthDate;
+        return properties().birthDate;
     }
 
     /**
      * Sets the birth date.
      */
     public void setBirthDate(Date birthDate) {
-        this.birthDate.set(birthDate);
+        if (properties == null) {
+            row = new Row(row.passengerID(), row.firstName(), row.lastName(), row.gender(), birthDate, row.phoneNumber());
+        } else {
+            properties.birthDate.set(birthDate);
+        }
     }
 
     /**
@@ -154,7 +198,8 @@ public class Passenger {
      * @return the phone number
      */
     public String getPhoneNumber() {
-        return phoneNumber.get();
+        Properties current = properties;
+        return current == null ? row.phoneNumber() : current.phoneNumber.get();
     }
 
     /**
@@ -163,7 +208,7 @@ public class Passenger {
      * @return the phone number property
      */
     public StringProperty phoneNumberProperty() {
-        return phoneNumber;
+        return properties().phoneNumber;
     }
 
     /**
@@ -172,7 +217,11 @@ public class Passenger {
      * @param phoneNumber the phone number to set
      */
     public void setPhoneNumber(String phoneNumber) {
-        this.phoneNumber.set(phoneNumber);
+        if (properties == null) {
+            row = new Row(row.passengerID(), row.firstName(), row.lastName(), row.gender(), row.birthDate(), phoneNumber);
+        } else {
+            properties.phoneNumber.set(phoneNumber);
+        }
     }
 
     /**
@@ -188,4 +237,36 @@ public class Passenger {
     public Boarding getBoarding() {
         return boarding;
     }
+
+    private Properties properties() {
+        if (properties == null) {
+            properties = new Properties(row);
+        }
+        return properties;
+    }
+
+    /**
+     * The JavaFX properties of a passenger that a table renders.
+     */
+    private static final class Properties {
+        final IntegerProperty passengerID;
+        final StringProperty firstName;
+        final StringProperty lastName;
+        final StringProperty gender;
+        final ObjectProperty<Date> birthDate;
+        final StringProperty phoneNumber;
+
+        Properties(Row row) {
+            passengerID = new SimpleIntegerProperty(row.passengerID());
+            firstName = new SimpleStringProperty(row.firstName());
+            lastName = new SimpleStringProperty(row.lastName());
+            gender = new SimpleStringProperty(row.gender());
+            birthDate = new SimpleObjectProperty<>(row.birthDate());
+            phoneNumber = new SimpleStringProperty(row.phoneNumber());
+        }
+
+        Row toRow() {
+            return new Row(passengerID.get(), firstName.get(), lastName.get(), gender.get(), birthDate.get(), phoneNumber.get());
+        }
+    }
 }
@@ -0,0 +1,202 @@
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The PassengerImporter class loads a passenger manifest from a CSV or JSON Lines file.
+ * The file is streamed in chunks, so only one chunk of rows is in memory at a time, plus the IDs and
+ * phone numbers seen so far. For each chunk, one set-based query finds the IDs and phone numbers that
+ * are already stored, and the seen-sets catch repeats within the file, instead of two COUNT queries per
+ * passenger. The accepted rows of a chunk are written with one JDBC batch in their own transaction.
+ *
+ * Columns are matched by name, ignoring case, spaces and underscores. Either the database column names
+ * (Passenger_ID, P_Name_First, P_Name_Last, Gender, Birth_Date, Phone_Number) or the names id,
+ * firstName, lastName, gender, birthDate and phone may be used. Birth dates are written as YYYY-MM-DD.
+ */
+public class PassengerImporter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    // Column sizes of the passenger table
+    private static final int MAX_NAME_LENGTH = 50;
+    private static final int MAX_GENDER_LENGTH = 10;
+    private static final int MAX_PHONE_LENGTH = 20;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Sets how many rows are checked and written together, with one query, one batch and one transaction.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns how many rows are written per batch.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Imports every row of the file. Rows that are incomplete, repeat an ID or phone number, or are refused
+     * by the database are reported and skipped; the others are written.
+     *
+     * @throws IOException if the file cannot be read or is malformed; chunks written before stay written
+     */
+    public ImportReport importFrom(Connection connection, RecordReader reader) throws SQLException, IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        Set<Integer> seenIds = new HashSet<>();
+        Set<String> seenPhones = new HashSet<>();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            List<Row> window = new ArrayList<>(chunkSize);
+            RecordReader.Record record;
+            do {
+                record = reader.next();
+                if (record != null) {
+                    Row row = parse(record);
+                    if (row.error() != null) {
+                        report.reject(row.line(), row.key(), row.error());
+                    } else if (!seenIds.add(row.passenger().getPassengerID())) {
+                        report.reject(row.line(), row.key(), "ID number appears earlier in the file");
+                    } else if (!seenPhones.add(row.passenger().getPhoneNumber())) {
+                        report.reject(row.line(), row.key(), "Phone number appears earlier in the file");
+                    } else {
+                        window.add(row);
+                    }
+                }
+                if (window.size() == chunkSize || (record == null && !window.isEmpty())) {
+                    importChunk(connection, window, report);
+                    window.clear();
+                }
+            } while (record != null);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            report.setElapsedNanos(System.nanoTime() - start);
+        }
+        return report;
+    }
+
+    private void importChunk(Connection connection, List<Row> window, ImportReport report) throws SQLException {
+        PassengerRepository passengers = new PassengerRepository(connection);
+
+        // One query for the whole chunk tells which IDs and phone numbers are taken
+        List<Integer> ids = new ArrayList<>(window.size());
+        List<String> phones = new ArrayList<>(window.size());
+        for (Row row : window) {
+            ids.add(row.passenger().getPassengerID());
+            phones.add(row.passenger().getPhoneNumber());
+        }
+        Set<Integer> takenIds = new HashSet<>();
+        Set<String> takenPhones = new HashSet<>();
+        for (PassengerRepository.Key key : passengers.findKeys(ids, phones)) {
+            takenIds.add(key.passengerId());
+            takenPhones.add(key.phoneNumber());
+        }
+
+        List<Row> accepted = new ArrayList<>(window.size());
+        for (Row row : window) {
+            if (takenPhones.contains(row.passenger().getPhoneNumber())) {
+                report.reject(row.line(), row.key(), "Phone number already exists");
+            } else if (takenIds.contains(row.passenger().getPassengerID())) {
+                report.reject(row.line(), row.key(), "ID number already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            passengers.insertBatch(accepted.stream().map(Row::passenger).toList());
+            connection.commit();
+            report.addImported(accepted.size());
+            accepted.forEach(row -> publishCreated(row.passenger()));
+        } catch (SQLException e) {
+            // Something the checks did not foresee; write the chunk row by row to find the culprits
+            connection.rollback();
+            int imported = 0;
+            List<Passenger> written = new ArrayList<>();
+            for (Row row : accepted) {
+                try {
+                    passengers.insert(row.passenger());
+                    imported++;
+                    written.add(row.passenger());
+                } catch (SQLException rowFailure) {
+                    report.reject(row.line(), row.key(), "Database error: " + rowFailure.getMessage());
+                }
+            }
+            connection.commit();
+            report.addImported(imported);
+            written.forEach(PassengerImporter::publishCreated);
+        }
+    }
+
+    private static void publishCreated(Passenger passenger) {
+        DomainEventBus.shared().publish(new DomainEventBus.PassengerChanged(DomainEventBus.Change.CREATED, passenger.getPassengerID(), passenger));
+    }
+
+    /**
+     * Turns a record into a passenger, or into the reason it is not one.
+     */
+    private static Row parse(RecordReader.Record record) {
+        String id = trim(record.get("Passenger_ID", "id", "passengerId"));
+        String firstName = trim(record.get("P_Name_First", "firstName", "name"));
+        String lastName = trim(record.get("P_Name_Last", "lastName"));
+        String gender = trim(record.get("Gender"));
+        String birthDate = trim(record.get("Birth_Date", "birthDate"));
+        String phone = trim(record.get("Phone_Number", "phone", "phoneNumber"));
+
+        if (id == null || firstName == null || lastName == null || gender == null || birthDate == null || phone == null) {
+            return new Row(record.line(), id, null,
+                    "Missing field: every row needs an ID, first name, last name, gender, birth date and phone number");
+        }
+        if (firstName.length() > MAX_NAME_LENGTH || lastName.length() > MAX_NAME_LENGTH) {
+            return new Row(record.line(), id, null, "Names may have at most 50 characters");
+        }
+        if (gender.length() > MAX_GENDER_LENGTH || phone.length() > MAX_PHONE_LENGTH) {
+            return new Row(record.line(), id, null, "Gender may have at most 10 and phone number at most 20 characters");
+        }
+        int passengerId;
+        try {
+            passengerId = Integer.parseInt(id);
+        } catch (NumberFormatException e) {
+            return new Row(record.line(), id, null, "ID number must be numeric");
+        }
+        Date birth;
+        try {
+            birth = Date.valueOf(LocalDate.parse(birthDate));
+        } catch (DateTimeParseException e) {
+            return new Row(record.line(), id, null, "Birth date must be in the format YYYY-MM-DD");
+        }
+        return new Row(record.line(), id, new Passenger(passengerId, firstName, lastName, gender, birth, phone), null);
+    }
+
+    private static String trim(String value) {
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * A parsed row: either a passenger or the reason the row was rejected.
+     */
+    private record Row(long line, String key, Passenger passenger, String error) {
+    }
+}
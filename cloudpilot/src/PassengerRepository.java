@@ -0,0 +1,326 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The PassengerRepository class owns the SQL for the passenger table and maps its rows into Passenger objects.
+ */
+public class PassengerRepository {
+    static final String SELECT_ALL = "SELECT * FROM passenger";
+    static final String SELECT_BY_ID = "SELECT * FROM passenger WHERE Passenger_ID = ?";
+    static final String COUNT_BY_ID = "SELECT COUNT(*) FROM passenger WHERE Passenger_ID = ?";
+    static final String COUNT_BY_PHONE = "SELECT COUNT(*) FROM passenger WHERE Phone_Number = ?";
+    static final String INSERT = "INSERT INTO passenger (Passenger_ID, P_Name_First, P_Name_Last, Gender, Birth_Date, Phone_Number) VALUES (?, ?, ?, ?, ?, ?)";
+    static final String UPDATE = "UPDATE passenger SET P_Name_First = ?, P_Name_Last = ?, Gender = ?, Birth_Date = ?, Phone_Number = ? WHERE Passenger_ID = ?";
+    static final String DELETE = "DELETE FROM passenger WHERE Passenger_ID = ?";
+    static final String COUNT = "SELECT COUNT(*) FROM passenger";
+    static final String SELECT_FIRST_PAGE = "SELECT * FROM passenger ORDER BY Passenger_ID LIMIT ?";
+    static final String SELECT_PAGE_AFTER = "SELECT * FROM passenger WHERE Passenger_ID > ? ORDER BY Passenger_ID LIMIT ?";
+    static final String SELECT_FIRST_ID = "SELECT Passenger_ID FROM passenger ORDER BY Passenger_ID LIMIT 1 OFFSET ?";
+    static final String SELECT_ID_AFTER = "SELECT Passenger_ID FROM passenger WHERE Passenger_ID > ? ORDER BY Passenger_ID LIMIT 1 OFFSET ?";
+    static final String SELECT_KEYS_BY_ID = "SELECT Passenger_ID, Phone_Number FROM passenger WHERE Passenger_ID IN ";
+    static final String SELECT_KEYS_BY_PHONE = "SELECT Passenger_ID, Phone_Number FROM passenger WHERE Phone_Number IN ";
+    static final String SELECT_BY_FLIGHTS_DEPARTING_BETWEEN = "SELECT DISTINCT p.* FROM passenger p "
+            + "JOIN boarding b ON b.B_Passenger_ID = p.Passenger_ID JOIN flight f ON f.Flight_number = b.B_Flight_Number "
+            + "WHERE f.F_Departure >= ? AND f.F_Departure < ?";
+    static final int IN_LIST_CHUNK = 500;
+
+    /**
+     * The unique columns of a stored passenger.
+     */
+    public record Key(int passengerId, String phoneNumber) {
+    }
+
+    // Estimated bytes of a cached Passenger and its row, entry and strings, not counting the characters of its strings
+    private static final int PASSENGER_OVERHEAD = 320;
+    private static final EntityCache<Integer, Passenger> CACHE = new EntityCache<>("Passengers",
+            EntityCache.configuredMaxWeight(), EntityCache.configuredExpireAfterMillis(),
+            PassengerRepository::estimateSize, PassengerRepository::copy);
+
+    private final Connection connection;
+
+    /**
+     * Creates a repository that runs its statements on the given connection.
+     */
+    public PassengerRepository(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Maps the current row of the result set into a Passenger.
+     */
+    public static Passenger map(ResultSet resultSet) throws SQLException {
+        return new Passenger(
+                resultSet.getInt("Passenger_ID"),
+                resultSet.getString("P_Name_First"),
+                resultSet.getString("P_Name_Last"),
+                resultSet.getString("Gender"),
+                resultSet.getDate("Birth_Date"),
+                resultSet.getString("Phone_Number")
+        );
+    }
+
+    /**
+     * Returns the cache of passengers read by ID, shared by all screens. Screens that change or delete a
+     * passenger invalidate their ID after committing.
+     */
+    public static EntityCache<Integer, Passenger> cache() {
+        return CACHE;
+    }
+
+    /**
+     * Returns all passengers.
+     */
+    public List<Passenger> findAll() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_ALL)) {
+            ResultSet resultSet = statement.executeQuery();
+            List<Passenger> passengers = new ArrayList<>();
+            while (resultSet.next()) {
+                passengers.add(map(resultSet));
+            }
+            return passengers;
+        }
+    }
+
+    /**
+     * Returns the number of passengers.
+     */
+    public int count() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(COUNT)) {
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} passengers whose ID is greater than {@code afterId}, in ID order.
+     * A null ID starts at the first passenger.
+     */
+    public List<Passenger> findPage(Integer afterId, int limit) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(afterId == null ? SELECT_FIRST_PAGE : SELECT_PAGE_AFTER)) {
+            int index = 1;
+            if (afterId != null) {
+                statement.setInt(index++, afterId);
+            }
+            statement.setInt(index, limit);
+            ResultSet resultSet = statement.executeQuery();
+            List<Passenger> passengers = new ArrayList<>();
+            while (resultSet.next()) {
+                passengers.add(map(resultSet));
+            }
+            return passengers;
+        }
+    }
+
+    /**
+     * Returns the passenger ID {@code skip} passengers after {@code afterId}, or null past the last passenger.
+     */
+    public Integer findIdAfter(Integer afterId, int skip) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(afterId == null ? SELECT_FIRST_ID : SELECT_ID_AFTER)) {
+            int index = 1;
+            if (afterId != null) {
+                statement.setInt(index++, afterId);
+            }
+            statement.setInt(index, skip);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : null;
+        }
+    }
+
+    /**
+     * Returns the loader that pages through the passengers by ID.
+     */
+    public static PagedList.Loader<Integer, Passenger> pageLoader() {
+        return new PagedList.Loader<>() {
+            @Override
+            public int count(Connection connection) throws SQLException {
+                return new PassengerRepository(connection).count();
+            }
+
+            @Override
+            public List<Passenger> loadPage(Connection connection, Integer afterKey, int limit) throws SQLException {
+                return new PassengerRepository(connection).findPage(afterKey, limit);
+            }
+
+            @Override
+            public Integer findKey(Connection connection, Integer afterKey, int skip) throws SQLException {
+                return new PassengerRepository(connection).findIdAfter(afterKey, skip);
+            }
+
+            @Override
+            public Integer keyOf(Passenger passenger) {
+                return passenger.getPassengerID();
+            }
+        };
+    }
+
+    /**
+     * Finds a passenger by ID, from the cache if they were read recently.
+     */
+    public Optional<Passenger> findById(int passengerId) throws SQLException {
+        return Optional.ofNullable(CACHE.get(passengerId, this::selectById));
+    }
+
+    private Passenger selectById(int passengerId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID)) {
+            statement.setInt(1, passengerId);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? map(resultSet) : null;
+        }
+    }
+
+    /**
+     * Returns the passengers checked in on a flight departing at or after {@code from} and before {@code to}.
+     */
+    public List<Passenger> findByFlightsDepartingBetween(LocalDateTime from, LocalDateTime to) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_FLIGHTS_DEPARTING_BETWEEN)) {
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(to));
+            ResultSet resultSet = statement.executeQuery();
+            List<Passenger> passengers = new ArrayList<>();
+            while (resultSet.next()) {
+                passengers.add(map(resultSet));
+            }
+            return passengers;
+        }
+    }
+
+    /**
+     * Checks whether a passenger with the given ID exists.
+     */
+    public boolean existsById(int passengerId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(COUNT_BY_ID)) {
+            statement.setInt(1, passengerId);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() && resultSet.getInt(1) > 0;
+        }
+    }
+
+    /**
+     * Checks whether a passenger with the given phone number exists.
+     */
+    public boolean existsByPhoneNumber(String phoneNumber) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(COUNT_BY_PHONE)) {
+            statement.setString(1, phoneNumber);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() && resultSet.getInt(1) > 0;
+        }
+    }
+
+    /**
+     * Returns the keys of the stored passengers that have one of the IDs or one of the phone numbers.
+     * The values are sent in IN-lists of at most 500 entries each, so a chunk of an import is checked
+     * with one query instead of two per row.
+     */
+    public List<Key> findKeys(List<Integer> passengerIds, List<String> phoneNumbers) throws SQLException {
+        List<Key> keys = new ArrayList<>();
+        int chunks = Math.max(passengerIds.size(), phoneNumbers.size());
+        for (int from = 0; from < chunks; from += IN_LIST_CHUNK) {
+            List<Integer> ids = passengerIds.subList(Math.min(from, passengerIds.size()), Math.min(passengerIds.size(), from + IN_LIST_CHUNK));
+            List<String> phones = phoneNumbers.subList(Math.min(from, phoneNumbers.size()), Math.min(phoneNumbers.size(), from + IN_LIST_CHUNK));
+            // A UNION rather than an OR, so each half can use its own index
+            List<String> parts = new ArrayList<>(2);
+            if (!ids.isEmpty()) {
+                parts.add(SELECT_KEYS_BY_ID + "(" + "?, ".repeat(ids.size() - 1) + "?)");
+            }
+            if (!phones.isEmpty()) {
+                parts.add(SELECT_KEYS_BY_PHONE + "(" + "?, ".repeat(phones.size() - 1) + "?)");
+            }
+            String sql = String.join(" UNION ", parts);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                int index = 1;
+                for (int id : ids) {
+                    statement.setInt(index++, id);
+                }
+                for (String phone : phones) {
+                    statement.setString(index++, phone);
+                }
+                ResultSet resultSet = statement.executeQuery();
+                while (resultSet.next()) {
+                    keys.add(new Key(resultSet.getInt(1), resultSet.getString(2)));
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Inserts a new passenger.
+     */
+    public int insert(Passenger passenger) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            statement.setInt(1, passenger.getPassengerID());
+            statement.setString(2, passenger.getFirstName());
+            statement.setString(3, passenger.getLastName());
+            statement.setString(4, passenger.getGender());
+            statement.setDate(5, passenger.getBirthDate());
+            statement.setString(6, passenger.getPhoneNumber());
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Inserts the passengers with one JDBC batch. Runs in the caller's transaction.
+     *
+     * @return the update count of each passenger
+     */
+    public int[] insertBatch(List<Passenger> passengers) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (Passenger passenger : passengers) {
+                statement.setInt(1, passenger.getPassengerID());
+                statement.setString(2, passenger.getFirstName());
+                statement.setString(3, passenger.getLastName());
+                statement.setString(4, passenger.getGender());
+                statement.setDate(5, passenger.getBirthDate());
+                statement.setString(6, passenger.getPhoneNumber());
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        }
+    }
+
+    /**
+     * Updates the details of an existing passenger.
+     */
+    public int update(Passenger passenger) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+            statement.setString(1, passenger.getFirstName());
+            statement.setString(2, passenger.getLastName());
+            statement.setString(3, passenger.getGender());
+            statement.setDate(4, passenger.getBirthDate());
+            statement.setString(5, passenger.getPhoneNumber());
+            statement.setInt(6, passenger.getPassengerID());
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Deletes a passenger. Their boardings and services must be deleted first.
+     */
+    public int delete(int passengerId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(DELETE)) {
+            statement.setInt(1, passengerId);
+            return statement.executeUpdate();
+        }
+    }
+
+    private static Passenger copy(Passenger passenger) {
+        // Rows are immutable, so the copy may share it
+        return new Passenger(passenger.toRow());
+    }
+
+    private static int estimateSize(Passenger passenger) {
+        return PASSENGER_OVERHEAD + 2 * (length(passenger.getFirstName()) + length(passenger.getLastName())
+                + length(passenger.getGender()) + length(passenger.getPhoneNumber()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,233 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * The QueryMetrics class collects, per logical query, how long the database took to run it, how many
+ * rows it returned or changed, and how long the caller then spent reading and mapping the rows. The
+ * statements of the {@link InstrumentedDataSource} report here.
+ *
+ * A logical query is one SQL text with its literals and the length of its IN and VALUES lists ignored;
+ * the queries behind the screens' main actions, such as the flight search and the check-in insert, carry
+ * a readable name. Latencies are kept in {@link LatencyHistogram}s, so percentiles stay accurate for
+ * the whole life of the application in constant memory. All methods are thread-safe.
+ */
+public class QueryMetrics {
+
+    /**
+     * What is known about one logical query. Times are in milliseconds; mapping is the time from the
+     * query returning until its result set was read to the end or closed.
+     */
+    public record Summary(String name, String sql, long executions, long errors, long rows, double meanMillis,
+            double p50Millis, double p99Millis, double p999Millis, double maxMillis, double mappingMeanMillis,
+            double mappingP99Millis) {
+
+        /**
+         * Returns the total database time of the query, in milliseconds.
+         */
+        public double totalMillis() {
+            return meanMillis * executions;
+        }
+    }
+
+    private static final QueryMetrics SHARED = new QueryMetrics();
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)(\\s*,\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\))*");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(\\.\\d+)?(?![\\w.])");
+    private static final Map<String, String> NAMES = new HashMap<>();
+
+    static {
+        name(EmployeeRepository.SELECT_ID_BY_LOGIN, "Login");
+        name(FlightRepository.SELECT_BY_NUMBERS + "(?)", "Flight search");
+        name(FlightRepository.SEARCH, "Flight search (LIKE)");
+        name(FlightRepository.SELECT_SEARCH_FIELDS, "Flight search index load");
+        name(FlightRepository.SELECT_SCHEDULE, "Gate schedule load");
+        name(FlightRepository.SELECT_BY_NUMBER, "Flight by number");
+        name(PassengerRepository.SELECT_BY_ID, "Passenger by ID");
+        name(BoardingRepository.SELECT_SEATS_BY_FLIGHT, "Seat status");
+        name(BoardingRepository.INSERT, "Check-in insert");
+        name(BoardingRepository.SELECT_BY_PASSENGER_WITH_SERVICES, "Boardings of passenger");
+        name(ServicesRepository.UPSERT, "Services upsert");
+        name(ServicesRepository.SELECT_BY_BOARDING, "Services of boarding");
+        name(BoardingIdAllocator.SELECT_FOR_UPDATE, "Boarding ID block");
+        name(BoardingIdAllocator.ADVANCE, "Boarding ID block advance");
+    }
+
+    private final Map<String, Query> queries = new ConcurrentHashMap<>();
+
+    /**
+     * The counters of one logical query.
+     */
+    static final class Query {
+        private final String name;
+        private final String sql;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram mapping = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        Query(String name, String sql) {
+            this.name = name;
+            this.sql = sql;
+        }
+
+        String name() {
+            return name;
+        }
+
+        /**
+         * Returns the normalized SQL of the query.
+         */
+        String sql() {
+            return sql;
+        }
+
+        /**
+         * Returns true if the query has a readable name rather than its SQL.
+         */
+        boolean isNamed() {
+            return !name.equals(sql);
+        }
+
+        /**
+         * Records one run of the statement, successful or not.
+         */
+        void executed(long nanos, boolean failed) {
+            latency.record(nanos);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        /**
+         * Records the rows a result set returned, or an update changed, and the time spent reading them.
+         */
+        void read(long rowCount, long mappingNanos) {
+            rows.add(rowCount);
+            mapping.record(mappingNanos);
+        }
+
+        /**
+         * Records the rows an update changed.
+         */
+        void changed(long rowCount) {
+            rows.add(rowCount);
+        }
+
+        Summary summary() {
+            return new Summary(name, sql, latency.count(), errors.sum(), rows.sum(), latency.mean() / 1e6,
+                    latency.percentile(50) / 1e6, latency.percentile(99) / 1e6, latency.percentile(99.9) / 1e6,
+                    latency.max() / 1e6, mapping.mean() / 1e6, mapping.percentile(99) / 1e6);
+        }
+    }
+
+    /**
+     * Returns the metrics shared by the whole application.
+     */
+    public static QueryMetrics shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the counters of the logical query the SQL belongs to, creating them on first use.
+     */
+    Query query(String sql) {
+        String normalized = normalize(sql);
+        return queries.computeIfAbsent(normalized, key -> new Query(NAMES.getOrDefault(key, key), key));
+    }
+
+    /**
+     * Returns a summary of every query run so far, the one with the most database time first.
+     */
+    public List<Summary> summaries() {
+        return queries.values().stream()
+                .map(Query::summary)
+                .sorted(Comparator.comparingDouble(Summary::totalMillis).reversed())
+                .toList();
+    }
+
+    /**
+     * Forgets all counters.
+     */
+    public void reset() {
+        queries.clear();
+    }
+
+    /**
+     * Writes the summaries as a plain-text table, followed by the given extra lines.
+     */
+    public void writeReport(Writer writer, List<String> extraLines) {
+        PrintWriter out = new PrintWriter(writer);
+        out.printf("CloudPilot query report, %s%n%n", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        out.printf("%-28s %9s %6s %10s %9s %9s %9s %9s %9s %10s %10s%n", "Query", "Runs", "Errors", "Rows",
+                "Mean ms", "p50 ms", "p99 ms", "p99.9 ms", "Max ms", "Map ms", "Map p99 ms");
+        for (Summary summary : summaries()) {
+            out.printf("%-28s %9d %6d %10d %9.3f %9.3f %9.3f %9.3f %9.3f %10.3f %10.3f%n", abbreviate(summary.name(), 28),
+                    summary.executions(), summary.errors(), summary.rows(), summary.meanMillis(), summary.p50Millis(),
+                    summary.p99Millis(), summary.p999Millis(), summary.maxMillis(), summary.mappingMeanMillis(),
+                    summary.mappingP99Millis());
+        }
+        out.println();
+        for (Summary summary : summaries()) {
+            if (!summary.name().equals(summary.sql())) {
+                out.printf("%s: %s%n", summary.name(), summary.sql());
+            }
+        }
+        if (!extraLines.isEmpty()) {
+            out.println();
+            extraLines.forEach(out::println);
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns the report written by {@link #writeReport} as text.
+     */
+    public String report(List<String> extraLines) {
+        StringWriter text = new StringWriter();
+        writeReport(text, extraLines);
+        return text.toString();
+    }
+
+    /**
+     * Writes the report to a file, replacing it.
+     */
+    public void dump(Path file, List<String> extraLines) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeReport(writer, extraLines);
+        }
+    }
+
+    /**
+     * Returns the SQL with whitespace collapsed, literals replaced by ? and lists of parameters, such as
+     * an IN list or the rows of a multi-row INSERT, shortened to one.
+     */
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized.trim()).replaceAll(" ");
+        return PARAMETER_LIST.matcher(normalized).replaceAll("(...)");
+    }
+
+    private static void name(String sql, String name) {
+        NAMES.put(normalize(sql), name);
+    }
+
+    private static String abbreviate(String text, int length) {
+        return text.length() <= length ? text : text.substring(0, length - 3) + "...";
+    }
+}
@@ -0,0 +1,378 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The RecordReader class streams flat records out of an import file, one at a time, so a file of any
+ * size is read in constant memory. Two formats are understood:
+ * <ul>
+ * <li>CSV with a header row. Fields may be quoted with double quotes; a quoted field may contain commas,
+ * line breaks and doubled quotes.</li>
+ * <li>JSON, either one top-level array of objects or one object per line (JSON Lines). Objects must be
+ * flat; values may be strings, numbers, booleans or null.</li>
+ * </ul>
+ * Every record maps its field names to the text of the values. Empty CSV fields and JSON nulls are absent.
+ */
+public abstract class RecordReader implements Closeable {
+
+    /**
+     * One record of the file.
+     *
+     * @param line the line the record starts on, counting from 1
+     * @param fields the values by field name, in file order
+     */
+    public record Record(long line, Map<String, String> fields) {
+
+        /**
+         * Returns the first value present under any of the names, ignoring case, spaces and underscores,
+         * or null if none is.
+         */
+        public String get(String... names) {
+            for (String name : names) {
+                for (Map.Entry<String, String> field : fields.entrySet()) {
+                    if (normalize(field.getKey()).equals(normalize(name))) {
+                        return field.getValue();
+                    }
+                }
+            }
+            return null;
+        }
+
+        private static String normalize(String name) {
+            return name.replace("_", "").replace(" ", "").toLowerCase(Locale.ROOT);
+        }
+    }
+
+    protected final Reader in;
+    private long line = 1;
+    private int pushedBack = -1;
+
+    protected RecordReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Opens a file, choosing the format by its extension: .json, .jsonl and .ndjson are read as JSON,
+     * anything else as CSV. The file must be UTF-8.
+     */
+    public static RecordReader open(Path file) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return new Json(reader);
+        }
+        return new Csv(reader);
+    }
+
+    /**
+     * Returns a reader for CSV text with a header row.
+     */
+    public static RecordReader csv(Reader reader) {
+        return new Csv(reader);
+    }
+
+    /**
+     * Returns a reader for a JSON array of objects or for JSON Lines.
+     */
+    public static RecordReader json(Reader reader) {
+        return new Json(reader);
+    }
+
+    /**
+     * Returns the next record, or null at the end of the file.
+     *
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public abstract Record next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Returns the line the reader is on.
+     */
+    protected long line() {
+        return line;
+    }
+
+    protected int read() throws IOException {
+        int c;
+        if (pushedBack >= 0) {
+            c = pushedBack;
+            pushedBack = -1;
+        } else {
+            c = in.read();
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    protected void unread(int c) {
+        if (c == '\n') {
+            line--;
+        }
+        pushedBack = c;
+    }
+
+    protected IOException malformed(String message) {
+        return new IOException("Line " + line + ": " + message);
+    }
+
+    /**
+     * Reads CSV with a header row.
+     */
+    private static final class Csv extends RecordReader {
+        private List<String> header;
+
+        Csv(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public Record next() throws IOException {
+            if (header == null) {
+                header = readRow();
+                if (header == null) {
+                    return null;
+                }
+                if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+                    header.set(0, header.get(0).substring(1));
+                }
+            }
+            List<String> row;
+            long start;
+            do {
+                start = line();
+                row = readRow();
+                if (row == null) {
+                    return null;
+                }
+            } while (row.size() == 1 && row.get(0).isEmpty()); // Skip blank lines
+            if (row.size() > header.size()) {
+                throw malformed("expected " + header.size() + " fields but found " + row.size());
+            }
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < row.size(); i++) {
+                if (!row.get(i).isEmpty()) {
+                    fields.put(header.get(i).trim(), row.get(i));
+                }
+            }
+            return new Record(start, fields);
+        }
+
+        /**
+         * Reads the fields of one row, or returns null at the end of the file.
+         */
+        private List<String> readRow() throws IOException {
+            int c = read();
+            if (c < 0) {
+                return null;
+            }
+            List<String> row = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c < 0) {
+                        throw malformed("unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        int following = read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = following;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c < 0 || c == '\n') {
+                    row.add(field.toString());
+                    return row;
+                } else if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                    row.add(field.toString());
+                    return row;
+                } else if (c == ',') {
+                    row.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+    }
+
+    /**
+     * Reads flat JSON objects from a top-level array or from JSON Lines.
+     */
+    private static final class Json extends RecordReader {
+        private boolean started;
+        private boolean inArray;
+
+        Json(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public Record next() throws IOException {
+            int c = skipWhitespace();
+            if (!started) {
+                started = true;
+                if (c == '\uFEFF') {
+                    c = skipWhitespace();
+                }
+                if (c == '[') {
+                    inArray = true;
+                    c = skipWhitespace();
+                    if (c == ']') {
+                        return null;
+                    }
+                }
+            } else if (inArray) {
+                if (c == ']') {
+                    return null;
+                }
+                if (c != ',') {
+                    throw malformed("expected ',' or ']' between objects");
+                }
+                c = skipWhitespace();
+            }
+            if (c < 0) {
+                if (inArray) {
+                    throw malformed("unterminated array");
+                }
+                return null;
+            }
+            if (c != '{') {
+                throw malformed("expected an object");
+            }
+            long start = line();
+            return new Record(start, readObject());
+        }
+
+        private Map<String, String> readObject() throws IOException {
+            Map<String, String> fields = new LinkedHashMap<>();
+            int c = skipWhitespace();
+            if (c == '}') {
+                return fields;
+            }
+            while (true) {
+                if (c != '"') {
+                    throw malformed("expected a field name");
+                }
+                String name = readString();
+                if (skipWhitespace() != ':') {
+                    throw malformed("expected ':' after field name");
+                }
+                String value = readValue();
+                if (value != null) {
+                    fields.put(name, value);
+                }
+                c = skipWhitespace();
+                if (c == '}') {
+                    return fields;
+                }
+                if (c != ',') {
+                    throw malformed("expected ',' or '}' in object");
+                }
+                c = skipWhitespace();
+            }
+        }
+
+        /**
+         * Reads a scalar value as text; null stands for JSON null.
+         */
+        private String readValue() throws IOException {
+            int c = skipWhitespace();
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '{' || c == '[') {
+                throw malformed("nested values are not supported");
+            }
+            StringBuilder literal = new StringBuilder();
+            while (c >= 0 && c != ',' && c != '}' && !Character.isWhitespace(c)) {
+                literal.append((char) c);
+                c = read();
+            }
+            unread(c);
+            String text = literal.toString();
+            if (text.isEmpty()) {
+                throw malformed("expected a value");
+            }
+            return text.equals("null") ? null : text;
+        }
+
+        private String readString() throws IOException {
+            StringBuilder text = new StringBuilder();
+            while (true) {
+                int c = read();
+                if (c < 0) {
+                    throw malformed("unterminated string");
+                }
+                if (c == '"') {
+                    return text.toString();
+                }
+                if (c != '\\') {
+                    text.append((char) c);
+                    continue;
+                }
+                int escaped = read();
+                switch (escaped) {
+                    case 'n' -> text.append('\n');
+                    case 't' -> text.append('\t');
+                    case 'r' -> text.append('\r');
+                    case 'b' -> text.append('\b');
+                    case 'f' -> text.append('\f');
+                    case 'u' -> {
+                        char[] hex = new char[4];
+                        for (int i = 0; i < 4; i++) {
+                            int h = read();
+                            if (h < 0) {
+                                throw malformed("unterminated escape");
+                            }
+                            hex[i] = (char) h;
+                        }
+                        try {
+                            text.append((char) Integer.parseInt(new String(hex), 16));
+                        } catch (NumberFormatException e) {
+                            throw malformed("bad unicode escape");
+                        }
+                    }
+                    case '"', '\\', '/' -> text.append((char) escaped);
+                    default -> throw malformed("bad escape");
+                }
+            }
+        }
+
+        private int skipWhitespace() throws IOException {
+            int c = read();
+            while (c >= 0 && Character.isWhitespace(c)) {
+                c = read();
+            }
+            return c;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
+import javafx.scene.Node;
+import javafx.scene.control.ProgressIndicator;
+import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+
+/**
+ * The ScreenTasks class tracks the database tasks started by one screen.
+ * It shows the screen's progress indicator while any task is running, lets a new search
+ * replace the one still in flight, and cancels everything when the screen's window closes.
+ * It also holds the screen's subscriptions to the {@link DomainEventBus}, which end with the window.
+ * A cancelled task's result is discarded, but its thread is not interrupted: the statement it is running
+ * finishes and its connection goes back to the pool intact, where an interrupt would close the socket.
+ * All methods must be called on the JavaFX Application Thread.
+ */
+public class ScreenTasks {
+    private final Set<Task<?>> running = new LinkedHashSet<>();
+    private final Map<String, Task<?>> latest = new HashMap<>();
+    private final List<DomainEventBus.Subscription> subscriptions = new ArrayList<>();
+    private ProgressIndicator progressIndicator;
+    private Window window;
+
+    /**
+     * Shows the given indicator while tasks are running. May be null for screens without one.
+     */
+    public void setProgressIndicator(ProgressIndicator progressIndicator) {
+        this.progressIndicator = progressIndicator;
+        updateProgress();
+    }
+
+    /**
+     * Cancels the screen's tasks and subscriptions when the window containing the node is closed.
+     */
+    public void cancelWhenClosed(Node node) {
+        node.sceneProperty().addListener((sceneObservable, oldScene, scene) -> {
+            if (scene != null) {
+                scene.windowProperty().addListener((windowObservable, oldWindow, newWindow) -> watch(newWindow));
+                watch(scene.getWindow());
+            }
+        });
+        if (node.getScene() != null) {
+            node.getScene().windowProperty().addListener((windowObservable, oldWindow, newWindow) -> watch(newWindow));
+            watch(node.getScene().getWindow());
+        }
+    }
+
+    /**
+     * Calls the handler on the FX thread for every event of the type until the screen's window closes.
+     */
+    public <E extends DomainEventBus.Event> void subscribe(Class<E> type, Consumer<? super E> handler) {
+        subscriptions.add(DomainEventBus.shared().subscribe(type, handler));
+    }
+
+    /**
+     * Runs the database work in the background and hands the result to {@code onSuccess} on the FX thread.
+     * Failures are printed.
+     */
+    public <T> Task<T> run(DataAccess.SqlWork<T> work, Consumer<T> onSuccess) {
+        return run(work, onSuccess, Throwable::printStackTrace);
+    }
+
+    /**
+     * Runs the database work in the background. Exactly one of the callbacks is called on the FX thread,
+     * unless the task is cancelled first.
+     */
+    public <T> Task<T> run(DataAccess.SqlWork<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        return start(DataAccess.task(work), onSuccess, onFailure);
+    }
+
+    /**
+     * Like {@link #run(DataAccess.SqlWork, Consumer, Consumer)}, but answers from {@code offlineWork} while the
+     * database cannot be reached. See {@link DataAccess#task(DataAccess.SqlWork, Callable)}.
+     */
+    public <T> Task<T> run(DataAccess.SqlWork<T> work, Callable<T> offlineWork, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        return start(DataAccess.task(work, offlineWork), onSuccess, onFailure);
+    }
+
+    /**
+     * Like {@link #run(DataAccess.SqlWork, Consumer)}, but first cancels the previous task started under the
+     * same key. Used for searches, so only the result of the latest input is shown.
+     */
+    public <T> Task<T> runLatest(String key, DataAccess.SqlWork<T> work, Consumer<T> onSuccess) {
+        Task<?> previous = latest.remove(key);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        Task<T> task = run(work, onSuccess);
+        latest.put(key, task);
+        return task;
+    }
+
+    /**
+     * Like {@link #runLatest(String, DataAccess.SqlWork, Consumer)}, but answers from {@code offlineWork} while
+     * the database cannot be reached.
+     */
+    public <T> Task<T> runLatest(String key, DataAccess.SqlWork<T> work, Callable<T> offlineWork, Consumer<T> onSuccess) {
+        cancel(key);
+        Task<T> task = start(DataAccess.task(work, offlineWork), onSuccess, Throwable::printStackTrace);
+        latest.put(key, task);
+        return task;
+    }
+
+    /**
+     * Cancels the task last started under the key, if it is still running.
+     */
+    public void cancel(String key) {
+        Task<?> task = latest.remove(key);
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    /**
+     * Cancels every task of the screen.
+     */
+    public void cancelAll() {
+        for (Task<?> task : Set.copyOf(running)) {
+            task.cancel(false);
+        }
+        running.clear();
+        latest.clear();
+        updateProgress();
+    }
+
+    private <T> Task<T> start(Task<T> task, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        running.add(task);
+        task.stateProperty().addListener((observable, oldState, state) -> {
+            if (state == Worker.State.SUCCEEDED || state == Worker.State.FAILED || state == Worker.State.CANCELLED) {
+                running.remove(task);
+                latest.values().remove(task);
+                updateProgress();
+            }
+        });
+        task.setOnSucceeded(event -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(event -> onFailure.accept(task.getException()));
+        updateProgress();
+        return DataAccess.execute(task);
+    }
+
+    private void watch(Window newWindow) {
+        if (newWindow != null && newWindow != window) {
+            window = newWindow;
+            newWindow.addEventHandler(WindowEvent.WINDOW_HIDDEN, event -> {
+                cancelAll();
+                subscriptions.forEach(DomainEventBus.Subscription::cancel);
+                subscriptions.clear();
+            });
+        }
+    }
+
+    private void updateProgress() {
+        if (progressIndicator != null) {
+            progressIndicator.setVisible(!running.isEmpty());
+        }
+    }
+}
@@ -0,0 +1,254 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The SeatAssigner class picks seats for a party so that they sit together.
+ * It works on the flight's {@link SeatMap}: the seats with the same number form a seat row across the
+ * cabin, and their letters run from one window to the other. Each seat row is turned into a bit mask of
+ * its free letters, so a candidate block is checked with a few mask operations.
+ *
+ * Candidate blocks are bands of neighbouring letters over one to four consecutive seat rows, filled row
+ * by row. A block costs more for every extra group it falls apart into, every extra seat row it spans and
+ * every aisle it crosses, and less for every seat matching the preference. The cheapest block wins; ties
+ * go to the front of the cabin. If no block fits, the first free seats are given instead. An assigner is
+ * immutable and thread-safe.
+ */
+public class SeatAssigner {
+
+    /**
+     * The kind of seat the party would like.
+     */
+    public enum Preference {
+        NONE,
+        WINDOW,
+        AISLE
+    }
+
+    private static final int MAX_ROW_SPAN = 4;
+    private static final long SPLIT_COST = 1000;
+    private static final long ROW_COST = 300;
+    private static final long AISLE_COST = 100;
+    private static final long PREFERRED_BONUS = 50;
+
+    private final int[] aislesAfter;
+
+    /**
+     * Creates an assigner for a cabin whose aisles run after the given numbers of letters:
+     * {@code new SeatAssigner(2)} for A B | C D, {@code new SeatAssigner(3, 7)} for a 3-4-3 wide body.
+     */
+    public SeatAssigner(int... aislesAfter) {
+        this.aislesAfter = aislesAfter.clone();
+    }
+
+    /**
+     * Returns the labels of {@code count} free seats for the party, or an empty list if fewer seats are free.
+     */
+    public List<String> assign(SeatMap seats, int count, Preference preference) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        int letters = seats.rows();
+        int seatRows = seats.columns();
+        if (letters > 63) {
+            throw new IllegalArgumentException("At most 63 seats across are supported");
+        }
+
+        // One mask of free letters per seat row
+        long[] free = new long[seatRows];
+        int freeSeats = 0;
+        for (int row = 0; row < seatRows; row++) {
+            for (int letter = 0; letter < letters; letter++) {
+                if (!seats.isOccupied(letter * seatRows + row)) {
+                    free[row] |= 1L << letter;
+                }
+            }
+            freeSeats += Long.bitCount(free[row]);
+        }
+        if (freeSeats < count) {
+            return List.of();
+        }
+
+        long aisleMask = 0; // Bit i: an aisle runs between letter i and letter i + 1
+        long aisleSeats = 0;
+        for (int after : aislesAfter) {
+            if (after > 0 && after < letters) {
+                aisleMask |= 1L << (after - 1);
+                aisleSeats |= 3L << (after - 1);
+            }
+        }
+        long preferred = switch (preference) {
+            case WINDOW -> 1L | 1L << (letters - 1);
+            case AISLE -> aisleSeats;
+            case NONE -> 0;
+        };
+
+        int maxSpan = Math.min(seatRows, Math.min(MAX_ROW_SPAN, (count + 1) / 2 + 1));
+        // No block can cost less than this; the search stops as soon as one does
+        long lowest = Long.MAX_VALUE;
+        for (int span = 1; span <= maxSpan; span++) {
+            lowest = Math.min(lowest, ROW_COST * (span - 1) - PREFERRED_BONUS * Math.min(count, (long) span * Long.bitCount(preferred)));
+        }
+
+        Search search = new Search(aisleMask, preferred, seatRows);
+        search:
+        for (int span = 1; span <= maxSpan && !search.foundTogether(); span++) {
+            for (int first = 0; first + span <= seatRows; first++) {
+                long anyFree = 0;
+                for (int j = 0; j < span; j++) {
+                    anyFree |= free[first + j];
+                }
+                for (int from = 0; from < letters; from++) {
+                    // A band whose edge letter has no free seat in these rows picks what the narrower band picks
+                    if ((anyFree & 1L << from) == 0) {
+                        continue;
+                    }
+                    for (int to = Math.max(from + 1, from + (count + span - 1) / span); to <= letters; to++) {
+                        if ((anyFree & 1L << (to - 1)) != 0) {
+                            search.tryBand(free, first, span, ((1L << (to - from)) - 1) << from, count);
+                            if (search.bestCost <= lowest) {
+                                break search;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (search.bestCost == Long.MAX_VALUE) {
+            // Nothing fits within a few rows; fill the first free seats from the front
+            search.take(free, 0, seatRows, -1L, count);
+            search.keep(0, seatRows, Long.MAX_VALUE, 0);
+        }
+
+        List<String> labels = new ArrayList<>(count);
+        for (int j = 0; j < search.bestSpan; j++) {
+            for (long bits = search.best[j]; bits != 0; bits &= bits - 1) {
+                int letter = Long.numberOfTrailingZeros(bits);
+                labels.add(seats.labelOf(letter * seatRows + search.bestFirst + j));
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * The best block found so far and the scratch space for scoring candidates.
+     */
+    private static final class Search {
+        final long aisleMask;
+        final long preferred;
+        final long[] pick;
+        final long[] rest;
+        final long[] component;
+        final long[] best;
+        long bestCost = Long.MAX_VALUE;
+        int bestFirst;
+        int bestSpan;
+        int bestComponents;
+
+        Search(long aisleMask, long preferred, int seatRows) {
+            this.aisleMask = aisleMask;
+            this.preferred = preferred;
+            this.pick = new long[seatRows];
+            this.rest = new long[seatRows];
+            this.component = new long[seatRows];
+            this.best = new long[seatRows];
+        }
+
+        boolean foundTogether() {
+            return bestCost != Long.MAX_VALUE && bestComponents == 1;
+        }
+
+        void tryBand(long[] free, int first, int span, long band, int count) {
+            if (!take(free, first, span, band, count) || (span > 1 && pick[span - 1] == 0)) {
+                // Not enough seats, or the last row is unused and the block was already tried with fewer rows
+                return;
+            }
+            int components = components(span);
+            long cost = SPLIT_COST * (components - 1);
+            int rowsUsed = 0;
+            for (int j = 0; j < span; j++) {
+                long row = pick[j];
+                if (row != 0) {
+                    rowsUsed++;
+                    cost += AISLE_COST * Long.bitCount(row & (row >>> 1) & aisleMask) - PREFERRED_BONUS * Long.bitCount(row & preferred);
+                }
+            }
+            cost += ROW_COST * (rowsUsed - 1);
+            if (cost < bestCost) {
+                keep(first, span, cost, components);
+            }
+        }
+
+        /**
+         * Takes {@code count} free seats within the band, row by row and letter by letter.
+         *
+         * @return false if the band holds fewer free seats
+         */
+        boolean take(long[] free, int first, int span, long band, int count) {
+            int needed = count;
+            for (int j = 0; j < span; j++) {
+                long available = free[first + j] & band;
+                long taken = 0;
+                if (Long.bitCount(available) <= needed) {
+                    taken = available;
+                } else {
+                    for (int i = 0; i < needed; i++) {
+                        long lowest = available & -available;
+                        taken |= lowest;
+                        available ^= lowest;
+                    }
+                }
+                pick[j] = taken;
+                needed -= Long.bitCount(taken);
+            }
+            return needed == 0;
+        }
+
+        void keep(int first, int span, long cost, int components) {
+            System.arraycopy(pick, 0, best, 0, span);
+            bestFirst = first;
+            bestSpan = span;
+            bestCost = cost;
+            bestComponents = components;
+        }
+
+        /**
+         * Counts the groups the picked seats fall into. Seats are together when they are side by side in a
+         * seat row, across an aisle included, or one behind the other in neighbouring seat rows.
+         */
+        int components(int span) {
+            System.arraycopy(pick, 0, rest, 0, span);
+            int count = 0;
+            for (int start = 0; start < span; start++) {
+                while (rest[start] != 0) {
+                    count++;
+                    Arrays.fill(component, 0, span, 0);
+                    component[start] = rest[start] & -rest[start];
+                    boolean grown = true;
+                    while (grown) {
+                        grown = false;
+                        for (int j = 0; j < span; j++) {
+                            long current = component[j];
+                            long next = current | (current << 1) | (current >>> 1);
+                            if (j > 0) {
+                                next |= component[j - 1];
+                            }
+                            if (j + 1 < span) {
+                                next |= component[j + 1];
+                            }
+                            next &= rest[j];
+                            if (next != current) {
+                                component[j] = next;
+                                grown = true;
+                            }
+                        }
+                    }
+                    for (int j = 0; j < span; j++) {
+                        rest[j] &= ~component[j];
+                    }
+                }
+            }
+            return count;
+        }
+    }
+}
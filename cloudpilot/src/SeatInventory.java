@@ -0,0 +1,251 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The SeatInventory class checks passengers in with one atomic seat claim.
+ * The database is the source of truth: the unique constraints on (B_Flight_Number, Seat_Number) and
+ * (B_Passenger_ID, B_Flight_Number) make the INSERT itself fail when the seat is taken or the passenger
+ * has already checked in, so two desks can never both book a seat, and a check-in is one round-trip.
+ * See db/001_boarding_unique_seat.sql.
+ *
+ * In front of the database, the seats of each flight live in their own concurrent map, so desks working
+ * different flights never contend. A seat is claimed with a compare-and-set before the INSERT: a second
+ * desk of this application trying the same seat is turned away at once instead of racing to the database,
+ * and seats known to be taken are rejected without a round-trip. The seat map of the check-in screen
+ * resynchronizes a flight whenever it is loaded.
+ */
+public class SeatInventory {
+
+    /**
+     * The result of a check-in attempt.
+     */
+    public enum Outcome {
+        CLAIMED,
+        SEAT_TAKEN,
+        ALREADY_CHECKED_IN
+    }
+
+    static final String SEAT_CONSTRAINT = "uq_boarding_flight_seat";
+    static final String PASSENGER_CONSTRAINT = "uq_boarding_passenger_flight";
+
+    private static final SeatInventory SHARED = new SeatInventory();
+
+    private final ConcurrentMap<String, FlightSeats> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the inventory shared by all check-in screens.
+     */
+    public static SeatInventory shared() {
+        return SHARED;
+    }
+
+    /**
+     * Checks the passenger in on the seat under the given boarding ID, or reports why not. Runs one INSERT
+     * in the caller's transaction; no round-trip at all when the seat is already known to be taken.
+     */
+    public Outcome checkIn(Connection connection, int boardingId, int passengerId, String flightNumber, String seatNumber,
+            Timestamp departure, Timestamp arrival) throws SQLException {
+        FlightSeats seats = flights.computeIfAbsent(flightNumber, key -> new FlightSeats());
+        if (!seats.pendingPassengers.add(passengerId)) {
+            // Another desk is checking the same passenger in on this flight right now
+            return Outcome.ALREADY_CHECKED_IN;
+        }
+        try {
+            if (seats.states.putIfAbsent(seatNumber, SeatState.PENDING) != null) {
+                return Outcome.SEAT_TAKEN;
+            }
+            boolean claimed = false;
+            try {
+                new BoardingRepository(connection).insert(boardingId, passengerId, flightNumber, seatNumber, departure, arrival);
+                claimed = true;
+                return Outcome.CLAIMED;
+            } catch (SQLException e) {
+                if (!isUniqueViolation(e)) {
+                    throw e;
+                }
+                if (isSeatConflict(connection, e, flightNumber, List.of(seatNumber))) {
+                    claimed = true;
+                    return Outcome.SEAT_TAKEN;
+                }
+                return Outcome.ALREADY_CHECKED_IN;
+            } finally {
+                if (claimed) {
+                    seats.states.put(seatNumber, SeatState.TAKEN);
+                } else {
+                    seats.states.remove(seatNumber, SeatState.PENDING);
+                }
+            }
+        } finally {
+            seats.pendingPassengers.remove(passengerId);
+        }
+    }
+
+    /**
+     * Checks a whole group in on one flight, or nobody. The i-th passenger gets the i-th boarding ID and
+     * seat. All seats are claimed in memory first, then the boardings are written with one JDBC batch in
+     * one transaction, which the unique constraints roll back as a whole if any seat or passenger clashes.
+     */
+    public Outcome checkInGroup(Connection connection, List<Integer> boardingIds, List<Integer> passengerIds, String flightNumber,
+            List<String> seatNumbers, Timestamp departure, Timestamp arrival) throws SQLException {
+        FlightSeats seats = flights.computeIfAbsent(flightNumber, key -> new FlightSeats());
+        List<Integer> pendingPassengers = new ArrayList<>(passengerIds.size());
+        List<String> pendingSeats = new ArrayList<>(seatNumbers.size());
+        boolean claimed = false;
+        try {
+            for (int passengerId : passengerIds) {
+                if (!seats.pendingPassengers.add(passengerId)) {
+                    return Outcome.ALREADY_CHECKED_IN;
+                }
+                pendingPassengers.add(passengerId);
+            }
+            for (String seatNumber : seatNumbers) {
+                if (seats.states.putIfAbsent(seatNumber, SeatState.PENDING) != null) {
+                    return Outcome.SEAT_TAKEN;
+                }
+                pendingSeats.add(seatNumber);
+            }
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                new BoardingRepository(connection).insertBatch(boardingIds, passengerIds, flightNumber, seatNumbers, departure, arrival);
+                connection.commit();
+                claimed = true;
+                return Outcome.CLAIMED;
+            } catch (SQLException e) {
+                connection.rollback();
+                if (!isUniqueViolation(e)) {
+                    throw e;
+                }
+                return isSeatConflict(connection, e, flightNumber, seatNumbers) ? Outcome.SEAT_TAKEN : Outcome.ALREADY_CHECKED_IN;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } finally {
+            for (String seatNumber : pendingSeats) {
+                if (claimed) {
+                    seats.states.put(seatNumber, SeatState.TAKEN);
+                } else {
+                    seats.states.remove(seatNumber, SeatState.PENDING);
+                }
+            }
+            seats.pendingPassengers.removeAll(pendingPassengers);
+        }
+    }
+
+    /**
+     * Replaces what the inventory knows about the flight's taken seats with the occupied seats just read
+     * from the database. Claims still in progress are kept.
+     */
+    public void sync(String flightNumber, Collection<String> occupiedSeats) {
+        FlightSeats seats = flights.computeIfAbsent(flightNumber, key -> new FlightSeats());
+        Set<String> occupied = new HashSet<>(occupiedSeats);
+        seats.states.entrySet().removeIf(entry -> entry.getValue() == SeatState.TAKEN && !occupied.contains(entry.getKey()));
+        for (String seat : occupied) {
+            seats.states.put(seat, SeatState.TAKEN);
+        }
+    }
+
+    /**
+     * Forgets the taken seats of a flight after its boardings were deleted or moved.
+     */
+    public void forget(String flightNumber) {
+        FlightSeats seats = flights.get(flightNumber);
+        if (seats != null) {
+            seats.states.values().removeIf(state -> state == SeatState.TAKEN);
+        }
+    }
+
+    /**
+     * Forgets the taken seats of every flight, e.g. after a passenger and their boardings were deleted.
+     */
+    public void forgetAll() {
+        for (String flightNumber : flights.keySet()) {
+            forget(flightNumber);
+        }
+    }
+
+    /**
+     * Returns true if the seat is known to be taken or is being claimed right now.
+     */
+    public boolean isTaken(String flightNumber, String seatNumber) {
+        FlightSeats seats = flights.get(flightNumber);
+        return seats != null && seats.states.containsKey(seatNumber);
+    }
+
+    /**
+     * Returns true if the exception, or one chained to it, reports a unique constraint violation.
+     * A failed batch may wrap the driver's original exception.
+     */
+    private static boolean isUniqueViolation(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException) {
+                if (sqlException.getSQLState() != null && sqlException.getSQLState().startsWith("23")) {
+                    return true;
+                }
+                if (sqlException.getNextException() != null && isUniqueViolation(sqlException.getNextException())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells the two unique constraints apart by name. Falls back to asking the database if the driver's
+     * message does not name the constraint.
+     */
+    private static boolean isSeatConflict(Connection connection, SQLException e, String flightNumber, List<String> seatNumbers)
+            throws SQLException {
+        String message = messages(e).toLowerCase(Locale.ROOT);
+        if (message.contains(SEAT_CONSTRAINT)) {
+            return true;
+        }
+        if (message.contains(PASSENGER_CONSTRAINT)) {
+            return false;
+        }
+        BoardingRepository boardings = new BoardingRepository(connection);
+        for (String seatNumber : seatNumbers) {
+            if (boardings.existsForSeat(flightNumber, seatNumber)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String messages(SQLException e) {
+        StringBuilder text = new StringBuilder();
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            text.append(cause.getMessage()).append('\n');
+            if (cause instanceof SQLException sqlException && sqlException.getNextException() != null) {
+                text.append(sqlException.getNextException().getMessage()).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    private enum SeatState {
+        PENDING,
+        TAKEN
+    }
+
+    /**
+     * The seat claims of one flight.
+     */
+    private static final class FlightSeats {
+        final ConcurrentMap<String, SeatState> states = new ConcurrentHashMap<>();
+        final Set<Integer> pendingPassengers = ConcurrentHashMap.newKeySet();
+    }
+}
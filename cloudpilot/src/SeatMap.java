@@ -0,0 +1,161 @@
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * The SeatMap class records which seats of a flight are occupied, one bit per seat.
+ * Seats are labelled by column number and row letter, like "2C", and bit {@code row * columns + column}
+ * stands for the seat. Comparing two maps tells exactly which seats changed, so the seat grid only
+ * re-styles those buttons.
+ */
+public class SeatMap {
+    private final int rows;
+    private final int columns;
+    private final BitSet occupied;
+
+    /**
+     * Creates an empty map for a cabin of {@code rows} lettered rows and {@code columns} numbered columns.
+     */
+    public SeatMap(int rows, int columns) {
+        this(rows, columns, new BitSet(rows * columns));
+    }
+
+    private SeatMap(int rows, int columns, BitSet occupied) {
+        this.rows = rows;
+        this.columns = columns;
+        this.occupied = occupied;
+    }
+
+    /**
+     * Creates a map with the given seats occupied. Labels outside the cabin are ignored.
+     */
+    public static SeatMap of(int rows, int columns, Collection<String> occupiedSeats) {
+        SeatMap map = new SeatMap(rows, columns);
+        for (String seat : occupiedSeats) {
+            map.occupy(seat);
+        }
+        return map;
+    }
+
+    /**
+     * Returns the bit index of a seat label, or -1 if the label is not a seat of this cabin.
+     */
+    public int indexOf(String seat) {
+        if (seat == null || seat.length() < 2) {
+            return -1;
+        }
+        char letter = Character.toUpperCase(seat.charAt(seat.length() - 1));
+        int column;
+        try {
+            column = Integer.parseInt(seat.substring(0, seat.length() - 1)) - 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        int row = letter - 'A';
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            return -1;
+        }
+        return row * columns + column;
+    }
+
+    /**
+     * Returns the seat label of a bit index.
+     */
+    public String labelOf(int index) {
+        return (index % columns + 1) + String.valueOf((char) ('A' + index / columns));
+    }
+
+    /**
+     * Returns the number of lettered rows.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of numbered columns.
+     */
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * Returns the number of seats in the cabin.
+     */
+    public int capacity() {
+        return rows * columns;
+    }
+
+    /**
+     * Returns true if the seat is occupied.
+     */
+    public boolean isOccupied(String seat) {
+        int index = indexOf(seat);
+        return index >= 0 && occupied.get(index);
+    }
+
+    /**
+     * Returns true if the seat at the bit index is occupied.
+     */
+    public boolean isOccupied(int index) {
+        return occupied.get(index);
+    }
+
+    /**
+     * Marks the seat occupied.
+     *
+     * @return true if the seat was free before
+     */
+    public boolean occupy(String seat) {
+        int index = indexOf(seat);
+        if (index < 0 || occupied.get(index)) {
+            return false;
+        }
+        occupied.set(index);
+        return true;
+    }
+
+    /**
+     * Marks the seat free.
+     *
+     * @return true if the seat was occupied before
+     */
+    public boolean release(String seat) {
+        int index = indexOf(seat);
+        if (index < 0 || !occupied.get(index)) {
+            return false;
+        }
+        occupied.clear(index);
+        return true;
+    }
+
+    /**
+     * Returns the bit index of the first free seat at or after {@code fromIndex}, or -1 if there is none.
+     */
+    public int nextFree(int fromIndex) {
+        int index = occupied.nextClearBit(fromIndex);
+        return index < capacity() ? index : -1;
+    }
+
+    /**
+     * Returns the number of occupied seats.
+     */
+    public int occupiedCount() {
+        return occupied.cardinality();
+    }
+
+    /**
+     * Returns the bit indexes of the seats whose state differs between the two maps.
+     */
+    public BitSet changedFrom(SeatMap other) {
+        BitSet changed = (BitSet) occupied.clone();
+        changed.xor(other.occupied);
+        return changed;
+    }
+
+    /**
+     * Returns an independent copy of the map.
+     */
+    public SeatMap copy() {
+        return new SeatMap(rows, columns, (BitSet) occupied.clone());
+    }
+}
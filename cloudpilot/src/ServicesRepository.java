@@ -0,0 +1,109 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * The ServicesRepository class owns the SQL for the services table. Service rows are mapped into the
+ * service fields of a Boarding.
+ */
+public class ServicesRepository {
+    static final String SELECT_BY_BOARDING = "SELECT * FROM services WHERE Boarding_ID = ?";
+    static final String UPSERT = "INSERT INTO services (Boarding_ID, Extra_Drink, Extra_Meal, Suit_Center, Extra_Luggage, Service_Description) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE Extra_Drink = VALUES(Extra_Drink), Extra_Meal = VALUES(Extra_Meal), Suit_Center = VALUES(Suit_Center), Extra_Luggage = VALUES(Extra_Luggage), Service_Description = VALUES(Service_Description)";
+    static final String DELETE_BY_BOARDING = "DELETE FROM services WHERE Boarding_ID = ?";
+
+    private final Connection connection;
+
+    /**
+     * Creates a repository that runs its statements on the given connection.
+     */
+    public ServicesRepository(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Copies the service columns of the current row into the boarding.
+     */
+    public static void map(ResultSet resultSet, Boarding boarding) throws SQLException {
+        boarding.setServices(resultSet.getBoolean("Extra_Drink"), resultSet.getBoolean("Extra_Meal"), resultSet.getBoolean("Suit_Center"),
+                resultSet.getInt("Extra_Luggage"), resultSet.getString("Service_Description"));
+    }
+
+    /**
+     * Copies the service fields of one boarding into another.
+     */
+    public static void copy(Boarding from, Boarding to) {
+        to.setServices(from.isExtraDrink(), from.isExtraMeal(), from.isSuitCenter(), from.getExtraLuggage(), from.getServiceDescription());
+    }
+
+    /**
+     * Resets the service fields of the boarding to "no services booked".
+     */
+    public static void clear(Boarding boarding) {
+        boarding.setServices(false, false, false, 0, "");
+    }
+
+    /**
+     * Loads the services booked for the boarding into it.
+     *
+     * @return true if a services row exists for the boarding
+     */
+    public boolean loadInto(Boarding boarding) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_BOARDING)) {
+            statement.setInt(1, boarding.getBoardingID());
+            ResultSet resultSet = statement.executeQuery();
+            if (resultSet.next()) {
+                map(resultSet, boarding);
+                return true;
+            }
+            clear(boarding);
+            return false;
+        }
+    }
+
+    /**
+     * Inserts or replaces the services row of the boarding.
+     */
+    public int upsert(Boarding boarding) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+            bindUpsert(statement, boarding);
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Inserts or replaces the services rows of the boardings with one JDBC batch. Runs in the caller's transaction.
+     *
+     * @return the update count of each boarding
+     */
+    public int[] upsertBatch(List<Boarding> boardings) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+            for (Boarding boarding : boardings) {
+                bindUpsert(statement, boarding);
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        }
+    }
+
+    /**
+     * Deletes the services row of the boarding.
+     */
+    public int deleteByBoardingId(int boardingId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(DELETE_BY_BOARDING)) {
+            statement.setInt(1, boardingId);
+            return statement.executeUpdate();
+        }
+    }
+
+    private static void bindUpsert(PreparedStatement statement, Boarding boarding) throws SQLException {
+        statement.setInt(1, boarding.getBoardingID());
+        statement.setBoolean(2, boarding.isExtraDrink());
+        statement.setBoolean(3, boarding.isExtraMeal());
+        statement.setBoolean(4, boarding.isSuitCenter());
+        statement.setInt(5, boarding.getExtraLuggage());
+        statement.setString(6, boarding.getServiceDescription());
+    }
+}
@@ -0,0 +1,273 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The ServicesWriteBehind class buffers services saves and writes them to the database in batches.
+ * Saves to the same boarding are coalesced, so an agent toggling a drink, a meal and the luggage of one
+ * passenger costs one row in the next batch rather than three statements. A batch is written as one JDBC
+ * batch of upserts in one transaction, {@code cloudpilot.services.flushMillis} after the first save
+ * buffered (300 by default), or at once when {@code cloudpilot.services.flushEntries} boardings are
+ * waiting (50 by default).
+ *
+ * Durability: a save that {@link #submit} accepted is only in memory until its batch commits; the
+ * returned future completes when it has, or completes exceptionally if the database refused the save.
+ * A batch the database refuses is written again one row at a time, so a row it cannot take, such as a
+ * description longer than the column, only fails its own save.
+ * Leaving the services screen and exiting the application call {@link #flush}, which writes the buffer
+ * before returning. A batch that finds the database unreachable is moved to the offline log of
+ * {@link OfflineMode}, which makes it durable on disk, and its futures complete normally.
+ */
+public class ServicesWriteBehind {
+
+    /**
+     * How many saves were buffered, how many of them replaced a save still waiting, and how many batches
+     * and rows were written.
+     */
+    public record Stats(long submitted, long coalesced, long flushes, long rowsWritten, long rowsQueuedOffline) {
+    }
+
+    private static final long FLUSH_MILLIS = Long.getLong("cloudpilot.services.flushMillis", 300);
+    private static final int FLUSH_ENTRIES = Integer.getInteger("cloudpilot.services.flushEntries", 50);
+
+    private static ServicesWriteBehind shared;
+
+    private final long flushMillis;
+    private final int flushEntries;
+    private final ReentrantLock bufferLock = new ReentrantLock();
+    // Only one batch is written at a time, so saves reach the database in the order they were flushed
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "services-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Map<Integer, Pending> buffer = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    private long submitted;
+    private long coalesced;
+    private long flushes;
+    private long rowsWritten;
+    private long rowsQueuedOffline;
+
+    /**
+     * A buffered save and the future of everyone who submitted it.
+     */
+    private record Pending(Boarding services, CompletableFuture<Void> written) {
+    }
+
+    /**
+     * Creates a buffer that writes after {@code flushMillis} or once {@code flushEntries} boardings are waiting.
+     */
+    public ServicesWriteBehind(long flushMillis, int flushEntries) {
+        this.flushMillis = flushMillis;
+        this.flushEntries = flushEntries;
+    }
+
+    /**
+     * Returns the buffer shared by all screens.
+     */
+    public static synchronized ServicesWriteBehind shared() {
+        if (shared == null) {
+            shared = new ServicesWriteBehind(FLUSH_MILLIS, FLUSH_ENTRIES);
+        }
+        return shared;
+    }
+
+    /**
+     * Buffers the services of the boarding, replacing a save of the same boarding still waiting. The
+     * future completes once the save, or a later one of the same boarding, is written.
+     */
+    public CompletableFuture<Void> submit(Boarding services) {
+        Boarding copy = new Boarding(services.toRow());
+        boolean flushNow;
+        CompletableFuture<Void> written;
+        bufferLock.lock();
+        try {
+            submitted++;
+            Pending previous = buffer.get(copy.getBoardingID());
+            if (previous != null) {
+                coalesced++;
+                written = previous.written();
+            } else {
+                written = new CompletableFuture<>();
+            }
+            buffer.put(copy.getBoardingID(), new Pending(copy, written));
+            flushNow = buffer.size() >= flushEntries;
+            if (!flushNow && !flushScheduled) {
+                flushScheduled = true;
+                timer.schedule(this::flushQuietly, flushMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            bufferLock.unlock();
+        }
+        if (flushNow) {
+            timer.execute(this::flushQuietly);
+        }
+        return written;
+    }
+
+    /**
+     * Returns a copy of the services still waiting to be written for the boarding, if any. Lets a screen
+     * show what was saved before it reaches the database.
+     */
+    public Optional<Boarding> findPending(int boardingId) {
+        bufferLock.lock();
+        try {
+            Pending pending = buffer.get(boardingId);
+            return pending == null ? Optional.empty() : Optional.of(new Boarding(pending.services().toRow()));
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    /**
+     * Writes everything buffered and returns once it is committed or queued offline.
+     *
+     * @throws SQLException if the database refused a save of the batch; only the refused saves are dropped
+     */
+    public void flush() throws SQLException {
+        flushLock.lock();
+        try {
+            Map<Integer, Pending> batch;
+            bufferLock.lock();
+            try {
+                batch = buffer;
+                buffer = new LinkedHashMap<>();
+                flushScheduled = false;
+                if (!batch.isEmpty()) {
+                    flushes++;
+                }
+            } finally {
+                bufferLock.unlock();
+            }
+            if (!batch.isEmpty()) {
+                write(new ArrayList<>(batch.values()));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the counters so far.
+     */
+    public Stats stats() {
+        bufferLock.lock();
+        try {
+            return new Stats(submitted, coalesced, flushes, rowsWritten, rowsQueuedOffline);
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    private void write(List<Pending> batch) throws SQLException {
+        List<Pending> unwritten = batch;
+        SQLException refused = null;
+        if (!OfflineMode.shared().isOffline()) {
+            try (Connection connection = Database.getConnection()) {
+                try {
+                    upsert(connection, batch);
+                    unwritten = List.of();
+                } catch (SQLException e) {
+                    if (OfflineMode.isConnectionFailure(e)) {
+                        throw e;
+                    }
+                    // One row the database refuses fails the whole JDBC batch; write them one by one so only its save fails
+                    unwritten = new ArrayList<>(batch);
+                    while (!unwritten.isEmpty()) {
+                        Pending pending = unwritten.get(0);
+                        try {
+                            upsert(connection, List.of(pending));
+                        } catch (SQLException rowFailure) {
+                            if (OfflineMode.isConnectionFailure(rowFailure)) {
+                                throw rowFailure;
+                            }
+                            pending.written().completeExceptionally(rowFailure);
+                            if (refused == null) {
+                                refused = rowFailure;
+                            }
+                        }
+                        unwritten.remove(0);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!OfflineMode.isConnectionFailure(e)) {
+                    unwritten.forEach(pending -> pending.written().completeExceptionally(e));
+                    throw e;
+                }
+                OfflineMode.shared().goOffline(e);
+            }
+        }
+        if (!unwritten.isEmpty()) {
+            queueOffline(unwritten);
+        }
+        if (refused != null) {
+            throw refused;
+        }
+    }
+
+    /**
+     * Writes the saves in one transaction, then publishes them and completes their futures.
+     */
+    private void upsert(Connection connection, List<Pending> saves) throws SQLException {
+        List<Boarding> rows = saves.stream().map(Pending::services).toList();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            new ServicesRepository(connection).upsertBatch(rows);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        counted(rows.size(), 0);
+        rows.forEach(row -> DomainEventBus.shared().publish(new DomainEventBus.ServicesUpdated(row)));
+        saves.forEach(pending -> pending.written().complete(null));
+    }
+
+    private void queueOffline(List<Pending> batch) {
+        for (Pending pending : batch) {
+            try {
+                OfflineMode.shared().enqueue(OfflineWrite.SaveServices.of(pending.services()));
+                OfflineMode.shared().snapshot().putServices(pending.services());
+                pending.written().complete(null);
+            } catch (Exception e) {
+                pending.written().completeExceptionally(e);
+            }
+        }
+        counted(0, batch.size());
+    }
+
+    private void counted(int written, int queuedOffline) {
+        bufferLock.lock();
+        try {
+            rowsWritten += written;
+            rowsQueuedOffline += queuedOffline;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException e) {
+            // The futures of the batch carry the failure to the screens
+            e.printStackTrace();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,375 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The SlowQueryLog class writes the individual statements that took longer than a threshold to a text
+ * file: when they ran, how long the database took, the rows they returned or changed, the SQL with its
+ * bind values and the controller method that issued them. The statements of the
+ * {@link InstrumentedDataSource} report here.
+ *
+ * The threshold is {@code cloudpilot.slowQuery.thresholdMillis} (default 500; negative turns the log
+ * off) and applies to the time the database took to run the statement, not to reading its rows. Of the
+ * slow statements, the share given by {@code cloudpilot.slowQuery.sampleRate} (default 1) is written, to
+ * {@code cloudpilot.slowQuery.file} (default slow-queries.log in ~/.cloudpilot). Bind values of the
+ * columns in {@code cloudpilot.slowQuery.maskedColumns} (default Password) are written as ***.
+ *
+ * A statement below the threshold costs one comparison: its bind values are only kept as references to
+ * the arguments the statement proxy receives anyway, and the call site is looked up only once the
+ * statement turned out slow. The file is written on a background thread; if it falls more than
+ * {@value #MAX_PENDING} entries behind, further entries are dropped and counted.
+ */
+public class SlowQueryLog {
+
+    /**
+     * One slow statement. The name is null for queries without one; the rows and the read time are -1 until known.
+     */
+    public record Entry(LocalDateTime at, String name, String sql, List<String> binds, int batchSize, long executeNanos,
+            long rows, long readNanos, boolean failed, String callSite, String thread) {
+
+        /**
+         * Returns the entry with the rows the statement returned or changed and the time it took to read them.
+         */
+        public Entry withResult(long rows, long readNanos) {
+            return new Entry(at, name, sql, binds, batchSize, executeNanos, rows, readNanos, failed, callSite, thread);
+        }
+
+        /**
+         * Returns the entry as it is written to the file.
+         */
+        public String format() {
+            StringBuilder text = new StringBuilder();
+            text.append(at.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                    .append(String.format(Locale.ROOT, " %.1f ms", executeNanos / 1e6));
+            if (failed) {
+                text.append(" FAILED");
+            }
+            if (rows >= 0) {
+                text.append(", ").append(rows).append(rows == 1 ? " row" : " rows");
+            }
+            if (readNanos >= 0) {
+                text.append(String.format(Locale.ROOT, ", read in %.1f ms", readNanos / 1e6));
+            }
+            if (name != null) {
+                text.append(" [").append(name).append(']');
+            }
+            text.append(' ').append(callSite).append(" on ").append(thread)
+                    .append(System.lineSeparator()).append("  ").append(sql).append(System.lineSeparator());
+            if (!binds.isEmpty()) {
+                text.append("  binds");
+                if (batchSize > 1) {
+                    text.append(" (last of a batch of ").append(batchSize).append(')');
+                }
+                text.append(": ").append(String.join(", ", binds)).append(System.lineSeparator());
+            }
+            return text.toString();
+        }
+    }
+
+    static final int MAX_PENDING = 1000;
+
+    private static final long THRESHOLD_MILLIS = Long.getLong("cloudpilot.slowQuery.thresholdMillis", 500);
+    private static final double SAMPLE_RATE = Double.parseDouble(System.getProperty("cloudpilot.slowQuery.sampleRate", "1"));
+    private static final Path FILE = Path.of(System.getProperty("cloudpilot.slowQuery.file",
+            Path.of(System.getProperty("user.home"), ".cloudpilot", "slow-queries.log").toString()));
+    private static final String MASKED_COLUMNS = System.getProperty("cloudpilot.slowQuery.maskedColumns", "Password");
+    private static final int MAX_BIND_LENGTH = 200;
+    private static final Pattern PARAMETER_OR_LITERAL = Pattern.compile("'(?:[^']|'')*'|\\?");
+    private static final Pattern INSERT_COLUMNS = Pattern.compile("(?is)^\\s*(?:INSERT|REPLACE)\\s+INTO\\s+\\S+\\s*\\(([^)]*)\\)\\s*VALUES\\s*");
+    private static final Set<String> INFRASTRUCTURE = Set.of("SlowQueryLog", "InstrumentedDataSource", "ConnectionPool",
+            "StatementCache", "DataAccess", "ScreenTasks");
+
+    private static SlowQueryLog shared;
+
+    private final Path file;
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final Pattern maskedComparison;
+    private final Set<String> maskedColumns;
+    // The bind positions to mask, per SQL text; only filled for statements that were slow
+    private final Map<String, BitSet> maskedPositions = new ConcurrentHashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slow-query-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private BufferedWriter out;
+
+    /**
+     * Creates a log that writes to the file the share {@code sampleRate} of the statements that took at
+     * least {@code thresholdMillis}, masking the bind values of the columns. A negative threshold writes nothing.
+     */
+    public SlowQueryLog(Path file, long thresholdMillis, double sampleRate, Set<String> maskedColumns) {
+        this.file = file;
+        this.thresholdNanos = thresholdMillis < 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sampleRate = sampleRate;
+        this.maskedColumns = maskedColumns.stream().map(column -> column.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        String columns = maskedColumns.stream().map(Pattern::quote).collect(Collectors.joining("|"));
+        this.maskedComparison = Pattern.compile("(?i)\\b(?:" + (columns.isEmpty() ? "(?!)" : columns)
+                + ")\\s*(?:=|<>|!=|LIKE)\\s*$");
+    }
+
+    /**
+     * Returns the log shared by the whole application.
+     */
+    public static synchronized SlowQueryLog shared() {
+        if (shared == null) {
+            Set<String> columns = Arrays.stream(MASKED_COLUMNS.split(","))
+                    .map(String::trim)
+                    .filter(column -> !column.isEmpty())
+                    .collect(Collectors.toSet());
+            shared = new SlowQueryLog(FILE, THRESHOLD_MILLIS, SAMPLE_RATE, columns);
+        }
+        return shared;
+    }
+
+    /**
+     * Returns true if any statement can be slow enough to be written; if not, bind values need not be kept.
+     */
+    public boolean isEnabled() {
+        return thresholdNanos != Long.MAX_VALUE && sampleRate > 0;
+    }
+
+    /**
+     * Returns true if a statement that ran this long is slow.
+     */
+    public boolean isSlow(long executeNanos) {
+        return executeNanos >= thresholdNanos;
+    }
+
+    /**
+     * Starts the entry of a slow statement, or returns nothing if it is not sampled. Must be called on
+     * the thread that ran the statement, right after it ran, so the call site can be found. {@code binds}
+     * holds the bind value of parameter i at index i - 1 and is copied.
+     */
+    Optional<Entry> capture(String name, String sql, Object[] binds, int bindCount, int batchSize, long executeNanos, boolean failed) {
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return Optional.empty();
+        }
+        BitSet masked = maskedPositions.computeIfAbsent(sql, this::maskedPositions);
+        List<String> values = new ArrayList<>(bindCount);
+        for (int i = 0; i < bindCount; i++) {
+            values.add((i + 1) + "=" + (masked.get(i) ? "***" : describe(binds[i])));
+        }
+        return Optional.of(new Entry(LocalDateTime.now(), name, maskLiterals(sql), values, batchSize, executeNanos,
+                -1, -1, failed, callSite(), Thread.currentThread().getName()));
+    }
+
+    /**
+     * Queues the entry to be written. Returns false if the writer is too far behind and the entry was dropped.
+     */
+    public boolean write(Entry entry) {
+        if (pending.incrementAndGet() > MAX_PENDING) {
+            pending.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        try {
+            writer.execute(() -> {
+                try {
+                    append(entry);
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            // Shut down
+            pending.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Returns how many entries were written to the file and how many were dropped because the writer fell behind.
+     */
+    public String stats() {
+        return String.format("%d written, %d dropped, %d waiting, threshold %s to %s", written.sum(), dropped.sum(), pending.get(),
+                isEnabled() ? TimeUnit.NANOSECONDS.toMillis(thresholdNanos) + " ms" : "off", file);
+    }
+
+    /**
+     * Writes the entries still queued and closes the file.
+     */
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("The slow query log did not finish writing");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Runs on the writer thread.
+     */
+    private void append(Entry entry) {
+        try {
+            if (out == null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            out.write(entry.format());
+            out.flush();
+            written.increment();
+        } catch (IOException e) {
+            dropped.increment();
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns the bind positions, from 0, that compare with or are inserted into a masked column.
+     */
+    private BitSet maskedPositions(String sql) {
+        BitSet masked = new BitSet();
+        List<String> insertColumns = List.of();
+        int valuesStart = -1;
+        Matcher insert = INSERT_COLUMNS.matcher(sql);
+        if (insert.find()) {
+            insertColumns = Arrays.stream(insert.group(1).split(","))
+                    .map(column -> column.trim().replace("`", "").toLowerCase(Locale.ROOT))
+                    .toList();
+            valuesStart = insert.end();
+        }
+        Matcher parameters = PARAMETER_OR_LITERAL.matcher(sql);
+        int position = 0;
+        int valuesPosition = 0;
+        while (parameters.find()) {
+            if (!parameters.group().equals("?")) {
+                continue;
+            }
+            if (valuesStart >= 0 && parameters.start() >= valuesStart && !insertColumns.isEmpty()) {
+                // Every row of a multi-row VALUES list repeats the columns
+                String column = insertColumns.get(valuesPosition++ % insertColumns.size());
+                if (maskedColumns.contains(column)) {
+                    masked.set(position);
+                }
+            } else if (maskedComparison.matcher(sql.substring(Math.max(0, parameters.start() - 100), parameters.start())).find()) {
+                masked.set(position);
+            }
+            position++;
+        }
+        return masked;
+    }
+
+    /**
+     * Masks literals compared with a masked column in SQL that does not use bind parameters.
+     */
+    private String maskLiterals(String sql) {
+        if (sql.indexOf('\'') < 0) {
+            return sql;
+        }
+        StringBuilder masked = new StringBuilder();
+        Matcher literals = PARAMETER_OR_LITERAL.matcher(sql);
+        int last = 0;
+        while (literals.find()) {
+            if (literals.group().startsWith("'") && maskedComparison.matcher(sql.substring(Math.max(0, literals.start() - 100), literals.start())).find()) {
+                masked.append(sql, last, literals.start()).append("'***'");
+                last = literals.end();
+            }
+        }
+        return masked.append(sql, last, sql.length()).toString();
+    }
+
+    /**
+     * Returns the controller method that issued the statement, and the first method outside the data access
+     * code if that is a different one, such as "FlightsController.searchFlight:112 via FlightRepository.search:140".
+     */
+    private static String callSite() {
+        return StackWalker.getInstance().walk(frames -> {
+            StackWalker.StackFrame caller = null;
+            StackWalker.StackFrame controller = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String className = frame.getClassName();
+                int nested = className.indexOf('$');
+                String outer = nested < 0 ? className : className.substring(0, nested);
+                if (className.startsWith("java.") || className.startsWith("jdk.") || className.startsWith("javafx.")
+                        || className.startsWith("com.sun.") || INFRASTRUCTURE.contains(outer)) {
+                    continue;
+                }
+                if (caller == null) {
+                    caller = frame;
+                }
+                if (outer.endsWith("Controller")) {
+                    controller = frame;
+                    break;
+                }
+            }
+            if (caller == null) {
+                return "unknown";
+            } else if (controller == null || controller == caller) {
+                return location(caller);
+            }
+            return location(controller) + " via " + location(caller);
+        });
+    }
+
+    private static String location(StackWalker.StackFrame frame) {
+        String className = frame.getClassName();
+        int nested = className.indexOf('$');
+        String method = frame.getMethodName();
+        // Screens run their database work in lambdas, named like lambda$searchFlight$3
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', 7);
+            method = method.substring(7, end < 0 ? method.length() : end);
+        }
+        return (nested < 0 ? className : className.substring(0, nested)) + "." + method + ":" + frame.getLineNumber();
+    }
+
+    private static String describe(Object value) {
+        String text;
+        if (value == null) {
+            return "NULL";
+        } else if (value instanceof String string) {
+            text = "'" + string.replace("'", "''") + "'";
+        } else if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        } else if (value instanceof InputStream || value instanceof Reader || value instanceof Blob || value instanceof Clob) {
+            return "<" + value.getClass().getSimpleName() + ">";
+        } else {
+            text = value.toString();
+        }
+        return text.length() <= MAX_BIND_LENGTH ? text : text.substring(0, MAX_BIND_LENGTH) + "...";
+    }
+}
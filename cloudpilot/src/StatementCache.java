@@ -0,0 +1,283 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The StatementCache class keeps the prepared statements of one physical connection in a bounded LRU map,
+ * so a SQL string is parsed and prepared once per connection instead of once per action.
+ * Closing a cached statement only clears its parameters and batch, restores the limits and fetch settings it
+ * was prepared with if the borrower changed them, and hands it back to the cache. Result sets report the
+ * borrower's statement, so closing theirs returns it to the cache as well.
+ * A cache belongs to a single pooled connection and is only used by the thread that borrowed it.
+ */
+public class StatementCache {
+
+    // The statement settings a borrower may change, which the next borrower must not inherit
+    private static final Set<String> SETTERS = Set.of("setMaxRows", "setLargeMaxRows", "setFetchSize", "setQueryTimeout", "setFetchDirection");
+
+    private final int maxSize;
+    private final Map<String, Entry> entries;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache that keeps at most {@code maxSize} statements open.
+     */
+    public StatementCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns a prepared statement for the SQL, reusing the cached one when it is free.
+     * If the cached statement is already in use, a fresh uncached statement is prepared instead; it is
+     * closed for real when the borrower closes it.
+     *
+     * @param owner the connection handle the statement should report as its connection
+     * @param onClose called with the returned statement when the borrower closes it
+     */
+    public PreparedStatement prepare(Connection physical, Connection owner, String sql, Consumer<? super PreparedStatement> onClose) throws SQLException {
+        Entry entry = entries.get(sql);
+        if (entry == null) {
+            misses++;
+            entry = new Entry(physical.prepareStatement(sql));
+            entries.put(sql, entry);
+        } else if (entry.inUse) {
+            misses++;
+            entry = new Entry(physical.prepareStatement(sql));
+            entry.evicted = true;
+        } else {
+            hits++;
+        }
+        entry.inUse = true;
+        return entry.lease(owner, onClose);
+    }
+
+    /**
+     * Returns the number of cached statements.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns how many prepares were served from the cache.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns how many prepares had to go to the driver.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Closes every cached statement. Called before the physical connection is closed.
+     */
+    public void clear() {
+        for (Entry entry : entries.values()) {
+            entry.evict();
+        }
+        entries.clear();
+    }
+
+    /**
+     * A cached statement and its lease state.
+     */
+    private static final class Entry {
+        private final PreparedStatement statement;
+        private final int maxRows;
+        private final int fetchSize;
+        private final int queryTimeout;
+        private final int fetchDirection;
+        private boolean inUse;
+        private boolean evicted;
+
+        Entry(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.maxRows = statement.getMaxRows();
+            this.fetchSize = statement.getFetchSize();
+            this.queryTimeout = statement.getQueryTimeout();
+            this.fetchDirection = statement.getFetchDirection();
+        }
+
+        PreparedStatement lease(Connection owner, Consumer<? super PreparedStatement> onClose) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, new Lease(this, owner, onClose));
+        }
+
+        /**
+         * Called when the borrower closes the statement.
+         */
+        void release(ResultSet lastResult, boolean settingsChanged) {
+            inUse = false;
+            try {
+                if (lastResult != null) {
+                    lastResult.close();
+                }
+                if (evicted) {
+                    statement.close();
+                } else {
+                    statement.clearParameters();
+                    statement.clearBatch();
+                    if (settingsChanged) {
+                        statement.setMaxRows(maxRows);
+                        statement.setFetchSize(fetchSize);
+                        statement.setQueryTimeout(queryTimeout);
+                        statement.setFetchDirection(fetchDirection);
+                    }
+                }
+            } catch (SQLException e) {
+                evicted = true;
+                closeQuietly();
+            }
+        }
+
+        /**
+         * Called when the entry leaves the cache. A statement still in use is closed when it is released.
+         */
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // Nothing left to release
+            }
+        }
+    }
+
+    /**
+     * The statement handed to one borrower. Closing it returns the statement to the cache.
+     */
+    private static final class Lease implements InvocationHandler {
+        private final Entry entry;
+        private final Connection owner;
+        private final Consumer<? super PreparedStatement> onClose;
+        private ResultSet lastResult;
+        private boolean settingsChanged;
+        private boolean closed;
+
+        Lease(Entry entry, Connection owner, Consumer<? super PreparedStatement> onClose) {
+            this.entry = entry;
+            this.owner = owner;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        entry.release(lastResult, settingsChanged);
+                        onClose.accept((PreparedStatement) proxy);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    return invokeStatement(method, args);
+                default:
+                    if (SETTERS.contains(method.getName())) {
+                        settingsChanged = true;
+                    }
+                    Object result = invokeStatement(method, args);
+                    if (result instanceof ResultSet resultSet) {
+                        lastResult = resultSet;
+                        return ResultOf.wrap(resultSet, (PreparedStatement) proxy);
+                    }
+                    return result;
+            }
+        }
+
+        private Object invokeStatement(Method method, Object[] args) throws Throwable {
+            if (closed) {
+                throw new SQLException("Statement has already been closed.");
+            }
+            try {
+                return method.invoke(entry.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * A result set of a leased statement. It reports the lease as its statement, so that closing the
+     * statement through it returns it to the cache instead of closing the cached one.
+     */
+    private static final class ResultOf implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final PreparedStatement statement;
+
+        private ResultOf(ResultSet resultSet, PreparedStatement statement) {
+            this.resultSet = resultSet;
+            this.statement = statement;
+        }
+
+        static ResultSet wrap(ResultSet resultSet, PreparedStatement statement) {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[] { ResultSet.class }, new ResultOf(resultSet, statement));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getStatement":
+                    return statement;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * The WriteAheadLog class is an append-only file of records that survive a crash once
+ * {@link #append} has returned. Each record is framed as its payload length, a sequence number,
+ * a CRC32 of both and the payload. A record torn by a crash fails its check and is cut off, with
+ * everything after it, when the log is opened again.
+ *
+ * Appends are group-committed: the first caller to find no flush in progress writes every record
+ * queued so far and forces the file once, while the others wait for it, so a burst of writes from
+ * many desks costs one fsync rather than one each. The sequence of the last record the reader has
+ * applied is kept in a checkpoint file next to the log; {@link #compact} empties the log once
+ * everything in it has been applied.
+ */
+public class WriteAheadLog implements Closeable {
+
+    /**
+     * A record read back from the log.
+     */
+    public record Entry(long sequence, byte[] payload) {
+    }
+
+    /**
+     * How many records were appended and how many times the file was forced for them.
+     */
+    public record Stats(long appends, long syncs) {
+    }
+
+    private static final int HEADER_BYTES = 4 + 8 + 4;
+    private static final int MAX_PAYLOAD_BYTES = 1 << 20;
+
+    private final Path file;
+    private final Path checkpointFile;
+    private final FileChannel channel;
+    // Not synchronized: a virtual thread must not be pinned while it waits for the disk
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private List<ByteBuffer> queued = new ArrayList<>();
+    private long lastSequence;
+    private long durableSequence;
+    private long appliedSequence;
+    private boolean flushing;
+    private IOException failure;
+    private long appends;
+    private long syncs;
+
+    /**
+     * Opens the log, creating it if needed, and cuts off a torn record at its end.
+     */
+    public WriteAheadLog(Path file) throws IOException {
+        this.file = file;
+        this.checkpointFile = file.resolveSibling(file.getFileName() + ".applied");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        appliedSequence = readCheckpoint();
+        List<Entry> entries = new ArrayList<>();
+        long validBytes = scan(entries);
+        if (validBytes < channel.size()) {
+            System.err.println("Cutting " + (channel.size() - validBytes) + " bytes of a torn record off " + file);
+            channel.truncate(validBytes);
+            channel.force(true);
+        }
+        channel.position(validBytes);
+        long last = entries.isEmpty() ? 0 : entries.get(entries.size() - 1).sequence();
+        // Sequences keep growing after a compaction, so the checkpoint stays meaningful
+        lastSequence = Math.max(last, appliedSequence);
+        durableSequence = lastSequence;
+    }
+
+    /**
+     * Appends the record and returns once it is on disk. Returns the record's sequence number.
+     */
+    public long append(byte[] payload) throws IOException {
+        if (payload.length > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("A record holds at most " + MAX_PAYLOAD_BYTES + " bytes");
+        }
+        lock.lock();
+        try {
+            checkUsable();
+            long sequence = ++lastSequence;
+            queued.add(frame(sequence, payload));
+            appends++;
+            while (durableSequence < sequence) {
+                checkUsable();
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                } else {
+                    flushQueued();
+                }
+            }
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the records after the checkpoint, in the order they were appended.
+     */
+    public List<Entry> unapplied() throws IOException {
+        lock.lock();
+        try {
+            checkUsable();
+            List<Entry> entries = new ArrayList<>();
+            for (Entry entry : readAll()) {
+                if (entry.sequence() > appliedSequence) {
+                    entries.add(entry);
+                }
+            }
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns true if records were appended after the checkpoint.
+     */
+    public boolean hasUnapplied() {
+        lock.lock();
+        try {
+            return lastSequence > appliedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the checkpoint to the record, so it and the ones before it are not returned again.
+     * The checkpoint file is replaced atomically.
+     */
+    public void markApplied(long sequence) throws IOException {
+        lock.lock();
+        try {
+            checkUsable();
+            if (sequence <= appliedSequence) {
+                return;
+            }
+            Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                out.write(ByteBuffer.allocate(8).putLong(0, sequence));
+                out.force(true);
+            }
+            Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            appliedSequence = sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Empties the log if every record in it has been applied. Returns true if it did.
+     */
+    public boolean compact() throws IOException {
+        lock.lock();
+        try {
+            checkUsable();
+            if (flushing || lastSequence > appliedSequence || channel.size() == 0) {
+                return false;
+            }
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of appends and fsyncs so far.
+     */
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats(appends, syncs);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the log file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Closes the file. Appends already returned are on disk.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (failure == null) {
+                failure = new IOException("The write-ahead log " + file + " is closed");
+            }
+            flushed.signalAll();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes and forces every queued record; called with the lock held, which is released for the disk work.
+     */
+    private void flushQueued() {
+        List<ByteBuffer> batch = queued;
+        queued = new ArrayList<>();
+        long batchEnd = lastSequence;
+        flushing = true;
+        lock.unlock();
+        IOException error = null;
+        try {
+            ByteBuffer[] buffers = batch.toArray(ByteBuffer[]::new);
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+        }
+        flushing = false;
+        if (error != null) {
+            // The batch may be half written; the next open cuts it off
+            failure = error;
+        } else {
+            durableSequence = batchEnd;
+            syncs++;
+        }
+        flushed.signalAll();
+    }
+
+    private void checkUsable() throws IOException {
+        if (failure != null) {
+            throw new IOException("The write-ahead log " + file + " cannot be written", failure);
+        }
+    }
+
+    private static ByteBuffer frame(long sequence, byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(payload.length).putLong(sequence).putInt(checksum(sequence, payload)).put(payload);
+        return buffer.flip();
+    }
+
+    private static int checksum(long sequence, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putLong(0, sequence));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        scan(entries);
+        return entries;
+    }
+
+    /**
+     * Reads the records from the start of the file up to the first one that is incomplete or fails its
+     * checksum. Returns the number of bytes the intact records take.
+     */
+    private long scan(List<Entry> entries) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, position);
+            int length = header.getInt(0);
+            long sequence = header.getLong(4);
+            int crc = header.getInt(12);
+            if (length < 0 || length > MAX_PAYLOAD_BYTES || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + HEADER_BYTES);
+            if (checksum(sequence, payload.array()) != crc) {
+                break;
+            }
+            entries.add(new Entry(sequence, payload.array()));
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + file);
+            }
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(checkpointFile);
+        return bytes.length == 8 ? ByteBuffer.wrap(bytes).getLong() : 0;
+    }
+}
@@ -1,9 +1,8 @@
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Optional;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -20,7 +19,7 @@ import javafx.scene.control.TextField;
 
 /**
  * The servicesController class handles fetching and saving services related to a boarding ID.
- * It connects to a MySQL database to perform these operations.
+ * It borrows connections from the shared connection pool to perform these operations.
  */
 public class servicesController {
     private long employeeId; // This value should be dynamically set based on the logged-in user.
@@ -56,20 +55,23 @@ public class servicesController {
     @FXML
     private Button saveButton;
 
+    private final ScreenTasks tasks = new ScreenTasks();
+
     /**
-     * Establishes a connection to the MySQL database.
+     * How saving the services turned out.
      */
-    private Connection connect() {
-        String url = "Your URL";
-        String user = "Your Username";
-        String password = "Your Password";
+    private enum SaveResult {
+        SAVED,
+        SAVED_OFFLINE,
+        NOT_FOUND
+    }
 
-        try {
-            return DriverManager.getConnection(url, user, password);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return null;
-        }
+    /**
+     * Initializes the controller class.
+     */
+    @FXML
+    void initialize() {
+        tasks.cancelWhenClosed(boardingIdField);
     }
 
     /**
@@ -77,30 +79,31 @@ public class servicesController {
      */
     @FXML
     private void handleFetchBoardingsButtonAction() {
-        String boardingId = boardingIdField.getText().trim();
-
-        if (!boardingId.isEmpty()) {
-            String servicesQuery = "SELECT * FROM services WHERE Boarding_ID = ?";
-
-            try (Connection conn = connect();
-                 PreparedStatement pstmt = conn.prepareStatement(servicesQuery)) {
-                pstmt.setString(1, boardingId);
-                ResultSet rs = pstmt.executeQuery();
-
-                if (rs.next()) {
-                    extraDrinkRadioButton.setSelected(rs.getBoolean("Extra_Drink"));
-                    extraMealRadioButton.setSelected(rs.getBoolean("Extra_Meal"));
-                    suitCenterRadioButton.setSelected(rs.getBoolean("Suit_Center"));
-                    extraLuggageRadioButton.setSelected(rs.getInt("Extra_Luggage") == 2);
-                    serviceDescriptionField.setText(rs.getString("Service_Description"));
-                } else {
+        Integer boardingId = parseBoardingId();
+
+        if (boardingId != null) {
+            Boarding boarding = new Boarding(boardingId, 0, null, null);
+            tasks.runLatest("services", conn -> {
+                // Services saved moments ago may still be waiting in the write-behind buffer
+                Optional<Boarding> pending = ServicesWriteBehind.shared().findPending(boardingId);
+                if (pending.isPresent()) {
+                    ServicesRepository.copy(pending.get(), boarding);
+                    return true;
+                }
+                return new ServicesRepository(conn).loadInto(boarding);
+            }, found -> {
+                if (!found) {
                     clearFields();
                     showAlert("No Services Found", "No services found for the entered Boarding ID.");
+                    return;
                 }
 
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+                extraDrinkRadioButton.setSelected(boarding.isExtraDrink());
+                extraMealRadioButton.setSelected(boarding.isExtraMeal());
+                suitCenterRadioButton.setSelected(boarding.isSuitCenter());
+                extraLuggageRadioButton.setSelected(boarding.getExtraLuggage() == 2);
+                serviceDescriptionField.setText(boarding.getServiceDescription());
+            });
         } else {
             showAlert("Input Error", "Please enter a valid Boarding ID.");
         }
@@ -111,44 +114,87 @@ public class servicesController {
      */
     @FXML
     private void handleSaveButtonAction() {
-        String boardingId = boardingIdField.getText().trim();
-        boolean extraDrink = extraDrinkRadioButton.isSelected();
-        boolean extraMeal = extraMealRadioButton.isSelected();
-        boolean suitCenter = suitCenterRadioButton.isSelected();
-        int extraLuggage = extraLuggageRadioButton.isSelected() ? 2 : 1;
-        String serviceDescription = serviceDescriptionField.getText();
-
-        if (!boardingId.isEmpty()) {
-            String query = "INSERT INTO services (Boarding_ID, Extra_Drink, Extra_Meal, Suit_Center, Extra_Luggage, Service_Description) VALUES (?, ?, ?, ?, ?, ?) " +
-                           "ON DUPLICATE KEY UPDATE Extra_Drink = VALUES(Extra_Drink), Extra_Meal = VALUES(Extra_Meal), Suit_Center = VALUES(Suit_Center), Extra_Luggage = VALUES(Extra_Luggage), Service_Description = VALUES(Service_Description)";
-
-            try (Connection conn = connect();
-                 PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, boardingId);
-                pstmt.setBoolean(2, extraDrink);
-                pstmt.setBoolean(3, extraMeal);
-                pstmt.setBoolean(4, suitCenter);
-                pstmt.setInt(5, extraLuggage);
-                pstmt.setString(6, serviceDescription);
-
-                pstmt.executeUpdate();
-
-                showAlert("Success", "Services updated successfully.");
-
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+        Integer boardingId = parseBoardingId();
+
+        if (boardingId != null) {
+            Boarding boarding = new Boarding(boardingId, 0, null, null);
+            boarding.setExtraDrink(extraDrinkRadioButton.isSelected());
+            boarding.setExtraMeal(extraMealRadioButton.isSelected());
+            boarding.setSuitCenter(suitCenterRadioButton.isSelected());
+            boarding.setExtraLuggage(extraLuggageRadioButton.isSelected() ? 2 : 1);
+            boarding.setServiceDescription(serviceDescriptionField.getText());
+
+            tasks.run(conn -> {
+                if (new BoardingRepository(conn).findById(boardingId).isEmpty()) {
+                    return SaveResult.NOT_FOUND;
+                }
+                // Written with the next batch; the buffer publishes the change once it is committed
+                ServicesWriteBehind.shared().submit(boarding).whenComplete((written, failure) -> {
+                    if (failure != null) {
+                        Platform.runLater(() -> showAlert("Error", "The services of boarding " + boardingId + " could not be saved: "
+                                + failure.getMessage()));
+                    }
+                });
+                return SaveResult.SAVED;
+            }, () -> OfflineMode.shared().saveServices(boarding) ? SaveResult.SAVED_OFFLINE : SaveResult.NOT_FOUND, result -> {
+                if (result == SaveResult.SAVED) {
+                    showAlert("Success", "The services were queued and will be saved within a moment.");
+                } else if (result == SaveResult.SAVED_OFFLINE) {
+                    showAlert("Saved Offline", "The database cannot be reached. The services were saved on this computer and will be sent when the database is back.");
+                } else if (OfflineMode.shared().isOffline()) {
+                    showAlert("Input Error", "The database cannot be reached, and the boarding is not among today's boardings.");
+                } else {
+                    showAlert("Input Error", "No boarding found for the entered Boarding ID.");
+                }
+            }, failure -> {
+                failure.printStackTrace();
+                showAlert("Error", "The services could not be saved.");
+            });
         } else {
             showAlert("Input Error", "Please enter a valid Boarding ID.");
         }
     }
 
+    /**
+     * Parses the boarding ID field. Returns null if it is empty or not a number.
+     */
+    private Integer parseBoardingId() {
+        try {
+            return Integer.valueOf(boardingIdField.getText().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * Exits the current page and navigates to the main page.
      */
     @FXML
     void exitpage(ActionEvent event) {
-        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+        Node source = (Node) event.getSource();
+        source.setDisable(true);
+        // Write the buffered saves before the screen goes away, off the FX thread; the flush borrows its own connection
+        Task<Void> flush = new Task<>() {
+            @Override
+            protected Void call() throws SQLException {
+                ServicesWriteBehind.shared().flush();
+                return null;
+            }
+        };
+        flush.setOnSucceeded(done -> leave(source));
+        flush.setOnFailed(failed -> {
+            flush.getException().printStackTrace();
+            showAlert("Error", "Some services could not be saved.");
+            leave(source);
+        });
+        DataAccess.execute(flush);
+    }
+
+    /**
+     * Closes the screen and shows the main page.
+     */
+    private void leave(Node source) {
+        Stage stage = (Stage) source.getScene().getWindow();
         stage.close();
         FXMLLoader loader = loadFXML("MainPage.fxml");
         if (loader != null) {